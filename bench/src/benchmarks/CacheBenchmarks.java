@@ -0,0 +1,135 @@
+package benchmarks;
+
+import maps.BoundedCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for caches replaying a trace of Zipf-distributed requests interrupted by scans, as
+ * in Experiment9CacheHitRate. Each request reads the key, and puts it on a miss. The LRU cache is
+ * a LinkedHashMap in access order, synchronized since BoundedCache is thread-safe too.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CacheBenchmarks {
+    private static final int DISTINCT_KEYS = 50000;
+    private static final int TRACE_LENGTH = 1 << 18; // power of two so we can mask instead of mod
+    private static final int SCAN_EVERY = 1 << 15;
+    private static final int SCAN_LENGTH = 1 << 13;
+
+    @Param({"BoundedCache", "LRU"})
+    public String implementation;
+
+    @Param({"1000", "10000"})
+    public int cacheSize;
+
+    private Cache cache;
+    private Integer[] trace;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(373);
+        double[] cumulative = new double[DISTINCT_KEYS];
+        double total = 0;
+        for (int rank = 0; rank < DISTINCT_KEYS; rank++) {
+            total += 1 / Math.pow(rank + 1, 0.9);
+            cumulative[rank] = total;
+        }
+        trace = new Integer[TRACE_LENGTH];
+        int nextScanKey = DISTINCT_KEYS;
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            if (i % SCAN_EVERY >= SCAN_EVERY - SCAN_LENGTH) {
+                trace[i] = nextScanKey++;
+            } else {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                trace[i] = rank >= 0 ? rank : Math.min(-rank - 1, DISTINCT_KEYS - 1);
+            }
+        }
+        cache = createCache(implementation, cacheSize);
+        // replay the trace once, so the cache starts out full and in a steady state
+        for (Integer key : trace) {
+            request(key);
+        }
+        next = 0;
+    }
+
+    static Cache createCache(String implementation, int cacheSize) {
+        switch (implementation) {
+            case "BoundedCache":
+                BoundedCache<Integer, Integer> bounded = new BoundedCache<>(cacheSize);
+                return new Cache() {
+                    @Override
+                    public Integer get(Integer key) {
+                        return bounded.getIfPresent(key);
+                    }
+
+                    @Override
+                    public void put(Integer key, Integer value) {
+                        bounded.put(key, value);
+                    }
+                };
+            case "LRU":
+                Map<Integer, Integer> lru = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                        return size() > cacheSize;
+                    }
+                });
+                return new Cache() {
+                    @Override
+                    public Integer get(Integer key) {
+                        return lru.get(key);
+                    }
+
+                    @Override
+                    public void put(Integer key, Integer value) {
+                        lru.put(key, value);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown cache: " + implementation);
+        }
+    }
+
+    private Integer request(Integer key) {
+        Integer value = cache.get(key);
+        if (value == null) {
+            cache.put(key, key);
+            return key;
+        }
+        return value;
+    }
+
+    @Benchmark
+    public Integer replayTrace() {
+        next = (next + 1) & (TRACE_LENGTH - 1);
+        return request(trace[next]);
+    }
+
+    interface Cache {
+        Integer get(Integer key);
+
+        void put(Integer key, Integer value);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import deques.ArrayDeque;
+import deques.Deque;
+import deques.LinkedDeque;
+import deques.UnrolledLinkedDeque;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deque benchmarks; the JMH counterpart to the deque experiments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DequeBenchmarks {
+    private static final int RECYCLING_POOL_SIZE = 1024;
+
+    @Param({"ArrayDeque", "LinkedDeque", "RecyclingLinkedDeque", "UnrolledLinkedDeque"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Deque<Long> deque;
+
+    @Setup
+    public void setUp() {
+        deque = createDeque(implementation);
+        for (long i = 0; i < size; i++) {
+            deque.addLast(i);
+        }
+    }
+
+    static Deque<Long> createDeque(String implementation) {
+        switch (implementation) {
+            case "ArrayDeque":
+                return new ArrayDeque<>();
+            case "LinkedDeque":
+                return new LinkedDeque<>();
+            case "RecyclingLinkedDeque":
+                return new LinkedDeque<>(RECYCLING_POOL_SIZE);
+            case "UnrolledLinkedDeque":
+                return new UnrolledLinkedDeque<>();
+            default:
+                throw new IllegalArgumentException("Unknown deque: " + implementation);
+        }
+    }
+
+    /**
+     * Steady-state queue churn: the deque stays at `size` items. Compare the gc profiler's
+     * alloc.rate.norm between LinkedDeque and RecyclingLinkedDeque to see the pool's effect.
+     */
+    @Benchmark
+    public Long addLastRemoveFirst() {
+        deque.addLast(-1L);
+        return deque.removeFirst();
+    }
+
+    @Benchmark
+    public Long getMiddle() {
+        return deque.get(size / 2);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Long item : deque) {
+            blackhole.consume(item);
+        }
+    }
+}
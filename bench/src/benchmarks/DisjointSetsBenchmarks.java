@@ -0,0 +1,73 @@
+package benchmarks;
+
+import disjointsets.DisjointSets;
+import disjointsets.QuickFindDisjointSets;
+import disjointsets.UnionBySizeCompressingDisjointSets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disjoint sets benchmarks: make `size` sets, then union random pairs until one set remains.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DisjointSetsBenchmarks {
+    @Param({"QuickFindDisjointSets", "UnionBySizeCompressingDisjointSets"})
+    public String implementation;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private int[] pairs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(373);
+        pairs = new int[4 * size];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(size);
+        }
+    }
+
+    static DisjointSets<Integer> createDisjointSets(String implementation) {
+        switch (implementation) {
+            case "QuickFindDisjointSets":
+                return new QuickFindDisjointSets<>();
+            case "UnionBySizeCompressingDisjointSets":
+                return new UnionBySizeCompressingDisjointSets<>();
+            default:
+                throw new IllegalArgumentException("Unknown disjoint sets: " + implementation);
+        }
+    }
+
+    @Benchmark
+    public int makeSetsAndUnion() {
+        DisjointSets<Integer> sets = createDisjointSets(implementation);
+        for (int i = 0; i < size; i++) {
+            sets.makeSet(i);
+        }
+        int merges = 0;
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            if (sets.union(pairs[i], pairs[i + 1])) {
+                merges += 1;
+            }
+        }
+        return merges + sets.findSet(0);
+    }
+}
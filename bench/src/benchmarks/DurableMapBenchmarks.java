@@ -0,0 +1,91 @@
+package benchmarks;
+
+import maps.ChainedHashMap;
+import maps.DurableMap;
+import maps.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sustained writes to a DurableMap under each sync policy, from one thread and from several. Under
+ * ALWAYS, concurrent writers share fsyncs, so the time per put should grow much more slowly than
+ * the number of writers. Runs long enough that the log is snapshotted and emptied repeatedly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DurableMapBenchmarks {
+    private static final int KEYS = 100000;
+    private static final int VALUE_BYTES = 100;
+    private static final long SNAPSHOT_LOG_BYTES = 16 << 20;
+
+    @Param({"ALWAYS", "INTERVAL", "NEVER"})
+    public DurableMap.SyncPolicy syncPolicy;
+
+    private Path directory;
+    private DurableMap<Long, byte[]> map;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable-map");
+        map = new DurableMap<>(directory, new ChainedHashMap<>(), Serializer.longs(), Serializer.bytes(),
+            syncPolicy, TimeUnit.MILLISECONDS.toNanos(10), SNAPSHOT_LOG_BYTES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        map.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Each writing thread's own keys and values.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+        private final Random random = new Random(Thread.currentThread().getId());
+        private final byte[] value = new byte[VALUE_BYTES];
+
+        long nextKey() {
+            return random.nextInt(KEYS);
+        }
+    }
+
+    @Benchmark
+    public byte[] put(Writer writer) {
+        return map.put(writer.nextKey(), writer.value);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] putConcurrently(Writer writer) {
+        return map.put(writer.nextKey(), writer.value);
+    }
+}
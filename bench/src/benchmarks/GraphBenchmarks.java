@@ -0,0 +1,77 @@
+package benchmarks;
+
+import graphs.AdjacencyListUndirectedGraph;
+import graphs.Edge;
+import graphs.minspantrees.KruskalMinimumSpanningTreeFinder;
+import graphs.minspantrees.MinimumSpanningTree;
+import graphs.shortestpaths.DijkstraShortestPathFinder;
+import graphs.shortestpaths.ShortestPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dijkstra and Kruskal benchmarks on a randomly weighted `side` x `side` grid graph.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GraphBenchmarks {
+    @Param({"30", "100"})
+    public int side;
+
+    private AdjacencyListUndirectedGraph<Integer, Edge<Integer>> graph;
+    private DijkstraShortestPathFinder<AdjacencyListUndirectedGraph<Integer, Edge<Integer>>, Integer, Edge<Integer>>
+        dijkstra;
+    private KruskalMinimumSpanningTreeFinder<AdjacencyListUndirectedGraph<Integer, Edge<Integer>>, Integer, Edge<Integer>>
+        kruskal;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(373);
+        List<Edge<Integer>> edges = new ArrayList<>();
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int vertex = row * side + col;
+                if (col + 1 < side) {
+                    edges.add(new Edge<>(vertex, vertex + 1, random.nextDouble()));
+                }
+                if (row + 1 < side) {
+                    edges.add(new Edge<>(vertex, vertex + side, random.nextDouble()));
+                }
+            }
+        }
+        graph = new AdjacencyListUndirectedGraph<>(edges);
+        dijkstra = new DijkstraShortestPathFinder<>();
+        kruskal = new KruskalMinimumSpanningTreeFinder<>();
+    }
+
+    /**
+     * Shortest path between opposite corners, which visits most of the grid.
+     */
+    @Benchmark
+    public ShortestPath<Integer, Edge<Integer>> dijkstraCornerToCorner() {
+        return dijkstra.findShortestPath(graph, 0, side * side - 1);
+    }
+
+    @Benchmark
+    public MinimumSpanningTree<Integer, Edge<Integer>> kruskal() {
+        return kruskal.findMinimumSpanningTree(graph);
+    }
+}
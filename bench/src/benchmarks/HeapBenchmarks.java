@@ -0,0 +1,75 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import priorityqueues.ArrayHeapMinPQ;
+import priorityqueues.ExtrinsicMinPQ;
+import priorityqueues.NaiveMinPQ;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Priority queue benchmarks; the JMH counterpart to the heap experiments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HeapBenchmarks {
+    @Param({"ArrayHeapMinPQ", "NaiveMinPQ"})
+    public String implementation;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ExtrinsicMinPQ<Long> pq;
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        pq = createMinPQ(implementation);
+        for (long i = 0; i < size; i++) {
+            pq.add(i, i);
+        }
+        random = new Random(373);
+    }
+
+    static ExtrinsicMinPQ<Long> createMinPQ(String implementation) {
+        switch (implementation) {
+            case "ArrayHeapMinPQ":
+                return new ArrayHeapMinPQ<>();
+            case "NaiveMinPQ":
+                return new NaiveMinPQ<>();
+            default:
+                throw new IllegalArgumentException("Unknown priority queue: " + implementation);
+        }
+    }
+
+    /**
+     * Removes the minimum and adds it back with a new priority, so the PQ stays at `size` items.
+     */
+    @Benchmark
+    public Long removeMinAndAdd() {
+        Long min = pq.removeMin();
+        pq.add(min, random.nextDouble() * size);
+        return min;
+    }
+
+    @Benchmark
+    public void changePriority() {
+        pq.changePriority((long) random.nextInt(size), random.nextDouble() * size);
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import maps.AVLTreeMap;
+import maps.BTreeMap;
+import maps.ChainedHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Map benchmarks; the JMH counterpart to the map experiments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapBenchmarks {
+    private static final int LOOKUP_KEYS = 1024; // power of two so we can mask instead of mod
+
+    @Param({"ChainedHashMap", "AVLTreeMap", "BTreeMap"})
+    public String implementation;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Map<Long, Long> map;
+    private Long[] lookupKeys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        map = createMap(implementation);
+        for (long i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+        Random random = new Random(373);
+        lookupKeys = new Long[LOOKUP_KEYS];
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+            lookupKeys[i] = (long) random.nextInt(size);
+        }
+        next = 0;
+    }
+
+    static Map<Long, Long> createMap(String implementation) {
+        switch (implementation) {
+            case "ChainedHashMap":
+                return new ChainedHashMap<>();
+            case "AVLTreeMap":
+                return new AVLTreeMap<>();
+            case "BTreeMap":
+                return new BTreeMap<>();
+            default:
+                throw new IllegalArgumentException("Unknown map: " + implementation);
+        }
+    }
+
+    @Benchmark
+    public Long getPresent() {
+        next = (next + 1) & (LOOKUP_KEYS - 1);
+        return map.get(lookupKeys[next]);
+    }
+
+    /**
+     * Builds a whole map from scratch, so resizing and rebalancing costs are included.
+     */
+    @Benchmark
+    public Map<Long, Long> putAll() {
+        Map<Long, Long> fresh = createMap(implementation);
+        for (long i = 0; i < size; i++) {
+            fresh.put(i, i);
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,141 @@
+package benchmarks;
+
+import maps.ChainedHashMap;
+import maps.MmapHashMap;
+import maps.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Getting a string-to-bytes map back after a restart: reopening an MmapHashMap, which just maps
+ * its files, versus rebuilding a ChainedHashMap by replaying every put (from arrays already in
+ * memory, so this is a lower bound on rebuilding from any real source). Then random lookups in
+ * each, where the mapped map pays for comparing and deserializing bytes on every get.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MmapHashMapBenchmarks {
+    private static final int LOOKUP_KEYS = 1024; // power of two so we can mask instead of mod
+    private static final int VALUE_BYTES = 100;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private String[] keys;
+    private byte[][] values;
+    private Path closedDirectory; // a closed map, for reopening
+    private Path openDirectory; // a copy of it, kept open for lookups
+    private MmapHashMap<String, byte[]> mapped;
+    private Map<String, byte[]> inHeap;
+    private String[] lookupKeys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(373);
+        keys = new String[size];
+        values = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+            values[i] = new byte[VALUE_BYTES];
+            random.nextBytes(values[i]);
+        }
+        closedDirectory = Files.createTempDirectory("mmap-hash-map");
+        try (MmapHashMap<String, byte[]> map = openMap(closedDirectory)) {
+            for (int i = 0; i < size; i++) {
+                map.put(keys[i], values[i]);
+            }
+        }
+        openDirectory = Files.createTempDirectory("mmap-hash-map");
+        try (Stream<Path> files = Files.list(closedDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, openDirectory.resolve(file.getFileName()));
+            }
+        }
+        mapped = openMap(openDirectory);
+        inHeap = rebuildInHeap();
+
+        lookupKeys = new String[LOOKUP_KEYS];
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+            lookupKeys[i] = keys[random.nextInt(size)];
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mapped.close();
+        delete(closedDirectory);
+        delete(openDirectory);
+    }
+
+    private static MmapHashMap<String, byte[]> openMap(Path directory) {
+        return new MmapHashMap<>(directory, Serializer.strings(), Serializer.bytes());
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int startupMapped() {
+        try (MmapHashMap<String, byte[]> map = openMap(closedDirectory)) {
+            return map.size();
+        }
+    }
+
+    @Benchmark
+    public int startupRebuildingInHeap() {
+        return rebuildInHeap().size();
+    }
+
+    private Map<String, byte[]> rebuildInHeap() {
+        Map<String, byte[]> map = new ChainedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(keys[i], values[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] getPresentMapped() {
+        next = (next + 1) & (LOOKUP_KEYS - 1);
+        return mapped.get(lookupKeys[next]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] getPresentInHeap() {
+        next = (next + 1) & (LOOKUP_KEYS - 1);
+        return inHeap.get(lookupKeys[next]);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import maps.AVLTreeMap;
+import maps.PersistentAVLTreeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishing a new version of a map after each update: PersistentAVLTreeMap's put plus snapshot,
+ * which copies only the path to the change, versus copying a whole AVLTreeMap and then putting,
+ * with a plain in-place AVLTreeMap put (which keeps no versions) as the baseline.
+ *
+ * Run with `-prof gc`: gc.alloc.rate.norm is then the memory each new version costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PersistentMapBenchmarks {
+    private static final int UPDATE_KEYS = 1024; // power of two so we can mask instead of mod
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private PersistentAVLTreeMap<Long, Long> persistentMap;
+    private AVLTreeMap<Long, Long> map;
+    private Long[] updateKeys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        persistentMap = new PersistentAVLTreeMap<>();
+        map = new AVLTreeMap<>();
+        for (long i = 0; i < size; i++) {
+            persistentMap.put(i, i);
+            map.put(i, i);
+        }
+        Random random = new Random(373);
+        updateKeys = new Long[UPDATE_KEYS];
+        for (int i = 0; i < UPDATE_KEYS; i++) {
+            updateKeys[i] = (long) random.nextInt(size);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public PersistentAVLTreeMap<Long, Long> pathCopying() {
+        next = (next + 1) & (UPDATE_KEYS - 1);
+        persistentMap.put(updateKeys[next], (long) next);
+        return persistentMap.snapshot();
+    }
+
+    @Benchmark
+    public AVLTreeMap<Long, Long> deepCopying() {
+        next = (next + 1) & (UPDATE_KEYS - 1);
+        AVLTreeMap<Long, Long> copy = AVLTreeMap.fromSorted(map.iterator());
+        copy.put(updateKeys[next], (long) next);
+        return copy;
+    }
+
+    @Benchmark
+    public Long inPlace() {
+        next = (next + 1) & (UPDATE_KEYS - 1);
+        return map.put(updateKeys[next], (long) next);
+    }
+}
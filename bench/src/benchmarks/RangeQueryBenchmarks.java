@@ -0,0 +1,79 @@
+package benchmarks;
+
+import maps.AVLTreeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting the keys in a random range of an AVLTreeMap: via the subMap view, whose size comes
+ * from subtree sizes in O(log n), versus walking the whole map's iterator and filtering, which is
+ * all a plain Map allows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RangeQueryBenchmarks {
+    private static final int QUERIES = 1024; // power of two so we can mask instead of mod
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"100", "10000"})
+    public int rangeWidth;
+
+    private AVLTreeMap<Long, Long> map;
+    private long[] starts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        map = new AVLTreeMap<>();
+        for (long i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+        Random random = new Random(373);
+        starts = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = random.nextInt(size);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public int subMapSize() {
+        next = (next + 1) & (QUERIES - 1);
+        long from = starts[next];
+        return map.subMap(from, true, from + rangeWidth, false).size();
+    }
+
+    @Benchmark
+    public int filterIterator() {
+        next = (next + 1) & (QUERIES - 1);
+        long from = starts[next];
+        long to = from + rangeWidth;
+        int count = 0;
+        for (Map.Entry<Long, Long> entry : map) {
+            long key = entry.getKey();
+            if (key >= from && key < to) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
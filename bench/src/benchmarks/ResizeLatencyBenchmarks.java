@@ -0,0 +1,52 @@
+package benchmarks;
+
+import maps.ChainedHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-put latency distribution for a growing ChainedHashMap, with and without incremental
+ * resizing. Averages hide resize stalls, so this samples individual puts and JMH reports the
+ * histogram percentiles; compare p0.999 and p1.00 (the worst put) between the two modes.
+ *
+ * Every iteration starts from an empty map and keeps adding new keys, so each one crosses many
+ * resize thresholds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ResizeLatencyBenchmarks {
+    @Param({"0", "4"})
+    public int chainsMigratedPerOperation;
+
+    private Map<Long, Long> map;
+    private long next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        map = new ChainedHashMap<>(0.75, 16, 2, chainsMigratedPerOperation);
+        next = 0;
+    }
+
+    @Benchmark
+    public Long put() {
+        next += 1;
+        return map.put(next, next);
+    }
+}
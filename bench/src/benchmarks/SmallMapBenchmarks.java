@@ -0,0 +1,136 @@
+package benchmarks;
+
+import maps.ArrayMap;
+import maps.CompactArrayMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for maps small enough to be scanned, such as hash table chains. Comparable keys put
+ * CompactArrayMap in its sorted mode, and non-Comparable keys in its linear mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SmallMapBenchmarks {
+    private static final int LOOKUP_KEYS = 1024; // power of two so we can mask instead of mod
+
+    @Param({"ArrayMap", "CompactArrayMap"})
+    public String implementation;
+
+    @Param({"4", "16", "64", "256"})
+    public int size;
+
+    @Param({"comparable", "nonComparable"})
+    public String keyType;
+
+    private Object[] keys;
+    private Map<Object, Long> map;
+    private Object[] lookupKeys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // shuffled, so that the sorted mode's insertions don't all go at the end
+        Random random = new Random(373);
+        keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = createKey(i);
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Object swap = keys[i];
+            keys[i] = keys[j];
+            keys[j] = swap;
+        }
+        map = createMap(implementation);
+        for (int i = 0; i < size; i++) {
+            map.put(keys[i], (long) i);
+        }
+        // fresh but equal keys, so lookups can't succeed on reference equality alone
+        lookupKeys = new Object[LOOKUP_KEYS];
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+            lookupKeys[i] = createKey(random.nextInt(size));
+        }
+        next = 0;
+    }
+
+    private Object createKey(int i) {
+        return keyType.equals("comparable") ? (Object) ("key" + i) : new OpaqueKey("key" + i);
+    }
+
+    static Map<Object, Long> createMap(String implementation) {
+        switch (implementation) {
+            case "ArrayMap":
+                return new ArrayMap<>();
+            case "CompactArrayMap":
+                return new CompactArrayMap<>();
+            default:
+                throw new IllegalArgumentException("Unknown map: " + implementation);
+        }
+    }
+
+    @Benchmark
+    public Long getPresent() {
+        next = (next + 1) & (LOOKUP_KEYS - 1);
+        return map.get(lookupKeys[next]);
+    }
+
+    /**
+     * Builds a whole map from scratch, starting from the default capacity.
+     */
+    @Benchmark
+    public Map<Object, Long> putAll() {
+        Map<Object, Long> fresh = createMap(implementation);
+        for (int i = 0; i < size; i++) {
+            fresh.put(keys[i], (long) i);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for (Map.Entry<Object, Long> entry : map.entrySet()) {
+            sum += entry.getValue();
+        }
+        return sum;
+    }
+
+    /**
+     * A key that isn't Comparable, with the same equals and hashCode costs as the String it wraps.
+     */
+    private static final class OpaqueKey {
+        private final String name;
+
+        OpaqueKey(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof OpaqueKey && ((OpaqueKey) o).name.equals(this.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+}
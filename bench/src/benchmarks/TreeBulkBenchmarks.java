@@ -0,0 +1,170 @@
+package benchmarks;
+
+import maps.AVLTreeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-tree AVLTreeMap operations: building a tree from sorted entries with fromSorted versus
+ * repeated put, and the join-based set operations (on the common pool and on a one-thread pool)
+ * versus a single-threaded linear merge of the two maps' iterators and versus repeated put.
+ *
+ * The two input maps hold the multiples of 2 and of `stride` below 3 * size, so they partly
+ * overlap. With a large stride the second map is small, which shows that the set operations
+ * still take time linear in the larger map: they copy both maps before splitting and joining.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx3g"})
+public class TreeBulkBenchmarks {
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"union", "intersection", "difference"})
+    public String operation;
+
+    // The second map holds the multiples of this, so it has 3 * size / stride keys
+    @Param({"3", "3000"})
+    public int stride;
+
+    private List<Map.Entry<Long, Long>> sortedEntries;
+    private AVLTreeMap<Long, Long> map1;
+    private AVLTreeMap<Long, Long> map2;
+    private ForkJoinPool singleThreadedPool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sortedEntries = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            sortedEntries.add(new AbstractMap.SimpleImmutableEntry<>(i, i));
+        }
+        map1 = new AVLTreeMap<>();
+        map2 = new AVLTreeMap<>();
+        for (long i = 0; i < 3L * size; i++) {
+            if (i % 2 == 0) {
+                map1.put(i, i);
+            }
+            if (i % stride == 0) {
+                map2.put(i, -i);
+            }
+        }
+        singleThreadedPool = new ForkJoinPool(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        singleThreadedPool.shutdown();
+    }
+
+    @Benchmark
+    public AVLTreeMap<Long, Long> buildFromSorted() {
+        return AVLTreeMap.fromSorted(sortedEntries.iterator());
+    }
+
+    @Benchmark
+    public AVLTreeMap<Long, Long> buildByRepeatedPut() {
+        AVLTreeMap<Long, Long> map = new AVLTreeMap<>();
+        for (Map.Entry<Long, Long> entry : sortedEntries) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+
+    @Benchmark
+    public AVLTreeMap<Long, Long> joinOnCommonPool() {
+        return apply(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public AVLTreeMap<Long, Long> joinOnOneThread() {
+        return apply(singleThreadedPool);
+    }
+
+    private AVLTreeMap<Long, Long> apply(ForkJoinPool pool) {
+        switch (operation) {
+            case "union":
+                return map1.union(map2, pool);
+            case "intersection":
+                return map1.intersection(map2, pool);
+            case "difference":
+                return map1.difference(map2, pool);
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    /**
+     * Walks both maps' iterators in step, like the merge in merge sort, and builds the result with
+     * fromSorted.
+     */
+    @Benchmark
+    public AVLTreeMap<Long, Long> linearMerge() {
+        List<Map.Entry<Long, Long>> result = new ArrayList<>();
+        Iterator<Map.Entry<Long, Long>> iterator1 = map1.iterator();
+        Iterator<Map.Entry<Long, Long>> iterator2 = map2.iterator();
+        Map.Entry<Long, Long> entry1 = iterator1.hasNext() ? iterator1.next() : null;
+        Map.Entry<Long, Long> entry2 = iterator2.hasNext() ? iterator2.next() : null;
+        while (entry1 != null || entry2 != null) {
+            int comparison = entry1 == null ? 1 : entry2 == null ? -1 : entry1.getKey().compareTo(entry2.getKey());
+            if (comparison < 0) {
+                if (!operation.equals("intersection")) {
+                    result.add(entry1);
+                }
+                entry1 = iterator1.hasNext() ? iterator1.next() : null;
+            } else if (comparison > 0) {
+                if (operation.equals("union")) {
+                    result.add(entry2);
+                }
+                entry2 = iterator2.hasNext() ? iterator2.next() : null;
+            } else {
+                if (operation.equals("union")) {
+                    result.add(entry2);
+                } else if (operation.equals("intersection")) {
+                    result.add(entry1);
+                }
+                entry1 = iterator1.hasNext() ? iterator1.next() : null;
+                entry2 = iterator2.hasNext() ? iterator2.next() : null;
+            }
+        }
+        return AVLTreeMap.fromSorted(result.iterator());
+    }
+
+    @Benchmark
+    public AVLTreeMap<Long, Long> repeatedPut() {
+        AVLTreeMap<Long, Long> result = new AVLTreeMap<>();
+        for (Map.Entry<Long, Long> entry : map1) {
+            boolean inBoth = map2.containsKey(entry.getKey());
+            if (operation.equals("union") || (operation.equals("intersection") == inBoth)) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (operation.equals("union")) {
+            for (Map.Entry<Long, Long> entry : map2) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import maps.AVLTreeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of taking the first k entries from a large AVLTreeMap's iterator. A lazy iterator should
+ * cost O(log n + k) here regardless of the tree's size; one that copies the whole tree up front
+ * costs O(n) even for k = 1.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx3g"})
+public class TreeIterationBenchmarks {
+    @Param({"10000000"})
+    public int size;
+
+    @Param({"1", "100", "10000"})
+    public int k;
+
+    private AVLTreeMap<Long, Long> map;
+
+    @Setup
+    public void setUp() {
+        map = new AVLTreeMap<>();
+        for (long i = 0; i < size; i++) {
+            Long key = i;
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public long firstK() {
+        long sum = 0;
+        Iterator<Map.Entry<Long, Long>> iterator = map.iterator();
+        for (int i = 0; i < k && iterator.hasNext(); i++) {
+            sum += iterator.next().getKey();
+        }
+        return sum;
+    }
+}
@@ -1,13 +1,19 @@
 package deques;
 
 import java.util.AbstractQueue;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 
 // Provides default implementations of all Queue methods using Deque methods.
 // Extending this gives us access to some useful default AssertJ assertions for testing.
 
 public abstract class AbstractDeque<T> extends AbstractQueue<T> implements Deque<T> {
+    // Number of structural modifications (adds and removes) made to this deque. Iterators and
+    // spliterators remember the value they started with so they can fail fast if it changes.
+    protected int modCount = 0;
+
     @Override
     public boolean offer(T t) {
         addLast(t);
@@ -26,10 +32,12 @@ public abstract class AbstractDeque<T> extends AbstractQueue<T> implements Deque
 
 
     // A basic iterator that uses the get method.
-    // May not be very efficient, depending on the implementation.
+    // May not be very efficient, depending on the implementation; subclasses that can walk their
+    // own storage directly should override this (and spliterator) with native versions.
     @Override
     public Iterator<T> iterator() {
         return new Iterator<>() {
+            private final int expectedModCount = modCount;
             private int i = 0;
 
             @Override
@@ -39,6 +47,12 @@ public abstract class AbstractDeque<T> extends AbstractQueue<T> implements Deque
 
             @Override
             public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
                 return AbstractDeque.this.get(i++);
             }
         };
@@ -0,0 +1,64 @@
+package deques;
+
+// The eviction policy shared by the sliding-window aggregates. A window holds at most `maxCount`
+// of the most recent samples, and only samples whose timestamps are less than `maxAge` before the
+// latest time seen. Use Integer.MAX_VALUE or Long.MAX_VALUE to disable either limit.
+//
+// Timestamps are in whatever unit the caller likes (e.g. System.nanoTime() or milliseconds), as
+// long as they never go backwards.
+// @see SlidingWindowAggregator
+// @see SlidingWindowReducer
+public abstract class AbstractSlidingWindow {
+    private final int maxCount;
+    private final long maxAge;
+    private final LongArrayDeque timestamps;
+    private long now;
+
+    protected AbstractSlidingWindow(int maxCount, long maxAge) {
+        if (maxCount <= 0 || maxAge <= 0) {
+            throw new IllegalArgumentException("Window limits must be positive");
+        }
+        this.maxCount = maxCount;
+        this.maxAge = maxAge;
+        this.timestamps = new LongArrayDeque();
+        this.now = Long.MIN_VALUE;
+    }
+
+    // Evicts every sample that has aged out of the window as of the given time.
+    public void advanceTo(long time) {
+        if (time < now) {
+            throw new IllegalArgumentException("Time went backwards: " + time + " < " + now);
+        }
+        now = time;
+        // written as a difference so it can't overflow when maxAge is Long.MAX_VALUE
+        while (!timestamps.isEmpty() && now - timestamps.get(0) >= maxAge) {
+            evict();
+        }
+    }
+
+    // Returns the number of samples in the window.
+    public int size() {
+        return timestamps.size();
+    }
+
+    public boolean isEmpty() {
+        return timestamps.isEmpty();
+    }
+
+    // Makes room for a sample at the given time; subclasses must call this before storing it.
+    protected void beforeAdd(long timestamp) {
+        advanceTo(timestamp);
+        if (timestamps.size() == maxCount) {
+            evict();
+        }
+        timestamps.addLast(timestamp);
+    }
+
+    private void evict() {
+        timestamps.removeFirst();
+        evictOldest();
+    }
+
+    // Removes the oldest sample from the subclass's own storage.
+    protected abstract void evictOldest();
+}
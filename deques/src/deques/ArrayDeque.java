@@ -1,5 +1,11 @@
 package deques;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
 // A buggy array implementation of the Deque interface.
 public class ArrayDeque<T> extends AbstractDeque<T> {
     private T[] data;
@@ -37,6 +43,7 @@ public class ArrayDeque<T> extends AbstractDeque<T> {
         data[front] = item;
         front = decrement(front, data.length);
         size += 1;
+        modCount += 1;
     }
 
     public void addLast(T item) {
@@ -46,6 +53,7 @@ public class ArrayDeque<T> extends AbstractDeque<T> {
         data[back] = item;
         back = increment(back, data.length);
         size += 1;
+        modCount += 1;
     }
 
     public T removeFirst() {
@@ -56,6 +64,7 @@ public class ArrayDeque<T> extends AbstractDeque<T> {
         T result = data[front];
         data[front] = null;
         size -= 1;
+        modCount += 1;
         if (needsDownsize()) {
             resize(data.length / 2);
         }
@@ -70,6 +79,7 @@ public class ArrayDeque<T> extends AbstractDeque<T> {
         T result = data[back];
         data[back] = null;
         size -= 1;
+        modCount += 1;
         if (needsDownsize()) {
             resize(data.length / 2);
         }
@@ -105,6 +115,123 @@ public class ArrayDeque<T> extends AbstractDeque<T> {
         return size;
     }
 
+    // Walks the backing array directly instead of calling get for every index.
+    @Override
+    public Iterator<T> iterator() {
+        return new ArrayDequeIterator();
+    }
+
+    // Splits by logical index range, so parallel streams can hand each half of the deque to a
+    // different thread without copying anything.
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ArrayDequeSpliterator(0, -1, modCount);
+    }
+
+    private class ArrayDequeIterator implements Iterator<T> {
+        private final int expectedModCount = modCount;
+        private int i = increment(front, data.length);
+        private int remaining = size;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = data[i];
+            i = increment(i, data.length);
+            remaining -= 1;
+            return result;
+        }
+    }
+
+    // Covers the logical indices [index, fence) of the deque. A fence of -1 means the spliterator
+    // hasn't been used yet, and binds to the deque's size on first use.
+    private class ArrayDequeSpliterator implements Spliterator<T> {
+        private int index;
+        private int fence;
+        private int expectedModCount;
+
+        ArrayDequeSpliterator(int index, int fence, int expectedModCount) {
+            this.index = index;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                fence = size;
+                expectedModCount = modCount;
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int hi = getFence();
+            int mid = (index + hi) >>> 1;
+            if (index >= mid) {
+                return null;
+            }
+            Spliterator<T> prefix = new ArrayDequeSpliterator(index, mid, expectedModCount);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            int hi = getFence();
+            if (index >= hi) {
+                return false;
+            }
+            T item = data[(front + 1 + index) % data.length];
+            index += 1;
+            action.accept(item);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            int hi = getFence();
+            T[] items = data;
+            int i = (front + 1 + index) % items.length;
+            for (; index < hi; index += 1) {
+                action.accept(items[i]);
+                i = increment(i, items.length);
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
     private void resize(int capacity) {
         T[] newData = (T[]) new Object[capacity];
         int i = increment(front, data.length); // Change it to data.length for circular indexing, no more O.O.B errors
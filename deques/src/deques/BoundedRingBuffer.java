@@ -0,0 +1,249 @@
+package deques;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// A fixed-capacity, lock-free, multi-producer/multi-consumer FIFO ring buffer.
+//
+// Based on Dmitry Vyukov's bounded MPMC queue: every slot carries a sequence number that says
+// whose turn it is. A producer may write slot `pos & mask` once its sequence equals `pos`, and a
+// consumer may read it once the sequence equals `pos + 1`. Producers and consumers each claim
+// positions with a CAS on their own counter, so they never contend with each other.
+//
+// Unlike ArrayDeque this never resizes, and since the capacity is a power of two, wrapping an
+// index is a single mask instead of the increment/decrement branches.
+//
+// Null items are not allowed, since null is what poll returns when the buffer is empty.
+public class BoundedRingBuffer<T> {
+    private static final int SPINS_BEFORE_YIELDING = 64;
+    private static final int SPINS_BEFORE_PARKING = 128;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong enqueuePos; // next position a producer will claim
+    private final AtomicLong dequeuePos; // next position a consumer will claim
+
+    // @param capacity rounded up to a power of two. Must be > 0.
+    public BoundedRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int actualCapacity = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.items = new Object[actualCapacity];
+        this.sequences = new AtomicLongArray(actualCapacity);
+        for (int i = 0; i < actualCapacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = actualCapacity - 1;
+        this.enqueuePos = new AtomicLong(0);
+        this.dequeuePos = new AtomicLong(0);
+    }
+
+    // Adds the item to the back if there is room. Returns false if the buffer is full.
+    public boolean offer(T item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        long pos = enqueuePos.get();
+        while (true) {
+            int slot = (int) pos & mask;
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (enqueuePos.compareAndSet(pos, pos + 1)) {
+                    items[slot] = item;
+                    sequences.set(slot, pos + 1); // publishes the item to consumers
+                    return true;
+                }
+                pos = enqueuePos.get();
+            } else if (diff < 0) { // the slot still holds an item from the previous lap
+                return false;
+            } else { // another producer got here first
+                pos = enqueuePos.get();
+            }
+        }
+    }
+
+    // Removes and returns the item at the front, or returns null if the buffer is empty.
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long pos = dequeuePos.get();
+        while (true) {
+            int slot = (int) pos & mask;
+            long diff = sequences.get(slot) - (pos + 1);
+            if (diff == 0) {
+                if (dequeuePos.compareAndSet(pos, pos + 1)) {
+                    T item = (T) items[slot];
+                    items[slot] = null;
+                    sequences.set(slot, pos + items.length); // hands the slot to the next lap
+                    return item;
+                }
+                pos = dequeuePos.get();
+            } else if (diff < 0) { // the producer for this slot hasn't published yet
+                return null;
+            } else { // another consumer got here first
+                pos = dequeuePos.get();
+            }
+        }
+    }
+
+    // Adds the item, waiting for room if the buffer is full.
+    public void put(T item) throws InterruptedException {
+        int idle = 0;
+        while (!offer(item)) {
+            idle = backOff(idle);
+        }
+    }
+
+    // Adds the item, waiting up to the given time for room. Returns false if it timed out.
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idle = 0;
+        while (!offer(item)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            idle = backOff(idle);
+        }
+        return true;
+    }
+
+    // Removes and returns the item at the front, waiting for one if the buffer is empty.
+    public T take() throws InterruptedException {
+        int idle = 0;
+        T item;
+        while ((item = poll()) == null) {
+            idle = backOff(idle);
+        }
+        return item;
+    }
+
+    // Removes and returns the item at the front, waiting up to the given time for one.
+    // Returns null if it timed out.
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idle = 0;
+        T item;
+        while ((item = poll()) == null) {
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            idle = backOff(idle);
+        }
+        return item;
+    }
+
+    // Adds as many items from the front of the array as there is room for, claiming all of their
+    // slots with a single CAS. Returns the number of items added.
+    public int offerBatch(T[] batch) {
+        for (T item : batch) {
+            if (item == null) {
+                throw new NullPointerException();
+            }
+        }
+        if (batch.length == 0) {
+            return 0;
+        }
+        while (true) {
+            long pos = enqueuePos.get();
+            // count how many consecutive slots are free for this lap. Free slots can't be taken
+            // by anyone else until enqueuePos moves past them, so the CAS below guards them all.
+            int count = 0;
+            while (count < batch.length && sequences.get((int) (pos + count) & mask) == pos + count) {
+                count += 1;
+            }
+            if (count == 0) {
+                if (sequences.get((int) pos & mask) - pos < 0) {
+                    return 0; // full
+                }
+                continue; // another producer claimed pos
+            }
+            if (enqueuePos.compareAndSet(pos, pos + count)) {
+                for (int i = 0; i < count; i++) {
+                    int slot = (int) (pos + i) & mask;
+                    items[slot] = batch[i];
+                    sequences.set(slot, pos + i + 1);
+                }
+                return count;
+            }
+        }
+    }
+
+    // Removes up to maxBatch items from the front and passes them to the consumer in order,
+    // claiming all of their slots with a single CAS. Returns the number of items drained. If the
+    // consumer throws, the exception propagates, and the rest of the batch is dropped.
+    @SuppressWarnings("unchecked")
+    public int drainTo(Consumer<? super T> consumer, int maxBatch) {
+        if (maxBatch <= 0) {
+            return 0;
+        }
+        while (true) {
+            long pos = dequeuePos.get();
+            int count = 0;
+            while (count < maxBatch && sequences.get((int) (pos + count) & mask) == pos + count + 1) {
+                count += 1;
+            }
+            if (count == 0) {
+                if (sequences.get((int) pos & mask) - (pos + 1) < 0) {
+                    return 0; // empty
+                }
+                continue; // another consumer claimed pos
+            }
+            if (dequeuePos.compareAndSet(pos, pos + count)) {
+                // copy the batch out and release every slot before calling the consumer, so that
+                // a consumer that throws can't leave slots claimed forever
+                Object[] drained = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    int slot = (int) (pos + i) & mask;
+                    drained[i] = items[slot];
+                    items[slot] = null;
+                    sequences.set(slot, pos + i + items.length);
+                }
+                for (Object item : drained) {
+                    consumer.accept((T) item);
+                }
+                return count;
+            }
+        }
+    }
+
+    // Returns the number of items; only a snapshot when other threads are active.
+    public int size() {
+        while (true) {
+            long head = dequeuePos.get();
+            long tail = enqueuePos.get();
+            if (dequeuePos.get() == head) {
+                return (int) Math.max(0, Math.min(tail - head, items.length));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    // Spins briefly, then yields, then parks for exponentially longer periods. Returns the new
+    // idle count.
+    private static int backOff(int idle) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (idle < SPINS_BEFORE_YIELDING) {
+            Thread.onSpinWait();
+        } else if (idle < SPINS_BEFORE_PARKING) {
+            Thread.yield();
+        } else {
+            int shift = Math.min(idle - SPINS_BEFORE_PARKING, 20);
+            LockSupport.parkNanos(Math.min(1000L << shift, MAX_PARK_NANOS));
+        }
+        return idle + 1;
+    }
+}
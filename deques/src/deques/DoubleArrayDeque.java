@@ -0,0 +1,169 @@
+package deques;
+
+import java.util.NoSuchElementException;
+
+// An array deque that stores primitive doubles directly instead of boxing them into Double objects.
+// Uses the same circular-buffer layout as ArrayDeque: `front` is the slot just before the first
+// item and `back` is the slot just after the last item.
+// @see ArrayDeque
+public class DoubleArrayDeque {
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    private double[] data;
+    private int front;
+    private int back;
+    private int size;
+
+    public DoubleArrayDeque() {
+        data = new double[DEFAULT_INITIAL_CAPACITY];
+        front = 0;
+        back = 1;
+        size = 0;
+    }
+
+    private static int increment(int i, int length) {
+        if (i == length - 1) {
+            return 0;
+        } else {
+            return i + 1;
+        }
+    }
+
+    private static int decrement(int i, int length) {
+        if (i == 0) {
+            return length - 1;
+        } else {
+            return i - 1;
+        }
+    }
+
+    public void addFirst(double item) {
+        if (size == data.length) {
+            resize(data.length * 2);
+        }
+        data[front] = item;
+        front = decrement(front, data.length);
+        size += 1;
+    }
+
+    public void addLast(double item) {
+        if (size == data.length) {
+            resize(data.length * 2);
+        }
+        data[back] = item;
+        back = increment(back, data.length);
+        size += 1;
+    }
+
+    // Removes and returns the item at the front of the deque.
+    // Throws NoSuchElementException if the deque is empty, since there is no null to return.
+    public double removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        front = increment(front, data.length);
+        double result = data[front];
+        size -= 1;
+        if (needsDownsize()) {
+            resize(data.length / 2);
+        }
+        return result;
+    }
+
+    // Removes and returns the item at the back of the deque.
+    // Throws NoSuchElementException if the deque is empty, since there is no null to return.
+    public double removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        back = decrement(back, data.length);
+        double result = data[back];
+        size -= 1;
+        if (needsDownsize()) {
+            resize(data.length / 2);
+        }
+        return result;
+    }
+
+    // Gets the item at the given index, where 0 is the front.
+    // Throws IndexOutOfBoundsException if no such item exists.
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return data[(front + 1 + index) % data.length];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns a view of this deque that implements the boxing Deque interface, for callers that
+    // still expect a Deque<Double>. Changes through either object are visible in the other.
+    public Deque<Double> asDeque() {
+        return new AbstractDeque<>() {
+            @Override
+            public void addFirst(Double x) {
+                DoubleArrayDeque.this.addFirst(x);
+            }
+
+            @Override
+            public void addLast(Double x) {
+                DoubleArrayDeque.this.addLast(x);
+            }
+
+            @Override
+            public Double removeFirst() {
+                return DoubleArrayDeque.this.isEmpty() ? null : DoubleArrayDeque.this.removeFirst();
+            }
+
+            @Override
+            public Double removeLast() {
+                return DoubleArrayDeque.this.isEmpty() ? null : DoubleArrayDeque.this.removeLast();
+            }
+
+            @Override
+            public Double get(int index) {
+                if (index < 0 || index >= DoubleArrayDeque.this.size()) {
+                    return null;
+                }
+                return DoubleArrayDeque.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return DoubleArrayDeque.this.size();
+            }
+        };
+    }
+
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        int i = increment(front, data.length);
+        for (int counter = 0; counter < size; counter += 1) {
+            output.append(data[i]).append(" ");
+            i = increment(i, data.length);
+        }
+        return output.toString();
+    }
+
+    private void resize(int capacity) {
+        double[] newData = new double[capacity];
+        int i = increment(front, data.length);
+        for (int newIndex = 0; newIndex < size; newIndex += 1) {
+            newData[newIndex] = data[i];
+            i = increment(i, data.length);
+        }
+        front = newData.length - 1;
+        back = size;
+        data = newData;
+    }
+
+    private boolean needsDownsize() {
+        return ((double) size) / data.length < 0.25 && data.length >= 16;
+    }
+}
@@ -0,0 +1,79 @@
+package deques;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Converts items to and from bytes so they can be stored outside the heap.
+// @see SpillingDeque
+public interface ElementCodec<T> {
+    // Returns the bytes that represent the given item.
+    byte[] encode(T item);
+
+    // Returns the item represented by the given bytes, as produced by encode.
+    T decode(byte[] bytes);
+
+    // A codec for Long items, encoded as 8 big-endian bytes.
+    static ElementCodec<Long> longs() {
+        return new ElementCodec<>() {
+            @Override
+            public byte[] encode(Long item) {
+                return ByteBuffer.allocate(Long.BYTES).putLong(item).array();
+            }
+
+            @Override
+            public Long decode(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+        };
+    }
+
+    // A codec for String items, encoded as UTF-8.
+    static ElementCodec<String> strings() {
+        return new ElementCodec<>() {
+            @Override
+            public byte[] encode(String item) {
+                return item.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    // A codec for any item that implements Serializable, using Java serialization.
+    // Convenient, but much slower and bulkier than a type-specific codec.
+    static <T> ElementCodec<T> serializing() {
+        return new ElementCodec<>() {
+            @Override
+            public byte[] encode(T item) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T decode(byte[] bytes) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) in.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+}
@@ -1,5 +1,12 @@
 package deques;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
 // @see Deque
 
 public class LinkedDeque<T> extends AbstractDeque<T> {
@@ -7,8 +14,32 @@ public class LinkedDeque<T> extends AbstractDeque<T> {
     Node<T> front; // Sentinel Node at the front of the deque
     Node<T> back; // Sentinel Node at the back of the deque
 
+    // Optional recycling pool of removed nodes, linked through their next references
+    private final int maxPooledNodes; // 0 disables recycling
+    private Node<T> pool; // top of the free list
+    private int pooledNodes; // number of nodes currently in the pool
+    private long poolHits; // adds that reused a pooled node
+    private long poolMisses; // adds that had to allocate a node while recycling was enabled
+
     // Constructor that initializes the size to 0, sentinel nodes at the front and back
     public LinkedDeque() {
+        this(0);
+    }
+
+    // Constructs a LinkedDeque that recycles up to `maxPooledNodes` removed nodes instead of
+    // allocating a new node for every add. Useful when the deque churns at a roughly steady size.
+    // Removed nodes have their value cleared before pooling so the pool never retains items.
+    //
+    // @param maxPooledNodes the most removed nodes to keep for reuse. 0 disables recycling.
+    public LinkedDeque(int maxPooledNodes) {
+        if (maxPooledNodes < 0) {
+            throw new IllegalArgumentException("Pool size must not be negative");
+        }
+        this.maxPooledNodes = maxPooledNodes;
+        this.pool = null;
+        this.pooledNodes = 0;
+        this.poolHits = 0;
+        this.poolMisses = 0;
         size = 0;
         front = new Node<>(null); // front sentinel node without a value
         back = new Node<>(null); // back sentinel node without a value
@@ -22,8 +53,9 @@ public class LinkedDeque<T> extends AbstractDeque<T> {
         size += 1; // increment size
         Node<T> temp = front.next; // store current first node in a temp variable
         // create new node with item, insert between front sentinel and previous first node
-        front.next = new Node<>(item, front, temp);
+        front.next = newNode(item, front, temp);
         temp.prev = front.next; // update previous first prev reference to point to the new first
+        modCount += 1;
     }
 
     // Add elem to back of deque. Adjusts pointers of back sentinel and node that currently precedes it, to insert new
@@ -32,8 +64,9 @@ public class LinkedDeque<T> extends AbstractDeque<T> {
         size += 1; // increment size
         Node<T> temp = back.prev; // store current last node in temp variable
         // create new node with item, insert between the previous last node and back sentinel
-        back.prev = new Node<>(item, temp, back);
+        back.prev = newNode(item, temp, back);
         temp.next = back.prev; // update previous last next reference to point to new last
+        modCount += 1;
     }
 
     // Remove and return first elem. Adjusts pointer of front sentinel to skip the first node, removing it
@@ -45,7 +78,10 @@ public class LinkedDeque<T> extends AbstractDeque<T> {
         Node<T> temp = front.next; // store first node in temp variable
         front.next = front.next.next; // front sentinel next skips over first, removing it
         front.next.prev = front; // new first prev pointer points back to front sentinel
-        return temp.value; // return the removed node value
+        modCount += 1;
+        T result = temp.value;
+        recycle(temp);
+        return result; // return the removed node value
     }
 
     // Remove and return last elem. Adjusts pointer of back sentinel to skip the last node, removing it
@@ -57,7 +93,10 @@ public class LinkedDeque<T> extends AbstractDeque<T> {
         Node<T> temp = back.prev; // store last node in temp variable
         back.prev = back.prev.prev; // back sentinel prev pointer skips over the last node, removing it
         back.prev.next = back; // new last next points to back sentinel
-        return temp.value; // return the removed node value
+        modCount += 1;
+        T result = temp.value;
+        recycle(temp);
+        return result; // return the removed node value
     }
 
     // Gets elem at given index. starts search from front or the back based on the index closeness
@@ -84,4 +123,168 @@ public class LinkedDeque<T> extends AbstractDeque<T> {
     public int size() {
         return size;
     }
+
+    // Returns the number of adds that reused a pooled node.
+    public long poolHits() {
+        return poolHits;
+    }
+
+    // Returns the number of adds that allocated a new node because the pool was empty.
+    // Always 0 when recycling is disabled.
+    public long poolMisses() {
+        return poolMisses;
+    }
+
+    // Returns a node holding the given value and links, reusing a pooled node if there is one
+    private Node<T> newNode(T item, Node<T> prev, Node<T> next) {
+        if (pool == null) {
+            if (maxPooledNodes > 0) {
+                poolMisses += 1;
+            }
+            return new Node<>(item, prev, next);
+        }
+        Node<T> node = pool;
+        pool = node.next;
+        pooledNodes -= 1;
+        poolHits += 1;
+        node.value = item;
+        node.prev = prev;
+        node.next = next;
+        return node;
+    }
+
+    // Clears a removed node and pushes it onto the pool if recycling is enabled and there's room
+    private void recycle(Node<T> node) {
+        node.value = null; // don't hold on to removed items
+        node.prev = null;
+        if (pooledNodes < maxPooledNodes) {
+            node.next = pool;
+            pool = node;
+            pooledNodes += 1;
+        } else {
+            node.next = null;
+        }
+    }
+
+    // Walks the nodes directly, so a full iteration is O(n) instead of O(n^2) through get
+    @Override
+    public Iterator<T> iterator() {
+        return new LinkedDequeIterator();
+    }
+
+    // Splits by handing off chunks of nodes copied into arrays, since a linked list can't be
+    // split in the middle without walking to it
+    @Override
+    public Spliterator<T> spliterator() {
+        return new LinkedDequeSpliterator();
+    }
+
+    private class LinkedDequeIterator implements Iterator<T> {
+        private final int expectedModCount = modCount;
+        private Node<T> curr = front.next; // next node to return
+
+        @Override
+        public boolean hasNext() {
+            return curr != back;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = curr.value;
+            curr = curr.next;
+            return result;
+        }
+    }
+
+    private class LinkedDequeSpliterator implements Spliterator<T> {
+        private static final int BATCH_UNIT = 1 << 10; // size increase for each split-off chunk
+        private static final int MAX_BATCH = 1 << 25; // largest chunk we'll copy into an array
+
+        private Node<T> curr; // next node to return; null until the spliterator is first used
+        private int remaining; // number of items left; -1 until the spliterator is first used
+        private int expectedModCount;
+        private int batch; // size of the last chunk handed off by trySplit
+
+        LinkedDequeSpliterator() {
+            this.remaining = -1;
+        }
+
+        private int getRemaining() {
+            if (remaining < 0) {
+                curr = front.next;
+                remaining = size;
+                expectedModCount = modCount;
+            }
+            return remaining;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int s = getRemaining();
+            if (s <= 1) {
+                return null;
+            }
+            int n = Math.min(Math.min(batch + BATCH_UNIT, s), MAX_BATCH);
+            Object[] chunk = new Object[n];
+            for (int j = 0; j < n; j++) {
+                chunk[j] = curr.value;
+                curr = curr.next;
+            }
+            batch = n;
+            remaining = s - n;
+            return Spliterators.spliterator(chunk, 0, n, characteristics());
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (getRemaining() <= 0) {
+                return false;
+            }
+            T item = curr.value;
+            curr = curr.next;
+            remaining -= 1;
+            action.accept(item);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            int n = getRemaining();
+            Node<T> node = curr;
+            for (int j = 0; j < n; j++) {
+                action.accept(node.value);
+                node = node.next;
+            }
+            curr = node;
+            remaining = 0;
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getRemaining();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
 }
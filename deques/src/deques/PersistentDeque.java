@@ -0,0 +1,357 @@
+package deques;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// An immutable deque. Every "modifying" method leaves this deque untouched and returns a new
+// version that shares almost all of its structure with the old one, so keeping old versions
+// around is cheap.
+//
+// Implemented as a 2-3 finger tree annotated with subtree sizes (Hinze and Paterson, "Finger
+// trees: a simple general-purpose data structure", 2006). Adding or removing at either end is
+// O(1) amortized (O(log n) worst case), and get(index) is O(log n).
+//
+// Internally, items at the top level of the tree are the user's items, and each level below holds
+// Nodes of 2-3 elements from the level above. Nodes are private, so an element is a Node exactly
+// when it came from a lower level.
+// @see SnapshotDeque for a mutable Deque built on top of this
+public final class PersistentDeque<T> implements Iterable<T> {
+    private static final PersistentDeque<?> EMPTY = new PersistentDeque<>(Empty.INSTANCE);
+
+    private final Tree tree;
+
+    private PersistentDeque(Tree tree) {
+        this.tree = tree;
+    }
+
+    // Returns the empty deque.
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentDeque<T> empty() {
+        return (PersistentDeque<T>) EMPTY;
+    }
+
+    // Returns a new deque with the item added to the front.
+    public PersistentDeque<T> addFirst(T item) {
+        return new PersistentDeque<>(tree.pushFront(item));
+    }
+
+    // Returns a new deque with the item added to the back.
+    public PersistentDeque<T> addLast(T item) {
+        return new PersistentDeque<>(tree.pushBack(item));
+    }
+
+    // Returns a new deque without the front item, or this deque if it's empty.
+    public PersistentDeque<T> removeFirst() {
+        return isEmpty() ? this : new PersistentDeque<>(tree.popFront());
+    }
+
+    // Returns a new deque without the back item, or this deque if it's empty.
+    public PersistentDeque<T> removeLast() {
+        return isEmpty() ? this : new PersistentDeque<>(tree.popBack());
+    }
+
+    // Returns the front item, or null if the deque is empty.
+    @SuppressWarnings("unchecked")
+    public T peekFirst() {
+        return isEmpty() ? null : (T) tree.first();
+    }
+
+    // Returns the back item, or null if the deque is empty.
+    @SuppressWarnings("unchecked")
+    public T peekLast() {
+        return isEmpty() ? null : (T) tree.last();
+    }
+
+    // Gets the item at the given index, where 0 is the front. If no such item exists, returns null.
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            return null;
+        }
+        return (T) tree.get(index);
+    }
+
+    public int size() {
+        return tree.size();
+    }
+
+    public boolean isEmpty() {
+        return tree.size() == 0;
+    }
+
+    // Iterates by repeatedly splitting off the front of the tree, which is O(1) amortized per item.
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private Tree remaining = tree;
+
+            @Override
+            public boolean hasNext() {
+                return remaining.size() > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result = (T) remaining.first();
+                remaining = remaining.popFront();
+                return result;
+            }
+        };
+    }
+
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (T item : this) {
+            output.append(item).append(" ");
+        }
+        return output.toString();
+    }
+
+    // Returns the number of user items stored under the given element.
+    private static int sizeOf(Object element) {
+        return element instanceof Node ? ((Node) element).size : 1;
+    }
+
+    private static int sizeOf(Object[] digit) {
+        int size = 0;
+        for (Object element : digit) {
+            size += sizeOf(element);
+        }
+        return size;
+    }
+
+    // Returns the user item at the given index under the given element.
+    private static Object getIn(Object element, int index) {
+        while (element instanceof Node) {
+            Object[] children = ((Node) element).children;
+            int i = 0;
+            while (index >= sizeOf(children[i])) {
+                index -= sizeOf(children[i]);
+                i += 1;
+            }
+            element = children[i];
+        }
+        return element;
+    }
+
+    // Returns the user item at the given index within a digit.
+    private static Object getIn(Object[] digit, int index) {
+        int i = 0;
+        while (index >= sizeOf(digit[i])) {
+            index -= sizeOf(digit[i]);
+            i += 1;
+        }
+        return getIn(digit[i], index);
+    }
+
+    private static Object[] prepend(Object element, Object[] digit) {
+        Object[] result = new Object[digit.length + 1];
+        result[0] = element;
+        System.arraycopy(digit, 0, result, 1, digit.length);
+        return result;
+    }
+
+    private static Object[] append(Object[] digit, Object element) {
+        Object[] result = Arrays.copyOf(digit, digit.length + 1);
+        result[digit.length] = element;
+        return result;
+    }
+
+    // Builds a tree holding the elements of a digit, in order.
+    private static Tree fromDigit(Object[] digit) {
+        Tree result = Empty.INSTANCE;
+        for (Object element : digit) {
+            result = result.pushBack(element);
+        }
+        return result;
+    }
+
+    // A 2-3 node grouping elements from the level above.
+    private static final class Node {
+        final Object[] children;
+        final int size;
+
+        Node(Object... children) {
+            this.children = children;
+            this.size = sizeOf(children);
+        }
+    }
+
+    private abstract static class Tree {
+        abstract int size();
+
+        abstract Tree pushFront(Object element);
+
+        abstract Tree pushBack(Object element);
+
+        abstract Object first();
+
+        abstract Object last();
+
+        abstract Tree popFront();
+
+        abstract Tree popBack();
+
+        abstract Object get(int index);
+    }
+
+    private static final class Empty extends Tree {
+        static final Empty INSTANCE = new Empty();
+
+        int size() {
+            return 0;
+        }
+
+        Tree pushFront(Object element) {
+            return new Single(element);
+        }
+
+        Tree pushBack(Object element) {
+            return new Single(element);
+        }
+
+        Object first() {
+            throw new NoSuchElementException();
+        }
+
+        Object last() {
+            throw new NoSuchElementException();
+        }
+
+        Tree popFront() {
+            throw new NoSuchElementException();
+        }
+
+        Tree popBack() {
+            throw new NoSuchElementException();
+        }
+
+        Object get(int index) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private static final class Single extends Tree {
+        final Object element;
+
+        Single(Object element) {
+            this.element = element;
+        }
+
+        int size() {
+            return sizeOf(element);
+        }
+
+        Tree pushFront(Object other) {
+            return new Deep(new Object[]{other}, Empty.INSTANCE, new Object[]{element});
+        }
+
+        Tree pushBack(Object other) {
+            return new Deep(new Object[]{element}, Empty.INSTANCE, new Object[]{other});
+        }
+
+        Object first() {
+            return element;
+        }
+
+        Object last() {
+            return element;
+        }
+
+        Tree popFront() {
+            return Empty.INSTANCE;
+        }
+
+        Tree popBack() {
+            return Empty.INSTANCE;
+        }
+
+        Object get(int index) {
+            return getIn(element, index);
+        }
+    }
+
+    // A tree with a 1-4 element digit at each end and a tree of Nodes in the middle.
+    private static final class Deep extends Tree {
+        final Object[] prefix;
+        final Tree middle;
+        final Object[] suffix;
+        final int size;
+
+        Deep(Object[] prefix, Tree middle, Object[] suffix) {
+            this.prefix = prefix;
+            this.middle = middle;
+            this.suffix = suffix;
+            this.size = sizeOf(prefix) + middle.size() + sizeOf(suffix);
+        }
+
+        int size() {
+            return size;
+        }
+
+        Tree pushFront(Object element) {
+            if (prefix.length == 4) {
+                // keep one element in the prefix and push the other three down a level
+                Node node = new Node(prefix[1], prefix[2], prefix[3]);
+                return new Deep(new Object[]{element, prefix[0]}, middle.pushFront(node), suffix);
+            }
+            return new Deep(prepend(element, prefix), middle, suffix);
+        }
+
+        Tree pushBack(Object element) {
+            if (suffix.length == 4) {
+                Node node = new Node(suffix[0], suffix[1], suffix[2]);
+                return new Deep(prefix, middle.pushBack(node), new Object[]{suffix[3], element});
+            }
+            return new Deep(prefix, middle, append(suffix, element));
+        }
+
+        Object first() {
+            return prefix[0];
+        }
+
+        Object last() {
+            return suffix[suffix.length - 1];
+        }
+
+        Tree popFront() {
+            if (prefix.length > 1) {
+                return new Deep(Arrays.copyOfRange(prefix, 1, prefix.length), middle, suffix);
+            }
+            // the prefix is about to be empty, so borrow a node from the middle
+            if (middle.size() == 0) {
+                return fromDigit(suffix);
+            }
+            Node node = (Node) middle.first();
+            return new Deep(node.children, middle.popFront(), suffix);
+        }
+
+        Tree popBack() {
+            if (suffix.length > 1) {
+                return new Deep(prefix, middle, Arrays.copyOf(suffix, suffix.length - 1));
+            }
+            if (middle.size() == 0) {
+                return fromDigit(prefix);
+            }
+            Node node = (Node) middle.last();
+            return new Deep(prefix, middle.popBack(), node.children);
+        }
+
+        Object get(int index) {
+            int prefixSize = sizeOf(prefix);
+            if (index < prefixSize) {
+                return getIn(prefix, index);
+            }
+            index -= prefixSize;
+            if (index < middle.size()) {
+                return middle.get(index);
+            }
+            return getIn(suffix, index - middle.size());
+        }
+    }
+}
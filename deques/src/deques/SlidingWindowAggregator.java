@@ -0,0 +1,97 @@
+package deques;
+
+import java.util.NoSuchElementException;
+
+// Tracks the min, max, sum and mean of a sliding window over a stream of long samples
+// (e.g. latencies), all in O(1) amortized time per sample.
+//
+// Rescanning the window on every tick costs O(window size). Instead, min and max each keep a
+// monotonic deque: the positions of the samples that could still become the min (or max) once
+// older samples leave. A new sample first discards every candidate it beats, since those can never
+// win again while it's in the window, so the front of each deque is always the answer. The sum is
+// kept as a running total, which is exact since samples are longs.
+//
+// All storage is in LongArrayDeques, so nothing is boxed.
+public class SlidingWindowAggregator extends AbstractSlidingWindow {
+    private final LongArrayDeque values;
+    private final LongArrayDeque minCandidates; // positions with increasing values
+    private final LongArrayDeque maxCandidates; // positions with decreasing values
+    private long firstPosition; // position of values.get(0) in the whole stream
+    private long sum;
+
+    public SlidingWindowAggregator(int maxCount, long maxAge) {
+        super(maxCount, maxAge);
+        this.values = new LongArrayDeque();
+        this.minCandidates = new LongArrayDeque();
+        this.maxCandidates = new LongArrayDeque();
+        this.firstPosition = 0;
+        this.sum = 0;
+    }
+
+    // A window over the most recent `maxCount` samples.
+    public static SlidingWindowAggregator ofCount(int maxCount) {
+        return new SlidingWindowAggregator(maxCount, Long.MAX_VALUE);
+    }
+
+    // A window over the samples from the last `maxAge` time units.
+    public static SlidingWindowAggregator ofDuration(long maxAge) {
+        return new SlidingWindowAggregator(Integer.MAX_VALUE, maxAge);
+    }
+
+    // Adds a sample taken at the given time, evicting whatever it pushes out of the window.
+    public void add(long timestamp, long value) {
+        beforeAdd(timestamp);
+        long position = firstPosition + values.size();
+        values.addLast(value);
+        sum += value;
+        while (!minCandidates.isEmpty() && valueAt(minCandidates.get(minCandidates.size() - 1)) >= value) {
+            minCandidates.removeLast();
+        }
+        minCandidates.addLast(position);
+        while (!maxCandidates.isEmpty() && valueAt(maxCandidates.get(maxCandidates.size() - 1)) <= value) {
+            maxCandidates.removeLast();
+        }
+        maxCandidates.addLast(position);
+    }
+
+    // Throws NoSuchElementException if the window is empty.
+    public long min() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return valueAt(minCandidates.get(0));
+    }
+
+    // Throws NoSuchElementException if the window is empty.
+    public long max() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return valueAt(maxCandidates.get(0));
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    // Returns NaN if the window is empty.
+    public double mean() {
+        return isEmpty() ? Double.NaN : (double) sum / values.size();
+    }
+
+    @Override
+    protected void evictOldest() {
+        sum -= values.removeFirst();
+        if (minCandidates.get(0) == firstPosition) {
+            minCandidates.removeFirst();
+        }
+        if (maxCandidates.get(0) == firstPosition) {
+            maxCandidates.removeFirst();
+        }
+        firstPosition += 1;
+    }
+
+    private long valueAt(long position) {
+        return values.get((int) (position - firstPosition));
+    }
+}
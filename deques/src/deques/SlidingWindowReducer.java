@@ -0,0 +1,69 @@
+package deques;
+
+import java.util.function.BinaryOperator;
+
+// Maintains an arbitrary associative aggregate (gcd, matrix product, string concatenation, ...)
+// over a sliding window in O(1) amortized time per sample, using the "two-stack queue" trick.
+// The operator does not need to be commutative or invertible.
+//
+// New samples go on the back stack, which only tracks the aggregate of everything on it. When the
+// oldest sample must be evicted and the front stack is empty, the back stack is flipped onto the
+// front stack, storing at each level the aggregate from that sample to the newest flipped sample.
+// Each sample is flipped at most once, and the window's aggregate is always
+// combine(front's top aggregate, back's aggregate).
+// @see SlidingWindowAggregator for a faster, specialized version for min/max/sum over longs
+public class SlidingWindowReducer<T> extends AbstractSlidingWindow {
+    private final BinaryOperator<T> combine;
+    private final ArrayDeque<T> front; // suffix aggregates; the last one covers the oldest sample
+    private final ArrayDeque<T> back; // raw samples, oldest first
+    private T backAggregate;
+
+    public SlidingWindowReducer(BinaryOperator<T> combine, int maxCount, long maxAge) {
+        super(maxCount, maxAge);
+        this.combine = combine;
+        this.front = new ArrayDeque<>();
+        this.back = new ArrayDeque<>();
+        this.backAggregate = null;
+    }
+
+    // A window over the most recent `maxCount` samples.
+    public static <T> SlidingWindowReducer<T> ofCount(BinaryOperator<T> combine, int maxCount) {
+        return new SlidingWindowReducer<>(combine, maxCount, Long.MAX_VALUE);
+    }
+
+    // A window over the samples from the last `maxAge` time units.
+    public static <T> SlidingWindowReducer<T> ofDuration(BinaryOperator<T> combine, long maxAge) {
+        return new SlidingWindowReducer<>(combine, Integer.MAX_VALUE, maxAge);
+    }
+
+    // Adds a sample taken at the given time, evicting whatever it pushes out of the window.
+    public void add(long timestamp, T value) {
+        beforeAdd(timestamp);
+        back.addLast(value);
+        backAggregate = back.size() == 1 ? value : combine.apply(backAggregate, value);
+    }
+
+    // Returns the aggregate of every sample in the window, oldest first, or null if it's empty.
+    public T aggregate() {
+        if (front.isEmpty()) {
+            return backAggregate;
+        }
+        T frontAggregate = front.get(front.size() - 1);
+        return back.isEmpty() ? frontAggregate : combine.apply(frontAggregate, backAggregate);
+    }
+
+    @Override
+    protected void evictOldest() {
+        if (front.isEmpty()) {
+            // flip newest-first, so the oldest sample ends up on top with the full aggregate
+            T suffix = back.removeLast();
+            front.addLast(suffix);
+            while (!back.isEmpty()) {
+                suffix = combine.apply(back.removeLast(), suffix);
+                front.addLast(suffix);
+            }
+            backAggregate = null;
+        }
+        front.removeLast();
+    }
+}
@@ -0,0 +1,99 @@
+package deques;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// A mutable Deque backed by a PersistentDeque. Each change swaps in a new version, so snapshot()
+// can hand out the current version in O(1) without copying; later changes to this deque never
+// affect snapshots that were already taken. Only one thread may change the deque, but any thread
+// may call snapshot().
+public class SnapshotDeque<T> extends AbstractDeque<T> {
+    // volatile so that snapshot() from another thread sees a fully built version; versions are
+    // immutable, so publishing the reference is all that's needed
+    private volatile PersistentDeque<T> current;
+
+    public SnapshotDeque() {
+        this(PersistentDeque.empty());
+    }
+
+    // Starts from an existing version, e.g. one returned by snapshot().
+    public SnapshotDeque(PersistentDeque<T> initial) {
+        this.current = initial;
+    }
+
+    // Returns an immutable view of the current contents.
+    public PersistentDeque<T> snapshot() {
+        return current;
+    }
+
+    @Override
+    public void addFirst(T item) {
+        current = current.addFirst(item);
+        modCount += 1;
+    }
+
+    @Override
+    public void addLast(T item) {
+        current = current.addLast(item);
+        modCount += 1;
+    }
+
+    @Override
+    public T removeFirst() {
+        if (current.isEmpty()) {
+            return null;
+        }
+        T result = current.peekFirst();
+        current = current.removeFirst();
+        modCount += 1;
+        return result;
+    }
+
+    @Override
+    public T removeLast() {
+        if (current.isEmpty()) {
+            return null;
+        }
+        T result = current.peekLast();
+        current = current.removeLast();
+        modCount += 1;
+        return result;
+    }
+
+    @Override
+    public T get(int index) {
+        return current.get(index);
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    // Walks the version that was current when iteration started, but still fails fast if this
+    // deque is modified in the meantime, like the other deques.
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private final Iterator<T> items = current.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return items.next();
+            }
+        };
+    }
+}
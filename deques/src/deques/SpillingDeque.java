@@ -0,0 +1,434 @@
+package deques;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// A deque that keeps a bounded number of items on the heap and spills the rest to
+// memory-mapped segment files.
+//
+// The deque is split into three parts, in order: a `head` ArrayDeque, an on-disk `middle`, and a
+// `tail` ArrayDeque. Adds go to the heap parts; whenever the heap parts together hold more than
+// `maxInHeapItems` items, a chunk of the items nearest the middle is encoded with the codec and
+// moved onto disk. When an end runs dry, a chunk is read back from the matching end of the middle.
+// Both ends of the deque therefore stay in memory, and only the items that are furthest from
+// either end ever touch the disk.
+//
+// The middle is a list of segments. Each segment is one mapped file holding records that can be
+// read or written from either end, and drained segments are kept for reuse instead of being
+// remapped. Call close to delete the files.
+public class SpillingDeque<T> extends AbstractDeque<T> implements AutoCloseable {
+    private static final int DEFAULT_SEGMENT_BYTES = 16 << 20;
+    private static final int MAX_RECYCLED_SEGMENTS = 2;
+    private static final int RECORD_OVERHEAD = 2 * Integer.BYTES; // length before and after
+
+    private final ElementCodec<T> codec;
+    private final int maxInHeapItems;
+    private final int spillChunk; // number of items moved to or from disk at a time
+    private final int segmentBytes;
+    private Path directory; // created lazily on the first spill if not given
+    private boolean ownsDirectory;
+
+    private final ArrayDeque<T> head;
+    private final ArrayDeque<T> tail;
+    private final ArrayDeque<Segment> segments; // the middle, in order
+    private final ArrayDeque<Segment> recycled;
+    private int middleSize; // number of items on disk
+    private int size;
+    private int nextSegmentId;
+
+    // Constructs a deque that spills into segments in a fresh temporary directory.
+    //
+    // @param maxInHeapItems the most items to keep on the heap at once. Must be > 0.
+    public SpillingDeque(ElementCodec<T> codec, int maxInHeapItems) {
+        this(codec, maxInHeapItems, null, DEFAULT_SEGMENT_BYTES);
+    }
+
+    // @param maxInHeapItems the most items to keep on the heap at once. Must be > 0.
+    // @param directory where to create segment files, or null to use a temporary directory
+    // @param segmentBytes the size of each segment file. Larger items get their own segment. Must be
+    //                     > RECORD_OVERHEAD.
+    public SpillingDeque(ElementCodec<T> codec, int maxInHeapItems, Path directory, int segmentBytes) {
+        if (maxInHeapItems <= 0 || segmentBytes <= RECORD_OVERHEAD) {
+            throw new IllegalArgumentException(
+                "Budget must be greater than 0 and segment size greater than " + RECORD_OVERHEAD);
+        }
+        this.codec = codec;
+        this.maxInHeapItems = maxInHeapItems;
+        this.spillChunk = Math.max(1, maxInHeapItems / 2);
+        this.segmentBytes = segmentBytes;
+        this.directory = directory;
+        this.ownsDirectory = false;
+        this.head = new ArrayDeque<>();
+        this.tail = new ArrayDeque<>();
+        this.segments = new ArrayDeque<>();
+        this.recycled = new ArrayDeque<>();
+        this.middleSize = 0;
+        this.size = 0;
+        this.nextSegmentId = 0;
+    }
+
+    public void addFirst(T item) {
+        head.addFirst(item);
+        size += 1;
+        modCount += 1;
+        enforceBudget();
+    }
+
+    public void addLast(T item) {
+        tail.addLast(item);
+        size += 1;
+        modCount += 1;
+        enforceBudget();
+    }
+
+    public T removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        T result;
+        if (!head.isEmpty()) {
+            result = head.removeFirst();
+        } else if (middleSize > 0) {
+            refillHead();
+            result = head.removeFirst();
+        } else {
+            result = tail.removeFirst();
+        }
+        size -= 1;
+        modCount += 1;
+        return result;
+    }
+
+    public T removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        T result;
+        if (!tail.isEmpty()) {
+            result = tail.removeLast();
+        } else if (middleSize > 0) {
+            refillTail();
+            result = tail.removeLast();
+        } else {
+            result = head.removeLast();
+        }
+        size -= 1;
+        modCount += 1;
+        return result;
+    }
+
+    // Gets the item at the given index. Items on disk are found by skipping whole segments and
+    // then walking the records of the segment that holds the index.
+    public T get(int index) {
+        if ((index >= size) || (index < 0)) {
+            return null;
+        }
+        if (index < head.size()) {
+            return head.get(index);
+        }
+        index -= head.size();
+        if (index >= middleSize) {
+            return tail.get(index - middleSize);
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (index < segment.count) {
+                return codec.decode(segment.get(index));
+            }
+            index -= segment.count;
+        }
+        throw new IllegalStateException("Segment counts don't add up to the spilled size");
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Walks the head, then the records of each segment in order, then the tail, instead of
+    // calling get (which walks a segment from its start) for every index.
+    @Override
+    public Iterator<T> iterator() {
+        return new SpillingDequeIterator();
+    }
+
+    // Returns the number of items currently stored on disk.
+    public int spilledSize() {
+        return middleSize;
+    }
+
+    // Deletes all segment files and empties the deque.
+    @Override
+    public void close() {
+        while (!segments.isEmpty()) {
+            segments.removeFirst().delete();
+        }
+        while (!recycled.isEmpty()) {
+            recycled.removeFirst().delete();
+        }
+        while (!head.isEmpty()) {
+            head.removeFirst();
+        }
+        while (!tail.isEmpty()) {
+            tail.removeFirst();
+        }
+        middleSize = 0;
+        size = 0;
+        modCount += 1;
+        if (ownsDirectory) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                directory.toFile().deleteOnExit();
+            }
+            directory = null;
+            ownsDirectory = false;
+        }
+    }
+
+    // Spills a chunk from whichever heap part is larger once the heap holds too many items.
+    private void enforceBudget() {
+        if (head.size() + tail.size() <= maxInHeapItems) {
+            return;
+        }
+        if (tail.size() >= head.size()) {
+            // the front of the tail is next to the middle, so it goes onto the back of the middle
+            for (int i = Math.min(spillChunk, tail.size()); i > 0; i--) {
+                byte[] record = codec.encode(tail.removeFirst());
+                Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                if (last == null || !last.hasRoomAtEnd(record.length)) {
+                    last = acquireSegment(record.length, false);
+                    segments.addLast(last);
+                }
+                last.append(record);
+                middleSize += 1;
+            }
+        } else {
+            // the back of the head is next to the middle, so it goes onto the front of the middle
+            for (int i = Math.min(spillChunk, head.size()); i > 0; i--) {
+                byte[] record = codec.encode(head.removeLast());
+                Segment first = segments.isEmpty() ? null : segments.get(0);
+                if (first == null || !first.hasRoomAtStart(record.length)) {
+                    first = acquireSegment(record.length, true);
+                    segments.addFirst(first);
+                }
+                first.prepend(record);
+                middleSize += 1;
+            }
+        }
+    }
+
+    // Moves a chunk of items from the front of the middle into the (empty) head.
+    private void refillHead() {
+        int n = Math.min(Math.min(spillChunk, middleSize), Math.max(1, maxInHeapItems - tail.size()));
+        for (int i = 0; i < n; i++) {
+            Segment first = segments.get(0);
+            head.addLast(codec.decode(first.pollFirst()));
+            middleSize -= 1;
+            if (first.count == 0) {
+                release(segments.removeFirst());
+            }
+        }
+    }
+
+    // Moves a chunk of items from the back of the middle into the (empty) tail.
+    private void refillTail() {
+        int n = Math.min(Math.min(spillChunk, middleSize), Math.max(1, maxInHeapItems - head.size()));
+        for (int i = 0; i < n; i++) {
+            Segment last = segments.get(segments.size() - 1);
+            tail.addFirst(codec.decode(last.pollLast()));
+            middleSize -= 1;
+            if (last.count == 0) {
+                release(segments.removeLast());
+            }
+        }
+    }
+
+    // Returns an empty segment with room for a record of the given length, reusing a recycled
+    // one if possible. Segments for prepending fill from the end backwards.
+    private Segment acquireSegment(int recordLength, boolean fromEnd) {
+        Segment segment;
+        if (recordLength + RECORD_OVERHEAD <= segmentBytes && !recycled.isEmpty()) {
+            segment = recycled.removeLast();
+        } else {
+            segment = createSegment(Math.max(segmentBytes, recordLength + RECORD_OVERHEAD));
+        }
+        segment.reset(fromEnd);
+        return segment;
+    }
+
+    private Segment createSegment(int capacity) {
+        try {
+            if (directory == null) {
+                directory = Files.createTempDirectory("spilling-deque");
+                ownsDirectory = true;
+                directory.toFile().deleteOnExit();
+            }
+            Path file = directory.resolve("segment-" + nextSegmentId + ".bin");
+            nextSegmentId += 1;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // the mapping stays valid after the channel is closed
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                // not registered with deleteOnExit, which would remember every segment ever made
+                // for the rest of the process; release and close delete segments explicitly
+                return new Segment(file, buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Keeps a drained segment for reuse, or deletes it if we already have enough spares.
+    private void release(Segment segment) {
+        if (segment.capacity() == segmentBytes && recycled.size() < MAX_RECYCLED_SEGMENTS) {
+            recycled.addLast(segment);
+        } else {
+            segment.delete();
+        }
+    }
+
+    private class SpillingDequeIterator implements Iterator<T> {
+        private final int expectedModCount = modCount;
+        private int index = 0; // overall index of the next item
+        private int segmentIndex = 0; // segment holding the next spilled item
+        private int recordsLeft = segments.isEmpty() ? 0 : segments.get(0).count;
+        private int pos = segments.isEmpty() ? 0 : segments.get(0).readPos;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int i = index;
+            index += 1;
+            if (i < head.size()) {
+                return head.get(i);
+            }
+            i -= head.size();
+            if (i >= middleSize) {
+                return tail.get(i - middleSize);
+            }
+            if (recordsLeft == 0) {
+                segmentIndex += 1;
+                Segment segment = segments.get(segmentIndex);
+                recordsLeft = segment.count;
+                pos = segment.readPos;
+            }
+            Segment segment = segments.get(segmentIndex);
+            byte[] record = segment.read(pos);
+            pos += record.length + RECORD_OVERHEAD;
+            recordsLeft -= 1;
+            return codec.decode(record);
+        }
+    }
+
+    // A mapped file holding records in [readPos, writePos). Each record is its length, its bytes,
+    // and its length again, so records can be walked from either end.
+    private static class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        int readPos;
+        int writePos;
+        int count;
+
+        Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        void reset(boolean fromEnd) {
+            readPos = fromEnd ? capacity() : 0;
+            writePos = readPos;
+            count = 0;
+        }
+
+        boolean hasRoomAtEnd(int length) {
+            return capacity() - writePos >= length + RECORD_OVERHEAD;
+        }
+
+        boolean hasRoomAtStart(int length) {
+            return readPos >= length + RECORD_OVERHEAD;
+        }
+
+        void append(byte[] record) {
+            write(writePos, record);
+            writePos += record.length + RECORD_OVERHEAD;
+            count += 1;
+        }
+
+        void prepend(byte[] record) {
+            readPos -= record.length + RECORD_OVERHEAD;
+            write(readPos, record);
+            count += 1;
+        }
+
+        byte[] pollFirst() {
+            byte[] record = read(readPos);
+            readPos += record.length + RECORD_OVERHEAD;
+            count -= 1;
+            return record;
+        }
+
+        byte[] pollLast() {
+            int length = buffer.getInt(writePos - Integer.BYTES);
+            writePos -= length + RECORD_OVERHEAD;
+            count -= 1;
+            return read(writePos);
+        }
+
+        // Returns the record at the given index by walking forward from readPos.
+        byte[] get(int index) {
+            int pos = readPos;
+            for (int i = 0; i < index; i++) {
+                pos += buffer.getInt(pos) + RECORD_OVERHEAD;
+            }
+            return read(pos);
+        }
+
+        private void write(int pos, byte[] record) {
+            buffer.putInt(pos, record.length);
+            ByteBuffer view = buffer.duplicate();
+            view.position(pos + Integer.BYTES);
+            view.put(record);
+            buffer.putInt(pos + Integer.BYTES + record.length, record.length);
+        }
+
+        private byte[] read(int pos) {
+            byte[] record = new byte[buffer.getInt(pos)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(pos + Integer.BYTES);
+            view.get(record);
+            return record;
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // some platforms refuse to delete a file while it's mapped
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+}
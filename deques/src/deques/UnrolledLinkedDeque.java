@@ -0,0 +1,308 @@
+package deques;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+// A linked deque that stores items in fixed-size array blocks instead of one Node per item.
+//
+// Only the first and last blocks may be partially filled; every block in between is always full.
+// That lets get skip whole blocks at a time instead of walking item by item.
+// @see LinkedDeque
+public class UnrolledLinkedDeque<T> extends AbstractDeque<T> {
+    static final int BLOCK_SIZE = 64;
+
+    private int size; // Number of elements in the deque
+    Block<T> head; // First block; its live items are items[start, end)
+    Block<T> tail; // Last block; the same block as head when everything fits in one block
+
+    public UnrolledLinkedDeque() {
+        size = 0;
+        head = new Block<>();
+        tail = head;
+        recenter(head);
+    }
+
+    // Adds an item to the front, linking in a new block before head if head has no room left.
+    public void addFirst(T item) {
+        if (head.start == 0) {
+            Block<T> block = new Block<>();
+            block.start = BLOCK_SIZE;
+            block.end = BLOCK_SIZE;
+            block.next = head;
+            head.prev = block;
+            head = block;
+        }
+        head.start -= 1;
+        head.items[head.start] = item;
+        size += 1;
+        modCount += 1;
+    }
+
+    // Adds an item to the back, linking in a new block after tail if tail has no room left.
+    public void addLast(T item) {
+        if (tail.end == BLOCK_SIZE) {
+            Block<T> block = new Block<>();
+            block.prev = tail;
+            tail.next = block;
+            tail = block;
+        }
+        tail.items[tail.end] = item;
+        tail.end += 1;
+        size += 1;
+        modCount += 1;
+    }
+
+    // Removes and returns the first item, unlinking head once it runs out of items.
+    public T removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        T result = head.items[head.start];
+        head.items[head.start] = null; // don't hold on to removed items
+        head.start += 1;
+        size -= 1;
+        modCount += 1;
+        if (head.start == head.end) {
+            if (head == tail) {
+                recenter(head);
+            } else {
+                head = head.next;
+                head.prev.next = null;
+                head.prev = null;
+            }
+        }
+        return result;
+    }
+
+    // Removes and returns the last item, unlinking tail once it runs out of items.
+    public T removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        tail.end -= 1;
+        T result = tail.items[tail.end];
+        tail.items[tail.end] = null; // don't hold on to removed items
+        size -= 1;
+        modCount += 1;
+        if (tail.start == tail.end) {
+            if (head == tail) {
+                recenter(tail);
+            } else {
+                tail = tail.prev;
+                tail.next.prev = null;
+                tail.next = null;
+            }
+        }
+        return result;
+    }
+
+    // Gets the item at the given index. Since every block between head and tail is full, we can
+    // compute which block holds the index and skip straight over the blocks before it, starting
+    // from whichever end is closer.
+    public T get(int index) {
+        if ((index >= size) || (index < 0)) {
+            return null;
+        }
+        int headCount = head.end - head.start;
+        if (index < headCount) {
+            return head.items[head.start + index];
+        }
+        int tailCount = tail.end - tail.start;
+        int fromBack = size - 1 - index;
+        if (fromBack < tailCount) {
+            return tail.items[tail.end - 1 - fromBack];
+        }
+        // the index is in one of the full middle blocks
+        int offset = index - headCount;
+        int blockNumber = offset / BLOCK_SIZE; // 0 is the block right after head
+        int middleBlocks = (size - headCount - tailCount) / BLOCK_SIZE;
+        Block<T> curr;
+        if (blockNumber < middleBlocks / 2) {
+            curr = head.next;
+            for (int i = 0; i < blockNumber; i++) {
+                curr = curr.next;
+            }
+        } else {
+            curr = tail.prev;
+            for (int i = middleBlocks - 1; i > blockNumber; i--) {
+                curr = curr.prev;
+            }
+        }
+        return curr.items[offset % BLOCK_SIZE];
+    }
+
+    // returns the current # of elems
+    public int size() {
+        return size;
+    }
+
+    // Walks the blocks directly instead of calling get for every index
+    @Override
+    public Iterator<T> iterator() {
+        return new UnrolledLinkedDequeIterator();
+    }
+
+    // Splits by copying runs of items out of whole blocks into arrays
+    @Override
+    public Spliterator<T> spliterator() {
+        return new UnrolledLinkedDequeSpliterator();
+    }
+
+    // Moves an empty block's insertion point to its middle so it can grow in either direction
+    // without immediately allocating a neighbour.
+    private static void recenter(Block<?> block) {
+        block.start = BLOCK_SIZE / 2;
+        block.end = BLOCK_SIZE / 2;
+    }
+
+    private class UnrolledLinkedDequeIterator implements Iterator<T> {
+        private final int expectedModCount = modCount;
+        private Block<T> block = head; // block holding the next item
+        private int slot = head.start; // slot of the next item within block
+        private int remaining = size;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (slot == block.end) {
+                block = block.next;
+                slot = block.start;
+            }
+            T result = block.items[slot];
+            slot += 1;
+            remaining -= 1;
+            return result;
+        }
+    }
+
+    private class UnrolledLinkedDequeSpliterator implements Spliterator<T> {
+        private static final int BATCH_UNIT = 1 << 10; // size increase for each split-off chunk
+        private static final int MAX_BATCH = 1 << 25; // largest chunk we'll copy into an array
+
+        private Block<T> block; // block holding the next item; null until first use
+        private int slot; // slot of the next item within block
+        private int remaining; // number of items left; -1 until first use
+        private int expectedModCount;
+        private int batch; // size of the last chunk handed off by trySplit
+
+        UnrolledLinkedDequeSpliterator() {
+            this.remaining = -1;
+        }
+
+        private int getRemaining() {
+            if (remaining < 0) {
+                block = head;
+                slot = head.start;
+                remaining = size;
+                expectedModCount = modCount;
+            }
+            return remaining;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int s = getRemaining();
+            if (s <= 1) {
+                return null;
+            }
+            int n = Math.min(Math.min(batch + BATCH_UNIT, s), MAX_BATCH);
+            Object[] chunk = new Object[n];
+            int copied = 0;
+            while (copied < n) {
+                if (slot == block.end) {
+                    block = block.next;
+                    slot = block.start;
+                }
+                int run = Math.min(block.end - slot, n - copied);
+                System.arraycopy(block.items, slot, chunk, copied, run);
+                slot += run;
+                copied += run;
+            }
+            batch = n;
+            remaining = s - n;
+            return Spliterators.spliterator(chunk, 0, n, characteristics());
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (getRemaining() <= 0) {
+                return false;
+            }
+            if (slot == block.end) {
+                block = block.next;
+                slot = block.start;
+            }
+            T item = block.items[slot];
+            slot += 1;
+            remaining -= 1;
+            action.accept(item);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            int n = getRemaining();
+            for (int j = 0; j < n; j++) {
+                if (slot == block.end) {
+                    block = block.next;
+                    slot = block.start;
+                }
+                action.accept(block.items[slot]);
+                slot += 1;
+            }
+            remaining = 0;
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getRemaining();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    // A doubly-linked block of item slots. Live items occupy items[start, end).
+    static class Block<T> {
+        final T[] items;
+        int start;
+        int end;
+        Block<T> prev;
+        Block<T> next;
+
+        @SuppressWarnings("unchecked")
+        Block() {
+            this.items = (T[]) new Object[BLOCK_SIZE];
+            this.start = 0;
+            this.end = 0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package deques;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// A lock-free Chase-Lev work-stealing deque.
+//
+// One thread owns the deque and is the only one allowed to call addLast and removeLast; it works
+// on the back like a stack and never needs a CAS unless it's racing a thief for the last item.
+// Any number of other threads may call removeFirst concurrently to steal from the front, using a
+// CAS on `top` to claim an item. The circular buffer grows when the owner fills it.
+//
+// See Chase and Lev, "Dynamic Circular Work-Stealing Deque" (SPAA 2005).
+//
+// addFirst isn't part of the algorithm, so it throws UnsupportedOperationException. get and size
+// are only snapshots when other threads are stealing.
+public class WorkStealingDeque<T> extends AbstractDeque<T> {
+    private static final int DEFAULT_INITIAL_CAPACITY = 32;
+
+    private final AtomicLong top; // index of the front item; only ever incremented
+    private volatile long bottom; // index one past the back item; only written by the owner
+    private volatile Buffer<T> buffer;
+
+    public WorkStealingDeque() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    // @param initialCapacity rounded up to a power of two. Must be > 0.
+    public WorkStealingDeque(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        top = new AtomicLong(0);
+        bottom = 0;
+        buffer = new Buffer<>(Integer.highestOneBit(Math.max(2, initialCapacity) * 2 - 1));
+    }
+
+    public void addFirst(T item) {
+        throw new UnsupportedOperationException("Only the owner may push, and only to the back");
+    }
+
+    // Pushes an item onto the back. Must only be called by the owner thread.
+    public void addLast(T item) {
+        long b = bottom;
+        long t = top.get();
+        Buffer<T> buf = buffer;
+        if (b - t >= buf.capacity() - 1) {
+            buf = buf.grow(t, b);
+            buffer = buf;
+        }
+        buf.put(b, item);
+        bottom = b + 1; // volatile write publishes the item to thieves
+    }
+
+    // Pops an item from the back, or returns null if the deque is empty. Must only be called by
+    // the owner thread.
+    public T removeLast() {
+        long b = bottom - 1;
+        Buffer<T> buf = buffer;
+        bottom = b; // reserve the slot before checking for thieves
+        long t = top.get();
+        long size = b - t;
+        if (size < 0) { // was already empty
+            bottom = t;
+            return null;
+        }
+        T result = buf.get(b);
+        if (size > 0) { // thieves can't reach index b while other items sit in front of it
+            buf.put(b, null);
+            return result;
+        }
+        // this was the last item, so race any thieves for it
+        if (!top.compareAndSet(t, t + 1)) {
+            result = null;
+        } else {
+            buf.put(b, null);
+        }
+        bottom = t + 1;
+        return result;
+    }
+
+    // Steals an item from the front, or returns null if the deque is empty. Safe to call from
+    // any thread; retries if another thief or the owner claims the item first.
+    public T removeFirst() {
+        while (true) {
+            long t = top.get();
+            long b = bottom;
+            if (b - t <= 0) {
+                return null;
+            }
+            T result = buffer.get(t);
+            if (top.compareAndSet(t, t + 1)) {
+                return result;
+            }
+        }
+    }
+
+    // Returns the item at the given index from the front, or null if there is none.
+    // When other threads are stealing, this is only a best-effort snapshot.
+    public T get(int index) {
+        long t = top.get();
+        long b = bottom;
+        if (index < 0 || index >= b - t) {
+            return null;
+        }
+        return buffer.get(t + index);
+    }
+
+    // Returns the number of items; only a snapshot when other threads are stealing.
+    public int size() {
+        long t = top.get();
+        long b = bottom;
+        return (int) Math.max(0, b - t);
+    }
+
+    // A power-of-two circular array indexed by the deque's ever-increasing top/bottom counters.
+    // Stolen slots are not cleared, since a thief can't tell whether the owner has already
+    // reused them; they are overwritten as the owner wraps around.
+    private static class Buffer<T> {
+        private final T[] items;
+        private final int mask;
+
+        @SuppressWarnings("unchecked")
+        Buffer(int capacity) {
+            this.items = (T[]) new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return items.length;
+        }
+
+        T get(long i) {
+            return items[(int) i & mask];
+        }
+
+        void put(long i, T item) {
+            items[(int) i & mask] = item;
+        }
+
+        // Returns a buffer twice as large holding the items in [t, b).
+        Buffer<T> grow(long t, long b) {
+            Buffer<T> bigger = new Buffer<>(items.length * 2);
+            for (long i = t; i < b; i++) {
+                bigger.put(i, get(i));
+            }
+            return bigger;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package deques;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// A small fork-join style executor where every worker thread owns a task deque.
+//
+// Tasks submitted from inside a worker go onto the back of that worker's own deque, and the
+// worker pops from the back (newest first). Tasks submitted from any other thread go to a shared
+// inbox. An idle worker checks its own deque, then the inbox, then tries to steal from the front
+// of a random other worker's deque.
+//
+// A task that throws doesn't take its worker down with it: the exception goes to the worker's
+// uncaught exception handler (which by default prints it), is counted by failedTaskCount, and the
+// worker moves on to its next task.
+//
+// The per-worker deque only needs to support owner-only addLast/removeLast and concurrent
+// removeFirst, so any such Deque works; WorkStealingDeque is the default.
+public class WorkStealingExecutor implements Executor {
+    private static final int SPINS_BEFORE_PARKING = 64;
+    private static final long PARK_NANOS = 50_000;
+
+    private final Worker[] workers;
+    private final Queue<Runnable> inbox;
+    private final AtomicLong pending; // tasks submitted but not yet finished
+    private final AtomicLong failed; // tasks that threw
+    private final Object quiescenceLock;
+    private volatile boolean shutdown;
+
+    public WorkStealingExecutor(int threadCount) {
+        this(threadCount, WorkStealingDeque::new);
+    }
+
+    // @param threadCount the number of worker threads. Must be > 0.
+    // @param dequeFactory creates the task deque owned by each worker
+    public WorkStealingExecutor(int threadCount, Supplier<Deque<Runnable>> dequeFactory) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be greater than 0");
+        }
+        this.inbox = new ConcurrentLinkedQueue<>();
+        this.pending = new AtomicLong(0);
+        this.failed = new AtomicLong(0);
+        this.quiescenceLock = new Object();
+        this.shutdown = false;
+        this.workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker(i, dequeFactory.get());
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        pending.incrementAndGet();
+        Thread current = Thread.currentThread();
+        if (current instanceof Worker && ((Worker) current).executor() == this) {
+            ((Worker) current).tasks.addLast(task);
+        } else {
+            inbox.add(task);
+        }
+    }
+
+    // Blocks until every submitted task (including tasks they submit) has finished.
+    public void awaitQuiescence() throws InterruptedException {
+        synchronized (quiescenceLock) {
+            while (pending.get() > 0) {
+                quiescenceLock.wait();
+            }
+        }
+    }
+
+    // Stops the workers once they run out of tasks and waits for them to exit.
+    public void shutdown() throws InterruptedException {
+        shutdown = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+    }
+
+    // Returns the number of tasks that have thrown an exception.
+    public long failedTaskCount() {
+        return failed.get();
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0) {
+            synchronized (quiescenceLock) {
+                quiescenceLock.notifyAll();
+            }
+        }
+    }
+
+    private class Worker extends Thread {
+        private final int id;
+        private final Deque<Runnable> tasks;
+
+        Worker(int id, Deque<Runnable> tasks) {
+            super("work-stealing-worker-" + id);
+            this.id = id;
+            this.tasks = tasks;
+            setDaemon(true);
+        }
+
+        WorkStealingExecutor executor() {
+            return WorkStealingExecutor.this;
+        }
+
+        @Override
+        public void run() {
+            int idleSpins = 0;
+            while (true) {
+                Runnable task = findTask();
+                if (task != null) {
+                    idleSpins = 0;
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        failed.incrementAndGet();
+                        getUncaughtExceptionHandler().uncaughtException(this, e);
+                    } finally {
+                        finished();
+                    }
+                } else if (shutdown) {
+                    return;
+                } else if (idleSpins < SPINS_BEFORE_PARKING) {
+                    idleSpins += 1;
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+
+        private Runnable findTask() {
+            Runnable task = tasks.removeLast();
+            if (task != null) {
+                return task;
+            }
+            task = inbox.poll();
+            if (task != null) {
+                return task;
+            }
+            // try each other worker once, starting from a random victim
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                Worker victim = workers[(start + i) % workers.length];
+                if (victim.id != id) {
+                    task = victim.tasks.removeFirst();
+                    if (task != null) {
+                        return task;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package deques.experiments;
 
 import deques.Deque;
 import deques.LinkedDeque;
+import deques.UnrolledLinkedDeque;
 import edu.washington.cse373.experiments.AnalysisUtils;
 import edu.washington.cse373.experiments.PlotWindow;
 
@@ -29,14 +30,18 @@ public class Experiment1LinkedDequeGet {
         List<Long> sizes = AnalysisUtils.range(STEP, MAX_SIZE, STEP);
 
         PlotWindow.launch("Experiment 1", "Deque Size", "Elapsed Time (ns)",
-            new LongUnaryOperator[]{this::f1, this::f2, this::f3},
-            new String[]{"f1", "f2", "f3"}, sizes, 1000, .05);
+            new LongUnaryOperator[]{this::f1, this::f2, this::f3, this::f4},
+            new String[]{"f1", "f2", "f3", "f4"}, sizes, 1000, .05);
     }
 
     protected Deque<Long> createLinkedDequeOfSize(long size) {
         return createDequeOfSize(size, LinkedDeque::new);
     }
 
+    protected Deque<Long> createUnrolledLinkedDequeOfSize(long size) {
+        return createDequeOfSize(size, UnrolledLinkedDeque::new);
+    }
+
     public long f1(long size) {
         return timeGetsAtIndex(size, 0);
     }
@@ -49,14 +54,24 @@ public class Experiment1LinkedDequeGet {
         return timeGetsAtIndex(size, size / 2);
     }
 
+    public long f4(long size) {
+        // same as f3, but on an UnrolledLinkedDeque, which skips whole blocks to reach the index
+        return timeGetsAtIndex(createUnrolledLinkedDequeOfSize(size), size / 2);
+    }
+
     /**
      * Returns the runtime in nanoseconds of `LinkedDeque.get` calls on a deque with the given size
      * and at the given index.
      */
     public long timeGetsAtIndex(long size, long index) {
         // construct deque before starting the timing
-        Deque<Long> deque = createLinkedDequeOfSize(size);
+        return timeGetsAtIndex(createLinkedDequeOfSize(size), index);
+    }
 
+    /**
+     * Returns the runtime in nanoseconds of `get` calls on the given deque at the given index.
+     */
+    public long timeGetsAtIndex(Deque<Long> deque, long index) {
         long start = System.nanoTime();
 
         /*
@@ -3,6 +3,8 @@ package deques.experiments;
 import deques.ArrayDeque;
 import deques.Deque;
 import deques.LinkedDeque;
+import deques.LongArrayDeque;
+import deques.UnrolledLinkedDeque;
 import edu.washington.cse373.experiments.PlotWindow;
 
 import java.util.List;
@@ -35,8 +37,8 @@ public class Experiment2DequeMemory {
         */
 
         PlotWindow.launch("Experiment 2", "Deque Size", "Memory Used (bytes)",
-            new LongUnaryOperator[]{this::f1, this::f2},
-            new String[]{"f1", "f2"}, sizes);
+            new LongUnaryOperator[]{this::f1, this::f2, this::f3, this::f4},
+            new String[]{"f1", "f2", "f3", "f4"}, sizes);
     }
 
     protected Deque<Long> createLinkedDequeOfSize(long size) {
@@ -47,6 +49,18 @@ public class Experiment2DequeMemory {
         return createDequeOfSize(size, ArrayDeque::new);
     }
 
+    protected Deque<Long> createUnrolledLinkedDequeOfSize(long size) {
+        return createDequeOfSize(size, UnrolledLinkedDeque::new);
+    }
+
+    protected LongArrayDeque createLongArrayDequeOfSize(long size) {
+        LongArrayDeque deque = new LongArrayDeque();
+        for (long i = 0; i < size; i++) {
+            deque.addLast(i);
+        }
+        return deque;
+    }
+
     public long f1(long size) {
         Deque<Long> deque = createLinkedDequeOfSize(size);
 
@@ -59,4 +73,18 @@ public class Experiment2DequeMemory {
 
         return estimateObjectMemoryUsage(deque);
     }
+
+    public long f3(long size) {
+        // the primitive deque stores its items inline in a long[], so there are no Long objects
+        // to count on top of the backing array
+        LongArrayDeque deque = createLongArrayDequeOfSize(size);
+
+        return estimateObjectMemoryUsage(deque);
+    }
+
+    public long f4(long size) {
+        Deque<Long> deque = createUnrolledLinkedDequeOfSize(size);
+
+        return estimateObjectMemoryUsage(deque);
+    }
 }
@@ -0,0 +1,74 @@
+package deques.experiments;
+
+import deques.ArrayDeque;
+import deques.Deque;
+import deques.LinkedDeque;
+import edu.washington.cse373.experiments.AnalysisUtils;
+import edu.washington.cse373.experiments.PlotWindow;
+
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+import static deques.experiments.Utils.createDequeOfSize;
+
+public class Experiment3DequeIteration {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_SIZE = 20000;
+    public static final long STEP = 500;
+
+    long dummy = 0;
+
+    public static void main(String[] args) {
+        new Experiment3DequeIteration().run();
+    }
+
+    public void run() {
+        List<Long> sizes = AnalysisUtils.range(STEP, MAX_SIZE, STEP);
+
+        PlotWindow.launch("Experiment 3", "Deque Size", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2, this::f3},
+            new String[]{"f1", "f2", "f3"}, sizes, 10, .05);
+    }
+
+    protected Deque<Long> createLinkedDequeOfSize(long size) {
+        return createDequeOfSize(size, LinkedDeque::new);
+    }
+
+    protected Deque<Long> createArrayDequeOfSize(long size) {
+        return createDequeOfSize(size, ArrayDeque::new);
+    }
+
+    public long f1(long size) {
+        // iterates the way AbstractDeque's default iterator does: one `get` per index
+        Deque<Long> deque = createLinkedDequeOfSize(size);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < deque.size(); i++) {
+            this.dummy ^= deque.get(i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    public long f2(long size) {
+        return timeIteration(createLinkedDequeOfSize(size));
+    }
+
+    public long f3(long size) {
+        return timeIteration(createArrayDequeOfSize(size));
+    }
+
+    /**
+     * Returns the runtime in nanoseconds of a full for-each loop over the given deque.
+     */
+    public long timeIteration(Deque<Long> deque) {
+        long start = System.nanoTime();
+        for (long item : deque) {
+            // mutate a dummy field to discourage Java from doing any clever optimization
+            this.dummy ^= item;
+        }
+        return System.nanoTime() - start;
+    }
+}
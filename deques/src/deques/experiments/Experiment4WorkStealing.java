@@ -0,0 +1,122 @@
+package deques.experiments;
+
+import deques.AbstractDeque;
+import deques.ArrayDeque;
+import deques.Deque;
+import deques.WorkStealingDeque;
+import deques.WorkStealingExecutor;
+import edu.washington.cse373.experiments.AnalysisUtils;
+import edu.washington.cse373.experiments.PlotWindow;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+public class Experiment4WorkStealing {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int TASK_TREE_DEPTH = 18;
+    public static final int WORK_PER_LEAF = 200;
+
+    public static void main(String[] args) {
+        new Experiment4WorkStealing().run();
+    }
+
+    public void run() {
+        List<Long> threadCounts = AnalysisUtils.range(1, MAX_THREADS, 1);
+
+        PlotWindow.launch("Experiment 4", "Worker Threads", "Tasks per Second",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, threadCounts, 5, .05);
+    }
+
+    public long f1(long threads) {
+        return measureThroughput((int) threads, WorkStealingDeque::new);
+    }
+
+    public long f2(long threads) {
+        // the baseline: a plain ArrayDeque behind a single lock
+        return measureThroughput((int) threads, () -> new SynchronizedDeque<>(new ArrayDeque<>()));
+    }
+
+    /**
+     * Runs a binary tree of fork-join style tasks on a WorkStealingExecutor whose workers use
+     * deques from the given factory, and returns the number of tasks completed per second.
+     */
+    public long measureThroughput(int threads, Supplier<Deque<Runnable>> dequeFactory) {
+        WorkStealingExecutor executor = new WorkStealingExecutor(threads, dequeFactory);
+        LongAdder completed = new LongAdder();
+        try {
+            long start = System.nanoTime();
+            executor.execute(() -> fork(executor, TASK_TREE_DEPTH, completed));
+            executor.awaitQuiescence();
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+            return completed.sum() * 1_000_000_000L / Math.max(1, elapsed);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void fork(WorkStealingExecutor executor, int depth, LongAdder completed) {
+        completed.increment();
+        if (depth == 0) {
+            // a little busy work so the leaves aren't free
+            long x = depth;
+            for (int i = 0; i < WORK_PER_LEAF; i++) {
+                x = x * 31 + i;
+            }
+            if (x == 42) {
+                completed.increment();
+            }
+            return;
+        }
+        executor.execute(() -> fork(executor, depth - 1, completed));
+        executor.execute(() -> fork(executor, depth - 1, completed));
+    }
+
+    /**
+     * Wraps a deque so that every operation holds the same lock.
+     */
+    static class SynchronizedDeque<T> extends AbstractDeque<T> {
+        private final Deque<T> deque;
+
+        SynchronizedDeque(Deque<T> deque) {
+            this.deque = deque;
+        }
+
+        @Override
+        public synchronized void addFirst(T x) {
+            deque.addFirst(x);
+        }
+
+        @Override
+        public synchronized void addLast(T x) {
+            deque.addLast(x);
+        }
+
+        @Override
+        public synchronized T removeFirst() {
+            return deque.removeFirst();
+        }
+
+        @Override
+        public synchronized T removeLast() {
+            return deque.removeLast();
+        }
+
+        @Override
+        public synchronized T get(int index) {
+            return deque.get(index);
+        }
+
+        @Override
+        public synchronized int size() {
+            return deque.size();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package deques.experiments;
+
+import deques.BoundedRingBuffer;
+import edu.washington.cse373.experiments.AnalysisUtils;
+import edu.washington.cse373.experiments.PlotWindow;
+
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+public class Experiment5RingBufferBatching {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final int CAPACITY = 1 << 12;
+    public static final long NUM_ITEMS = 1_000_000;
+    public static final long MAX_BATCH = 256;
+
+    long dummy = 0;
+
+    public static void main(String[] args) {
+        new Experiment5RingBufferBatching().run();
+    }
+
+    public void run() {
+        List<Long> batchSizes = AnalysisUtils.range(1, MAX_BATCH, 5);
+
+        PlotWindow.launch("Experiment 5", "Batch Size", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, batchSizes, 5, .05);
+    }
+
+    public long f1(long batchSize) {
+        // the baseline: one offer and one poll per item, regardless of batch size
+        return timeTransfer(batchSize, false);
+    }
+
+    public long f2(long batchSize) {
+        return timeTransfer(batchSize, true);
+    }
+
+    /**
+     * Returns the runtime in nanoseconds of passing NUM_ITEMS items from a producer thread to a
+     * consumer thread through a BoundedRingBuffer, either item by item or in batches.
+     */
+    public long timeTransfer(long batchSize, boolean batched) {
+        BoundedRingBuffer<Long> buffer = new BoundedRingBuffer<>(CAPACITY);
+        Long[] batch = new Long[(int) batchSize];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = (long) i;
+        }
+
+        Thread producer = new Thread(() -> {
+            long sent = 0;
+            while (sent < NUM_ITEMS) {
+                if (batched) {
+                    sent += buffer.offerBatch(batch);
+                } else if (buffer.offer(sent)) {
+                    sent += 1;
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        producer.start();
+        long received = 0;
+        while (received < NUM_ITEMS) {
+            if (batched) {
+                received += buffer.drainTo(item -> this.dummy ^= item, (int) batchSize);
+            } else {
+                Long item = buffer.poll();
+                if (item != null) {
+                    this.dummy ^= item;
+                    received += 1;
+                }
+            }
+        }
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,59 @@
+package deques.experiments;
+
+import deques.ElementCodec;
+import deques.SpillingDeque;
+import edu.washington.cse373.experiments.AnalysisUtils;
+import edu.washington.cse373.experiments.PlotWindow;
+
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+public class Experiment6SpillingDeque {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_SIZE = 1_000_000;
+    public static final long STEP = 50_000;
+    public static final int SPILLED_HEAP_BUDGET = 10_000;
+
+    long dummy = 0;
+
+    public static void main(String[] args) {
+        new Experiment6SpillingDeque().run();
+    }
+
+    public void run() {
+        List<Long> sizes = AnalysisUtils.range(STEP, MAX_SIZE, STEP);
+
+        PlotWindow.launch("Experiment 6", "Deque Size", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, sizes, 3, .05);
+    }
+
+    public long f1(long size) {
+        // the budget covers every item, so nothing ever leaves the heap
+        return timeFillAndDrain(size, new SpillingDeque<>(ElementCodec.longs(), Integer.MAX_VALUE));
+    }
+
+    public long f2(long size) {
+        return timeFillAndDrain(size, new SpillingDeque<>(ElementCodec.longs(), SPILLED_HEAP_BUDGET));
+    }
+
+    /**
+     * Returns the runtime in nanoseconds of adding `size` items to the back of the deque and then
+     * removing them all from the front.
+     */
+    public long timeFillAndDrain(long size, SpillingDeque<Long> deque) {
+        long start = System.nanoTime();
+        for (long i = 0; i < size; i++) {
+            deque.addLast(i);
+        }
+        while (!deque.isEmpty()) {
+            this.dummy ^= deque.removeFirst();
+        }
+        long elapsed = System.nanoTime() - start;
+        deque.close();
+        return elapsed;
+    }
+}
@@ -0,0 +1,63 @@
+package deques.experiments;
+
+import deques.ArrayDeque;
+import deques.Deque;
+import deques.SnapshotDeque;
+import edu.washington.cse373.experiments.AnalysisUtils;
+import edu.washington.cse373.experiments.PlotWindow;
+
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+import static deques.experiments.Utils.createDequeOfSize;
+
+public class Experiment7DequeSnapshots {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_SIZE = 100_000;
+    public static final long STEP = 5_000;
+    public static final int NUM_SNAPSHOTS = 100;
+
+    long dummy = 0;
+
+    public static void main(String[] args) {
+        new Experiment7DequeSnapshots().run();
+    }
+
+    public void run() {
+        List<Long> sizes = AnalysisUtils.range(STEP, MAX_SIZE, STEP);
+
+        PlotWindow.launch("Experiment 7", "Deque Size", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, sizes, 10, .05);
+    }
+
+    public long f1(long size) {
+        // snapshots an ArrayDeque the only way it can be: by copying every item
+        Deque<Long> deque = createDequeOfSize(size, ArrayDeque::new);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_SNAPSHOTS; i++) {
+            Deque<Long> copy = new ArrayDeque<>();
+            for (long item : deque) {
+                copy.addLast(item);
+            }
+            deque.addLast(deque.removeFirst());
+            this.dummy ^= copy.size();
+        }
+        return System.nanoTime() - start;
+    }
+
+    public long f2(long size) {
+        SnapshotDeque<Long> deque = (SnapshotDeque<Long>) createDequeOfSize(size, SnapshotDeque::new);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_SNAPSHOTS; i++) {
+            this.dummy ^= deque.snapshot().size();
+            deque.addLast(deque.removeFirst());
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,78 @@
+package deques.experiments;
+
+import deques.LongArrayDeque;
+import deques.SlidingWindowAggregator;
+import edu.washington.cse373.experiments.AnalysisUtils;
+import edu.washington.cse373.experiments.PlotWindow;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+public class Experiment8SlidingWindow {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_WINDOW_SIZE = 5000;
+    public static final long STEP = 250;
+    public static final int NUM_SAMPLES = 20000;
+
+    long dummy = 0;
+
+    public static void main(String[] args) {
+        new Experiment8SlidingWindow().run();
+    }
+
+    public void run() {
+        List<Long> sizes = AnalysisUtils.range(STEP, MAX_WINDOW_SIZE, STEP);
+
+        PlotWindow.launch("Experiment 8", "Window Size", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, sizes, 5, .05);
+    }
+
+    public long f1(long windowSize) {
+        // rescans the whole window for its min and max after every sample
+        long[] samples = generateSamples();
+        LongArrayDeque window = new LongArrayDeque();
+
+        long start = System.nanoTime();
+        for (long sample : samples) {
+            if (window.size() == windowSize) {
+                window.removeFirst();
+            }
+            window.addLast(sample);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < window.size(); i++) {
+                min = Math.min(min, window.get(i));
+                max = Math.max(max, window.get(i));
+            }
+            this.dummy ^= min ^ max;
+        }
+        return System.nanoTime() - start;
+    }
+
+    public long f2(long windowSize) {
+        long[] samples = generateSamples();
+        SlidingWindowAggregator window = SlidingWindowAggregator.ofCount((int) windowSize);
+
+        long start = System.nanoTime();
+        for (int t = 0; t < samples.length; t++) {
+            window.add(t, samples[t]);
+            this.dummy ^= window.min() ^ window.max();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Random latencies, seeded so every run sees the same stream.
+    private static long[] generateSamples() {
+        Random random = new Random(373);
+        long[] samples = new long[NUM_SAMPLES];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = 1000 + random.nextInt(100_000);
+        }
+        return samples;
+    }
+}
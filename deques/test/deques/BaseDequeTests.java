@@ -3,6 +3,12 @@ package deques;
 import edu.washington.cse373.BaseTest;
 import org.junit.jupiter.api.Test;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -256,4 +262,50 @@ public abstract class BaseDequeTests extends BaseTest {
         assertThat(deque.size()).isEqualTo(4);
         deque.removeLast();
     }
+
+    @Test
+    void iterator_afterAddManyToBothSides_yieldsItemsInOrder() {
+        Deque<Integer> deque = createDeque();
+        for (int i = 0; i < 100; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i - 1);
+        }
+        Iterator<Integer> iterator = deque.iterator();
+        for (int i = -100; i < 100; i++) {
+            assertThat(iterator.next()).isEqualTo(i);
+        }
+        assertThat(iterator.hasNext()).isFalse();
+        assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void iterator_next_afterAdd_throwsConcurrentModification() {
+        Deque<Integer> deque = createDeque();
+        deque.addLast(1);
+        deque.addLast(2);
+        Iterator<Integer> iterator = deque.iterator();
+        iterator.next();
+        deque.addLast(3);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    void spliterator_isSizedAndSplits() {
+        Deque<Integer> deque = createDeque();
+        IntStream.range(0, 5000).forEach(deque::addLast);
+        Spliterator<Integer> spliterator = deque.spliterator();
+        assertThat(spliterator.hasCharacteristics(Spliterator.SIZED)).isTrue();
+        assertThat(spliterator.estimateSize()).isEqualTo(5000);
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertThat(prefix).isNotNull();
+        assertThat(prefix.estimateSize() + spliterator.estimateSize()).isEqualTo(5000);
+    }
+
+    @Test
+    void parallelStream_afterAddMany_yieldsItemsInOrder() {
+        Deque<Integer> deque = createDeque();
+        IntStream.range(0, 5000).forEach(deque::addLast);
+        List<Integer> output = deque.stream().parallel().collect(Collectors.toList());
+        assertThat(output).containsExactly(IntStream.range(0, 5000).boxed().toArray(Integer[]::new));
+    }
 }
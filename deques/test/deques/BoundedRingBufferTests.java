@@ -0,0 +1,153 @@
+package deques;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BoundedRingBufferTests extends BaseTest {
+    @Test
+    void capacity_isRoundedUpToPowerOfTwo() {
+        assertThat(new BoundedRingBuffer<Integer>(5).capacity()).isEqualTo(8);
+        assertThat(new BoundedRingBuffer<Integer>(8).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    void poll_whenEmpty_returnsNull() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void offer_whenFull_returnsFalse() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    void poll_afterOfferManyLaps_returnsItemsInOrder() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 100; i++) {
+            buffer.offer(i);
+            assertThat(buffer.poll()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void offerBatch_whenNearlyFull_addsOnlyWhatFits() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(8);
+        buffer.offer(-1);
+        buffer.offer(-2);
+        int added = buffer.offerBatch(new Integer[]{0, 1, 2, 3, 4, 5, 6, 7});
+        assertThat(added).isEqualTo(6);
+        assertThat(buffer.offerBatch(new Integer[]{8})).isEqualTo(0);
+    }
+
+    @Test
+    void drainTo_afterOfferBatch_drainsAtMostMaxBatchInOrder() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(16);
+        buffer.offerBatch(new Integer[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained::add, 4)).isEqualTo(4);
+        assertThat(drained).containsExactly(0, 1, 2, 3);
+        assertThat(buffer.drainTo(drained::add, 100)).isEqualTo(6);
+        assertThat(buffer.drainTo(drained::add, 100)).isEqualTo(0);
+        assertThat(drained).hasSize(10);
+    }
+
+    @Test
+    void drainTo_whenConsumerThrows_releasesClaimedSlots() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        buffer.offerBatch(new Integer[]{0, 1, 2, 3});
+        assertThatThrownBy(() -> buffer.drainTo(item -> {
+            throw new IllegalStateException("expected by the test");
+        }, 4)).isInstanceOf(IllegalStateException.class);
+
+        // every slot must be free again, or these offers would fail forever
+        assertThat(buffer.offerBatch(new Integer[]{4, 5, 6, 7})).isEqualTo(4);
+        List<Integer> drained = new ArrayList<>();
+        buffer.drainTo(drained::add, 4);
+        assertThat(drained).containsExactly(4, 5, 6, 7);
+    }
+
+    @Test
+    void poll_withTimeout_whenEmpty_returnsNull() throws InterruptedException {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        assertThat(buffer.poll(5, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void concurrentProducersAndConsumers_transferEveryItemOnce() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            final int producers = 3;
+            final int perProducer = 20_000;
+            BoundedRingBuffer<Long> buffer = new BoundedRingBuffer<>(64);
+            AtomicLong sum = new AtomicLong();
+            AtomicLong count = new AtomicLong();
+
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final int id = p;
+                threads.add(new Thread(() -> {
+                    try {
+                        for (long i = 0; i < perProducer; i++) {
+                            if (i % 2 == 0) {
+                                buffer.put(id * (long) perProducer + i);
+                            } else {
+                                Long[] batch = {id * (long) perProducer + i};
+                                while (buffer.offerBatch(batch) == 0) {
+                                    Thread.yield();
+                                }
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            for (int c = 0; c < 2; c++) {
+                final boolean batched = c == 0;
+                threads.add(new Thread(() -> {
+                    while (count.get() < producers * (long) perProducer) {
+                        int drained = 0;
+                        if (batched) {
+                            drained = buffer.drainTo(item -> {
+                                sum.addAndGet(item);
+                                count.incrementAndGet();
+                            }, 16);
+                        } else {
+                            Long item = buffer.poll();
+                            if (item != null) {
+                                sum.addAndGet(item);
+                                count.incrementAndGet();
+                                drained = 1;
+                            }
+                        }
+                        if (drained == 0) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            long n = producers * (long) perProducer;
+            assertThat(count.get()).isEqualTo(n);
+            assertThat(sum.get()).isEqualTo(n * (n - 1) / 2);
+        });
+    }
+}
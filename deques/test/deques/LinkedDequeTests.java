@@ -1,5 +1,7 @@
 package deques;
 
+import org.junit.jupiter.api.Test;
+
 public class LinkedDequeTests extends BaseDequeTests {
     public static <T> LinkedDequeAssert<T> assertThat(LinkedDeque<T> deque) {
         return new LinkedDequeAssert<>(deque);
@@ -17,4 +19,45 @@ public class LinkedDequeTests extends BaseDequeTests {
     }
 
     // You can write additional tests here if you only want them to run for LinkedDequeTests and not ArrayDequeTests
+
+    @Test
+    void recycling_steadyChurn_reusesPooledNodes() {
+        LinkedDeque<Integer> deque = new LinkedDeque<>(16);
+        for (int i = 0; i < 8; i++) {
+            deque.addLast(i);
+        }
+        for (int i = 8; i < 1008; i++) {
+            deque.addLast(i);
+            assertThat(deque.removeFirst()).isEqualTo(i - 8);
+        }
+        assertThat(deque.poolMisses()).isEqualTo(9);
+        assertThat(deque.poolHits()).isEqualTo(999);
+        assertThat(deque).containsExactly(1000, 1001, 1002, 1003, 1004, 1005, 1006, 1007);
+        checkInvariants(deque);
+    }
+
+    @Test
+    void recycling_removedNodes_doNotRetainValues() {
+        LinkedDeque<String> deque = new LinkedDeque<>(4);
+        deque.addLast("a");
+        deque.addLast("b");
+        Node<String> first = deque.front.next;
+        Node<String> last = deque.back.prev;
+        deque.removeFirst();
+        deque.removeLast();
+        assertThat(first.value).isNull();
+        assertThat(last.value).isNull();
+        assertThat(first.prev).isNull();
+        checkInvariants(deque);
+    }
+
+    @Test
+    void recycling_whenDisabled_countsNothing() {
+        LinkedDeque<Integer> deque = new LinkedDeque<>();
+        deque.addLast(1);
+        deque.removeFirst();
+        deque.addLast(2);
+        assertThat(deque.poolHits()).isEqualTo(0);
+        assertThat(deque.poolMisses()).isEqualTo(0);
+    }
 }
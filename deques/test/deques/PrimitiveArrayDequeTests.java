@@ -0,0 +1,86 @@
+package deques;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Tests for the primitive-specialized deques and their boxing Deque views.
+ */
+public class PrimitiveArrayDequeTests extends BaseTest {
+    @Test
+    void size_whenEmpty_is0() {
+        LongArrayDeque deque = new LongArrayDeque();
+        assertThat(deque.size()).isEqualTo(0);
+        assertThat(deque.isEmpty()).isTrue();
+    }
+
+    @Test
+    void remove_whenEmpty_throwsNoSuchElement() {
+        LongArrayDeque deque = new LongArrayDeque();
+        assertThatThrownBy(deque::removeFirst).isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(deque::removeLast).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void get_outOfBounds_throwsIndexOutOfBounds() {
+        IntArrayDeque deque = new IntArrayDeque();
+        deque.addLast(1);
+        assertThatThrownBy(() -> deque.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> deque.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void getEach_afterAddToBothEnds_returnsCorrectItems() {
+        IntArrayDeque deque = new IntArrayDeque();
+        for (int i = 0; i < 20; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i - 1);
+        }
+        for (int i = 0; i < 40; i++) {
+            assertThat(deque.get(i)).isEqualTo(i - 20);
+        }
+    }
+
+    @Test
+    void remove_afterAddMany_thenRemoveMany_returnsItemsInOrder() {
+        DoubleArrayDeque deque = new DoubleArrayDeque();
+        for (int i = 0; i < 100; i++) {
+            deque.addLast(i * 0.5);
+        }
+        for (int i = 0; i < 90; i++) {
+            assertThat(deque.removeFirst()).isEqualTo(i * 0.5);
+        }
+        assertThat(deque.removeLast()).isEqualTo(99 * 0.5);
+        assertThat(deque.size()).isEqualTo(9);
+    }
+
+    @Test
+    void asDeque_reflectsUnderlyingItems() {
+        LongArrayDeque deque = new LongArrayDeque();
+        LongStream.range(0, 20).forEach(deque::addLast);
+        Deque<Long> view = deque.asDeque();
+        assertThat(view).containsExactly(LongStream.range(0, 20).boxed().toArray(Long[]::new));
+    }
+
+    @Test
+    void asDeque_whenEmpty_returnsNullLikeOtherDeques() {
+        Deque<Integer> view = new IntArrayDeque().asDeque();
+        assertThat(view.removeFirst()).isNull();
+        assertThat(view.removeLast()).isNull();
+        assertThat(view.get(0)).isNull();
+    }
+
+    @Test
+    void asDeque_addThroughView_isVisibleInPrimitiveDeque() {
+        IntArrayDeque deque = new IntArrayDeque();
+        Deque<Integer> view = deque.asDeque();
+        IntStream.range(0, 10).forEach(view::addFirst);
+        assertThat(deque.size()).isEqualTo(10);
+        assertThat(deque.get(0)).isEqualTo(9);
+        assertThat(deque.removeLast()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,93 @@
+package deques;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class SlidingWindowTests extends BaseTest {
+    @Test
+    void countWindow_minMaxSum_matchRescanning() {
+        SlidingWindowAggregator window = SlidingWindowAggregator.ofCount(50);
+        List<Long> samples = new ArrayList<>();
+        Random random = new Random(373);
+        for (int t = 0; t < 5000; t++) {
+            long value = random.nextInt(1000) - 500;
+            window.add(t, value);
+            samples.add(value);
+            List<Long> expected = samples.subList(Math.max(0, samples.size() - 50), samples.size());
+
+            assertThat(window.size()).isEqualTo(expected.size());
+            assertThat(window.min()).isEqualTo(expected.stream().mapToLong(x -> x).min().getAsLong());
+            assertThat(window.max()).isEqualTo(expected.stream().mapToLong(x -> x).max().getAsLong());
+            assertThat(window.sum()).isEqualTo(expected.stream().mapToLong(x -> x).sum());
+        }
+    }
+
+    @Test
+    void timeWindow_evictsSamplesOlderThanMaxAge() {
+        SlidingWindowAggregator window = SlidingWindowAggregator.ofDuration(10);
+        window.add(0, 5);
+        window.add(3, 1);
+        window.add(9, 7);
+        assertThat(window.min()).isEqualTo(1);
+        assertThat(window.size()).isEqualTo(3);
+
+        window.add(10, 4); // 0 is now exactly 10 old, so it's out
+        assertThat(window.size()).isEqualTo(3);
+        assertThat(window.sum()).isEqualTo(12);
+
+        window.advanceTo(13); // 3 is out
+        assertThat(window.min()).isEqualTo(4);
+        assertThat(window.max()).isEqualTo(7);
+        assertThat(window.mean()).isEqualTo(5.5);
+
+        window.advanceTo(100);
+        assertThat(window.isEmpty()).isTrue();
+        assertThat(window.mean()).isNaN();
+        assertThatThrownBy(window::min).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void add_withEarlierTimestamp_throwsIllegalArgument() {
+        SlidingWindowAggregator window = SlidingWindowAggregator.ofCount(5);
+        window.add(10, 1);
+        assertThatThrownBy(() -> window.add(9, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reducer_nonCommutativeOperator_keepsWindowOrder() {
+        SlidingWindowReducer<String> window = SlidingWindowReducer.ofCount(String::concat, 3);
+        assertThat(window.aggregate()).isNull();
+        String letters = "abcdefghij";
+        for (int i = 0; i < letters.length(); i++) {
+            window.add(i, letters.substring(i, i + 1));
+            String expected = letters.substring(Math.max(0, i - 2), i + 1);
+            assertThat(window.aggregate()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void reducer_timeWindow_matchesRescanning() {
+        SlidingWindowReducer<Long> window = SlidingWindowReducer.ofDuration(Math::max, 20);
+        List<long[]> samples = new ArrayList<>();
+        Random random = new Random(373);
+        long time = 0;
+        for (int i = 0; i < 2000; i++) {
+            time += random.nextInt(4);
+            long value = random.nextInt(1000);
+            window.add(time, value);
+            samples.add(new long[]{time, value});
+
+            long now = time;
+            long expected = samples.stream()
+                .filter(sample -> now - sample[0] < 20)
+                .mapToLong(sample -> sample[1])
+                .max().getAsLong();
+            assertThat(window.aggregate()).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package deques;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SnapshotDequeTests extends BaseDequeTests {
+    @Override
+    protected <T> Deque<T> createDeque() {
+        return new SnapshotDeque<>();
+    }
+
+    @Override
+    protected <T> void checkInvariants(Deque<T> deque) {
+        PersistentDeque<T> snapshot = ((SnapshotDeque<T>) deque).snapshot();
+        assertThat(snapshot.size()).isEqualTo(deque.size());
+        assertThat(snapshot).containsExactlyElementsOf(deque);
+    }
+
+    @Test
+    void snapshot_isUnaffectedByLaterChanges() {
+        SnapshotDeque<Integer> deque = new SnapshotDeque<>();
+        for (int i = 0; i < 100; i++) {
+            deque.addLast(i);
+        }
+        PersistentDeque<Integer> before = deque.snapshot();
+        deque.addFirst(-1);
+        for (int i = 0; i < 50; i++) {
+            deque.removeLast();
+        }
+
+        assertThat(before.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(before.get(i)).isEqualTo(i);
+        }
+        assertThat(deque).hasSize(51);
+        assertThat(deque.get(0)).isEqualTo(-1);
+        checkInvariants(deque);
+    }
+
+    @Test
+    void persistentDeque_oldVersions_keepTheirContents() {
+        List<PersistentDeque<Integer>> versions = new ArrayList<>();
+        PersistentDeque<Integer> deque = PersistentDeque.empty();
+        for (int i = 0; i < 200; i++) {
+            versions.add(deque);
+            deque = i % 2 == 0 ? deque.addLast(i) : deque.addFirst(i);
+        }
+        // branch off an old version and make sure neither branch sees the other's changes
+        PersistentDeque<Integer> branch = versions.get(100).removeFirst().removeLast().addLast(-1);
+
+        for (int v = 0; v < versions.size(); v++) {
+            assertThat(versions.get(v).size()).isEqualTo(v);
+        }
+        assertThat(versions.get(100).peekLast()).isEqualTo(98);
+        assertThat(branch.peekLast()).isEqualTo(-1);
+        assertThat(branch.size()).isEqualTo(99);
+        assertThat(deque.size()).isEqualTo(200);
+    }
+
+    @Test
+    void persistentDeque_removeFromEmpty_returnsEmpty() {
+        PersistentDeque<Integer> deque = PersistentDeque.empty();
+        assertThat(deque.removeFirst()).isSameAs(deque);
+        assertThat(deque.removeLast()).isSameAs(deque);
+        assertThat(deque.peekFirst()).isNull();
+        assertThat(deque.peekLast()).isNull();
+    }
+
+    @Test
+    void randomOperations_matchJavaArrayDeque() {
+        SnapshotDeque<Integer> deque = new SnapshotDeque<>();
+        java.util.ArrayDeque<Integer> expected = new java.util.ArrayDeque<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(5);
+            if (op == 0) {
+                deque.addFirst(i);
+                expected.addFirst(i);
+            } else if (op == 1 || op == 2) {
+                deque.addLast(i);
+                expected.addLast(i);
+            } else if (op == 3) {
+                assertThat(deque.removeFirst()).isEqualTo(expected.pollFirst());
+            } else {
+                assertThat(deque.removeLast()).isEqualTo(expected.pollLast());
+            }
+        }
+        List<Integer> items = new ArrayList<>(expected);
+        for (int i = 0; i < items.size(); i++) {
+            assertThat(deque.get(i)).isEqualTo(items.get(i));
+        }
+        checkInvariants(deque);
+    }
+}
@@ -0,0 +1,66 @@
+package deques;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class SpillingDequeTests extends BaseDequeTests {
+    // small enough that most tests spill, and spill across several segments
+    private static final int MAX_IN_HEAP_ITEMS = 4;
+    private static final int SEGMENT_BYTES = 256;
+
+    @Override
+    protected <T> Deque<T> createDeque() {
+        return new SpillingDeque<>(ElementCodec.serializing(), MAX_IN_HEAP_ITEMS, null, SEGMENT_BYTES);
+    }
+
+    @Override
+    protected <T> void checkInvariants(Deque<T> deque) {
+        SpillingDeque<T> spilling = (SpillingDeque<T>) deque;
+        assertThat(spilling.size() - spilling.spilledSize()).isLessThanOrEqualTo(MAX_IN_HEAP_ITEMS);
+    }
+
+    @Test
+    void addMany_keepsHeapWithinBudget_andSpillsTheRest() {
+        SpillingDeque<Long> deque = new SpillingDeque<>(ElementCodec.longs(), 10, null, SEGMENT_BYTES);
+        for (long i = 0; i < 1000; i++) {
+            deque.addLast(i);
+        }
+        assertThat(deque.spilledSize()).isGreaterThanOrEqualTo(990);
+        for (long i = 0; i < 1000; i++) {
+            assertThat(deque.get((int) i)).isEqualTo(i);
+        }
+        deque.close();
+        assertThat(deque).isEmpty();
+    }
+
+    @Test
+    void randomOperations_matchJavaArrayDeque() {
+        SpillingDeque<Long> deque = new SpillingDeque<>(ElementCodec.longs(), 8, null, SEGMENT_BYTES);
+        java.util.ArrayDeque<Long> expected = new java.util.ArrayDeque<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 20000; i++) {
+            long item = random.nextLong();
+            switch (random.nextInt(4)) {
+                case 0:
+                    deque.addFirst(item);
+                    expected.addFirst(item);
+                    break;
+                case 1:
+                    deque.addLast(item);
+                    expected.addLast(item);
+                    break;
+                case 2:
+                    assertThat(deque.removeFirst()).isEqualTo(expected.pollFirst());
+                    break;
+                default:
+                    assertThat(deque.removeLast()).isEqualTo(expected.pollLast());
+                    break;
+            }
+            assertThat(deque.size()).isEqualTo(expected.size());
+            assertThat(deque.size() - deque.spilledSize()).isLessThanOrEqualTo(8);
+        }
+        assertThat(deque).containsExactlyElementsOf(expected);
+        deque.close();
+    }
+}
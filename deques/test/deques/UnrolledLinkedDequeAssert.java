@@ -0,0 +1,67 @@
+package deques;
+
+import deques.UnrolledLinkedDeque.Block;
+import org.assertj.core.api.FactoryBasedNavigableIterableAssert;
+import org.assertj.core.api.ObjectAssert;
+import org.assertj.core.api.ObjectAssertFactory;
+
+// @see LinkedDequeAssert
+public class UnrolledLinkedDequeAssert<T> extends FactoryBasedNavigableIterableAssert<
+        UnrolledLinkedDequeAssert<T>, UnrolledLinkedDeque<? extends T>, T, ObjectAssert<T>> {
+
+    public UnrolledLinkedDequeAssert(UnrolledLinkedDeque<T> actual) {
+        super(actual, UnrolledLinkedDequeAssert.class, new ObjectAssertFactory<>());
+    }
+
+    public UnrolledLinkedDequeAssert<T> isValid() {
+        String message = getErrorMessageIfInvalid(this.actual.head, this.actual.tail, this.actual.size());
+        if (message != null) {
+            as("invariant checks").failWithMessage(message);
+        }
+        return this;
+    }
+
+    /**
+     * Returns null if the given head and tail blocks form a valid unrolled deque holding `size`
+     * items. Otherwise, returns a string describing the error.
+     */
+    static String getErrorMessageIfInvalid(Block<?> head, Block<?> tail, int size) {
+        if (head == null || tail == null) {
+            return "Unexpected reference: head and tail should never be <null>";
+        }
+        if (head.prev != null) {
+            return "Unexpected reference: head.prev should be <null>";
+        }
+        if (tail.next != null) {
+            return "Unexpected reference: tail.next should be <null>";
+        }
+
+        int count = 0;
+        int index = 0;
+        for (Block<?> curr = head; curr != null; curr = curr.next) {
+            if (curr.start < 0 || curr.end > curr.items.length || curr.start > curr.end) {
+                return String.format("Block %d has invalid bounds [%d, %d)", index, curr.start, curr.end);
+            }
+            if (curr != head && curr != tail && curr.end - curr.start != curr.items.length) {
+                return String.format("Middle block %d is not full: [%d, %d)", index, curr.start, curr.end);
+            }
+            if (curr.next != null && curr.next.prev != curr) {
+                return String.format("Mismatched references between blocks %d and %d", index, index + 1);
+            }
+            if (curr.next == null && curr != tail) {
+                return String.format("Block %d has no next block but is not the tail", index);
+            }
+            for (int i = 0; i < curr.items.length; i++) {
+                if ((i < curr.start || i >= curr.end) && curr.items[i] != null) {
+                    return String.format("Block %d retains a removed item at slot %d", index, i);
+                }
+            }
+            count += curr.end - curr.start;
+            index += 1;
+        }
+        if (count != size) {
+            return String.format("Blocks hold %d items but size is %d", count, size);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package deques;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+public class UnrolledLinkedDequeTests extends BaseDequeTests {
+    public static <T> UnrolledLinkedDequeAssert<T> assertThat(UnrolledLinkedDeque<T> deque) {
+        return new UnrolledLinkedDequeAssert<>(deque);
+    }
+
+    @Override
+    protected <T> Deque<T> createDeque() {
+        return new UnrolledLinkedDeque<>();
+    }
+
+    @Override
+    protected <T> void checkInvariants(Deque<T> deque) {
+        assertThat((UnrolledLinkedDeque<T>) deque).isValid();
+    }
+
+    @Test
+    void getEach_afterAddManyToBothSides_spanningManyBlocks_returnsCorrectItems() {
+        Deque<Integer> deque = createDeque();
+        int n = UnrolledLinkedDeque.BLOCK_SIZE * 5 + 3;
+        for (int i = 0; i < n; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i - 1);
+        }
+        for (int i = 0; i < 2 * n; i++) {
+            assertThat(deque.get(i)).isEqualTo(i - n);
+        }
+        checkInvariants(deque);
+    }
+
+    @Test
+    void remove_afterAddManyToSameSide_drainsBlocksInOrder() {
+        Deque<Integer> deque = createDeque();
+        int n = UnrolledLinkedDeque.BLOCK_SIZE * 3;
+        IntStream.range(0, n).forEach(deque::addLast);
+        for (int i = 0; i < n - 1; i++) {
+            assertThat(deque.removeFirst()).isEqualTo(i);
+            checkInvariants(deque);
+        }
+        assertThat(deque.removeLast()).isEqualTo(n - 1);
+        assertThat(deque).isEmpty();
+        checkInvariants(deque);
+    }
+}
@@ -0,0 +1,146 @@
+package deques;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class WorkStealingDequeTests extends BaseTest {
+    @Test
+    void removeLast_afterAddMany_returnsItemsNewestFirst() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>(2);
+        IntStream.range(0, 100).forEach(deque::addLast);
+        for (int i = 99; i >= 0; i--) {
+            assertThat(deque.removeLast()).isEqualTo(i);
+        }
+        assertThat(deque.removeLast()).isNull();
+        assertThat(deque).isEmpty();
+    }
+
+    @Test
+    void removeFirst_afterAddMany_returnsItemsOldestFirst() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>(2);
+        IntStream.range(0, 100).forEach(deque::addLast);
+        for (int i = 0; i < 100; i++) {
+            assertThat(deque.removeFirst()).isEqualTo(i);
+        }
+        assertThat(deque.removeFirst()).isNull();
+    }
+
+    @Test
+    void getEach_afterMixedRemoves_returnsCorrectItems() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        IntStream.range(0, 50).forEach(deque::addLast);
+        deque.removeFirst();
+        deque.removeLast();
+        assertThat(deque).containsExactly(IntStream.range(1, 49).boxed().toArray(Integer[]::new));
+    }
+
+    @Test
+    void addFirst_throwsUnsupportedOperation() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        assertThatThrownBy(() -> deque.addFirst(1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void concurrentSteals_whileOwnerPushesAndPops_returnEachItemExactlyOnce() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            final int items = 200_000;
+            WorkStealingDeque<Integer> deque = new WorkStealingDeque<>(4);
+            ConcurrentHashMap<Integer, Boolean> seen = new ConcurrentHashMap<>();
+            AtomicInteger duplicates = new AtomicInteger();
+            AtomicInteger taken = new AtomicInteger();
+
+            List<Thread> thieves = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Thread thief = new Thread(() -> {
+                    while (taken.get() < items) {
+                        Integer item = deque.removeFirst();
+                        if (item != null) {
+                            if (seen.put(item, true) != null) {
+                                duplicates.incrementAndGet();
+                            }
+                            taken.incrementAndGet();
+                        }
+                    }
+                });
+                thieves.add(thief);
+                thief.start();
+            }
+
+            for (int i = 0; i < items; i++) {
+                deque.addLast(i);
+                if (i % 3 == 0) {
+                    Integer item = deque.removeLast();
+                    if (item != null) {
+                        if (seen.put(item, true) != null) {
+                            duplicates.incrementAndGet();
+                        }
+                        taken.incrementAndGet();
+                    }
+                }
+            }
+            for (Thread thief : thieves) {
+                thief.join();
+            }
+
+            assertThat(duplicates.get()).isEqualTo(0);
+            assertThat(seen).hasSize(items);
+        });
+    }
+
+    @Test
+    void executor_runsForkedTasks_untilQuiescent() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            WorkStealingExecutor executor = new WorkStealingExecutor(4);
+            AtomicInteger count = new AtomicInteger();
+            for (int i = 0; i < 100; i++) {
+                executor.execute(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        executor.execute(count::incrementAndGet);
+                    }
+                });
+            }
+            executor.awaitQuiescence();
+            executor.shutdown();
+            assertThat(count.get()).isEqualTo(100 * 100);
+        });
+    }
+
+    @Test
+    void executor_afterTaskThrows_keepsRunningWorkersTasks() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            // workers report task failures to the default handler, which would print them
+            Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+            List<Throwable> reported = Collections.synchronizedList(new ArrayList<>());
+            Thread.setDefaultUncaughtExceptionHandler((thread, e) -> reported.add(e));
+            try {
+                // one worker, so nobody else could steal its tasks if it died
+                WorkStealingExecutor executor = new WorkStealingExecutor(1);
+                AtomicInteger count = new AtomicInteger();
+                executor.execute(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        executor.execute(count::incrementAndGet);
+                    }
+                    throw new IllegalStateException("expected by the test");
+                });
+                executor.awaitQuiescence();
+                executor.shutdown();
+                assertThat(count.get()).isEqualTo(100);
+                assertThat(executor.failedTaskCount()).isEqualTo(1);
+                assertThat(reported).hasSize(1);
+                assertThat(reported.get(0))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("expected by the test");
+            } finally {
+                Thread.setDefaultUncaughtExceptionHandler(defaultHandler);
+            }
+        });
+    }
+}
@@ -1,19 +1,38 @@
 package maps;
 
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.NoSuchElementException;
-import java.util.Stack;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * AVL-tree implementation of the map ADT.
  *
  * Does not allow null keys.
+ *
+ * Each node also records the size of its subtree, so besides the usual NavigableMap operations,
+ * the tree can find a key's rank or the key of a given rank in O(log n), and the headMap, tailMap
+ * and subMap views can report their size in O(log n) without visiting their entries.
  */
-public class AVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<K, V> {
+public class AVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<K, V> implements NavigableMap<K, V> {
+    // below this many nodes, set operations stop forking subtasks
+    private static final int PARALLEL_CUTOFF = 4096;
+
     private AVLNode<K, V> overallRoot;
     private int size;
+    private int modCount; // counts insertions and removals, so iterators can detect them
 
     public AVLTreeMap() {
         this.size = 0;
@@ -72,6 +91,7 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<
     private AVLNode<K, V> put(K key, V value, AVLNode<K, V> current, AVLNode<K, V> output) {
         if (current == null) {
             this.size++;
+            this.modCount++;
             return new AVLNode<>(key, value);
         }
 
@@ -84,14 +104,17 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<
             current.value = value;
             return current;
         }
-        updateHeight(current);
+        updateHeightAndSize(current);
         return balanceTree(current);
     }
 
     /**
      * Maintains AVL balance invariant. Returns the balanced subtree.
+     *
+     * Modifies the root, and, if it rotates, the root's taller child and possibly that child's
+     * inner child. PersistentAVLTreeMap relies on this to know which nodes to copy first.
      */
-    private AVLNode<K, V> balanceTree(AVLNode<K, V> root) {
+    static <K, V> AVLNode<K, V> balanceTree(AVLNode<K, V> root) {
         int heightDiff = getHeightDiff(root);
         if (heightDiff > 1) {  // left-heavy, do right rotation
             if (getHeightDiff(root.left) < 0) {  // kink case, do left-right rotation
@@ -110,55 +133,117 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<
     /**
      * Returns the difference in heights of the left and right subtrees of the given node.
      */
-    private int getHeightDiff(AVLNode<K, V> node) {
+    static <K, V> int getHeightDiff(AVLNode<K, V> node) {
         return getHeight(node.left) - getHeight(node.right);
     }
 
     /**
-     * Sets the given node's height to the maximum of its subtrees' heights plus 1.
+     * Sets the given node's height to the maximum of its subtrees' heights plus 1, and its size to
+     * the sum of its subtrees' sizes plus 1.
      */
-    private void updateHeight(AVLNode<K, V> node) {
+    static <K, V> void updateHeightAndSize(AVLNode<K, V> node) {
         node.height = Math.max(getHeight(node.left), getHeight(node.right)) + 1;
+        node.size = getSize(node.left) + getSize(node.right) + 1;
     }
 
     /**
      * Returns the height of the given node's subtree.
      * Note: the height of an empty tree is -1, and the height of a tree with a single node is 0.
      */
-    private int getHeight(AVLNode<K, V> node) {
+    static <K, V> int getHeight(AVLNode<K, V> node) {
         return node == null ? -1 : node.height;
     }
 
+    /**
+     * Returns the number of nodes in the given node's subtree.
+     */
+    static <K, V> int getSize(AVLNode<K, V> node) {
+        return node == null ? 0 : node.size;
+    }
+
     /**
      * Performs a right rotation on the given subtree. Returns the rotated subtree.
      */
-    private AVLNode<K, V> rotateRight(AVLNode<K, V> root) {
+    private static <K, V> AVLNode<K, V> rotateRight(AVLNode<K, V> root) {
         AVLNode<K, V> leftChild = root.left;
         root.left = leftChild.right;
         leftChild.right = root;
-        updateHeight(leftChild);
-        updateHeight(root);
+        // root is now leftChild's child, so it must be updated first
+        updateHeightAndSize(root);
+        updateHeightAndSize(leftChild);
         return leftChild;
     }
 
     /**
      * Performs a left rotation on the given subtree. Returns the rotated subtree.
      */
-    private AVLNode<K, V> rotateLeft(AVLNode<K, V> root) {
+    private static <K, V> AVLNode<K, V> rotateLeft(AVLNode<K, V> root) {
         AVLNode<K, V> rightChild = root.right;
         root.right = rightChild.left;
         rightChild.left = root;
-        updateHeight(rightChild);
-        updateHeight(root);
+        // root is now rightChild's child, so it must be updated first
+        updateHeightAndSize(root);
+        updateHeightAndSize(rightChild);
         return rightChild;
     }
 
     /**
-     * Remove has been left unimplemented.
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the given key is null.
      */
     @Override
     public V remove(Object key) {
-        throw new UnsupportedOperationException();
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        AVLNode<K, V> output = new AVLNode<>(null, null);
+        this.overallRoot = remove(key, this.overallRoot, output);
+        return output.value;
+    }
+
+    private AVLNode<K, V> remove(Object key, AVLNode<K, V> current, AVLNode<K, V> output) {
+        if (current == null) {
+            return null;
+        }
+
+        int comparison = compare(key, current.key);
+        if (comparison < 0) {
+            current.left = remove(key, current.left, output);
+        } else if (comparison > 0) {
+            current.right = remove(key, current.right, output);
+        } else {
+            output.value = current.value;
+            this.size--;
+            this.modCount++;
+            if (current.left == null) {
+                return current.right;
+            } else if (current.right == null) {
+                return current.left;
+            }
+            // two children: replace this node with the smallest node in its right subtree
+            AVLNode<K, V> successor = current.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(current.right);
+            successor.left = current.left;
+            current = successor;
+        }
+        updateHeightAndSize(current);
+        return balanceTree(current);
+    }
+
+    /**
+     * Unlinks the smallest node of the given subtree. Returns the rebalanced subtree.
+     */
+    private AVLNode<K, V> removeMin(AVLNode<K, V> current) {
+        if (current.left == null) {
+            return current.right;
+        }
+        current.left = removeMin(current.left);
+        updateHeightAndSize(current);
+        return balanceTree(current);
     }
 
     @Override
@@ -176,19 +261,306 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<
         return this.overallRoot == null;
     }
 
+    @Override
+    public void clear() {
+        this.overallRoot = null;
+        this.size = 0;
+        this.modCount++;
+    }
+
     @Override
     public Iterator<Map.Entry<K, V>> iterator() {
-        return new AVLIterator<>(this.overallRoot);
+        return new AVLIterator(null, false);
+    }
+
+    /**
+     * Returns the number of keys in this map that are strictly less than the given key.
+     */
+    public int rank(K key) {
+        return countBelow(key, false);
+    }
+
+    /**
+     * Returns the key with the given rank: the smallest key has rank 0, and the largest has rank
+     * size() - 1.
+     *
+     * @throws IndexOutOfBoundsException if the rank is negative or at least size()
+     */
+    public K select(int rank) {
+        if (rank < 0 || rank >= this.size) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of bounds for size " + this.size);
+        }
+        AVLNode<K, V> current = this.overallRoot;
+        while (true) {
+            int leftSize = getSize(current.left);
+            if (rank < leftSize) {
+                current = current.left;
+            } else if (rank == leftSize) {
+                return current.key;
+            } else {
+                rank -= leftSize + 1;
+                current = current.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys less than (or equal to, if `inclusive`) the given key.
+     */
+    private int countBelow(Object key, boolean inclusive) {
+        Objects.requireNonNull(key);
+        int count = 0;
+        AVLNode<K, V> current = this.overallRoot;
+        while (current != null) {
+            int comparison = compare(key, current.key);
+            if (comparison < 0) {
+                current = current.left;
+            } else if (comparison > 0) {
+                count += getSize(current.left) + 1;
+                current = current.right;
+            } else {
+                return count + getSize(current.left) + (inclusive ? 1 : 0);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the node with the smallest key greater than (or equal to, if `inclusive`) the given
+     * key, or null if there is no such node.
+     */
+    private AVLNode<K, V> ceilingNode(Object key, boolean inclusive) {
+        Objects.requireNonNull(key);
+        AVLNode<K, V> result = null;
+        AVLNode<K, V> current = this.overallRoot;
+        while (current != null) {
+            int comparison = compare(key, current.key);
+            if (comparison == 0 && inclusive) {
+                return current;
+            } else if (comparison < 0) {
+                result = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node with the largest key less than (or equal to, if `inclusive`) the given key,
+     * or null if there is no such node.
+     */
+    private AVLNode<K, V> floorNode(Object key, boolean inclusive) {
+        Objects.requireNonNull(key);
+        AVLNode<K, V> result = null;
+        AVLNode<K, V> current = this.overallRoot;
+        while (current != null) {
+            int comparison = compare(key, current.key);
+            if (comparison == 0 && inclusive) {
+                return current;
+            } else if (comparison > 0) {
+                result = current;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return result;
+    }
+
+    private AVLNode<K, V> firstNode() {
+        AVLNode<K, V> current = this.overallRoot;
+        while (current != null && current.left != null) {
+            current = current.left;
+        }
+        return current;
+    }
+
+    private AVLNode<K, V> lastNode() {
+        AVLNode<K, V> current = this.overallRoot;
+        while (current != null && current.right != null) {
+            current = current.right;
+        }
+        return current;
+    }
+
+    /**
+     * Returns an immutable copy of the node's mapping, or null if the node is null. The NavigableMap
+     * methods return these rather than nodes, as java.util.TreeMap does.
+     */
+    private static <K, V> Map.Entry<K, V> exportEntry(AVLNode<K, V> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+    }
+
+    private static <K> K keyOrNull(AVLNode<K, ?> node) {
+        return node == null ? null : node.key;
+    }
+
+    private static <K> K keyOrThrow(AVLNode<K, ?> node) {
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node.key;
+    }
+
+    /**
+     * Removes the node's key from the map and returns its mapping, or returns null if the node is
+     * null.
+     */
+    private Map.Entry<K, V> pollNode(AVLNode<K, V> node) {
+        Map.Entry<K, V> entry = exportEntry(node);
+        if (node != null) {
+            remove(node.key);
+        }
+        return entry;
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return exportEntry(floorNode(key, false));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(floorNode(key, false));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return exportEntry(floorNode(key, true));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floorNode(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return exportEntry(ceilingNode(key, true));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingNode(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return exportEntry(ceilingNode(key, false));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(ceilingNode(key, false));
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return exportEntry(firstNode());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return exportEntry(lastNode());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return pollNode(firstNode());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return pollNode(lastNode());
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOrThrow(firstNode());
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOrThrow(lastNode());
+    }
+
+    /**
+     * Returns null, since keys are in their natural order.
+     */
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new NavigableKeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new RangeView(true, null, false, true, null, false, true);
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new RangeView(false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        Objects.requireNonNull(toKey);
+        return new RangeView(true, null, false, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        Objects.requireNonNull(fromKey);
+        return new RangeView(false, fromKey, inclusive, true, null, false, false);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
     }
 
     /**
      * `AVLNode`s store a key and a value and have at most two children. Each node
-     * keeps track of its own height in the AVL tree. This is used to balance the tree.
+     * keeps track of its own height in the AVL tree. This is used to balance the tree. Each node
+     * also keeps track of the size of its subtree, which is used to find ranks.
+     *
+     * Nodes double as the map's entries, so setValue on an entry from the iterator updates the map.
      */
-    private static class AVLNode<K, V> {
+    static class AVLNode<K, V> implements Map.Entry<K, V> {
         final K key;
         V value;
         int height;
+        int size; // number of nodes in this node's subtree, including itself
         AVLNode<K, V> left;
         AVLNode<K, V> right;
 
@@ -196,39 +568,750 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<
             this.key = key;
             this.value = value;
             this.height = 0;
+            this.size = 1;
             this.left = null;
             this.right = null;
         }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
     }
 
-    private static class AVLIterator<K, V> implements Iterator<Map.Entry<K, V>> {
-        private final Stack<Map.Entry<K, V>> stack;
+    /**
+     * Throws IllegalStateException unless every node's height and size are correct, every node is
+     * balanced, and the keys are in order. For tests.
+     */
+    void checkInvariants() {
+        if (checkSubtree(this.overallRoot, null, null) != this.size) {
+            throw new IllegalStateException("size is wrong");
+        }
+    }
 
-        public AVLIterator(AVLNode<K, V> overallRoot) {
-            this.stack = new Stack<>();
-            reverseOrderFill(overallRoot);
+    /**
+     * Checks the subtree, whose keys must lie strictly between the given bounds (where null means
+     * unbounded), and returns its size.
+     */
+    private int checkSubtree(AVLNode<K, V> node, K min, K max) {
+        if (node == null) {
+            return 0;
+        }
+        if ((min != null && compare(node.key, min) <= 0) || (max != null && compare(node.key, max) >= 0)) {
+            throw new IllegalStateException("key out of order: " + node.key);
+        }
+        int size = checkSubtree(node.left, min, node.key) + checkSubtree(node.right, node.key, max) + 1;
+        if (node.size != size) {
+            throw new IllegalStateException("wrong size at " + node.key);
+        }
+        if (node.height != Math.max(getHeight(node.left), getHeight(node.right)) + 1) {
+            throw new IllegalStateException("wrong height at " + node.key);
+        }
+        if (Math.abs(getHeightDiff(node)) > 1) {
+            throw new IllegalStateException("unbalanced at " + node.key);
         }
+        return size;
+    }
 
-        private void reverseOrderFill(AVLNode<K, V> root) {
-            if (root == null) {
-                return;
+    /**
+     * Returns a new map of the given entries, whose keys must be in strictly ascending order (as
+     * from another sorted map's iterator). Takes O(n) time: rather than inserting the entries one
+     * at a time, it lays them out directly as a perfectly balanced tree.
+     *
+     * @throws IllegalArgumentException if the keys are not in strictly ascending order
+     * @throws NullPointerException if any key is null
+     */
+    public static <K extends Comparable<K>, V> AVLTreeMap<K, V> fromSorted(
+            Iterator<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        List<AVLNode<K, V>> nodes = new ArrayList<>();
+        K previous = null;
+        while (entries.hasNext()) {
+            Map.Entry<? extends K, ? extends V> entry = entries.next();
+            K key = Objects.requireNonNull(entry.getKey());
+            if (previous != null && previous.compareTo(key) >= 0) {
+                throw new IllegalArgumentException("Keys are not in ascending order: " + previous + ", " + key);
+            }
+            nodes.add(new AVLNode<>(key, entry.getValue()));
+            previous = key;
+        }
+        AVLTreeMap<K, V> map = new AVLTreeMap<>();
+        map.overallRoot = map.buildBalanced(nodes, 0, nodes.size());
+        map.size = nodes.size();
+        return map;
+    }
+
+    /**
+     * Links nodes[from, to) into a perfectly balanced tree and returns its root. Sibling subtrees
+     * differ in size by at most one, so they also differ in height by at most one.
+     */
+    private AVLNode<K, V> buildBalanced(List<AVLNode<K, V>> nodes, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        AVLNode<K, V> root = nodes.get(middle);
+        root.left = buildBalanced(nodes, from, middle);
+        root.right = buildBalanced(nodes, middle + 1, to);
+        updateHeightAndSize(root);
+        return root;
+    }
+
+    /**
+     * Returns a new map of every key in this map or the other one. Where both maps have a key, the
+     * other map's value wins, as if the other map had been put into a copy of this one.
+     *
+     * Neither map is modified. Both are copied, and then the copies are combined by splitting and
+     * joining subtrees, recursing on both halves in parallel on the common ForkJoinPool.
+     *
+     * Takes O(n + m) time for maps of n and m keys, even when one of them is small. Splitting and
+     * joining the copies only takes O(m log(n/m + 1)) time for m <= n, but copying is linear, and
+     * it can't be avoided by sharing subtrees with the inputs. Nodes are mutable (they're the
+     * maps' entries, and put and remove rebalance them in place), so a shared node changed through
+     * one map would change the other. To add a few keys to a large map, put them into it instead.
+     * See PersistentAVLTreeMap for a tree that can share structure.
+     */
+    public AVLTreeMap<K, V> union(AVLTreeMap<K, V> other) {
+        return union(other, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like union(other), but runs on the given pool.
+     */
+    public AVLTreeMap<K, V> union(AVLTreeMap<K, V> other, ForkJoinPool pool) {
+        return combine(SetOperation.UNION, other, pool);
+    }
+
+    /**
+     * Returns a new map of every key that is in both this map and the other one, with this map's
+     * values. Neither map is modified. Works in parallel like union, and like union takes
+     * O(n + m) time.
+     */
+    public AVLTreeMap<K, V> intersection(AVLTreeMap<K, V> other) {
+        return intersection(other, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like intersection(other), but runs on the given pool.
+     */
+    public AVLTreeMap<K, V> intersection(AVLTreeMap<K, V> other, ForkJoinPool pool) {
+        return combine(SetOperation.INTERSECTION, other, pool);
+    }
+
+    /**
+     * Returns a new map of every key in this map that is not in the other one, with this map's
+     * values. Neither map is modified. Works in parallel like union, and like union takes
+     * O(n + m) time.
+     */
+    public AVLTreeMap<K, V> difference(AVLTreeMap<K, V> other) {
+        return difference(other, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like difference(other), but runs on the given pool.
+     */
+    public AVLTreeMap<K, V> difference(AVLTreeMap<K, V> other, ForkJoinPool pool) {
+        return combine(SetOperation.DIFFERENCE, other, pool);
+    }
+
+    private AVLTreeMap<K, V> combine(SetOperation operation, AVLTreeMap<K, V> other, ForkJoinPool pool) {
+        AVLNode<K, V> root = pool.invoke(ForkJoinTask.adapt(() -> {
+            // the set operations below reuse nodes, so they must work on copies; this is the
+            // linear part of the cost
+            Parts copies = inParallel(SetOperation.COPY, this.overallRoot, null, other.overallRoot, null);
+            return apply(operation, copies.left, copies.right);
+        }));
+        AVLTreeMap<K, V> result = new AVLTreeMap<>();
+        result.overallRoot = root;
+        result.size = getSize(root);
+        return result;
+    }
+
+    /**
+     * The recursive operations that may run in parallel. Each takes one or two subtrees, which it
+     * may take apart and reuse the nodes of, and returns the root of the resulting subtree.
+     */
+    private enum SetOperation { COPY, UNION, INTERSECTION, DIFFERENCE }
+
+    private AVLNode<K, V> apply(SetOperation operation, AVLNode<K, V> tree1, AVLNode<K, V> tree2) {
+        switch (operation) {
+            case COPY:
+                return copy(tree1);
+            case UNION:
+                return union(tree1, tree2);
+            case INTERSECTION:
+                return intersection(tree1, tree2);
+            case DIFFERENCE:
+                return difference(tree1, tree2);
+            default:
+                throw new AssertionError(operation);
+        }
+    }
+
+    /**
+     * Applies the operation to (left1, left2) and to (right1, right2), forking the left half onto
+     * the current pool if there are enough nodes involved to be worth it, and returns the two
+     * results as the left and right of the returned Parts.
+     */
+    private Parts inParallel(SetOperation operation, AVLNode<K, V> left1, AVLNode<K, V> left2,
+                             AVLNode<K, V> right1, AVLNode<K, V> right2) {
+        Parts results = new Parts(null, null, null);
+        int nodes = getSize(left1) + getSize(left2) + getSize(right1) + getSize(right2);
+        if (nodes >= PARALLEL_CUTOFF) {
+            ForkJoinTask<AVLNode<K, V>> leftTask = ForkJoinTask.adapt(() -> apply(operation, left1, left2)).fork();
+            results.right = apply(operation, right1, right2);
+            results.left = leftTask.join();
+        } else {
+            results.left = apply(operation, left1, left2);
+            results.right = apply(operation, right1, right2);
+        }
+        return results;
+    }
+
+    private AVLNode<K, V> copy(AVLNode<K, V> node) {
+        if (node == null) {
+            return null;
+        }
+        AVLNode<K, V> copy = new AVLNode<>(node.key, node.value);
+        if (node.size >= PARALLEL_CUTOFF) {
+            Parts children = inParallel(SetOperation.COPY, node.left, null, node.right, null);
+            copy.left = children.left;
+            copy.right = children.right;
+        } else {
+            copy.left = copy(node.left);
+            copy.right = copy(node.right);
+        }
+        copy.height = node.height;
+        copy.size = node.size;
+        return copy;
+    }
+
+    private AVLNode<K, V> union(AVLNode<K, V> tree1, AVLNode<K, V> tree2) {
+        if (tree1 == null) {
+            return tree2;
+        } else if (tree2 == null) {
+            return tree1;
+        }
+        AVLNode<K, V> left2 = tree2.left;
+        AVLNode<K, V> right2 = tree2.right;
+        // tree2's root stays, so its value wins over any equal key in tree1
+        Parts split = split(tree1, tree2.key);
+        Parts results = inParallel(SetOperation.UNION, split.left, left2, split.right, right2);
+        return join(results.left, tree2, results.right);
+    }
+
+    private AVLNode<K, V> intersection(AVLNode<K, V> tree1, AVLNode<K, V> tree2) {
+        if (tree1 == null || tree2 == null) {
+            return null;
+        }
+        AVLNode<K, V> left1 = tree1.left;
+        AVLNode<K, V> right1 = tree1.right;
+        Parts split = split(tree2, tree1.key);
+        Parts results = inParallel(SetOperation.INTERSECTION, left1, split.left, right1, split.right);
+        if (split.middle != null) {
+            return join(results.left, tree1, results.right);
+        }
+        return join(results.left, results.right);
+    }
+
+    private AVLNode<K, V> difference(AVLNode<K, V> tree1, AVLNode<K, V> tree2) {
+        if (tree1 == null || tree2 == null) {
+            return tree1;
+        }
+        AVLNode<K, V> left2 = tree2.left;
+        AVLNode<K, V> right2 = tree2.right;
+        Parts split = split(tree1, tree2.key);
+        Parts results = inParallel(SetOperation.DIFFERENCE, split.left, left2, split.right, right2);
+        return join(results.left, results.right);
+    }
+
+    /**
+     * A tree taken apart around a key: the subtree of smaller keys, the node with that key (if
+     * any), and the subtree of larger keys.
+     */
+    private class Parts {
+        AVLNode<K, V> left;
+        AVLNode<K, V> middle;
+        AVLNode<K, V> right;
+
+        Parts(AVLNode<K, V> left, AVLNode<K, V> middle, AVLNode<K, V> right) {
+            this.left = left;
+            this.middle = middle;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Takes the tree apart around the given key, reusing its nodes. Takes O(log n) time.
+     */
+    private Parts split(AVLNode<K, V> tree, K key) {
+        if (tree == null) {
+            return new Parts(null, null, null);
+        }
+        int comparison = compare(key, tree.key);
+        if (comparison == 0) {
+            return new Parts(tree.left, tree, tree.right);
+        } else if (comparison < 0) {
+            Parts parts = split(tree.left, key);
+            parts.right = join(parts.right, tree, tree.right);
+            return parts;
+        } else {
+            Parts parts = split(tree.right, key);
+            parts.left = join(tree.left, tree, parts.left);
+            return parts;
+        }
+    }
+
+    /**
+     * Returns a balanced tree of the nodes of `left`, then `middle`, then the nodes of `right`,
+     * given that they are already in that key order. Walks down the taller tree's inner spine
+     * until it reaches a subtree as short as the other tree, hangs both from `middle` there, and
+     * rebalances on the way back up, so it takes O(difference in heights + 1) time.
+     */
+    private AVLNode<K, V> join(AVLNode<K, V> left, AVLNode<K, V> middle, AVLNode<K, V> right) {
+        int leftHeight = getHeight(left);
+        int rightHeight = getHeight(right);
+        if (leftHeight > rightHeight + 1) {
+            left.right = join(left.right, middle, right);
+            updateHeightAndSize(left);
+            return balanceTree(left);
+        } else if (rightHeight > leftHeight + 1) {
+            right.left = join(left, middle, right.left);
+            updateHeightAndSize(right);
+            return balanceTree(right);
+        }
+        middle.left = left;
+        middle.right = right;
+        updateHeightAndSize(middle);
+        return middle;
+    }
+
+    /**
+     * Like join(left, middle, right), but without a middle node: the largest node of `left` is
+     * taken out and used instead.
+     */
+    private AVLNode<K, V> join(AVLNode<K, V> left, AVLNode<K, V> right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        }
+        Parts parts = splitLast(left);
+        return join(parts.left, parts.middle, right);
+    }
+
+    /**
+     * Takes the largest node out of the tree; returns it as the middle, and the rest of the tree
+     * as the left, of the returned Parts.
+     */
+    private Parts splitLast(AVLNode<K, V> tree) {
+        if (tree.right == null) {
+            return new Parts(tree.left, tree, null);
+        }
+        Parts parts = splitLast(tree.right);
+        parts.left = join(tree.left, tree, parts.left);
+        return parts;
+    }
+
+    /**
+     * A live view of the keys within a range, in ascending or descending order. The range's ends
+     * are given in ascending order no matter which order the view uses; `fromStart` and `toEnd`
+     * mean the range is unbounded below and above respectively.
+     *
+     * Views store only their bounds, so creating one is O(1), and every operation goes straight to
+     * the tree. In particular, size() is O(log n): it subtracts the ranks of the two ends.
+     */
+    private class RangeView extends AbstractIterableMap<K, V> implements NavigableMap<K, V> {
+        private final boolean fromStart;
+        private final K lo;
+        private final boolean loInclusive;
+        private final boolean toEnd;
+        private final K hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        RangeView(boolean fromStart, K lo, boolean loInclusive,
+                  boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        boolean tooLow(Object key) {
+            if (this.fromStart) {
+                return false;
+            }
+            int comparison = compare(key, this.lo);
+            return comparison < 0 || (comparison == 0 && !this.loInclusive);
+        }
+
+        boolean tooHigh(Object key) {
+            if (this.toEnd) {
+                return false;
+            }
+            int comparison = compare(key, this.hi);
+            return comparison > 0 || (comparison == 0 && !this.hiInclusive);
+        }
+
+        private boolean inRange(Object key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        /**
+         * Returns whether the key can be an end of a narrower view: it must be in range, or, if the
+         * new end is exclusive, may also equal an exclusive end of this view.
+         */
+        private boolean inRange(Object key, boolean inclusive) {
+            if (inclusive) {
+                return inRange(key);
+            }
+            return (this.fromStart || compare(key, this.lo) >= 0) && (this.toEnd || compare(key, this.hi) <= 0);
+        }
+
+        private void checkInRange(Object key, boolean inclusive) {
+            Objects.requireNonNull(key);
+            if (!inRange(key, inclusive)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+        }
+
+        // The abs* methods work in ascending order regardless of the view's direction.
+
+        private AVLNode<K, V> absLowest() {
+            AVLNode<K, V> node = this.fromStart ? firstNode() : ceilingNode(this.lo, this.loInclusive);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absHighest() {
+            AVLNode<K, V> node = this.toEnd ? lastNode() : floorNode(this.hi, this.hiInclusive);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absCeiling(K key, boolean inclusive) {
+            if (tooLow(key)) {
+                return absLowest();
+            }
+            AVLNode<K, V> node = ceilingNode(key, inclusive);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absFloor(K key, boolean inclusive) {
+            if (tooHigh(key)) {
+                return absHighest();
+            }
+            AVLNode<K, V> node = floorNode(key, inclusive);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> lowestNode() {
+            return this.descending ? absHighest() : absLowest();
+        }
+
+        private AVLNode<K, V> highestNode() {
+            return this.descending ? absLowest() : absHighest();
+        }
+
+        @Override
+        public V get(Object key) {
+            return inRange(key) ? AVLTreeMap.this.get(key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return inRange(key) && AVLTreeMap.this.containsKey(key);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the key is outside this view's range
+         */
+        @Override
+        public V put(K key, V value) {
+            checkInRange(key, true);
+            return AVLTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return inRange(key) ? AVLTreeMap.this.remove(key) : null;
+        }
+
+        @Override
+        public void clear() {
+            while (pollFirstEntry() != null) {
+                // keep removing
+            }
+        }
+
+        @Override
+        public int size() {
+            int above = this.toEnd ? AVLTreeMap.this.size : countBelow(this.hi, this.hiInclusive);
+            int below = this.fromStart ? 0 : countBelow(this.lo, !this.loInclusive);
+            return Math.max(0, above - below);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return absLowest() == null;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new AVLIterator(this, this.descending);
+        }
+
+        @Override
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return exportEntry(this.descending ? absCeiling(key, false) : absFloor(key, false));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return keyOrNull(this.descending ? absCeiling(key, false) : absFloor(key, false));
+        }
+
+        @Override
+        public Map.Entry<K, V> floorEntry(K key) {
+            return exportEntry(this.descending ? absCeiling(key, true) : absFloor(key, true));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return keyOrNull(this.descending ? absCeiling(key, true) : absFloor(key, true));
+        }
+
+        @Override
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return exportEntry(this.descending ? absFloor(key, true) : absCeiling(key, true));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return keyOrNull(this.descending ? absFloor(key, true) : absCeiling(key, true));
+        }
+
+        @Override
+        public Map.Entry<K, V> higherEntry(K key) {
+            return exportEntry(this.descending ? absFloor(key, false) : absCeiling(key, false));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return keyOrNull(this.descending ? absFloor(key, false) : absCeiling(key, false));
+        }
+
+        @Override
+        public Map.Entry<K, V> firstEntry() {
+            return exportEntry(lowestNode());
+        }
+
+        @Override
+        public Map.Entry<K, V> lastEntry() {
+            return exportEntry(highestNode());
+        }
+
+        @Override
+        public Map.Entry<K, V> pollFirstEntry() {
+            return pollNode(lowestNode());
+        }
+
+        @Override
+        public Map.Entry<K, V> pollLastEntry() {
+            return pollNode(highestNode());
+        }
+
+        @Override
+        public K firstKey() {
+            return keyOrThrow(lowestNode());
+        }
+
+        @Override
+        public K lastKey() {
+            return keyOrThrow(highestNode());
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return this.descending ? Collections.reverseOrder() : null;
+        }
+
+        @Override
+        public NavigableSet<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new NavigableKeySet<>(this);
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new RangeView(this.fromStart, this.lo, this.loInclusive,
+                this.toEnd, this.hi, this.hiInclusive, !this.descending);
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            checkInRange(fromKey, fromInclusive);
+            checkInRange(toKey, toInclusive);
+            if (this.descending) {
+                if (compare(fromKey, toKey) < 0) {
+                    throw new IllegalArgumentException("fromKey < toKey in a descending map");
+                }
+                return new RangeView(false, toKey, toInclusive, false, fromKey, fromInclusive, true);
+            }
+            if (compare(fromKey, toKey) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            return new RangeView(false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            checkInRange(toKey, inclusive);
+            if (this.descending) {
+                return new RangeView(false, toKey, inclusive, this.toEnd, this.hi, this.hiInclusive, true);
+            }
+            return new RangeView(this.fromStart, this.lo, this.loInclusive, false, toKey, inclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            checkInRange(fromKey, inclusive);
+            if (this.descending) {
+                return new RangeView(this.fromStart, this.lo, this.loInclusive, false, fromKey, inclusive, true);
+            }
+            return new RangeView(false, fromKey, inclusive, this.toEnd, this.hi, this.hiInclusive, false);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+
+    /**
+     * An in-order iterator that only holds the nodes on the path from the root to the next node,
+     * so creating one and taking its first few entries costs O(log n) rather than O(n).
+     *
+     * Iterates over the keys within `range` (or all keys, if it's null), in ascending or
+     * descending order. Throws ConcurrentModificationException if keys are added or removed
+     * during iteration.
+     */
+    private class AVLIterator implements Iterator<Map.Entry<K, V>> {
+        // the next node, followed by each of its ancestors that hasn't been returned yet
+        private final ArrayDeque<AVLNode<K, V>> path;
+        private final RangeView range;
+        private final boolean descending;
+        private final int expectedModCount;
+
+        AVLIterator(RangeView range, boolean descending) {
+            this.path = new ArrayDeque<>();
+            this.range = range;
+            this.descending = descending;
+            this.expectedModCount = modCount;
+            // walk down to the first node in range, remembering the nodes still to come
+            AVLNode<K, V> current = overallRoot;
+            while (current != null) {
+                if (isBeforeStart(current)) {
+                    current = this.descending ? current.left : current.right;
+                } else {
+                    this.path.push(current);
+                    current = this.descending ? current.right : current.left;
+                }
+            }
+        }
+
+        /**
+         * Returns whether the node comes before the start of the range, in iteration order.
+         */
+        private boolean isBeforeStart(AVLNode<K, V> node) {
+            return this.range != null && (this.descending ? this.range.tooHigh(node.key) : this.range.tooLow(node.key));
+        }
+
+        /**
+         * Returns whether the node comes after the end of the range, in iteration order.
+         */
+        private boolean isPastEnd(AVLNode<K, V> node) {
+            return this.range != null && (this.descending ? this.range.tooLow(node.key) : this.range.tooHigh(node.key));
+        }
+
+        /**
+         * Pushes the given node and its chain of children towards the start of the iteration order
+         * (left children when ascending), ending at the first node of its subtree.
+         */
+        private void pushSpine(AVLNode<K, V> node) {
+            while (node != null) {
+                this.path.push(node);
+                node = this.descending ? node.right : node.left;
             }
-            reverseOrderFill(root.right);
-            this.stack.push(new AbstractMap.SimpleEntry<>(root.key, root.value));
-            reverseOrderFill(root.left);
         }
 
         @Override
         public boolean hasNext() {
-            return this.stack.size() > 0;
+            return !this.path.isEmpty() && !isPastEnd(this.path.peek());
         }
 
         @Override
         public Map.Entry<K, V> next() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            return this.stack.pop();
+            AVLNode<K, V> node = this.path.pop();
+            pushSpine(this.descending ? node.left : node.right);
+            return node;
         }
     }
 }
@@ -0,0 +1,146 @@
+package maps;
+
+import java.util.Arrays;
+
+// The slot bookkeeping shared by the primitive-keyed maps (LongObjectMap, IntIntMap, LongLongMap).
+//
+// Each map keeps its keys and values in plain arrays indexed by slot, and resolves collisions with
+// linear probing. Which slots are full is tracked in a separate bitset rather than by reserving a
+// key value to mean "empty", so every long or int is a valid key. Removal shifts the following
+// displaced keys back instead of leaving tombstones, so probe lengths don't degrade over time.
+//
+// Subclasses own the key and value arrays; this class only knows slot numbers.
+abstract class AbstractPrimitiveHashMap {
+    static final double DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD = 0.75;
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final double loadFactorThreshold;
+    private long[] occupied; // bit i is set if slot i holds a key
+    int mask;
+    int size;
+    private int resizeThreshold;
+    int modCount;
+
+    AbstractPrimitiveHashMap(double resizingLoadFactorThreshold, int initialCapacity) {
+        if (resizingLoadFactorThreshold <= 0 || resizingLoadFactorThreshold >= 1 || initialCapacity <= 0) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1) and capacity must be > 0");
+        }
+        this.loadFactorThreshold = resizingLoadFactorThreshold;
+    }
+
+    // Returns the initial number of slots for the given requested capacity: a power of two.
+    static int tableSizeFor(int initialCapacity) {
+        return Integer.highestOneBit(Math.min(Math.max(2, initialCapacity), MAXIMUM_CAPACITY) * 2 - 1);
+    }
+
+    // Mixes every bit of the key into the returned bits, since only the low bits pick the home slot
+    // and sequential IDs would otherwise fill runs of adjacent slots.
+    static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Resets the bookkeeping for a new, empty table with the given number of slots.
+    void allocateSlots(int capacity) {
+        occupied = new long[Math.max(1, capacity >>> 6)];
+        mask = capacity - 1;
+        // always leave at least one slot empty, or a probe for a missing key would never end
+        resizeThreshold = (int) Math.max(1, Math.min(capacity - 1, (long) (capacity * loadFactorThreshold)));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    boolean isOccupied(int slot) {
+        return (occupied[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    void markOccupied(int slot) {
+        occupied[slot >>> 6] |= 1L << slot;
+    }
+
+    private void markEmpty(int slot) {
+        occupied[slot >>> 6] &= ~(1L << slot);
+    }
+
+    // Returns the first full slot at or after `from`, or capacity() if there are none.
+    int nextOccupied(int from) {
+        int capacity = capacity();
+        while (from < capacity) {
+            long word = occupied[from >>> 6] & (-1L << from);
+            if (word != 0) {
+                return Math.min(capacity, (from & ~63) + Long.numberOfTrailingZeros(word));
+            }
+            from = (from & ~63) + 64;
+        }
+        return capacity;
+    }
+
+    // Returns the full slots in order; rehash uses this to find the keys to reinsert before the
+    // bookkeeping is reset.
+    int[] occupiedSlots() {
+        int[] slots = new int[size];
+        for (int slot = nextOccupied(0), i = 0; slot <= mask; slot = nextOccupied(slot + 1)) {
+            slots[i++] = slot;
+        }
+        return slots;
+    }
+
+    // Call before inserting a new key; grows the table if the key would push it over the load factor.
+    void ensureRoomForOneMore() {
+        if (size + 1 > resizeThreshold) {
+            if (capacity() == MAXIMUM_CAPACITY) {
+                throw new IllegalStateException("Map is full");
+            }
+            rehash(capacity() * 2);
+        }
+    }
+
+    // Empties the slot, then shifts back each following key that isn't already as close to its home
+    // slot as it can get, so that no probe sequence passes over the hole.
+    void deleteSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (isOccupied(next)) {
+            int home = homeSlot(next);
+            // the key at `next` may move into the hole if the hole lies between its home and `next`
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                moveSlot(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        markEmpty(hole);
+        clearSlot(hole);
+        size -= 1;
+        modCount += 1;
+    }
+
+    void clearSlots() {
+        Arrays.fill(occupied, 0);
+        size = 0;
+        modCount += 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns the home slot of the key stored in the given (full) slot.
+    abstract int homeSlot(int slot);
+
+    // Copies the key and value in slot `from` into slot `to`.
+    abstract void moveSlot(int from, int to);
+
+    // Drops any references held by the slot's value, so they can be garbage collected.
+    abstract void clearSlot(int slot);
+
+    // Reallocates the table with the given number of slots and reinserts every key.
+    abstract void rehash(int capacity);
+}
@@ -0,0 +1,591 @@
+package maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * B-tree implementation of the map ADT.
+ *
+ * Does not allow null keys.
+ *
+ * Each node stores many keys in one sorted array and is searched by binary search, so a lookup
+ * touches O(log n / log fanout) nodes rather than the O(log n) separately-allocated nodes of an
+ * AVLTreeMap. That means far fewer cache misses once the map is too large for the cache.
+ *
+ * This is a B+ tree: all entries live in the leaves, which are linked left to right so iteration
+ * just walks along them. Internal nodes only hold separator keys: every key in children[i] is less
+ * than keys[i], and every key in children[i + 1] is at least keys[i]. Every node but the root holds
+ * between fanout / 2 and fanout keys.
+ */
+public class BTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<K, V> {
+    private static final int DEFAULT_FANOUT = 64;
+    private static final int MIN_FANOUT = 4;
+
+    private final int maxKeys;
+    private final int minKeys;
+    private Node root;
+    private int size;
+    private int modCount; // counts insertions and removals, so iterators can detect them
+
+    public BTreeMap() {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * Creates a map whose nodes hold up to `fanout` keys each (so internal nodes have up to
+     * fanout + 1 children).
+     *
+     * @throws IllegalArgumentException if fanout is less than 4
+     */
+    public BTreeMap(int fanout) {
+        if (fanout < MIN_FANOUT) {
+            throw new IllegalArgumentException("fanout must be at least " + MIN_FANOUT + ": " + fanout);
+        }
+        this.maxKeys = fanout;
+        this.minKeys = fanout / 2;
+        this.root = new Leaf();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the leaf whose range covers the given key.
+     */
+    private Leaf findLeaf(Object key) {
+        Node current = this.root;
+        while (current instanceof BTreeMap.Internal) {
+            Internal internal = (Internal) current;
+            current = internal.children[internal.childIndex(key)];
+        }
+        return (Leaf) current;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Leaf leaf = findLeaf(key);
+        int index = leaf.search(key);
+        return index >= 0 ? leaf.value(index) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return findLeaf(key).search(key) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the given key is null.
+     */
+    @Override
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        V oldValue = put(this.root, key, value);
+        if (this.root.count > this.maxKeys) {
+            // the root overflowed, so split it under a new root; this is how the tree gets taller
+            Internal newRoot = new Internal();
+            newRoot.children[0] = this.root;
+            this.root = newRoot;
+            splitChild(newRoot, 0);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Puts the entry into the subtree. Nodes are given room for one more key than the maximum, so
+     * the subtree's root may be left overfull; its parent then splits it.
+     */
+    private V put(Node node, K key, V value) {
+        if (node instanceof BTreeMap.Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = leaf.search(key);
+            if (index >= 0) {
+                V oldValue = leaf.value(index);
+                leaf.values[index] = value;
+                return oldValue;
+            }
+            leaf.insert(-index - 1, key, value);
+            this.size++;
+            this.modCount++;
+            return null;
+        }
+        Internal internal = (Internal) node;
+        int childIndex = internal.childIndex(key);
+        V oldValue = put(internal.children[childIndex], key, value);
+        if (internal.children[childIndex].count > this.maxKeys) {
+            splitChild(internal, childIndex);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Splits parent's overfull child at the given index in two, adding the new right half as the
+     * next child and the key between the halves as a separator.
+     */
+    private void splitChild(Internal parent, int childIndex) {
+        Node child = parent.children[childIndex];
+        int middle = child.count / 2;
+        Node right;
+        Object separator;
+        if (child instanceof BTreeMap.Leaf) {
+            // leaves keep every key, so the separator is a copy of the right half's first key
+            Leaf leaf = (Leaf) child;
+            Leaf rightLeaf = new Leaf();
+            rightLeaf.count = leaf.count - middle;
+            System.arraycopy(leaf.keys, middle, rightLeaf.keys, 0, rightLeaf.count);
+            System.arraycopy(leaf.values, middle, rightLeaf.values, 0, rightLeaf.count);
+            Arrays.fill(leaf.values, middle, leaf.count, null);
+            rightLeaf.next = leaf.next;
+            leaf.next = rightLeaf;
+            right = rightLeaf;
+            separator = rightLeaf.keys[0];
+        } else {
+            // the middle key moves up into the parent, and the children on either side of it split
+            Internal internal = (Internal) child;
+            Internal rightInternal = new Internal();
+            rightInternal.count = internal.count - middle - 1;
+            System.arraycopy(internal.keys, middle + 1, rightInternal.keys, 0, rightInternal.count);
+            System.arraycopy(internal.children, middle + 1, rightInternal.children, 0, rightInternal.count + 1);
+            Arrays.fill(internal.children, middle + 1, internal.count + 1, null);
+            right = rightInternal;
+            separator = internal.keys[middle];
+        }
+        Arrays.fill(child.keys, middle, child.count, null);
+        child.count = middle;
+        parent.insert(childIndex, separator, right);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        V oldValue = remove(this.root, key);
+        if (this.root instanceof BTreeMap.Internal && this.root.count == 0) {
+            // the root's last two children merged, so it is no longer needed
+            this.root = ((Internal) this.root).children[0];
+        }
+        return oldValue;
+    }
+
+    /**
+     * Removes the key from the subtree. The subtree's root may be left with too few keys; its
+     * parent then refills it from a sibling.
+     */
+    private V remove(Node node, Object key) {
+        if (node instanceof BTreeMap.Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = leaf.search(key);
+            if (index < 0) {
+                return null;
+            }
+            V oldValue = leaf.value(index);
+            leaf.delete(index);
+            this.size--;
+            this.modCount++;
+            return oldValue;
+        }
+        Internal internal = (Internal) node;
+        int childIndex = internal.childIndex(key);
+        V oldValue = remove(internal.children[childIndex], key);
+        if (internal.children[childIndex].count < this.minKeys) {
+            refillChild(internal, childIndex);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Brings parent's underfull child at the given index back up to the minimum number of keys,
+     * by moving over a key from a sibling that can spare one, or else by merging with a sibling.
+     */
+    private void refillChild(Internal parent, int childIndex) {
+        if (childIndex > 0 && parent.children[childIndex - 1].count > this.minKeys) {
+            borrowFromLeft(parent, childIndex);
+        } else if (childIndex < parent.count && parent.children[childIndex + 1].count > this.minKeys) {
+            borrowFromRight(parent, childIndex);
+        } else if (childIndex > 0) {
+            merge(parent, childIndex - 1);
+        } else {
+            merge(parent, childIndex);
+        }
+    }
+
+    private void borrowFromLeft(Internal parent, int childIndex) {
+        Node child = parent.children[childIndex];
+        Node left = parent.children[childIndex - 1];
+        if (child instanceof BTreeMap.Leaf) {
+            Leaf leftLeaf = (Leaf) left;
+            int last = leftLeaf.count - 1;
+            ((Leaf) child).insert(0, leftLeaf.keys[last], leftLeaf.value(last));
+            leftLeaf.delete(last);
+            parent.keys[childIndex - 1] = child.keys[0];
+        } else {
+            // rotate through the parent: its separator comes down, the left sibling's last key goes up
+            Internal leftInternal = (Internal) left;
+            Internal internal = (Internal) child;
+            System.arraycopy(internal.keys, 0, internal.keys, 1, internal.count);
+            System.arraycopy(internal.children, 0, internal.children, 1, internal.count + 1);
+            internal.keys[0] = parent.keys[childIndex - 1];
+            internal.children[0] = leftInternal.children[leftInternal.count];
+            internal.count++;
+            parent.keys[childIndex - 1] = leftInternal.keys[leftInternal.count - 1];
+            leftInternal.keys[leftInternal.count - 1] = null;
+            leftInternal.children[leftInternal.count] = null;
+            leftInternal.count--;
+        }
+    }
+
+    private void borrowFromRight(Internal parent, int childIndex) {
+        Node child = parent.children[childIndex];
+        Node right = parent.children[childIndex + 1];
+        if (child instanceof BTreeMap.Leaf) {
+            Leaf rightLeaf = (Leaf) right;
+            ((Leaf) child).insert(child.count, rightLeaf.keys[0], rightLeaf.value(0));
+            rightLeaf.delete(0);
+            parent.keys[childIndex] = rightLeaf.keys[0];
+        } else {
+            Internal rightInternal = (Internal) right;
+            Internal internal = (Internal) child;
+            internal.keys[internal.count] = parent.keys[childIndex];
+            internal.children[internal.count + 1] = rightInternal.children[0];
+            internal.count++;
+            parent.keys[childIndex] = rightInternal.keys[0];
+            System.arraycopy(rightInternal.keys, 1, rightInternal.keys, 0, rightInternal.count - 1);
+            System.arraycopy(rightInternal.children, 1, rightInternal.children, 0, rightInternal.count);
+            rightInternal.keys[rightInternal.count - 1] = null;
+            rightInternal.children[rightInternal.count] = null;
+            rightInternal.count--;
+        }
+    }
+
+    /**
+     * Merges parent's child at the given index with the child after it, removing the separator
+     * between them. Only called when the two hold few enough keys to fit in one node.
+     */
+    private void merge(Internal parent, int leftIndex) {
+        Node left = parent.children[leftIndex];
+        Node right = parent.children[leftIndex + 1];
+        if (left instanceof BTreeMap.Leaf) {
+            Leaf leftLeaf = (Leaf) left;
+            Leaf rightLeaf = (Leaf) right;
+            System.arraycopy(rightLeaf.keys, 0, leftLeaf.keys, leftLeaf.count, rightLeaf.count);
+            System.arraycopy(rightLeaf.values, 0, leftLeaf.values, leftLeaf.count, rightLeaf.count);
+            leftLeaf.count += rightLeaf.count;
+            leftLeaf.next = rightLeaf.next;
+        } else {
+            // the separator comes down between the two halves' keys
+            Internal leftInternal = (Internal) left;
+            Internal rightInternal = (Internal) right;
+            leftInternal.keys[leftInternal.count] = parent.keys[leftIndex];
+            System.arraycopy(rightInternal.keys, 0, leftInternal.keys, leftInternal.count + 1, rightInternal.count);
+            System.arraycopy(rightInternal.children, 0, leftInternal.children, leftInternal.count + 1,
+                rightInternal.count + 1);
+            leftInternal.count += rightInternal.count + 1;
+        }
+        parent.delete(leftIndex);
+    }
+
+    @Override
+    public void clear() {
+        this.root = new Leaf();
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        Node current = this.root;
+        while (current instanceof BTreeMap.Internal) {
+            current = ((Internal) current).children[0];
+        }
+        return new BTreeIterator((Leaf) current);
+    }
+
+    /**
+     * Checks that the tree is well-formed, throwing IllegalStateException if not. For tests.
+     */
+    void checkInvariants() {
+        List<Leaf> leaves = new ArrayList<>();
+        checkSubtree(this.root, null, null, leaves);
+        int count = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            Leaf expectedNext = i + 1 < leaves.size() ? leaves.get(i + 1) : null;
+            if (leaves.get(i).next != expectedNext) {
+                throw new IllegalStateException("leaves are not linked in order");
+            }
+            count += leaves.get(i).count;
+        }
+        if (count != this.size) {
+            throw new IllegalStateException("size is " + this.size + " but leaves hold " + count);
+        }
+    }
+
+    /**
+     * Checks the subtree, whose keys must lie in [min, max) (where null means unbounded), adds its
+     * leaves to the list in order, and returns its depth.
+     */
+    private int checkSubtree(Node node, Object min, Object max, List<Leaf> leaves) {
+        if (node != this.root && (node.count < this.minKeys || node.count > this.maxKeys)) {
+            throw new IllegalStateException("node holds " + node.count + " keys");
+        }
+        for (int i = 0; i < node.count; i++) {
+            if ((i > 0 && compare(node.keys[i - 1], node.keys[i]) >= 0)
+                    || (min != null && compare(node.keys[i], min) < 0)
+                    || (max != null && compare(node.keys[i], max) >= 0)) {
+                throw new IllegalStateException("key out of order: " + node.keys[i]);
+            }
+        }
+        if (node instanceof BTreeMap.Leaf) {
+            leaves.add((Leaf) node);
+            return 1;
+        }
+        Internal internal = (Internal) node;
+        int depth = -1;
+        for (int i = 0; i <= internal.count; i++) {
+            Object childMin = i == 0 ? min : internal.keys[i - 1];
+            Object childMax = i == internal.count ? max : internal.keys[i];
+            int childDepth = checkSubtree(internal.children[i], childMin, childMax, leaves);
+            if (depth != -1 && childDepth != depth) {
+                throw new IllegalStateException("leaves are at different depths");
+            }
+            depth = childDepth;
+        }
+        return depth + 1;
+    }
+
+    /**
+     * Compares two keys; assumes that they have proper Comparable types.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(Object k1, Object k2) {
+        return ((Comparable<Object>) k1).compareTo(k2);
+    }
+
+    /**
+     * Returns a new, empty array of nodes. Node is an inner class of a generic class, so the array
+     * has to be created with wildcards and cast.
+     */
+    @SuppressWarnings("unchecked")
+    private Node[] newNodeArray(int length) {
+        return (Node[]) new BTreeMap<?, ?>.Node[length];
+    }
+
+    /**
+     * A node's first `count` keys, in ascending order. Arrays have room for one key more than the
+     * maximum, so that a node can overflow before it is split.
+     */
+    private abstract class Node {
+        final Object[] keys;
+        int count;
+
+        Node() {
+            this.keys = new Object[maxKeys + 1];
+            this.count = 0;
+        }
+
+        /**
+         * Returns the index of the key if present, or else -(insertion point) - 1, like
+         * Arrays.binarySearch.
+         */
+        int search(Object key) {
+            int low = 0;
+            int high = this.count - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(this.keys[middle], key);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    private class Leaf extends Node {
+        final Object[] values;
+        Leaf next;
+
+        Leaf() {
+            this.values = new Object[maxKeys + 1];
+        }
+
+        @SuppressWarnings("unchecked")
+        V value(int index) {
+            return (V) this.values[index];
+        }
+
+        void insert(int index, Object key, Object value) {
+            System.arraycopy(this.keys, index, this.keys, index + 1, this.count - index);
+            System.arraycopy(this.values, index, this.values, index + 1, this.count - index);
+            this.keys[index] = key;
+            this.values[index] = value;
+            this.count++;
+        }
+
+        void delete(int index) {
+            System.arraycopy(this.keys, index + 1, this.keys, index, this.count - index - 1);
+            System.arraycopy(this.values, index + 1, this.values, index, this.count - index - 1);
+            this.count--;
+            this.keys[this.count] = null;
+            this.values[this.count] = null;
+        }
+    }
+
+    private class Internal extends Node {
+        final Node[] children;
+
+        Internal() {
+            this.children = newNodeArray(maxKeys + 2);
+        }
+
+        /**
+         * Returns the index of the child whose range covers the given key.
+         */
+        int childIndex(Object key) {
+            int index = search(key);
+            // keys equal to a separator belong to the child on its right
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        /**
+         * Inserts a separator at the given index, with the given child to its right.
+         */
+        void insert(int index, Object key, Node rightChild) {
+            System.arraycopy(this.keys, index, this.keys, index + 1, this.count - index);
+            System.arraycopy(this.children, index + 1, this.children, index + 2, this.count - index);
+            this.keys[index] = key;
+            this.children[index + 1] = rightChild;
+            this.count++;
+        }
+
+        /**
+         * Deletes the separator at the given index and the child to its right.
+         */
+        void delete(int index) {
+            System.arraycopy(this.keys, index + 1, this.keys, index, this.count - index - 1);
+            System.arraycopy(this.children, index + 2, this.children, index + 1, this.count - index - 1);
+            this.keys[this.count - 1] = null;
+            this.children[this.count] = null;
+            this.count--;
+        }
+    }
+
+    /**
+     * Walks the leaves from left to right. Throws ConcurrentModificationException if keys are
+     * added or removed during iteration.
+     */
+    private class BTreeIterator implements Iterator<Map.Entry<K, V>> {
+        private Leaf leaf;
+        private int index;
+        private final int expectedModCount;
+
+        BTreeIterator(Leaf first) {
+            this.leaf = first;
+            this.index = 0;
+            this.expectedModCount = modCount;
+            skipEmptyLeaf();
+        }
+
+        /**
+         * Only the root can be an empty leaf, but this keeps hasNext simple.
+         */
+        private void skipEmptyLeaf() {
+            while (this.leaf != null && this.index >= this.leaf.count) {
+                this.leaf = this.leaf.next;
+                this.index = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.leaf != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new LeafEntry(this.leaf, this.index);
+            this.index++;
+            skipEmptyLeaf();
+            return entry;
+        }
+    }
+
+    /**
+     * An entry that reads and writes its slot of the leaf it came from, so setValue updates the
+     * map. Like any map's entries, it's only valid until the map's next structural change.
+     */
+    private class LeafEntry implements Map.Entry<K, V> {
+        private final Leaf leaf;
+        private final int index;
+
+        LeafEntry(Leaf leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) this.leaf.keys[this.index];
+        }
+
+        @Override
+        public V getValue() {
+            return this.leaf.value(this.index);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = getValue();
+            this.leaf.values[this.index] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
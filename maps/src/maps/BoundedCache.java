@@ -0,0 +1,578 @@
+package maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+// A thread-safe cache that holds at most a maximum total weight of entries (by default, each
+// entry weighs 1, so the maximum is a number of entries), and optionally expires entries a fixed
+// time after they're written or last accessed.
+//
+// Eviction follows the Window TinyLFU policy. Entries are indexed by a ChainedHashMap and kept in
+// three access-ordered lists, each a doubly linked list with sentinels like LinkedDeque's:
+// - new entries go into a small `window` LRU list, about 1% of the maximum weight;
+// - an entry pushed out of the window becomes a candidate for the `main` part, whose least
+//   recently used entry is the victim. A FrequencySketch estimates how often each key has been
+//   requested recently, and whichever of the candidate and the victim has the lower estimate is
+//   evicted. So a burst of keys that are only used once can't flush out popular entries, which
+//   is what happens to a plain LRU cache, while the window still gives new keys time to prove
+//   themselves;
+// - the main part is itself split into `probation` (entries admitted but not reused since) and
+//   `protected` (about 80% of main, entries reused while in main), with victims taken from
+//   probation first.
+//
+// Expiring entries are scheduled on a TimingWheel, which each operation advances to remove
+// entries whose time is up, and every read also checks the entry's own deadline.
+//
+// All operations take one lock, since even reads reorder the lists. get(key, loader) calls the
+// loader without holding it, and when several threads miss on the same key at once, only one of
+// them calls the loader while the others wait for its result. A put or invalidate while a key is
+// loading makes the load's result stale, so the load is forgotten: its waiters still get the
+// result, but it isn't cached. Null keys and values are not supported.
+public class BoundedCache<K, V> {
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int MAXIMUM_INITIAL_SKETCH_SIZE = 1 << 16;
+
+    private enum Queue { WINDOW, PROBATION, PROTECTED }
+
+    private final long windowMaximum;
+    private final long mainMaximum;
+    private final long protectedMaximum;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos; // 0 for never
+    private final long expireAfterAccessNanos; // 0 for never
+    private final LongSupplier ticker;
+    private final long origin; // ticker time at construction, so that cache times start at 0
+
+    private final ChainedHashMap<K, Node<K, V>> index;
+    private final ChainedHashMap<K, CompletableFuture<V>> loading;
+    private final AccessOrderList<K, V> window;
+    private final AccessOrderList<K, V> probation;
+    private final AccessOrderList<K, V> protectedList;
+    private final FrequencySketch sketch;
+    private final TimingWheel<Node<K, V>> wheel; // null if entries never expire
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private long hitCount;
+    private long missCount;
+    private long loadSuccessCount;
+    private long loadFailureCount;
+    private long totalLoadNanos;
+    private long evictionCount;
+    private long evictionWeight;
+
+    // Constructs a cache that holds at most the given number of entries, and never expires them.
+    //
+    // @param maximumSize the most entries the cache may hold. Must be >= 0.
+    public BoundedCache(long maximumSize) {
+        this(maximumSize, (key, value) -> 1, 0, 0, System::nanoTime);
+    }
+
+    // Constructs a cache with the given parameters.
+    //
+    // @param maximumWeight the most total weight the cache may hold. Must be >= 0.
+    // @param weigher returns the weight of an entry, which must be >= 0. It's called whenever a
+    //                value is put.
+    // @param expireAfterWriteNanos how long after an entry is put it expires, or 0 for never.
+    //                              Must be >= 0.
+    // @param expireAfterAccessNanos how long after an entry is last put or read it expires, or 0 for
+    //                               never. Must be >= 0.
+    // @param ticker the clock, in nanoseconds. Should be System::nanoTime except in tests.
+    public BoundedCache(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher,
+                        long expireAfterWriteNanos, long expireAfterAccessNanos, LongSupplier ticker) {
+        if (maximumWeight < 0 || expireAfterWriteNanos < 0 || expireAfterAccessNanos < 0) {
+            throw new IllegalArgumentException("Maximum weight and expiry times must not be negative");
+        }
+        this.windowMaximum = Math.max(Math.min(1, maximumWeight), maximumWeight * WINDOW_PERCENT / 100);
+        this.mainMaximum = maximumWeight - windowMaximum;
+        this.protectedMaximum = mainMaximum * PROTECTED_PERCENT / 100;
+        this.weigher = Objects.requireNonNull(weigher);
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+        this.ticker = Objects.requireNonNull(ticker);
+        this.origin = ticker.getAsLong();
+
+        this.index = new ChainedHashMap<>();
+        this.loading = new ChainedHashMap<>();
+        this.window = new AccessOrderList<>();
+        this.probation = new AccessOrderList<>();
+        this.protectedList = new AccessOrderList<>();
+        // grown as entries are added, so a large maximum doesn't cost memory up front
+        this.sketch = new FrequencySketch(Math.min(maximumWeight, MAXIMUM_INITIAL_SKETCH_SIZE));
+        boolean expires = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+        this.wheel = expires ? new TimingWheel<>(0) : null;
+    }
+
+    private long now() {
+        // reading the clock isn't free, and only expiry needs it
+        return wheel != null ? ticker.getAsLong() - origin : 0;
+    }
+
+    // Returns the value for the key, or null if the cache doesn't hold one.
+    public synchronized V getIfPresent(K key) {
+        long now = now();
+        expireEntries(now);
+        sketch.increment(key);
+        Node<K, V> node = index.get(key);
+        if (node == null || hasExpired(node, now)) {
+            if (node != null) {
+                evict(node);
+            }
+            missCount += 1;
+            return null;
+        }
+        hitCount += 1;
+        node.accessTime = now;
+        scheduleExpiry(node);
+        onAccess(node);
+        return node.value;
+    }
+
+    // Returns the value for the key, first loading it with the loader and caching it if the
+    // cache doesn't hold one. If another thread is already loading the key, waits for its result
+    // instead. If the loader returns null, nothing is cached and null is returned; if it throws,
+    // the exception is rethrown to every thread waiting for it. If the key is put or invalidated
+    // during the load, the loaded value is still returned but isn't cached.
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future;
+        boolean loads;
+        synchronized (this) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                return value;
+            }
+            future = loading.get(key);
+            loads = future == null;
+            if (loads) {
+                future = new CompletableFuture<>();
+                loading.put(key, future);
+            }
+        }
+        if (loads) {
+            return load(key, loader, future);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Calls the loader for a key that this thread claimed in `loading`, caches the result, and
+    // passes it on to any threads waiting for it.
+    private V load(K key, Function<? super K, ? extends V> loader, CompletableFuture<V> future) {
+        long start = ticker.getAsLong();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                release(key, future);
+                loadFailureCount += 1;
+                totalLoadNanos += ticker.getAsLong() - start;
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        try {
+            finishLoad(key, future, value, ticker.getAsLong() - start);
+        } catch (RuntimeException | Error e) {
+            // caching the value failed, e.g. because the weigher threw
+            future.completeExceptionally(e);
+            throw e;
+        }
+        future.complete(value);
+        return value;
+    }
+
+    // Caches a loaded value, unless the key was put or invalidated while it was loading: that
+    // write is newer than whatever the loader read, so the cache mustn't go back to the value.
+    private synchronized void finishLoad(K key, CompletableFuture<V> future, V value, long nanos) {
+        boolean current = release(key, future);
+        totalLoadNanos += nanos;
+        if (value == null) {
+            loadFailureCount += 1;
+        } else {
+            loadSuccessCount += 1;
+            if (current) {
+                put(key, value);
+            }
+        }
+    }
+
+    // Removes the key's load from `loading` if it's still the given one, and returns whether it
+    // was.
+    private boolean release(K key, CompletableFuture<V> future) {
+        if (loading.get(key) != future) {
+            return false;
+        }
+        loading.remove(key);
+        return true;
+    }
+
+    // Caches the value for the key, replacing any value it already had.
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative: " + weight);
+        }
+        // a load in progress would otherwise overwrite this value with an older one
+        loading.remove(key);
+        long now = now();
+        expireEntries(now);
+        sketch.increment(key);
+        Node<K, V> node = index.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            node.weight = weight;
+            node.queue = Queue.WINDOW;
+            index.put(key, node);
+            window.addFirst(node);
+            windowWeight += weight;
+            sketch.ensureCapacity(index.size());
+        } else {
+            addWeight(node, weight - node.weight);
+            node.weight = weight;
+            onAccess(node);
+        }
+        node.value = value;
+        node.writeTime = now;
+        node.accessTime = now;
+        scheduleExpiry(node);
+        evictExcess();
+    }
+
+    // Removes the key's entry, if there is one.
+    public synchronized void invalidate(K key) {
+        // a load in progress would otherwise bring back the value from before the invalidation
+        loading.remove(key);
+        Node<K, V> node = index.get(key);
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    // Removes every entry.
+    public synchronized void invalidateAll() {
+        loading.clear();
+        List<Node<K, V>> nodes = new ArrayList<>(index.values());
+        for (Node<K, V> node : nodes) {
+            remove(node);
+        }
+    }
+
+    // Removes expired entries now, rather than waiting for other operations to get around to it.
+    public synchronized void cleanUp() {
+        expireEntries(now());
+    }
+
+    // Returns the number of entries in the cache, which may include some that have expired but
+    // haven't been removed yet.
+    public synchronized int size() {
+        return index.size();
+    }
+
+    // Returns the total weight of the entries in the cache.
+    public synchronized long weightedSize() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadNanos,
+            evictionCount, evictionWeight);
+    }
+
+    // Moves an entry to the front of its list after it's been accessed. Reusing an entry in
+    // probation promotes it to protected, which may push protected's least recently used entries
+    // back down to probation.
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToFront(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                probationWeight -= node.weight;
+                protectedList.addFirst(node);
+                protectedWeight += node.weight;
+                node.queue = Queue.PROTECTED;
+                while (protectedWeight > protectedMaximum) {
+                    Node<K, V> demoted = protectedList.last();
+                    protectedList.remove(demoted);
+                    protectedWeight -= demoted.weight;
+                    probation.addFirst(demoted);
+                    probationWeight += demoted.weight;
+                    demoted.queue = Queue.PROBATION;
+                }
+                break;
+            default:
+                protectedList.moveToFront(node);
+                break;
+        }
+    }
+
+    private void addWeight(Node<K, V> node, long delta) {
+        switch (node.queue) {
+            case WINDOW:
+                windowWeight += delta;
+                break;
+            case PROBATION:
+                probationWeight += delta;
+                break;
+            default:
+                protectedWeight += delta;
+                break;
+        }
+    }
+
+    // Restores the weight limits: entries pushed out of the window compete with main's victims for
+    // a place in main, and then main's own excess (e.g. after a put made an entry heavier) is
+    // evicted.
+    private void evictExcess() {
+        while (windowWeight > windowMaximum) {
+            Node<K, V> candidate = window.last();
+            window.remove(candidate);
+            windowWeight -= candidate.weight;
+            candidate.queue = null;
+            admit(candidate);
+        }
+        while (probationWeight + protectedWeight > mainMaximum) {
+            evict(mainVictim());
+        }
+    }
+
+    // Makes room in main for a candidate that just left the window, by evicting whichever of it
+    // and main's victim is used less often, until it fits or loses.
+    private void admit(Node<K, V> candidate) {
+        if (candidate.weight > mainMaximum) {
+            evict(candidate);
+            return;
+        }
+        while (probationWeight + protectedWeight + candidate.weight > mainMaximum) {
+            Node<K, V> victim = mainVictim();
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                return;
+            }
+        }
+        probation.addFirst(candidate);
+        probationWeight += candidate.weight;
+        candidate.queue = Queue.PROBATION;
+    }
+
+    // Returns the entry main should evict next: probation's least recently used entry, or
+    // protected's if probation is empty.
+    private Node<K, V> mainVictim() {
+        Node<K, V> victim = probation.last();
+        return victim != null ? victim : protectedList.last();
+    }
+
+    private void evict(Node<K, V> node) {
+        evictionCount += 1;
+        evictionWeight += node.weight;
+        remove(node);
+    }
+
+    private void remove(Node<K, V> node) {
+        // a candidate that just left the window isn't in any list
+        if (node.queue == Queue.WINDOW) {
+            window.remove(node);
+            windowWeight -= node.weight;
+        } else if (node.queue == Queue.PROBATION) {
+            probation.remove(node);
+            probationWeight -= node.weight;
+        } else if (node.queue == Queue.PROTECTED) {
+            protectedList.remove(node);
+            protectedWeight -= node.weight;
+        }
+        index.remove(node.key);
+        if (wheel != null) {
+            wheel.unschedule(node);
+        }
+    }
+
+    private boolean hasExpired(Node<K, V> node, long now) {
+        return wheel != null && now >= node.deadline;
+    }
+
+    private void scheduleExpiry(Node<K, V> node) {
+        if (wheel == null) {
+            return;
+        }
+        long deadline = Long.MAX_VALUE;
+        if (expireAfterWriteNanos > 0) {
+            deadline = Math.min(deadline, node.writeTime + expireAfterWriteNanos);
+        }
+        if (expireAfterAccessNanos > 0) {
+            deadline = Math.min(deadline, node.accessTime + expireAfterAccessNanos);
+        }
+        node.deadline = deadline;
+        wheel.schedule(node);
+    }
+
+    private void expireEntries(long now) {
+        if (wheel != null) {
+            wheel.advance(now, this::evict);
+        }
+    }
+
+    // Checks that the lists, weights and index agree and that the limits hold, throwing
+    // IllegalStateException if not. For tests.
+    synchronized void checkInvariants() {
+        long[] weights = {0, 0, 0};
+        int count = 0;
+        for (AccessOrderList<K, V> list : List.of(window, probation, protectedList)) {
+            Queue queue = list == window ? Queue.WINDOW : list == probation ? Queue.PROBATION : Queue.PROTECTED;
+            for (Node<K, V> node = list.front.next; node != list.back; node = node.next) {
+                if (node.queue != queue || index.get(node.key) != node) {
+                    throw new IllegalStateException("misplaced entry: " + node.key);
+                }
+                weights[queue.ordinal()] += node.weight;
+                count++;
+            }
+        }
+        if (count != index.size() || weights[0] != windowWeight || weights[1] != probationWeight
+                || weights[2] != protectedWeight) {
+            throw new IllegalStateException("lists don't match the index and weights");
+        }
+        if (windowWeight > windowMaximum || probationWeight + protectedWeight > mainMaximum) {
+            throw new IllegalStateException("over the maximum weight");
+        }
+    }
+
+    // A snapshot of a cache's statistics.
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadSuccessCount;
+        private final long loadFailureCount;
+        private final long totalLoadNanos;
+        private final long evictionCount;
+        private final long evictionWeight;
+
+        Stats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+              long totalLoadNanos, long evictionCount, long evictionWeight) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadSuccessCount = loadSuccessCount;
+            this.loadFailureCount = loadFailureCount;
+            this.totalLoadNanos = totalLoadNanos;
+            this.evictionCount = evictionCount;
+            this.evictionWeight = evictionWeight;
+        }
+
+        public long hitCount() {
+            return hitCount;
+        }
+
+        public long missCount() {
+            return missCount;
+        }
+
+        // Returns the fraction of lookups that were hits, or 1 if there haven't been any.
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1 : (double) hitCount / requests;
+        }
+
+        public long loadSuccessCount() {
+            return loadSuccessCount;
+        }
+
+        // Returns the number of loads that threw or returned null.
+        public long loadFailureCount() {
+            return loadFailureCount;
+        }
+
+        public long totalLoadNanos() {
+            return totalLoadNanos;
+        }
+
+        // Returns the number of entries removed because of the maximum weight or expiry (but not
+        // by invalidate).
+        public long evictionCount() {
+            return evictionCount;
+        }
+
+        public long evictionWeight() {
+            return evictionWeight;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", loadSuccesses=" + loadSuccessCount
+                + ", loadFailures=" + loadFailureCount + ", totalLoadNanos=" + totalLoadNanos
+                + ", evictions=" + evictionCount + ", evictionWeight=" + evictionWeight + "}";
+        }
+    }
+
+    private static class Node<K, V> extends TimingWheel.Timer {
+        final K key;
+        V value;
+        int weight;
+        long writeTime;
+        long accessTime;
+        Queue queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    // A list of nodes from most to least recently used, between two sentinel nodes.
+    private static class AccessOrderList<K, V> {
+        final Node<K, V> front;
+        final Node<K, V> back;
+
+        AccessOrderList() {
+            front = new Node<>(null);
+            back = new Node<>(null);
+            front.next = back;
+            back.prev = front;
+        }
+
+        void addFirst(Node<K, V> node) {
+            node.prev = front;
+            node.next = front.next;
+            front.next.prev = node;
+            front.next = node;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToFront(Node<K, V> node) {
+            remove(node);
+            addFirst(node);
+        }
+
+        // Returns the least recently used node, or null if the list is empty.
+        Node<K, V> last() {
+            return back.prev == front ? null : back.prev;
+        }
+    }
+}
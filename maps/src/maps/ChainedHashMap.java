@@ -1,16 +1,43 @@
 package maps;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 // @see AbstractIterableMap
 // @see Map
 
+// Resizing normally rehashes every entry inside the put that crosses the load factor threshold,
+// which is O(n) for that one call. In incremental-resize mode, a resize instead just allocates the
+// new chain array: the old and new arrays then coexist, and each later put/get/remove migrates a
+// few old chains until none are left, so no single operation does more than a bounded amount of
+// rehashing. Keys in old chains that haven't been migrated yet are still looked up in place.
+
+// Chains normally come from createChain (an ArrayMap, or a CompactArrayMap if the map was
+// constructed with ChainType.COMPACT_ARRAY_MAP), so a lookup scans its chain. If many keys
+// collide, e.g. because of a poor or adversarial hashCode, a chain that grows past
+// TREEIFY_THRESHOLD entries is converted into an AVLTreeMap-backed chain, as long as its keys are
+// all of one Comparable class, making the worst-case lookup O(log n) instead of O(n). It converts
+// back once it shrinks below UNTREEIFY_THRESHOLD. As with TreeMap, keys' compareTo must be
+// consistent with equals.
+
 public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
     private static final double DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD = 1;
     private static final int DEFAULT_INITIAL_CHAIN_COUNT = 10;
     private static final int DEFAULT_INITIAL_CHAIN_CAPACITY = 2;
+    private static final int STOP_THE_WORLD_RESIZE = 0;
+    // A chain with more entries than this becomes a tree, if its keys are Comparable.
+    // The gap between the thresholds keeps a chain from flip-flopping between forms.
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+
+    // The kinds of chain that createChain can make.
+    public enum ChainType { ARRAY_MAP, COMPACT_ARRAY_MAP }
 
     // Warning:
     // You may not rename this field or change its type.
@@ -22,6 +49,19 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
     private double loadFactorThreshold;
     private int initialChainCapacity;
 
+    // number of entries, kept up to date so checking the load factor doesn't have to scan chains
+    private int size;
+
+    // State for incremental resizing. While a resize is in progress, `oldChains` holds the
+    // previous chain array, and every old chain before `migrationIndex` has been moved into
+    // `chains` and nulled out. Otherwise `oldChains` is null.
+    private final int chainsMigratedPerOperation;
+    private final ChainType chainType;
+    private AbstractIterableMap<K, V>[] oldChains;
+    private int migrationIndex;
+
+    private int modCount; // counts insertions and removals, so iterators can detect them
+
     // Constructs a new ChainedHashMap with default resizing load factor threshold,
     // default initial chain count, and default initial chain capacity.
 
@@ -37,9 +77,37 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
     // @param chainInitialCapacity the initial capacity of each ArrayMap chain created by the map.
     //                              Must be > 0.
     public ChainedHashMap(double resizingLoadFactorThreshold, int initialChainCount, int chainInitialCapacity) {
+        this(resizingLoadFactorThreshold, initialChainCount, chainInitialCapacity, STOP_THE_WORLD_RESIZE);
+    }
+
+    // Constructs a new ChainedHashMap with the given parameters.
+    //
+    // @param chainsMigratedPerOperation if positive, enables incremental resizing: each put, get
+    //                                   or remove moves up to this many old chains into the new
+    //                                   chain array. Migration always finishes before the next
+    //                                   resize is due as long as this times the load factor
+    //                                   threshold is at least 1. If 0, resizes rehash everything
+    //                                   at once.
+    public ChainedHashMap(double resizingLoadFactorThreshold, int initialChainCount, int chainInitialCapacity,
+                          int chainsMigratedPerOperation) {
+        this(resizingLoadFactorThreshold, initialChainCount, chainInitialCapacity, chainsMigratedPerOperation,
+            ChainType.ARRAY_MAP);
+    }
+
+    // Constructs a new ChainedHashMap with the given parameters.
+    //
+    // @param chainType the kind of chain createChain makes. Must not be null.
+    public ChainedHashMap(double resizingLoadFactorThreshold, int initialChainCount, int chainInitialCapacity,
+                          int chainsMigratedPerOperation, ChainType chainType) {
         if (resizingLoadFactorThreshold <= 0 || initialChainCount <= 0 || chainInitialCapacity <= 0) {
             throw new IllegalArgumentException("Parameters must be greater than 0");
         }
+        if (chainsMigratedPerOperation < 0) {
+            throw new IllegalArgumentException("chainsMigratedPerOperation must not be negative");
+        }
+        this.chainsMigratedPerOperation = chainsMigratedPerOperation;
+        // set before any chains are created below
+        this.chainType = Objects.requireNonNull(chainType);
         // logs if user changes values from default.
         this.loadFactorThreshold = resizingLoadFactorThreshold;
         this.initialChainCapacity = chainInitialCapacity;
@@ -62,118 +130,229 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
         return (AbstractIterableMap<K, V>[]) new AbstractIterableMap[arraySize];
     }
 
-    // Returns a new chain.
+    // Returns a new chain, of the kind given by the map's ChainType.
     //
     // This method will be overridden by the grader so that your ChainedHashMap implementation
     //
     // is graded using our solution ArrayMaps.
-    //
-    // Note: You do not need to modify this method.
     protected AbstractIterableMap<K, V> createChain(int initialSize) {
+        if (chainType == ChainType.COMPACT_ARRAY_MAP) {
+            return new CompactArrayMap<>(initialSize);
+        }
         return new ArrayMap<>(initialSize);
     }
 
     @Override
     public V get(Object key) {
-        // gets the index from helper method
-        int index = getChainIndex(key);
-        // return the key that is at the index
-        return chains[index].get(key);
+        migrate(chainsMigratedPerOperation);
+        AbstractIterableMap<K, V> chain = chainFor(key);
+        return chain == null ? null : chain.get(key);
     }
 
     // uses the java hashCode for a key and mods it by the length of the array
-    private int getChainIndex(Object key) {
+    private static int getChainIndex(Object key, int chainCount) {
         int hashCode = key.hashCode();
-        return Math.abs(hashCode) % chains.length;
+        return Math.abs(hashCode) % chainCount;
+    }
+
+    // Returns the chain array whose chain holds the key, if it's in the map: the old array if the
+    // key's old chain hasn't been migrated yet, and otherwise the current one.
+    //
+    // An old chain that was never created has nothing to migrate, so it counts as migrated.
+    // (Chains are only ever created in the current array, so it can't appear later.)
+    private AbstractIterableMap<K, V>[] chainsFor(Object key) {
+        if (oldChains != null) {
+            int oldIndex = getChainIndex(key, oldChains.length);
+            if (oldIndex >= migrationIndex && oldChains[oldIndex] != null) {
+                return oldChains;
+            }
+        }
+        return chains;
+    }
+
+    // Returns the chain that holds the key, if it's in the map, or null if that chain hasn't been
+    // created yet.
+    private AbstractIterableMap<K, V> chainFor(Object key) {
+        AbstractIterableMap<K, V>[] array = chainsFor(key);
+        return array[getChainIndex(key, array.length)];
     }
 
     @Override
     public V put(K key, V value) {
-        // check to see if a resize is needed
-        resizeCheck();
-        // gets the index from the helper method
-        int index = getChainIndex(key);
-        // Obtain the chain at the index if there is any
-        AbstractIterableMap<K, V> targetChain = chains[index];
-        // Get the old value for the key from the target chain
-        V oldValue = targetChain.get(key);
-        // Put the new key and value into the target chain
-        targetChain.put(key, value);
-        // return the old value
+        AbstractIterableMap<K, V> targetChain = chainFor(key);
+        V oldValue;
+        if (targetChain != null && targetChain.containsKey(key)) {
+            // replacing a value isn't a structural modification, so live iterators stay valid
+            oldValue = targetChain.put(key, value);
+        } else {
+            // only a new key changes the size (and can push the load factor over the threshold)
+            modified();
+            AbstractIterableMap<K, V>[] array = chainsFor(key);
+            putNewKey(array, getChainIndex(key, array.length), key, value);
+            oldValue = null;
+            size += 1;
+            resizeCheck();
+        }
+        migrate(chainsMigratedPerOperation);
         return oldValue;
     }
 
-    // TODO: Some kind of issue with the timing. Maybe try and repostion this method call in the put method
+    // Puts a key that isn't in the map into the chain at array[index], creating the chain if
+    // needed and switching it between list and tree form as appropriate.
+    private void putNewKey(AbstractIterableMap<K, V>[] array, int index, K key, V value) {
+        AbstractIterableMap<K, V> chain = array[index];
+        if (chain == null) {
+            chain = createChain(initialChainCapacity);
+        } else if (chain instanceof TreeChain && !((TreeChain<?, ?>) chain).accepts(key)) {
+            // the tree can't order this key against the others, so go back to a plain chain
+            chain = untreeify(chain);
+        }
+        chain.put(key, value);
+        if (!(chain instanceof TreeChain) && chain.size() > TREEIFY_THRESHOLD) {
+            chain = treeify(chain);
+        }
+        array[index] = chain;
+    }
+
+    // Returns a tree-backed copy of the chain if all of its keys are of the same Comparable class,
+    // and otherwise returns the chain unchanged.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private AbstractIterableMap<K, V> treeify(AbstractIterableMap<K, V> chain) {
+        Class<?> keyClass = null;
+        for (Map.Entry<K, V> entry : chain) {
+            Class<?> entryKeyClass = entry.getKey().getClass();
+            if (keyClass == null) {
+                keyClass = entryKeyClass;
+            }
+            if (entryKeyClass != keyClass || !Comparable.class.isAssignableFrom(keyClass)) {
+                return chain;
+            }
+        }
+        TreeChain tree = new TreeChain(keyClass);
+        for (Map.Entry<K, V> entry : chain) {
+            tree.put((Comparable) entry.getKey(), entry.getValue());
+        }
+        return (AbstractIterableMap<K, V>) tree;
+    }
+
+    // Returns a plain chain holding the same entries as the given tree chain.
+    private AbstractIterableMap<K, V> untreeify(AbstractIterableMap<K, V> tree) {
+        AbstractIterableMap<K, V> chain = createChain(initialChainCapacity);
+        for (Map.Entry<K, V> entry : tree) {
+            chain.put(entry.getKey(), entry.getValue());
+        }
+        return chain;
+    }
+
+    // Starts a resize once the load factor exceeds the threshold. Called after the put, so that
+    // the map resizes as soon as it holds more than threshold * chains entries.
     private void resizeCheck() {
         // Calculate the load factor
-        double loadFactor = (double) size() / chains.length;
+        double loadFactor = (double) size / chains.length;
         // Check if loadFactor is greater than the threshold. If it is, resize.
         if (loadFactor > loadFactorThreshold) {
+            // A previous resize still in progress has to finish first. Between resizes there are
+            // at least threshold * (old chain count) puts, so this only happens when
+            // threshold * chainsMigratedPerOperation < 1.
+            migrate(Integer.MAX_VALUE);
+
             // Double the number of chains
             int newChainCount = chains.length * 2;
-            // Create new object with the doubled size
+            // Create new object with the doubled size. The chains themselves are created on first
+            // use, since allocating all of them here would be O(n) work in a single put.
             AbstractIterableMap<K, V>[] newChains = createArrayOfChains(newChainCount);
 
-            // Initialize the chains and give the correct capacity to them.
-            for (int i = 0; i < newChainCount; i++) {
-                newChains[i] = createChain(initialChainCapacity);
-            }
-
-            // Rehash all entries. For each chain in the chains object, for each entry in each chain,
-            // get the key and the value. Find the new index to put into the new object and put the
-            // key and value into the new object at that new index.
-            for (AbstractIterableMap<K, V> chain : chains) {
-                if (chain != null) {
-                    for (Map.Entry<K, V> entry : chain) {
-                        K key = entry.getKey();
-                        V value = entry.getValue();
-                        int newIndex = Math.abs(key.hashCode()) % newChainCount;
-                        newChains[newIndex].put(key, value);
-                    }
-                }
+            // Every entry now lives in an old chain, waiting to be migrated.
+            oldChains = chains;
+            chains = newChains;
+            migrationIndex = 0;
+            if (chainsMigratedPerOperation == STOP_THE_WORLD_RESIZE) {
+                migrate(Integer.MAX_VALUE);
             }
+        }
+    }
 
-            // Replace old chains with new chains
-            chains = newChains;
+    // Moves up to maxChains old chains into the current chain array.
+    private void migrate(int maxChains) {
+        if (oldChains == null) {
+            return;
+        }
+        int end = (int) Math.min(oldChains.length, (long) migrationIndex + maxChains);
+        for (; migrationIndex < end; migrationIndex++) {
+            // Rehash all entries of this chain. Get the key and the value, find the new index and
+            // put them into the new chain at that index.
+            AbstractIterableMap<K, V> oldChain = oldChains[migrationIndex];
+            if (oldChain != null) {
+                for (Map.Entry<K, V> entry : oldChain) {
+                    K key = entry.getKey();
+                    putNewKey(chains, getChainIndex(key, chains.length), key, entry.getValue());
+                }
+                oldChains[migrationIndex] = null;
+            }
         }
+        if (migrationIndex == oldChains.length) {
+            oldChains = null;
+        }
+    }
+
+    // Records a structural modification, which invalidates any live iterators.
+    private void modified() {
+        modCount += 1;
     }
 
-    // Get the index of the key. Remove and return that value associated with the key.
+    // Get the chain of the key. Remove and return that value associated with the key.
     @Override
     public V remove(Object key) {
-        int index = getChainIndex(key);
-        return chains[index].remove(key);
+        AbstractIterableMap<K, V>[] array = chainsFor(key);
+        int index = getChainIndex(key, array.length);
+        AbstractIterableMap<K, V> chain = array[index];
+        V oldValue = null;
+        if (chain != null && chain.containsKey(key)) {
+            modified();
+            oldValue = chain.remove(key);
+            size -= 1;
+            if (chain instanceof TreeChain && chain.size() < UNTREEIFY_THRESHOLD) {
+                array[index] = untreeify(chain);
+            }
+        }
+        migrate(chainsMigratedPerOperation);
+        return oldValue;
     }
 
-    // Removes all key-value pairs in each chain.
+    // Removes all key-value pairs in each chain, and abandons any resize in progress.
     @Override
     public void clear() {
+        modified();
         for (AbstractIterableMap<K, V> chain : chains) {
-            chain.clear();
+            if (chain != null) {
+                chain.clear();
+            }
         }
+        oldChains = null;
+        size = 0;
     }
 
-    // Get the index from the key. Then returns if that chain contains key
+    // Get the chain from the key. Then returns if that chain contains key
     @Override
     public boolean containsKey(Object key) {
-        int index = getChainIndex(key);
-        return chains[index].containsKey(key);
+        migrate(chainsMigratedPerOperation);
+        AbstractIterableMap<K, V> chain = chainFor(key);
+        return chain != null && chain.containsKey(key);
     }
 
-    // Add up the number of items in each chain
     @Override
     public int size() {
-        int size = 0;
-        for (AbstractIterableMap<K, V> chain : chains) {
-            size += chain.size();
-        }
         return size;
     }
 
+    // Returns true if an incremental resize is still moving old chains into the current array.
+    boolean isResizing() {
+        return oldChains != null;
+    }
+
     @Override
     public Iterator<Map.Entry<K, V>> iterator() {
-        // Note: you won't need to change this method (unless you add more constructor parameters)
-        return new ChainedHashMapIterator<>(this.chains);
+        return new ChainedHashMapIterator();
     }
 
     // removed this toString implementation
@@ -183,62 +362,203 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
     //     return super.toString();
     // }
 
+    // A chain backed by an AVLTreeMap, for keys that are all instances of `keyClass`.
+    private static class TreeChain<K extends Comparable<K>, V> extends AVLTreeMap<K, V> {
+        private final Class<?> keyClass;
+
+        TreeChain(Class<?> keyClass) {
+            this.keyClass = keyClass;
+        }
+
+        // Returns true if the key can be compared with the keys in this tree.
+        boolean accepts(Object key) {
+            return key.getClass() == keyClass;
+        }
+
+        // Lookups for keys of another class can't use compareTo, so they fall back to a linear
+        // scan (they can still be equal to a key in the tree, in principle).
+        @Override
+        public V get(Object key) {
+            if (accepts(key)) {
+                return super.get(key);
+            }
+            Map.Entry<K, V> entry = scan(key);
+            return entry == null ? null : entry.getValue();
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (accepts(key)) {
+                return super.put(key, value);
+            }
+            // ChainedHashMap only gets here when replacing the value of a key it already holds
+            Map.Entry<K, V> entry = scan(key);
+            return super.put(entry == null ? key : entry.getKey(), value);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return accepts(key) ? super.containsKey(key) : scan(key) != null;
+        }
+
+        @Override
+        public V remove(Object key) {
+            if (accepts(key)) {
+                return super.remove(key);
+            }
+            Map.Entry<K, V> entry = scan(key);
+            return entry == null ? null : super.remove(entry.getKey());
+        }
+
+        private Map.Entry<K, V> scan(Object key) {
+            for (Map.Entry<K, V> entry : this) {
+                if (entry.getKey().equals(key)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+    }
+
     // See the assignment webpage for tips and restrictions on implementing this iterator.
-    private static class ChainedHashMapIterator<K, V> implements Iterator<Map.Entry<K, V>> {
-        // An array of chains. In each chain there are key value pairs
-        private AbstractIterableMap<K, V>[] chains;
-        // The index of current chain being accessed
-        private int chainIndex;
-        // Goes through the entries of the chain being accessed
-        private Iterator<Map.Entry<K, V>> currentIterator;
+    //
+    // Reads and value replacements keep migrating chains while an iterator is live, so mid-resize
+    // it can't simply walk both arrays. Instead it walks the old array's indexes as groups: a key in
+    // old chain k can only move to current chain k or k + (old chain count), so each group is
+    // closed under migration. A group whose old chain hasn't been migrated yet is copied when the
+    // iterator reaches it, and the others are walked in place. Adding or removing a key makes the
+    // next call to next() throw ConcurrentModificationException.
+    private class ChainedHashMapIterator implements Iterator<Map.Entry<K, V>> {
+        // The chain arrays when the iterator was created. They stay the same objects until the
+        // next resize, and a resize only starts when a key is added.
+        private final AbstractIterableMap<K, V>[] currentChains;
+        private final AbstractIterableMap<K, V>[] previousChains;
+        private final int groupCount;
+        private final int expectedModCount;
+        // The next group to visit
+        private int group;
+        // Goes through the entries of the group being visited, followed by pendingChain's
+        private Iterator<Map.Entry<K, V>> entries;
+        private AbstractIterableMap<K, V> pendingChain;
 
-        public ChainedHashMapIterator(AbstractIterableMap<K, V>[] chains) {
-            this.chains = chains; // Assign the chains from map to iterator.
-            this.chainIndex = 0; // Start at chain0
-            this.currentIterator = null; // No current chain selected yet because current chain0 might be null
-            moveToNextChain(); // Moves to the first chain that has entries can be chain0
+        ChainedHashMapIterator() {
+            this.currentChains = chains;
+            this.previousChains = oldChains;
+            this.groupCount = oldChains == null ? chains.length : oldChains.length;
+            this.expectedModCount = modCount;
+            this.group = 0;
+            this.entries = Collections.emptyIterator();
+            this.pendingChain = null;
         }
 
-        private void moveToNextChain() {
-            // Loops until chain with entries is found or all chains null
-            while (chainIndex < chains.length && (chains[chainIndex] == null
-                   || !chains[chainIndex].iterator().hasNext())) {
-                chainIndex++;
+        // Points `entries` at the entries of the given group.
+        private void visit(int index) {
+            if (previousChains == null) {
+                entries = entriesOf(currentChains[index]);
+                return;
             }
-            // If chain with entries found, current iterator is set to it
-            if (chainIndex < chains.length) {
-                currentIterator = chains[chainIndex].iterator();
+            AbstractIterableMap<K, V> lower = currentChains[index];
+            AbstractIterableMap<K, V> upper = currentChains[index + groupCount];
+            AbstractIterableMap<K, V> old = previousChains[index];
+            if (old == null) {
+                // already migrated, so nothing more can move into this group's chains
+                entries = entriesOf(lower);
+                pendingChain = upper;
+                return;
             }
+            // a read could migrate the old chain into the other two before we're done with them
+            List<Map.Entry<K, V>> copied = new ArrayList<>();
+            copyEntries(old, copied);
+            copyEntries(lower, copied);
+            copyEntries(upper, copied);
+            entries = copied.iterator();
+        }
+
+        private void copyEntries(AbstractIterableMap<K, V> chain, List<Map.Entry<K, V>> copied) {
+            if (chain != null) {
+                for (Map.Entry<K, V> entry : chain) {
+                    copied.add(new CopiedEntry(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+
+        private Iterator<Map.Entry<K, V>> entriesOf(AbstractIterableMap<K, V> chain) {
+            return chain == null ? Collections.emptyIterator() : chain.iterator();
         }
 
         @Override
         public boolean hasNext() {
-            // If the current chain has more entries k-v pairs return true. Else find next chain with entries
-            if (currentIterator != null && currentIterator.hasNext()) {
-                return true;
-            } else {
-                chainIndex++;
-                moveToNextChain();
-                // Returns true if currentIterator exists and if the new current chain has entries
-                return currentIterator != null && currentIterator.hasNext();
+            while (!entries.hasNext()) {
+                if (pendingChain != null) {
+                    entries = pendingChain.iterator();
+                    pendingChain = null;
+                } else if (group < groupCount) {
+                    visit(group);
+                    group++;
+                } else {
+                    return false;
+                }
             }
+            return true;
         }
 
         // Returns the next entry and advances the iterator.
         @Override
         public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            // Gets the next entry in what even chain its in
-            Map.Entry<K, V> nextEntry = currentIterator.next();
-            // If the current chain has no more entries, move to the next chain.
-            if (!currentIterator.hasNext()) {
-                chainIndex++;
-                moveToNextChain();
+            return entries.next();
+        }
+    }
+
+    // An entry copied out of a chain that may be migrated while the iterator is still using it, so
+    // setValue writes through the map rather than to the chain.
+    private class CopiedEntry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        CopiedEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            this.value = value;
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
             }
-            // Return the next entry.
-            return nextEntry;
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
         }
     }
 }
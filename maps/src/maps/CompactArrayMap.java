@@ -0,0 +1,275 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// A small map that keeps its keys and values in two parallel arrays, packed into the first `size`
+// slots, instead of in an array of entry objects like ArrayMap. It's meant for maps that only ever
+// hold a handful of entries, e.g. hash table chains, where ArrayMap's per-entry objects, repeated
+// scans in put and scanning size() dominate.
+//
+// The map picks one of two modes whenever its first key is added:
+// - If that key is Comparable, the map is in sorted mode: keys are kept in sorted order and looked
+//   up by binary search. This only holds as long as every key is of that exact class, so adding a
+//   key of any other class (or null) switches the map to linear mode for good (until it's emptied).
+//   As with TreeMap, keys' compareTo must be consistent with equals.
+// - Otherwise, the map is in linear mode: keys are kept in insertion order (until a removal moves
+//   the last one into the gap), and a parallel `hashes` array holds each key's hash code, so a
+//   lookup scans ints and only calls equals on keys whose hash code matches.
+//
+// The iterator doesn't copy anything out of the arrays; its entries are flyweights that just
+// remember their index, so setValue updates the map.
+// @see ArrayMap
+public class CompactArrayMap<K, V> extends AbstractIterableMap<K, V> {
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+
+    Object[] keys;
+    private Object[] values;
+    private int[] hashes; // only used in linear mode; allocated on first use
+    private Class<?> sortedKeyClass; // the class of every key in sorted mode, or null in linear mode
+    private int size;
+    private int modCount;
+
+    // Constructs a new CompactArrayMap with default initial capacity.
+    public CompactArrayMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    // Constructs a new CompactArrayMap with the given initial capacity (i.e., the initial
+    // length of its arrays).
+    //
+    // @param initialCapacity the initial capacity of the CompactArrayMap. If not > 0, the default
+    //                        capacity is used instead.
+    public CompactArrayMap(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            initialCapacity = DEFAULT_INITIAL_CAPACITY;
+        }
+        this.keys = new Object[initialCapacity];
+        this.values = new Object[initialCapacity];
+    }
+
+    // Returns whether keys are kept sorted. For tests.
+    boolean isSorted() {
+        return sortedKeyClass != null;
+    }
+
+    // Returns the index holding the key, or a negative number if it's absent.
+    private int indexOf(Object key) {
+        if (sortedKeyClass != null) {
+            // a key of another class can't be in the map, and mustn't be passed to compareTo
+            if (key == null || key.getClass() != sortedKeyClass) {
+                return -1;
+            }
+            return Arrays.binarySearch(keys, 0, size, key);
+        }
+        return linearIndexOf(key, Objects.hashCode(key));
+    }
+
+    private int linearIndexOf(Object key, int hash) {
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash && Objects.equals(keys[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (size == 0) {
+            sortedKeyClass = key instanceof Comparable ? key.getClass() : null;
+        } else if (sortedKeyClass != null && (key == null || key.getClass() != sortedKeyClass)) {
+            switchToLinearMode();
+        }
+
+        if (sortedKeyClass != null) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                V oldValue = (V) values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            ensureCapacity();
+            // shift the larger keys up a slot to make room
+            int insertionPoint = -index - 1;
+            System.arraycopy(keys, insertionPoint, keys, insertionPoint + 1, size - insertionPoint);
+            System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+            keys[insertionPoint] = key;
+            values[insertionPoint] = value;
+        } else {
+            int hash = Objects.hashCode(key);
+            if (hashes == null) {
+                hashes = new int[keys.length];
+            }
+            int index = linearIndexOf(key, hash);
+            if (index >= 0) {
+                V oldValue = (V) values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            ensureCapacity();
+            keys[size] = key;
+            values[size] = value;
+            hashes[size] = hash;
+        }
+        size += 1;
+        modCount += 1;
+        return null;
+    }
+
+    // Leaves sorted mode, filling in the hash codes of the keys already in the map. Their order
+    // doesn't matter in linear mode, so they stay where they are.
+    private void switchToLinearMode() {
+        if (hashes == null || hashes.length < keys.length) {
+            hashes = new int[keys.length];
+        }
+        for (int i = 0; i < size; i++) {
+            hashes[i] = Objects.hashCode(keys[i]);
+        }
+        sortedKeyClass = null;
+    }
+
+    // Doubles the arrays if they're full.
+    private void ensureCapacity() {
+        if (size < keys.length) {
+            return;
+        }
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        values = Arrays.copyOf(values, values.length * 2);
+        if (hashes != null) {
+            hashes = Arrays.copyOf(hashes, keys.length);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V oldValue = (V) values[index];
+        int last = size - 1;
+        if (sortedKeyClass != null) {
+            // shift the larger keys down a slot to keep them sorted
+            System.arraycopy(keys, index + 1, keys, index, last - index);
+            System.arraycopy(values, index + 1, values, index, last - index);
+        } else {
+            // order doesn't matter, so the last key can just fill the gap
+            keys[index] = keys[last];
+            values[index] = values[last];
+            hashes[index] = hashes[last];
+        }
+        keys[last] = null;
+        values[last] = null;
+        size = last;
+        modCount += 1;
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new CompactArrayMapIterator();
+    }
+
+    private class CompactArrayMapIterator implements Iterator<Map.Entry<K, V>> {
+        private final int expectedModCount = modCount;
+        private int index = 0;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return new IndexEntry(index++);
+        }
+    }
+
+    // A flyweight entry that reads and writes its index of the arrays directly, so setValue
+    // updates the map. Like any map's entries, it's only valid until the map's next structural
+    // change.
+    private class IndexEntry implements Map.Entry<K, V> {
+        private final int index;
+
+        IndexEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) keys[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) values[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            V oldValue = (V) values[index];
+            values[index] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package maps;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// A thread-safe chained hash map.
+//
+// Writes lock one of a fixed number of stripes; reads take no locks at all. Each chain is a
+// linked list of nodes whose key and hash never change and whose value and next pointers are
+// volatile, and chain heads are read and written through an AtomicReferenceArray, so a reader
+// always sees a consistent (if possibly slightly stale) chain.
+//
+// Both the chain count and the stripe count are powers of two, with at least as many chains as
+// stripes, so chain i is guarded by stripe (i mod stripes). Doubling the chain count splits chain i
+// into chains i and i + n, which map to the same stripe, so a key's stripe never changes.
+//
+// Resizing is cooperative rather than stop-the-world. The writer that pushes the map over its
+// load factor allocates the doubled table, and from then on every write moves a small batch of
+// chains across (under their stripe locks) before returning. Each moved chain's old head is
+// replaced by a forwarding node, which sends readers and writers on to the new table.
+//
+// Like java.util.concurrent.ConcurrentHashMap, null keys and values are not allowed, and iteration
+// is weakly consistent: it never throws ConcurrentModificationException, and may or may not
+// reflect writes made after it started.
+// @see ChainedHashMap
+public class ConcurrentChainedHashMap<K, V> extends AbstractIterableMap<K, V> implements ConcurrentMap<K, V> {
+    private static final double RESIZING_LOAD_FACTOR_THRESHOLD = 0.75;
+    private static final int DEFAULT_INITIAL_CHAIN_COUNT = 16;
+    private static final int DEFAULT_STRIPE_COUNT = 16;
+    private static final int MAXIMUM_CHAIN_COUNT = 1 << 30;
+    // number of chains a write moves across while a resize is in progress
+    private static final int CHAINS_MOVED_PER_WRITE = 16;
+    private static final int MOVED = -1; // hash of forwarding nodes; real hashes are never negative
+
+    private final ReentrantLock[] stripes;
+    private volatile Table<K, V> table;
+    private final AtomicReference<Resize<K, V>> resize;
+    private final LongAdder size;
+
+    // Constructs a new ConcurrentChainedHashMap with the default initial chain and stripe counts.
+    public ConcurrentChainedHashMap() {
+        this(DEFAULT_INITIAL_CHAIN_COUNT, DEFAULT_STRIPE_COUNT);
+    }
+
+    // Constructs a new ConcurrentChainedHashMap with the given parameters.
+    //
+    // @param initialChainCount the initial number of chains, rounded up to a power of two. Must be > 0.
+    // @param stripeCount the number of write locks, rounded up to a power of two. Roughly the number
+    //                    of threads that can write at once without contending. Must be > 0.
+    public ConcurrentChainedHashMap(int initialChainCount, int stripeCount) {
+        if (initialChainCount <= 0 || stripeCount <= 0 || stripeCount > MAXIMUM_CHAIN_COUNT) {
+            throw new IllegalArgumentException("Parameters must be greater than 0");
+        }
+        int stripes = roundUpToPowerOfTwo(stripeCount);
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        int chainCount = Math.max(stripes, roundUpToPowerOfTwo(Math.min(initialChainCount, MAXIMUM_CHAIN_COUNT)));
+        this.table = new Table<>(chainCount);
+        this.resize = new AtomicReference<>();
+        this.size = new LongAdder();
+    }
+
+    private static int roundUpToPowerOfTwo(int n) {
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    // Mixes the high bits of the hash code into the low bits (which pick the chain), and clears
+    // the sign bit so real hashes never collide with MOVED.
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & 0x7fffffff;
+    }
+
+    private ReentrantLock stripeFor(int hash) {
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findNode(key) != null;
+    }
+
+    // Finds the node for the key without locking, following forwarding nodes to newer tables.
+    private Node<K, V> findNode(Object key) {
+        int hash = spread(key);
+        Table<K, V> current = table;
+        while (true) {
+            Node<K, V> node = current.chains.get(hash & (current.length() - 1));
+            if (node instanceof ForwardingNode) {
+                current = ((ForwardingNode<K, V>) node).nextTable;
+                continue;
+            }
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> value, true);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> oldValue == null ? value : oldValue, true);
+    }
+
+    @Override
+    public V remove(Object key) {
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        return update(k, (ignored, oldValue) -> null, true);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (value == null) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        V oldValue = update(k, (ignored, current) -> value.equals(current) ? null : current, true);
+        return value.equals(oldValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> oldValue == null ? null : value, true);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        checkValue(oldValue);
+        checkValue(newValue);
+        V current = update(key, (k, v) -> oldValue.equals(v) ? newValue : v, true);
+        return oldValue.equals(current);
+    }
+
+    // The mapping function runs while holding the key's stripe lock, so it must be short and must
+    // not modify this map.
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return update(key, (k, oldValue) -> oldValue != null ? oldValue : mappingFunction.apply(k), false);
+    }
+
+    // The remapping function runs while holding the key's stripe lock, so it must be short and
+    // must not modify this map.
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return update(key, (k, oldValue) -> oldValue == null ? null : remappingFunction.apply(k, oldValue), false);
+    }
+
+    // The remapping function runs while holding the key's stripe lock, so it must be short and
+    // must not modify this map.
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return update(key, remappingFunction, false);
+    }
+
+    // The remapping function runs while holding the key's stripe lock, so it must be short and
+    // must not modify this map.
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value), false);
+    }
+
+    private static void checkValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException("ConcurrentChainedHashMap does not allow null values");
+        }
+    }
+
+    // Atomically replaces the key's value (or null, if absent) with `function(key, oldValue)`,
+    // where a null result removes the key. Returns the old value if returnOldValue is true, and
+    // the new value otherwise. Every write goes through here.
+    private V update(K key, BiFunction<? super K, ? super V, ? extends V> function, boolean returnOldValue) {
+        int hash = spread(key);
+        V oldValue;
+        V newValue;
+        int sizeChange = 0;
+        ReentrantLock lock = stripeFor(hash);
+        lock.lock();
+        try {
+            // Holding the stripe lock means this key's chain can't be moved to a new table
+            // underneath us, so once we've followed any forwarding nodes, the chain is ours.
+            Table<K, V> current = table;
+            int index;
+            Node<K, V> first;
+            while (true) {
+                index = hash & (current.length() - 1);
+                first = current.chains.get(index);
+                if (!(first instanceof ForwardingNode)) {
+                    break;
+                }
+                current = ((ForwardingNode<K, V>) first).nextTable;
+            }
+
+            Node<K, V> previous = null;
+            Node<K, V> node = first;
+            while (node != null && !(node.hash == hash && node.key.equals(key))) {
+                previous = node;
+                node = node.next;
+            }
+            oldValue = node == null ? null : node.value;
+            newValue = function.apply(key, oldValue);
+
+            if (newValue != null) {
+                if (node != null) {
+                    node.value = newValue;
+                } else {
+                    // publishing the new head makes the fully-constructed node visible to readers
+                    current.chains.set(index, new Node<>(hash, key, newValue, first));
+                    sizeChange = 1;
+                }
+            } else if (node != null) {
+                // readers already on `node` can still follow its next pointer
+                if (previous == null) {
+                    current.chains.set(index, node.next);
+                } else {
+                    previous.next = node.next;
+                }
+                sizeChange = -1;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (sizeChange != 0) {
+            size.add(sizeChange);
+            if (sizeChange > 0) {
+                startResizeIfNeeded();
+            }
+        }
+        helpResize();
+        return returnOldValue ? oldValue : newValue;
+    }
+
+    private void startResizeIfNeeded() {
+        Table<K, V> current = table;
+        if (size.sum() > current.length() * RESIZING_LOAD_FACTOR_THRESHOLD
+                && current.length() < MAXIMUM_CHAIN_COUNT
+                && resize.get() == null) {
+            // Another writer may have started (or even finished) this resize first. If it finishes
+            // between our check and our CAS, the stale resize finds every chain already forwarded
+            // and retires without touching anything.
+            if (table == current) {
+                resize.compareAndSet(null, new Resize<>(current, new Table<>(current.length() * 2)));
+            }
+        }
+    }
+
+    // If a resize is in progress, moves the next batch of chains into the new table, and
+    // finishes the resize if that was the last batch.
+    private void helpResize() {
+        Resize<K, V> current = resize.get();
+        if (current == null) {
+            return;
+        }
+        int oldLength = current.from.length();
+        int start = current.nextChain.getAndAdd(CHAINS_MOVED_PER_WRITE);
+        if (start >= oldLength) {
+            return;
+        }
+        int end = Math.min(oldLength, start + CHAINS_MOVED_PER_WRITE);
+        for (int i = start; i < end; i++) {
+            moveChain(current, i);
+        }
+        if (current.chainsMoved.addAndGet(end - start) == oldLength) {
+            if (table == current.from) {
+                table = current.to;
+            }
+            resize.compareAndSet(current, null);
+        }
+    }
+
+    // Splits chain i of the old table into chains i and i + n of the new one, then forwards it.
+    // The old nodes are copied rather than relinked, so readers still walking them are unaffected.
+    private void moveChain(Resize<K, V> current, int i) {
+        int oldLength = current.from.length();
+        ReentrantLock lock = stripes[i & (stripes.length - 1)];
+        lock.lock();
+        try {
+            Node<K, V> head = current.from.chains.get(i);
+            if (head instanceof ForwardingNode) {
+                // only possible for a stale resize of a table that has already been replaced
+                return;
+            }
+            Node<K, V> low = null;
+            Node<K, V> high = null;
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                if ((node.hash & oldLength) == 0) {
+                    low = new Node<>(node.hash, node.key, node.value, low);
+                } else {
+                    high = new Node<>(node.hash, node.key, node.value, high);
+                }
+            }
+            current.to.chains.set(i, low);
+            current.to.chains.set(i + oldLength, high);
+            current.from.chains.set(i, new ForwardingNode<>(current.to));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes all key-value pairs. Not atomic: concurrent writes may survive it.
+    @Override
+    public void clear() {
+        for (K key : keySet()) {
+            remove(key);
+        }
+    }
+
+    // Returns the number of entries; only an estimate while other threads are writing.
+    @Override
+    public int size() {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, size.sum()));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size.sum() <= 0;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new ConcurrentChainedHashMapIterator<>(table);
+    }
+
+    private static final class Table<K, V> {
+        final AtomicReferenceArray<Node<K, V>> chains;
+
+        Table(int length) {
+            this.chains = new AtomicReferenceArray<>(length);
+        }
+
+        int length() {
+            return chains.length();
+        }
+    }
+
+    // A resize in progress: chains of `from` with index < nextChain have been claimed by a writer,
+    // and chainsMoved of them have been moved into `to`.
+    private static final class Resize<K, V> {
+        final Table<K, V> from;
+        final Table<K, V> to;
+        final AtomicInteger nextChain;
+        final AtomicInteger chainsMoved;
+
+        Resize(Table<K, V> from, Table<K, V> to) {
+            this.from = from;
+            this.to = to;
+            this.nextChain = new AtomicInteger(0);
+            this.chainsMoved = new AtomicInteger(0);
+        }
+    }
+
+    // Entries are read-only snapshots of a node; use put to change a value.
+    private static class Node<K, V> implements Map.Entry<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    // Marks a chain that has been moved to `nextTable`.
+    private static final class ForwardingNode<K, V> extends Node<K, V> {
+        final Table<K, V> nextTable;
+
+        ForwardingNode(Table<K, V> nextTable) {
+            super(MOVED, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    // Walks the chains of the table it started with. When it finds a forwarded chain i, it walks
+    // chains i and i + n of the newer table instead, which between them hold exactly what chain i
+    // held.
+    private static class ConcurrentChainedHashMapIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Table<K, V> root;
+        private int rootIndex;
+        // forwarded chains still to visit, as (table, index) pairs
+        private final ArrayDeque<Table<K, V>> pendingTables;
+        private final ArrayDeque<Integer> pendingIndexes;
+        private Node<K, V> next;
+
+        ConcurrentChainedHashMapIterator(Table<K, V> root) {
+            this.root = root;
+            this.rootIndex = 0;
+            this.pendingTables = new ArrayDeque<>();
+            this.pendingIndexes = new ArrayDeque<>();
+            advance();
+        }
+
+        private void advance() {
+            while (next == null) {
+                Table<K, V> current;
+                int index;
+                if (!pendingTables.isEmpty()) {
+                    current = pendingTables.pop();
+                    index = pendingIndexes.pop();
+                } else if (rootIndex < root.length()) {
+                    current = root;
+                    index = rootIndex++;
+                } else {
+                    return;
+                }
+                Node<K, V> head = current.chains.get(index);
+                if (head instanceof ForwardingNode) {
+                    Table<K, V> nextTable = ((ForwardingNode<K, V>) head).nextTable;
+                    pendingTables.push(nextTable);
+                    pendingIndexes.push(index + current.length());
+                    pendingTables.push(nextTable);
+                    pendingIndexes.push(index);
+                } else {
+                    next = head;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> result = next;
+            next = result.next;
+            advance();
+            return result;
+        }
+    }
+}
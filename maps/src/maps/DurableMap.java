@@ -0,0 +1,732 @@
+package maps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// A map that makes another map durable: it keeps its entries in the wrapped map, and records every
+// change in files in a directory, so that reopening the directory gets the same entries back after
+// a restart or a crash, without rewriting the whole map on every change.
+//
+// `wal.bin` is a write-ahead log: every put, remove and clear appends a record before returning.
+// Each record starts with its length and a CRC32C checksum of the rest, so a record cut short by a
+// crash, or damaged on disk, reads as the end of the log. Records are collected in a buffer and
+// written to the file in batches, and the SyncPolicy decides when they're forced to disk. Under
+// ALWAYS, each write waits for an fsync that covers it, and writers share fsyncs (group commit):
+// while one writer's fsync runs, the records of writers arriving meanwhile pile up in the buffer,
+// and once it's done, one of them writes and forces all of them at once.
+//
+// `snapshot.bin` holds every entry as of some point, streamed from the wrapped map's iterator, and
+// ends with a checksum. Once the log outgrows both a threshold and the last snapshot (so the time
+// spent on snapshots stays proportional to the amount written), a new snapshot is written to a
+// temporary file, forced, and renamed over the old one, and then the log is emptied. The log and
+// the snapshot each record a generation number, which every snapshot increments, so a log left
+// over by a crash between the rename and emptying the log is known to be in the snapshot already.
+// Snapshots are only an optimization, so if writing one fails before the rename, the write that
+// triggered it still succeeds: the log stays in place, and the snapshot is tried again once the
+// log has grown by another threshold.
+//
+// Opening the directory loads the snapshot into the wrapped map, then replays the log up to its
+// first incomplete or corrupt record, and discards everything after that record.
+//
+// If writing the log fails, the records that didn't make it are lost, though the wrapped map
+// already holds their changes. So from then on, every write, flush and snapshot throws an
+// UncheckedIOException instead of changing the map, and reopening the directory gets back the
+// entries as of the last record that was written. The same goes for a failure after a snapshot's
+// rename, while making it durable and emptying the log, since the files may then disagree.
+//
+// Reads and writes are thread-safe, though both wait while a snapshot is written, since it streams
+// the wrapped map under the same lock, and other threads may see a write before it's on disk.
+// Iterating isn't, so don't iterate while other threads write. The wrapped map must start out
+// empty and must only be used through this map. Null keys and values are not supported.
+// @see Serializer
+public class DurableMap<K, V> extends AbstractIterableMap<K, V> implements AutoCloseable {
+    private static final String LOG_FILE = "wal.bin";
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SNAPSHOT_TEMPORARY_FILE = "snapshot.tmp";
+    private static final long DEFAULT_SYNC_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long DEFAULT_SNAPSHOT_LOG_BYTES = 64 << 20;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    // The log starts with a magic number and its generation. Each record then holds its length,
+    // checksum, type, key length, key and (for puts) value.
+    private static final long LOG_MAGIC = 0x447572614c6f6730L;
+    private static final int LOG_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 13;
+    private static final int CHECKED_FROM = 8; // the checksum covers the record from the type on
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    // The snapshot holds a magic number, its generation and its entry count, then each entry's key
+    // length, key, value length and value, then a checksum of everything before it.
+    private static final long SNAPSHOT_MAGIC = 0x44757261536e6170L;
+
+    // When a write's log record is forced to disk, which decides what a crash may lose.
+    public enum SyncPolicy {
+        // Each write returns once its record is on disk, so a crash loses nothing that returned.
+        // Concurrent writers share fsyncs.
+        ALWAYS,
+        // Writes return once their records are buffered, and a write forces the log to disk if it
+        // hasn't been for the sync interval, so a crash loses at most about that long of writes,
+        // as long as writes keep coming (and flush covers the last of them).
+        INTERVAL,
+        // The log is only forced to disk by flush, snapshots and close. Buffered records are still
+        // written to the file when the buffer fills.
+        NEVER
+    }
+
+    private final AbstractIterableMap<K, V> map;
+    private final Path directory;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final SyncPolicy syncPolicy;
+    private final long syncIntervalNanos;
+    private final long snapshotLogBytes;
+    private final FileChannel log;
+
+    // Guards the map and the fields below. The log is written without holding it, so that
+    // writers don't hold up readers and other writers while they wait for the disk; instead, the
+    // one writer doing so at a time sets `writing`, and the others wait on the lock. Snapshots do
+    // hold it throughout, so that the map can't change while it's streamed out.
+    private final Object lock = new Object();
+    private ByteBuffer buffer; // records not yet written to the file
+    private ByteBuffer spare; // swapped with the buffer to write it out
+    private boolean writing;
+    private long logEnd; // log offset just past the last record, including buffered ones
+    private long writtenEnd; // log offset just past the last record written to the file
+    private long syncedEnd; // log offset just past the last record forced to disk
+    private long generation;
+    private long snapshotBytes;
+    private long snapshotRetryEnd; // after a failed snapshot, the log offset to wait for before retrying
+    private IOException failure; // why the map stopped accepting writes, or null
+    private volatile long lastSyncNanos;
+    private int replayedRecords;
+
+    // Opens the map in the given directory, creating it if it doesn't exist, and loads its entries
+    // into the given map. Every write waits for its record to be forced to disk.
+    public DurableMap(Path directory, AbstractIterableMap<K, V> map, Serializer<K> keySerializer,
+                      Serializer<V> valueSerializer) {
+        this(directory, map, keySerializer, valueSerializer, SyncPolicy.ALWAYS, DEFAULT_SYNC_INTERVAL_NANOS,
+            DEFAULT_SNAPSHOT_LOG_BYTES);
+    }
+
+    // Opens the map in the given directory, creating it if it doesn't exist, and loads its entries
+    // into the given map.
+    //
+    // @param map the map to keep the entries in. Must be empty.
+    // @param syncIntervalNanos under INTERVAL, how often the log is forced to disk. Must be >= 0.
+    // @param snapshotLogBytes how large the log may grow before a snapshot replaces it, unless the
+    //                         last snapshot was larger. Must be > 0.
+    public DurableMap(Path directory, AbstractIterableMap<K, V> map, Serializer<K> keySerializer,
+                      Serializer<V> valueSerializer, SyncPolicy syncPolicy, long syncIntervalNanos,
+                      long snapshotLogBytes) {
+        if (!map.isEmpty()) {
+            throw new IllegalArgumentException("The wrapped map must be empty");
+        }
+        if (syncIntervalNanos < 0 || snapshotLogBytes <= 0) {
+            throw new IllegalArgumentException("Sync interval must be >= 0 and snapshot log size > 0");
+        }
+        this.map = map;
+        this.directory = directory;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalNanos = syncIntervalNanos;
+        this.snapshotLogBytes = snapshotLogBytes;
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.spare = ByteBuffer.allocate(BUFFER_BYTES);
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(directory);
+            // left behind by a crash in the middle of a snapshot
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMPORARY_FILE));
+            Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshotFile)) {
+                this.generation = loadSnapshot(snapshotFile);
+                this.snapshotBytes = Files.size(snapshotFile);
+            }
+            Path logFile = directory.resolve(LOG_FILE);
+            long end = replayLog(logFile);
+            channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            this.log = channel;
+            if (end < 0) {
+                resetLog();
+            } else {
+                // discard the incomplete or corrupt record, if any, and whatever follows it
+                log.truncate(end);
+                this.logEnd = end;
+                this.writtenEnd = end;
+                this.syncedEnd = end;
+            }
+        } catch (IOException e) {
+            closeAfterFailure(channel, e);
+            throw new UncheckedIOException(e);
+        }
+        this.lastSyncNanos = System.nanoTime();
+    }
+
+    // Closes the log of a map that failed to open, keeping the original failure.
+    private static void closeAfterFailure(FileChannel channel, Exception failure) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    // Returns the number of log records that opening the map replayed on top of the snapshot.
+    public int replayedRecords() {
+        return replayedRecords;
+    }
+
+    // Returns the offset just past the last record in the log. For tests.
+    long logBytes() {
+        synchronized (lock) {
+            return logEnd;
+        }
+    }
+
+    // Returns the log file's channel. For tests.
+    FileChannel logChannel() {
+        return log;
+    }
+
+    // Loads the snapshot's entries into the map, and returns its generation.
+    private long loadSnapshot(Path file) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES), new CRC32C())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readLong() != SNAPSHOT_MAGIC) {
+                throw new IllegalArgumentException(file + " is not a DurableMap snapshot");
+            }
+            long snapshotGeneration = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                K key = keySerializer.deserialize(readBytes(in, file));
+                V value = valueSerializer.deserialize(readBytes(in, file));
+                map.put(key, value);
+            }
+            int checksum = (int) checked.getChecksum().getValue();
+            if (in.readInt() != checksum) {
+                throw new IllegalStateException(file + " is corrupt");
+            }
+            return snapshotGeneration;
+        } catch (EOFException e) {
+            // snapshots are forced to disk before they're renamed into place, so this is damage
+            throw new IllegalStateException(file + " is corrupt", e);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in, Path file) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IllegalStateException(file + " is corrupt");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    // Replays the log's records into the map, up to the first incomplete or corrupt one, and
+    // returns the offset just past the last one replayed, or -1 if the log should be started over
+    // because it's missing or already in the snapshot.
+    private long replayLog(Path file) throws IOException {
+        long size = Files.exists(file) ? Files.size(file) : 0;
+        if (size < LOG_HEADER_BYTES) {
+            // a new log, or a snapshot crashed while emptying it
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES))) {
+            if (in.readLong() != LOG_MAGIC) {
+                throw new IllegalArgumentException(file + " is not a DurableMap log");
+            }
+            long logGeneration = in.readLong();
+            if (logGeneration < generation) {
+                return -1;
+            } else if (logGeneration > generation) {
+                throw new IllegalStateException(file + " is newer than the snapshot, which must be missing");
+            }
+            long end = LOG_HEADER_BYTES;
+            CRC32C crc = new CRC32C();
+            while (size - end >= RECORD_HEADER_BYTES) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < RECORD_HEADER_BYTES || length > size - end) {
+                    break;
+                }
+                byte[] record = new byte[length - CHECKED_FROM];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                apply(record);
+                replayedRecords += 1;
+                end += length;
+            }
+            return end;
+        }
+    }
+
+    // Applies a log record, from its type on, to the map.
+    private void apply(byte[] record) {
+        ByteBuffer fields = ByteBuffer.wrap(record);
+        byte type = fields.get();
+        if (type == CLEAR) {
+            map.clear();
+            return;
+        }
+        int keyLength = fields.getInt();
+        int keyStart = RECORD_HEADER_BYTES - CHECKED_FROM;
+        K key = keySerializer.deserialize(Arrays.copyOfRange(record, keyStart, keyStart + keyLength));
+        if (type == PUT) {
+            map.put(key, valueSerializer.deserialize(Arrays.copyOfRange(record, keyStart + keyLength, record.length)));
+        } else {
+            map.remove(key);
+        }
+    }
+
+    // Empties the log file, leaving just a header with the current generation.
+    private void resetLog() throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).putLong(LOG_MAGIC).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            log.write(header, header.position());
+        }
+        log.force(false);
+        logEnd = LOG_HEADER_BYTES;
+        writtenEnd = LOG_HEADER_BYTES;
+        syncedEnd = LOG_HEADER_BYTES;
+    }
+
+    // Encodes a log record. It's built outside the lock, so writers serialize and checksum in
+    // parallel.
+    private static byte[] record(byte type, byte[] key, byte[] value) {
+        int length = RECORD_HEADER_BYTES + key.length + (value == null ? 0 : value.length);
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length).putInt(0).put(type).putInt(key.length).put(key);
+        if (value != null) {
+            record.put(value);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), CHECKED_FROM, length - CHECKED_FROM);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        return record.array();
+    }
+
+    // Throws if an earlier failure to write the log means the map can't accept writes. Must hold
+    // the lock.
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("The log could not be written, so the map no longer accepts writes",
+                failure);
+        }
+    }
+
+    // Adds a record to the buffer, and returns the log offset just past it. Must hold the lock.
+    private long append(byte[] record) {
+        if (buffer.remaining() < record.length) {
+            // the buffer is only emptied between fsyncs, so it grows meanwhile
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + record.length));
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+        buffer.put(record);
+        logEnd += record.length;
+        return logEnd;
+    }
+
+    // Makes the record ending at the given log offset as durable as the sync policy requires, and
+    // writes a snapshot if the log has grown too large. Only writing the log can make this throw:
+    // by the time the snapshot is written, the record is already logged. Must not hold the lock.
+    private void afterWrite(long end) {
+        boolean full;
+        boolean snapshotDue;
+        synchronized (lock) {
+            full = buffer.position() >= BUFFER_BYTES;
+            snapshotDue = snapshotDue();
+        }
+        if (syncPolicy == SyncPolicy.ALWAYS
+                || syncPolicy == SyncPolicy.INTERVAL && System.nanoTime() - lastSyncNanos >= syncIntervalNanos) {
+            writeOut(end, true);
+        } else if (full) {
+            writeOut(end, false);
+        }
+        if (snapshotDue) {
+            synchronized (lock) {
+                awaitWriter(Long.MAX_VALUE, false);
+                // another writer may have beaten us to it, or failed to write the log meanwhile
+                if (failure == null && snapshotDue()) {
+                    try {
+                        writeSnapshot();
+                    } catch (UncheckedIOException e) {
+                        // the log still holds everything (unless the map failed, which later writes
+                        // will report), so leave it be until it's grown by another threshold
+                        snapshotRetryEnd = logEnd + Math.max(snapshotLogBytes, snapshotBytes);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean snapshotDue() {
+        return logEnd - LOG_HEADER_BYTES > Math.max(snapshotLogBytes, snapshotBytes) && logEnd >= snapshotRetryEnd;
+    }
+
+    // Writes every buffered record to the file, and forces the file to disk if `force`, unless
+    // another writer does so for every record up to the given log offset first.
+    //
+    // This is where group commit happens: writers that arrive while another writer is here wait,
+    // and once it's done, the first of them to wake takes the records of all of them. After a
+    // snapshot empties the log, offsets from before it may compare wrongly, but those records are
+    // all in the snapshot, so returning early for them is fine.
+    //
+    // If the write fails, the batch is lost, so the map is marked as failed: this writer and every
+    // one waiting for the batch throws.
+    private void writeOut(long end, boolean force) {
+        ByteBuffer batch;
+        long position;
+        long batchEnd;
+        synchronized (lock) {
+            if (awaitWriter(end, force)) {
+                return;
+            }
+            checkWritable();
+            writing = true;
+            batch = buffer;
+            buffer = spare;
+            position = writtenEnd;
+            batchEnd = logEnd;
+        }
+        boolean forced = false;
+        IOException error = null;
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                position += log.write(batch, position);
+            }
+            if (force) {
+                log.force(false);
+                forced = true;
+            }
+        } catch (IOException e) {
+            error = e;
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (lock) {
+                spare = batch.clear();
+                if (error != null) {
+                    failure = error;
+                } else {
+                    writtenEnd = position;
+                }
+                if (forced) {
+                    syncedEnd = batchEnd;
+                    lastSyncNanos = System.nanoTime();
+                }
+                writing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Waits until no writer is writing the file, and returns whether the records up to the given
+    // log offset have been written (or forced, if `force`) by then. Must hold the lock.
+    //
+    // Waiting (rather than blocking on a second lock) matters: it frees the CPU for more writers
+    // to add their records to the next batch, instead of spinning.
+    private boolean awaitWriter(long end, boolean force) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                if (end <= (force ? syncedEnd : writtenEnd)) {
+                    return true;
+                } else if (!writing) {
+                    return false;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    // a write that already happened can't be abandoned halfway
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Streams every entry into a new snapshot, renames it into place, and empties the log. Must
+    // hold the lock, with no writer writing the file.
+    private void writeSnapshot() {
+        Path temporary = directory.resolve(SNAPSHOT_TEMPORARY_FILE);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES), new CRC32C());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeLong(SNAPSHOT_MAGIC);
+                out.writeLong(generation + 1);
+                out.writeInt(map.size());
+                for (Map.Entry<K, V> entry : map) {
+                    byte[] key = keySerializer.serialize(entry.getKey());
+                    byte[] value = valueSerializer.serialize(entry.getValue());
+                    out.writeInt(key.length);
+                    out.write(key);
+                    out.writeInt(value.length);
+                    out.write(value);
+                }
+                out.writeInt((int) checked.getChecksum().getValue());
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the old snapshot and the log are still in place, so nothing is lost
+            throw new UncheckedIOException(e);
+        }
+        try {
+            // the rename isn't durable until the directory is, and a crash that loses it mustn't
+            // find the log already emptied
+            forceDirectory();
+            snapshotBytes = Files.size(directory.resolve(SNAPSHOT_FILE));
+            generation += 1;
+            // every record in the log and the buffer is in the snapshot now
+            buffer.clear();
+            resetLog();
+            snapshotRetryEnd = 0;
+            lastSyncNanos = System.nanoTime();
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // Writes a snapshot now, and empties the log, so that reopening the map won't need to replay
+    // any records.
+    public void snapshot() {
+        synchronized (lock) {
+            awaitWriter(Long.MAX_VALUE, false);
+            checkWritable();
+            writeSnapshot();
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        synchronized (lock) {
+            return map.get(key);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        synchronized (lock) {
+            return map.containsKey(key);
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        byte[] record = record(PUT, keySerializer.serialize(key), valueSerializer.serialize(value));
+        V previous;
+        long end;
+        synchronized (lock) {
+            checkWritable();
+            previous = map.put(key, value);
+            end = append(record);
+        }
+        afterWrite(end);
+        return previous;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        V previous;
+        long end;
+        synchronized (lock) {
+            checkWritable();
+            // there's no need to log removing a key that isn't there
+            if (!map.containsKey(key)) {
+                return null;
+            }
+            previous = map.remove(key);
+            end = append(record(REMOVE, keySerializer.serialize((K) key), null));
+        }
+        afterWrite(end);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        long end;
+        synchronized (lock) {
+            checkWritable();
+            map.clear();
+            end = append(record(CLEAR, new byte[0], null));
+        }
+        afterWrite(end);
+    }
+
+    @Override
+    public int size() {
+        synchronized (lock) {
+            return map.size();
+        }
+    }
+
+    // Forces every record written so far to disk.
+    public void flush() {
+        long end;
+        synchronized (lock) {
+            end = logEnd;
+        }
+        writeOut(end, true);
+    }
+
+    // Flushes the map and closes its log, even if flushing fails. The map must not be used
+    // afterwards.
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            synchronized (lock) {
+                awaitWriter(Long.MAX_VALUE, false);
+                try {
+                    log.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new DurableMapIterator();
+    }
+
+    // Iterates over the wrapped map, logging removes and setValues.
+    private class DurableMapIterator implements Iterator<Map.Entry<K, V>> {
+        private final Iterator<Map.Entry<K, V>> iterator = map.iterator();
+        private K lastKey;
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            DurableEntry entry = new DurableEntry(iterator.next());
+            lastKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            long end;
+            synchronized (lock) {
+                checkWritable();
+                iterator.remove();
+                end = append(record(REMOVE, keySerializer.serialize(lastKey), null));
+            }
+            afterWrite(end);
+        }
+    }
+
+    // A view of the wrapped map's entry whose setValue also logs the new value.
+    private class DurableEntry implements Map.Entry<K, V> {
+        private final Map.Entry<K, V> entry;
+
+        DurableEntry(Map.Entry<K, V> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (value == null) {
+                throw new NullPointerException();
+            }
+            byte[] record = record(PUT, keySerializer.serialize(getKey()), valueSerializer.serialize(value));
+            V oldValue;
+            long end;
+            synchronized (lock) {
+                checkWritable();
+                oldValue = entry.setValue(value);
+                end = append(record);
+            }
+            afterWrite(end);
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package maps;
+
+// A count-min sketch that estimates how many times each key has been seen recently, in a fixed
+// amount of memory no matter how many distinct keys there are. BoundedCache uses it to decide
+// whether a new entry is worth evicting an old one for.
+//
+// Counters are 4 bits, packed 16 to a long, so an estimate tops out at 15. Each key maps to one
+// counter in each of 4 rows, and its estimate is the smallest of those counters: collisions can
+// only make a counter too big, so the smallest is the closest. Rather than spreading a key's
+// counters across the whole table, one hash picks a block of 8 longs (64 bytes, a typical cache
+// line) and the key's counters all go in that block, 2 longs per row, so each lookup costs one
+// cache miss (or 2, since the array needn't be aligned to cache lines) instead of 4.
+//
+// So that the estimates reflect recent history, every counter is halved once the number of
+// increments reaches 10 times the table size.
+class FrequencySketch {
+    private static final long SEED = 0x9ae16a3b2f90404fL;
+    private static final long RESET_MASK = 0x7777777777777777L; // clears each counter's top bit
+    private static final long ONE_MASK = 0x1111111111111111L; // each counter's lowest bit
+    private static final int MAXIMUM_TABLE_LENGTH = 1 << 30;
+
+    private long[] table;
+    private int blockMask;
+    private int sampleSize;
+    private int additions;
+
+    // Constructs a sketch sized for roughly the given number of distinct keys.
+    FrequencySketch(long expectedKeys) {
+        ensureCapacity(expectedKeys);
+    }
+
+    // Grows the sketch to suit the given number of distinct keys, forgetting all counts if it
+    // does. Never shrinks it.
+    void ensureCapacity(long expectedKeys) {
+        int length = (int) Math.min(MAXIMUM_TABLE_LENGTH, Math.max(64, Long.highestOneBit(expectedKeys - 1) << 1));
+        if (table != null && table.length >= length) {
+            return;
+        }
+        table = new long[length];
+        blockMask = (length >>> 3) - 1;
+        sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * length);
+        additions = 0;
+    }
+
+    // Returns the estimated number of times the key was seen, from 0 to 15.
+    int frequency(Object key) {
+        int blockHash = spread(key.hashCode());
+        int counterHash = rehash(blockHash);
+        int block = (blockHash & blockMask) << 3;
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            int h = counterHash >>> (i << 3);
+            int index = block + (i << 1) + (h & 1);
+            int offset = ((h >>> 1) & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xf));
+        }
+        return frequency;
+    }
+
+    // Counts one more sighting of the key.
+    void increment(Object key) {
+        int blockHash = spread(key.hashCode());
+        int counterHash = rehash(blockHash);
+        int block = (blockHash & blockMask) << 3;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int h = counterHash >>> (i << 3);
+            added |= incrementAt(block + (i << 1) + (h & 1), ((h >>> 1) & 15) << 2);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    // Increments the counter at the given bit offset of the given long unless it's already at 15,
+    // and returns whether it did.
+    private boolean incrementAt(int index, int offset) {
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    // Halves every counter. Each odd counter loses half a count to rounding, which is taken off
+    // the number of additions too.
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    // Derives a second hash from the first, for picking counters within the block.
+    private static int rehash(int hash) {
+        long h = (hash + SEED) * SEED;
+        h += h >>> 32;
+        return (int) h;
+    }
+
+    // Mixes the bits of a hash code, since many hash codes are poorly distributed.
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
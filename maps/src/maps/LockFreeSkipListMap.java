@@ -0,0 +1,539 @@
+package maps;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// A thread-safe sorted map that never locks, built as a skip list.
+//
+// Every node is in the sorted level-0 list, and each level above links a random subset of the
+// level below (each node reaches level i with probability 1 / 2^i), so a search can skip ahead on
+// the sparse upper levels and only walk a few nodes per level: O(log n) expected time. Unlike a
+// balanced tree, nothing is ever restructured, so every change is a single compare-and-set on one
+// link or value, and threads never have to wait for one another.
+//
+// This follows the lock-free skip list of Herlihy and Shavit's "The Art of Multiprocessor
+// Programming", where each link carries a mark bit:
+// - A key is present exactly while its node has a non-null value. Removing it CASes the value to
+//   null; that CAS is the moment the key leaves the map, and puts and replaces CAS the value too,
+//   so they can't be lost to a concurrent remove.
+// - The remover then marks the node's links from the top level down, which freezes them, and any
+//   thread that searches past a marked node unlinks it from that level.
+// - A new node is first linked into level 0, which is the moment its key joins the map, and then
+//   into each higher level in turn.
+// Rather than using AtomicMarkableReference, which costs an extra object per link and an extra
+// hop per step of a search, a link is marked by pointing it at a Marker node that holds the real
+// successor, as java.util.concurrent.ConcurrentSkipListMap does.
+//
+// Like java.util.concurrent.ConcurrentSkipListMap, null keys and values are not allowed, and
+// iteration is weakly consistent: it never throws ConcurrentModificationException, and may or may
+// not reflect writes made after it started. Iteration, floor and ceiling take no snapshot, so
+// they see each key as of when they pass it.
+// @see AVLTreeMap
+public class LockFreeSkipListMap<K extends Comparable<K>, V> extends AbstractIterableMap<K, V>
+        implements ConcurrentMap<K, V> {
+    // enough levels for the upper levels to stay sparse up to about 2^32 keys
+    private static final int MAX_LEVEL = 32;
+
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Node.class, "value", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Node<K, V> head; // a sentinel before every key, linked into every level
+    // the number of levels any node has been linked into, so searches can skip the empty ones;
+    // only ever grows, and is raised before a taller node is linked in
+    private final AtomicInteger levels;
+    private final LongAdder size;
+
+    public LockFreeSkipListMap() {
+        this.head = new Node<>(null, null, MAX_LEVEL - 1);
+        this.levels = new AtomicInteger(1);
+        this.size = new LongAdder();
+    }
+
+    // Compares two keys; assumes that they have proper Comparable types.
+    @SuppressWarnings("unchecked")
+    private static int compare(Object k1, Object k2) {
+        return ((Comparable<Object>) k1).compareTo(k2);
+    }
+
+    // Picks the top level for a new node: level i with probability 1 / 2^(i + 1).
+    private static int randomLevel() {
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newNodeArray() {
+        return (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL];
+    }
+
+    // Searches for the key, filling in each level's last node before the key (preds) and first
+    // node at or after it (succs), and unlinking any removed nodes on the way. Returns whether
+    // succs[0] has the key.
+    private boolean find(Object key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        retry:
+        while (true) {
+            int top = this.levels.get() - 1;
+            for (int level = MAX_LEVEL - 1; level > top; level--) {
+                // nothing was linked here when we started; if that changes, linking fails and retries
+                preds[level] = this.head;
+                succs[level] = null;
+            }
+            Node<K, V> pred = this.head;
+            Node<K, V> current = null;
+            for (int level = top; level >= 0; level--) {
+                current = successor(pred, level);
+                while (current != null) {
+                    Node<K, V> link = link(current, level);
+                    Node<K, V> succ = unmark(link);
+                    if (link != succ) {
+                        // current has been removed; unlink it from this level before going on,
+                        // unless pred has changed, in which case start over
+                        if (!casLink(pred, level, current, succ)) {
+                            continue retry;
+                        }
+                        current = succ;
+                    } else if (compare(current.key, key) < 0) {
+                        pred = current;
+                        current = succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = current;
+            }
+            return current != null && compare(current.key, key) == 0;
+        }
+    }
+
+    // Returns the last level-0 node (possibly the head) whose key is below the given one, or at
+    // most it if inclusive. Walks past removed nodes without unlinking them, so it never writes.
+    private Node<K, V> findPredecessor(Object key, boolean inclusive) {
+        Node<K, V> pred = this.head;
+        for (int level = this.levels.get() - 1; level >= 0; level--) {
+            Node<K, V> current = successor(pred, level);
+            while (current != null) {
+                Node<K, V> link = link(current, level);
+                Node<K, V> succ = unmark(link);
+                if (link == succ) {
+                    int comparison = compare(current.key, key);
+                    if (comparison > 0 || (comparison == 0 && !inclusive)) {
+                        break;
+                    }
+                    pred = current;
+                }
+                current = succ;
+            }
+        }
+        return pred;
+    }
+
+    // Returns the first present node with a key above the given one, or at least it if inclusive.
+    private Node<K, V> ceilingNode(Object key, boolean inclusive) {
+        return firstPresentAfter(findPredecessor(key, !inclusive));
+    }
+
+    // Returns the first present node after the given one in level 0, or null if there is none.
+    private static <K, V> Node<K, V> firstPresentAfter(Node<K, V> node) {
+        node = successor(node, 0);
+        while (node != null && node.value == null) {
+            node = successor(node, 0);
+        }
+        return node;
+    }
+
+    // Returns the last present node with a key below the given one, or at most it if inclusive.
+    private Node<K, V> floorNode(K key, boolean inclusive) {
+        while (true) {
+            Node<K, V> node = findPredecessor(key, inclusive);
+            if (node == this.head) {
+                return null;
+            } else if (node.value != null) {
+                return node;
+            }
+            // it was removed after we passed it, so look again below it
+            key = node.key;
+            inclusive = false;
+        }
+    }
+
+    // Returns the node with the given key, or null if the key is absent.
+    private Node<K, V> findNode(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Node<K, V> node = ceilingNode(key, true);
+        return node != null && compare(node.key, key) == 0 ? node : null;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return doPut(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return doPut(key, value, true);
+    }
+
+    private static void checkValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException("LockFreeSkipListMap does not allow null values");
+        }
+    }
+
+    // Maps the key to the value, unless onlyIfAbsent and the key is already present. Returns the
+    // old value, or null if the key was absent.
+    private V doPut(K key, V value, boolean onlyIfAbsent) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        checkValue(value);
+        Node<K, V>[] preds = newNodeArray();
+        Node<K, V>[] succs = newNodeArray();
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node<K, V> node = succs[0];
+                V oldValue = node.value;
+                if (oldValue == null) {
+                    // it's being removed; finish the job so that the next find unlinks it
+                    markLinks(node);
+                } else if (onlyIfAbsent || node.casValue(oldValue, value)) {
+                    return oldValue;
+                }
+                continue;
+            }
+            Node<K, V> node = new Node<>(key, value, randomLevel());
+            raiseLevels(node.topLevel + 1);
+            for (int level = 0; level <= node.topLevel; level++) {
+                node.next[level] = succs[level];
+            }
+            // the CAS publishes the node, so its links don't need to be set atomically
+            if (!casLink(preds[0], 0, succs[0], node)) {
+                continue; // something changed between pred and succ, so look again
+            }
+            this.size.increment();
+            linkUpperLevels(node, preds, succs);
+            return null;
+        }
+    }
+
+    private void raiseLevels(int newLevels) {
+        int current = this.levels.get();
+        while (current < newLevels && !this.levels.compareAndSet(current, newLevels)) {
+            current = this.levels.get();
+        }
+    }
+
+    // Links a node that is already in level 0 into its higher levels. Gives up if the node is
+    // removed meanwhile, since the remover (or a later search) will then unlink it.
+    private void linkUpperLevels(Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+        for (int level = 1; level <= node.topLevel; level++) {
+            while (true) {
+                Node<K, V> pred = preds[level];
+                Node<K, V> succ = succs[level];
+                Node<K, V> next = link(node, level);
+                if (next instanceof Marker) {
+                    return;
+                }
+                if (next != succ && !casLink(node, level, next, succ)) {
+                    continue; // the node was just marked
+                }
+                if (casLink(pred, level, succ, node)) {
+                    break;
+                }
+                if (!find(node.key, preds, succs) || succs[0] != node) {
+                    return;
+                }
+            }
+        }
+        if (node.value == null) {
+            // removed while we were linking it in, possibly after its remover had already
+            // unlinked it, so make sure no level still holds it
+            find(node.key, preds, succs);
+        }
+    }
+
+    // Marks all the node's links, from the top level down, so that no new node can be linked
+    // after it and searches will unlink it.
+    private static <K, V> void markLinks(Node<K, V> node) {
+        for (int level = node.topLevel; level >= 0; level--) {
+            while (true) {
+                Node<K, V> next = link(node, level);
+                if (next instanceof Marker || casLink(node, level, next, new Marker<>(next))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Returns the node's link at the given level, which is a Marker if the link has been marked.
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> link(Node<K, V> node, int level) {
+        return (Node<K, V>) NEXT.getVolatile(node.next, level);
+    }
+
+    // Returns the successor the link points to, whether or not it has been marked.
+    private static <K, V> Node<K, V> unmark(Node<K, V> link) {
+        return link instanceof Marker ? ((Marker<K, V>) link).successor : link;
+    }
+
+    private static <K, V> Node<K, V> successor(Node<K, V> node, int level) {
+        return unmark(link(node, level));
+    }
+
+    // CASes the node's link at the given level, which fails if the link has since been marked.
+    private static <K, V> boolean casLink(Node<K, V> node, int level, Node<K, V> expected, Node<K, V> newLink) {
+        return NEXT.compareAndSet(node.next, level, expected, newLink);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return doRemove(key, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return value != null && doRemove(key, value) != null;
+    }
+
+    // Removes the key, if present and (unless expectedValue is null) mapped to expectedValue.
+    // Returns the removed value, or null if nothing was removed.
+    private V doRemove(Object key, Object expectedValue) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Node<K, V>[] preds = newNodeArray();
+        Node<K, V>[] succs = newNodeArray();
+        if (!find(key, preds, succs)) {
+            return null;
+        }
+        Node<K, V> node = succs[0];
+        while (true) {
+            V value = node.value;
+            if (value == null || (expectedValue != null && !expectedValue.equals(value))) {
+                return null;
+            }
+            if (node.casValue(value, null)) {
+                this.size.decrement();
+                markLinks(node);
+                find(key, preds, succs);
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        checkValue(value);
+        Node<K, V> node = findNode(key);
+        while (node != null) {
+            V oldValue = node.value;
+            if (oldValue == null) {
+                return null;
+            }
+            if (node.casValue(oldValue, value)) {
+                return oldValue;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        checkValue(oldValue);
+        checkValue(newValue);
+        Node<K, V> node = findNode(key);
+        while (node != null) {
+            V current = node.value;
+            if (!oldValue.equals(current)) {
+                return false;
+            }
+            if (node.casValue(current, newValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the entry with the greatest key at most the given key, or null if there is none.
+    // The entry is a snapshot; use put to change a value.
+    public Map.Entry<K, V> floorEntry(K key) {
+        return snapshot(floorNode(checkKey(key), true));
+    }
+
+    // Returns the greatest key at most the given key, or null if there is none.
+    public K floorKey(K key) {
+        return keyOrNull(floorNode(checkKey(key), true));
+    }
+
+    // Returns the entry with the greatest key strictly below the given key, or null if there is none.
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return snapshot(floorNode(checkKey(key), false));
+    }
+
+    // Returns the greatest key strictly below the given key, or null if there is none.
+    public K lowerKey(K key) {
+        return keyOrNull(floorNode(checkKey(key), false));
+    }
+
+    // Returns the entry with the least key at least the given key, or null if there is none.
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return snapshot(ceilingNode(checkKey(key), true));
+    }
+
+    // Returns the least key at least the given key, or null if there is none.
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingNode(checkKey(key), true));
+    }
+
+    // Returns the entry with the least key strictly above the given key, or null if there is none.
+    public Map.Entry<K, V> higherEntry(K key) {
+        return snapshot(ceilingNode(checkKey(key), false));
+    }
+
+    // Returns the least key strictly above the given key, or null if there is none.
+    public K higherKey(K key) {
+        return keyOrNull(ceilingNode(checkKey(key), false));
+    }
+
+    private static <K> K checkKey(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return key;
+    }
+
+    private static <K, V> K keyOrNull(Node<K, V> node) {
+        return node == null ? null : node.key;
+    }
+
+    // Returns an immutable copy of the node's entry, or null if the node is null or was removed.
+    private static <K, V> Map.Entry<K, V> snapshot(Node<K, V> node) {
+        if (node == null) {
+            return null;
+        }
+        V value = node.value;
+        return value == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.key, value);
+    }
+
+    // Removes all key-value pairs. Not atomic: concurrent writes may survive it.
+    @Override
+    public void clear() {
+        for (Node<K, V> node = successor(this.head, 0); node != null; node = successor(node, 0)) {
+            remove(node.key);
+        }
+    }
+
+    // Returns the number of entries; only an estimate while other threads are writing.
+    @Override
+    public int size() {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, this.size.sum()));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return firstPresentAfter(this.head) == null;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new SkipListIterator();
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        volatile V value; // null once the key has been removed
+        final int topLevel;
+        final Node<K, V>[] next; // accessed through NEXT; see link and casLink
+
+        @SuppressWarnings("unchecked")
+        Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = value;
+            this.topLevel = topLevel;
+            this.next = (Node<K, V>[]) new Node<?, ?>[topLevel + 1];
+        }
+
+        boolean casValue(V expected, V newValue) {
+            return VALUE.compareAndSet(this, expected, newValue);
+        }
+    }
+
+    // Stands in for a marked link to `successor`. Never linked into a level as a node of its own.
+    private static final class Marker<K, V> extends Node<K, V> {
+        final Node<K, V> successor;
+
+        Marker(Node<K, V> successor) {
+            super(null, null, -1);
+            this.successor = successor;
+        }
+    }
+
+    // Walks level 0, yielding a snapshot of each node that is present when it gets there.
+    private class SkipListIterator implements Iterator<Map.Entry<K, V>> {
+        private Node<K, V> next;
+        private V nextValue;
+
+        SkipListIterator() {
+            advance(head);
+        }
+
+        // Moves to the first present node after the given one, remembering its value in case the
+        // node is removed before next() is called.
+        private void advance(Node<K, V> from) {
+            V value = null;
+            Node<K, V> node = from;
+            while (value == null) {
+                node = firstPresentAfter(node);
+                if (node == null) {
+                    break;
+                }
+                value = node.value;
+            }
+            this.next = node;
+            this.nextValue = value;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(this.next.key, this.nextValue);
+            advance(this.next);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package maps;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// A hash map from long keys to long values that never boxes: keys and values live in long[]s, so
+// lookups do no allocation and no hashCode/equals dispatch.
+//
+// Since every long is a valid value, there's no null to return for a missing key; get takes the
+// value to return instead. asMap() provides a Map<Long, Long> view for code that needs one.
+// @see AbstractPrimitiveHashMap
+public class LongLongMap extends AbstractPrimitiveHashMap {
+    private long[] keys;
+    private long[] values;
+
+    // Called with each key-value pair by forEach.
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    // Constructs a new LongLongMap with default load factor threshold and capacity.
+    public LongLongMap() {
+        this(DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    // Constructs a new LongLongMap with the given parameters.
+    //
+    // @param resizingLoadFactorThreshold the fraction of slots that may be full before the table
+    //                                     doubles. Must be > 0 and < 1.
+    // @param initialCapacity the initial number of slots, rounded up to a power of two. Must be > 0.
+    public LongLongMap(double resizingLoadFactorThreshold, int initialCapacity) {
+        super(resizingLoadFactorThreshold, initialCapacity);
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        allocateSlots(capacity);
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    // Returns the slot holding the key, or -1 if it's absent.
+    private int findSlot(long key) {
+        int slot = spread(key) & mask;
+        while (isOccupied(slot)) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Returns the value for the key, or `absentValue` if the key is absent.
+    public long get(long key, long absentValue) {
+        int slot = findSlot(key);
+        return slot < 0 ? absentValue : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return findSlot(key) >= 0;
+    }
+
+    // Returns true if the key was added, or false if it was already present and its value replaced.
+    public boolean put(long key, long value) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return false;
+        }
+        ensureRoomForOneMore();
+        insert(key, value);
+        size += 1;
+        modCount += 1;
+        return true;
+    }
+
+    // Inserts a key known to be absent.
+    private void insert(long key, long value) {
+        int slot = spread(key) & mask;
+        while (isOccupied(slot)) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        markOccupied(slot);
+    }
+
+    // Returns true if the key was present and has been removed.
+    public boolean remove(long key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return false;
+        }
+        deleteSlot(slot);
+        return true;
+    }
+
+    public void clear() {
+        clearSlots();
+    }
+
+    public void forEach(EntryConsumer action) {
+        int expectedModCount = modCount;
+        for (int slot = nextOccupied(0); slot <= mask; slot = nextOccupied(slot + 1)) {
+            action.accept(keys[slot], values[slot]);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    int homeSlot(int slot) {
+        return spread(keys[slot]) & mask;
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        // nothing to release
+    }
+
+    @Override
+    void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        int[] full = occupiedSlots();
+        allocate(capacity);
+        for (int slot : full) {
+            insert(oldKeys[slot], oldValues[slot]);
+        }
+    }
+
+    // Returns a Map view of this map, which boxes keys and values on every call. Changes to either
+    // are visible through the other.
+    public AbstractIterableMap<Long, Long> asMap() {
+        return new MapView();
+    }
+
+    private class MapView extends AbstractIterableMap<Long, Long> {
+        @Override
+        public Long get(Object key) {
+            if (key instanceof Long) {
+                int slot = findSlot((Long) key);
+                return slot < 0 ? null : values[slot];
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Long && LongLongMap.this.containsKey((long) (Long) key);
+        }
+
+        @Override
+        public Long put(Long key, Long value) {
+            Long oldValue = get(key);
+            LongLongMap.this.put(key, value);
+            return oldValue;
+        }
+
+        @Override
+        public Long remove(Object key) {
+            Long oldValue = get(key);
+            if (oldValue != null) {
+                LongLongMap.this.remove((long) (Long) key);
+            }
+            return oldValue;
+        }
+
+        @Override
+        public void clear() {
+            LongLongMap.this.clear();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Map.Entry<Long, Long>> iterator() {
+            return new SlotIterator();
+        }
+    }
+
+    private class SlotIterator implements Iterator<Map.Entry<Long, Long>> {
+        private final int expectedModCount = modCount;
+        private int slot = nextOccupied(0);
+
+        @Override
+        public boolean hasNext() {
+            return slot <= mask;
+        }
+
+        @Override
+        public Map.Entry<Long, Long> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Long, Long> entry = new SlotEntry(slot);
+            slot = nextOccupied(slot + 1);
+            return entry;
+        }
+    }
+
+    // An entry that reads and writes its slot directly, so setValue updates the map.
+    private class SlotEntry implements Map.Entry<Long, Long> {
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public Long getKey() {
+            return keys[slot];
+        }
+
+        @Override
+        public Long getValue() {
+            return values[slot];
+        }
+
+        @Override
+        public Long setValue(Long value) {
+            long oldValue = values[slot];
+            values[slot] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return getKey().equals(other.getKey()) && getValue().equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
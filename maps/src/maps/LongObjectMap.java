@@ -0,0 +1,263 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// A hash map from long keys to object values that never boxes its keys: keys live in a long[] and
+// are compared with ==, so lookups do no allocation and no hashCode/equals dispatch.
+//
+// Like Map, get and remove return null for a missing key; use containsKey to tell a missing key
+// apart from one mapped to null. asMap() provides a Map<Long, V> view for code that needs one.
+// @see AbstractPrimitiveHashMap
+public class LongObjectMap<V> extends AbstractPrimitiveHashMap {
+    private long[] keys;
+    private Object[] values;
+
+    // Called with each key-value pair by forEach.
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    // Constructs a new LongObjectMap with default load factor threshold and capacity.
+    public LongObjectMap() {
+        this(DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    // Constructs a new LongObjectMap with the given parameters.
+    //
+    // @param resizingLoadFactorThreshold the fraction of slots that may be full before the table
+    //                                     doubles. Must be > 0 and < 1.
+    // @param initialCapacity the initial number of slots, rounded up to a power of two. Must be > 0.
+    public LongObjectMap(double resizingLoadFactorThreshold, int initialCapacity) {
+        super(resizingLoadFactorThreshold, initialCapacity);
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        allocateSlots(capacity);
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    // Returns the slot holding the key, or -1 if it's absent.
+    private int findSlot(long key) {
+        int slot = spread(key) & mask;
+        while (isOccupied(slot)) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return findSlot(key) >= 0;
+    }
+
+    // Returns the previous value for the key, or null if there wasn't one.
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            V oldValue = (V) values[slot];
+            values[slot] = value;
+            return oldValue;
+        }
+        ensureRoomForOneMore();
+        insert(key, value);
+        size += 1;
+        modCount += 1;
+        return null;
+    }
+
+    // Inserts a key known to be absent.
+    private void insert(long key, Object value) {
+        int slot = spread(key) & mask;
+        while (isOccupied(slot)) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        markOccupied(slot);
+    }
+
+    // Returns the removed value, or null if the key was absent.
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V oldValue = (V) values[slot];
+        deleteSlot(slot);
+        return oldValue;
+    }
+
+    public void clear() {
+        clearSlots();
+        Arrays.fill(values, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        int expectedModCount = modCount;
+        for (int slot = nextOccupied(0); slot <= mask; slot = nextOccupied(slot + 1)) {
+            action.accept(keys[slot], (V) values[slot]);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    int homeSlot(int slot) {
+        return spread(keys[slot]) & mask;
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] full = occupiedSlots();
+        allocate(capacity);
+        for (int slot : full) {
+            insert(oldKeys[slot], oldValues[slot]);
+        }
+    }
+
+    // Returns a Map view of this map, which boxes keys on every call. Changes to either are
+    // visible through the other.
+    public AbstractIterableMap<Long, V> asMap() {
+        return new MapView();
+    }
+
+    private class MapView extends AbstractIterableMap<Long, V> {
+        @Override
+        public V get(Object key) {
+            return key instanceof Long ? LongObjectMap.this.get((long) (Long) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Long && LongObjectMap.this.containsKey((long) (Long) key);
+        }
+
+        @Override
+        public V put(Long key, V value) {
+            return LongObjectMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return key instanceof Long ? LongObjectMap.this.remove((long) (Long) key) : null;
+        }
+
+        @Override
+        public void clear() {
+            LongObjectMap.this.clear();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Map.Entry<Long, V>> iterator() {
+            return new SlotIterator();
+        }
+    }
+
+    private class SlotIterator implements Iterator<Map.Entry<Long, V>> {
+        private final int expectedModCount = modCount;
+        private int slot = nextOccupied(0);
+
+        @Override
+        public boolean hasNext() {
+            return slot <= mask;
+        }
+
+        @Override
+        public Map.Entry<Long, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Long, V> entry = new SlotEntry(slot);
+            slot = nextOccupied(slot + 1);
+            return entry;
+        }
+    }
+
+    // An entry that reads and writes its slot directly, so setValue updates the map.
+    private class SlotEntry implements Map.Entry<Long, V> {
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public Long getKey() {
+            return keys[slot];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) values[slot];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            V oldValue = (V) values[slot];
+            values[slot] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,689 @@
+package maps;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+// A hash map that lives in two memory-mapped files in a directory, so that it survives restarts,
+// and reopening it maps the files instead of reading (let alone re-inserting) their contents.
+// Keys and values are converted to bytes with the given serializers, and keys are compared by
+// their bytes.
+//
+// `records.bin` is an append-only log: every put appends a record holding the key and value, and
+// every remove appends a tombstone record holding just the key. It is mapped in fixed-size
+// segments, and a record never straddles two segments. Each record starts with its length and a
+// CRC32C checksum, and the length is written last, so that a record cut short by a crash reads as
+// the end of the log.
+//
+// `index.bin` is a linear-probing hash table whose slots each hold the offset of a key's latest
+// record and the key's hash, so a lookup reads slots until it finds a matching hash, then compares
+// the key's bytes in the record. Removal shifts the following displaced slots back instead of
+// leaving tombstones.
+//
+// The index is only trusted if the map was closed cleanly: opening marks it as in use, and close
+// marks it as clean after forcing everything to disk. Opening a map that wasn't closed cleanly
+// rebuilds the index by replaying the log up to the first incomplete or corrupt record, and
+// discards everything after that record. So after a crash, the map holds every put and remove
+// that finished before it (or, after an OS crash or power failure, before the last flush).
+//
+// Stale records stay in the log after their key is overwritten or removed; the log is only
+// compacted by clear. Only one MmapHashMap at a time may use a given directory, and like the other
+// maps, it isn't thread-safe. Null keys and values are not supported.
+// @see Serializer
+public class MmapHashMap<K, V> extends AbstractIterableMap<K, V> implements AutoCloseable {
+    private static final String RECORDS_FILE = "records.bin";
+    private static final String INDEX_FILE = "index.bin";
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final int DEFAULT_SEGMENT_BYTES = 1 << 30;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final double RESIZING_LOAD_FACTOR_THRESHOLD = 0.75;
+
+    // The records file starts with a magic number and its segment size. Each record then holds
+    // its length, checksum, key hash, key length, value length (or TOMBSTONE), key and value. A
+    // length of PADDING means the rest of the segment is unused.
+    private static final long RECORDS_MAGIC = 0x4d6d61705265636fL;
+    private static final int RECORDS_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 20;
+    private static final int PADDING = -1;
+    private static final int TOMBSTONE = -1;
+
+    // The index file starts with a header, followed by the slots. Each slot holds a record offset
+    // (0 for an empty slot, since no record starts there) and a hash.
+    private static final long INDEX_MAGIC = 0x4d6d6170496e6478L;
+    private static final int INDEX_HEADER_BYTES = 64;
+    private static final int CAPACITY_AT = 8;
+    private static final int CLEAN_AT = 12;
+    private static final int SIZE_AT = 16;
+    private static final int END_AT = 24;
+    private static final int SLOT_BYTES = 16;
+    private static final int SLOTS_PER_CHUNK_SHIFT = 26; // 1 GB of slots per mapping
+
+    private final Path directory;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final int initialCapacity;
+    private final int segmentBytes;
+    private final FileChannel recordsChannel;
+    private final List<MappedByteBuffer> segments;
+    private int firstUnforcedSegment;
+    private Index index;
+    private long end; // offset just past the last record
+    private int size;
+    private int modCount;
+    private final boolean recovered;
+
+    // Opens the map in the given directory, creating it if it doesn't exist.
+    public MmapHashMap(Path directory, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(directory, keySerializer, valueSerializer, DEFAULT_INITIAL_CAPACITY, DEFAULT_SEGMENT_BYTES);
+    }
+
+    // Opens the map in the given directory, creating it if it doesn't exist.
+    //
+    // @param initialCapacity the number of slots a new or rebuilt index starts with, rounded up to a
+    //                        power of two. Must be > 0.
+    // @param segmentBytes the size of each mapping of a new records file; an existing file keeps
+    //                     the size it was created with. Limits the size of a single record.
+    public MmapHashMap(Path directory, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                       int initialCapacity, int segmentBytes) {
+        if (initialCapacity <= 0 || segmentBytes < RECORDS_HEADER_BYTES + RECORD_HEADER_BYTES) {
+            throw new IllegalArgumentException("Capacity and segment size must be greater than 0");
+        }
+        this.directory = directory;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.initialCapacity = Integer.highestOneBit(Math.min(Math.max(2, initialCapacity), MAXIMUM_CAPACITY) * 2 - 1);
+        this.segments = new ArrayList<>();
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(directory);
+            Path recordsFile = directory.resolve(RECORDS_FILE);
+            boolean created = !Files.exists(recordsFile) || Files.size(recordsFile) < RECORDS_HEADER_BYTES;
+            channel = FileChannel.open(recordsFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.recordsChannel = channel;
+            if (created) {
+                this.segmentBytes = segmentBytes;
+                mapSegment();
+                segments.get(0).putLong(0, RECORDS_MAGIC).putInt(Long.BYTES, segmentBytes);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(RECORDS_HEADER_BYTES);
+                recordsChannel.read(header, 0);
+                if (header.getLong(0) != RECORDS_MAGIC) {
+                    throw new IllegalArgumentException(recordsFile + " is not an MmapHashMap records file");
+                }
+                this.segmentBytes = header.getInt(Long.BYTES);
+                long segmentCount = (recordsChannel.size() + this.segmentBytes - 1) / this.segmentBytes;
+                for (long i = 0; i < segmentCount; i++) {
+                    mapSegment();
+                }
+            }
+
+            Index existing = created ? null : Index.open(directory.resolve(INDEX_FILE));
+            if (existing != null && existing.header.getInt(CLEAN_AT) == 1
+                    && existing.header.getLong(END_AT) <= (long) segments.size() * this.segmentBytes) {
+                this.index = existing;
+                this.size = (int) existing.header.getLong(SIZE_AT);
+                this.end = existing.header.getLong(END_AT);
+                this.recovered = false;
+            } else {
+                rebuildIndex();
+                this.recovered = !created;
+            }
+            // from here on, the index on disk can't be trusted until close marks it clean again
+            index.header.putInt(CLEAN_AT, 0);
+            index.header.force();
+        } catch (IOException e) {
+            closeAfterFailure(channel, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            closeAfterFailure(channel, e);
+            throw e;
+        }
+        this.firstUnforcedSegment = 0;
+    }
+
+    // Closes the records file of a map that failed to open, keeping the original failure.
+    private static void closeAfterFailure(FileChannel channel, Exception failure) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    // Returns whether opening the map had to rebuild the index, because it wasn't closed cleanly.
+    public boolean wasRecovered() {
+        return recovered;
+    }
+
+    // Returns the offset just past the last record. For tests.
+    long recordsEnd() {
+        return end;
+    }
+
+    // Hashes the key's bytes, rather than calling hashCode, so that hashes stay the same from one
+    // run to the next.
+    private static int hash(byte[] key) {
+        int h = 1;
+        for (byte b : key) {
+            h = 31 * h + b;
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private ByteBuffer segmentAt(long offset) {
+        return segments.get((int) (offset / segmentBytes));
+    }
+
+    private int positionAt(long offset) {
+        return (int) (offset % segmentBytes);
+    }
+
+    // Returns the slot holding the key, or -1 if it's absent.
+    private int findSlot(byte[] key, int hash) {
+        int slot = hash & index.mask;
+        while (true) {
+            long offset = index.offset(slot);
+            if (offset == 0) {
+                return -1;
+            }
+            if (index.hash(slot) == hash && keyMatches(offset, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & index.mask;
+        }
+    }
+
+    // Compares byte by byte in place, since a probe shouldn't allocate.
+    private boolean keyMatches(long offset, byte[] key) {
+        ByteBuffer segment = segmentAt(offset);
+        int position = positionAt(offset);
+        if (segment.getInt(position + 12) != key.length) {
+            return false;
+        }
+        int start = position + RECORD_HEADER_BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (segment.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private K readKey(long offset) {
+        ByteBuffer segment = segmentAt(offset);
+        int position = positionAt(offset);
+        byte[] bytes = new byte[segment.getInt(position + 12)];
+        segment.get(position + RECORD_HEADER_BYTES, bytes);
+        return keySerializer.deserialize(bytes);
+    }
+
+    private V readValue(long offset) {
+        ByteBuffer segment = segmentAt(offset);
+        int position = positionAt(offset);
+        int keyLength = segment.getInt(position + 12);
+        byte[] bytes = new byte[segment.getInt(position + 16)];
+        segment.get(position + RECORD_HEADER_BYTES + keyLength, bytes);
+        return valueSerializer.deserialize(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return keySerializer.serialize((K) key);
+    }
+
+    @Override
+    public V get(Object key) {
+        byte[] bytes = serializeKey(key);
+        int slot = findSlot(bytes, hash(bytes));
+        return slot < 0 ? null : readValue(index.offset(slot));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        byte[] bytes = serializeKey(key);
+        return findSlot(bytes, hash(bytes)) >= 0;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        byte[] keyBytes = serializeKey(key);
+        byte[] valueBytes = valueSerializer.serialize(value);
+        checkRecordLength(keyBytes.length + valueBytes.length);
+        int hash = hash(keyBytes);
+        int slot = findSlot(keyBytes, hash);
+        V oldValue = slot < 0 ? null : readValue(index.offset(slot));
+        long offset = append(hash, keyBytes, valueBytes);
+        if (slot >= 0) {
+            index.setOffset(slot, offset);
+        } else {
+            addSlot(offset, hash);
+            size += 1;
+            modCount += 1;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V remove(Object key) {
+        byte[] keyBytes = serializeKey(key);
+        int hash = hash(keyBytes);
+        int slot = findSlot(keyBytes, hash);
+        if (slot < 0) {
+            return null;
+        }
+        // the key was stored with a value, so its tombstone fits in a segment too
+        V oldValue = readValue(index.offset(slot));
+        append(hash, keyBytes, null);
+        removeSlot(slot);
+        size -= 1;
+        modCount += 1;
+        return oldValue;
+    }
+
+    private void checkRecordLength(int dataBytes) {
+        if ((long) RECORD_HEADER_BYTES + dataBytes > segmentBytes - RECORDS_HEADER_BYTES) {
+            throw new IllegalArgumentException("Record of " + dataBytes + " bytes doesn't fit in a segment");
+        }
+    }
+
+    // Appends a record to the log and returns its offset. A null value makes a tombstone.
+    private long append(int hash, byte[] key, byte[] value) {
+        int length = RECORD_HEADER_BYTES + key.length + (value == null ? 0 : value.length);
+        int position = positionAt(end);
+        if (position + length > segmentBytes) {
+            // records don't straddle segments, so skip to the next one
+            if (position + Integer.BYTES <= segmentBytes) {
+                segmentAt(end).putInt(position, PADDING);
+            }
+            end += segmentBytes - position;
+            position = 0;
+        }
+        while (segments.size() <= end / segmentBytes) {
+            mapSegment();
+        }
+        ByteBuffer segment = segmentAt(end);
+        segment.putInt(position + 8, hash);
+        segment.putInt(position + 12, key.length);
+        segment.putInt(position + 16, value == null ? TOMBSTONE : value.length);
+        segment.put(position + RECORD_HEADER_BYTES, key);
+        if (value != null) {
+            segment.put(position + RECORD_HEADER_BYTES + key.length, value);
+        }
+        segment.putInt(position + 4, checksum(segment, position, length));
+        // the length goes in last, so a record cut short by a crash reads as the end of the log
+        segment.putInt(position, length);
+        long offset = end;
+        end += length;
+        return offset;
+    }
+
+    private static int checksum(ByteBuffer segment, int position, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(position + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    private void mapSegment() {
+        try {
+            long start = (long) segments.size() * segmentBytes;
+            segments.add(recordsChannel.map(FileChannel.MapMode.READ_WRITE, start, segmentBytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Puts a record for a key known to be absent into the index, growing it if needed.
+    private void addSlot(long offset, int hash) {
+        if (size + 1 > index.capacity * RESIZING_LOAD_FACTOR_THRESHOLD) {
+            resize();
+        }
+        index.insert(offset, hash);
+    }
+
+    // Empties the slot, then shifts each following displaced slot back into the hole, until we
+    // reach an empty slot.
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & index.mask;
+        while (index.offset(next) != 0) {
+            int home = index.hash(next) & index.mask;
+            // the slot can move back into the hole unless its home lies between the hole and it
+            if (((next - home) & index.mask) >= ((next - hole) & index.mask)) {
+                index.set(hole, index.offset(next), index.hash(next));
+                hole = next;
+            }
+            next = (next + 1) & index.mask;
+        }
+        index.set(hole, 0, 0);
+    }
+
+    // Doubles the index, building the new one in a temporary file and then renaming it over the
+    // old one.
+    private void resize() {
+        if (index.capacity == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("MmapHashMap is full");
+        }
+        try {
+            Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+            Index resized = Index.create(temporary, index.capacity * 2);
+            for (int slot = 0; slot < index.capacity; slot++) {
+                long offset = index.offset(slot);
+                if (offset != 0) {
+                    resized.insert(offset, index.hash(slot));
+                }
+            }
+            Files.move(temporary, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            index = resized;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Builds a fresh index by replaying the log, stopping at the first incomplete or corrupt
+    // record. Everything from there on is zeroed, so that stray bytes past the end can never be
+    // mistaken for records once new ones are appended in front of them.
+    private void rebuildIndex() throws IOException {
+        index = Index.create(directory.resolve(INDEX_FILE), initialCapacity);
+        size = 0;
+        long limit = (long) segments.size() * segmentBytes;
+        long offset = RECORDS_HEADER_BYTES;
+        while (offset < limit) {
+            ByteBuffer segment = segmentAt(offset);
+            int position = positionAt(offset);
+            int length = position + Integer.BYTES <= segmentBytes ? segment.getInt(position) : PADDING;
+            if (length == PADDING) {
+                offset += segmentBytes - position;
+                continue;
+            }
+            if (length < RECORD_HEADER_BYTES || length > segmentBytes - position
+                    || segment.getInt(position + 4) != checksum(segment, position, length)) {
+                break;
+            }
+            replay(offset);
+            offset += length;
+        }
+        end = offset;
+        zero(end, limit);
+    }
+
+    private void replay(long offset) {
+        ByteBuffer segment = segmentAt(offset);
+        int position = positionAt(offset);
+        int hash = segment.getInt(position + 8);
+        byte[] key = new byte[segment.getInt(position + 12)];
+        segment.get(position + RECORD_HEADER_BYTES, key);
+        int slot = findSlot(key, hash);
+        if (segment.getInt(position + 16) == TOMBSTONE) {
+            if (slot >= 0) {
+                removeSlot(slot);
+                size -= 1;
+            }
+        } else if (slot >= 0) {
+            index.setOffset(slot, offset);
+        } else {
+            addSlot(offset, hash);
+            size += 1;
+        }
+    }
+
+    private void zero(long from, long to) {
+        byte[] zeros = new byte[4096];
+        while (from < to) {
+            int position = positionAt(from);
+            int length = (int) Math.min(Math.min(zeros.length, segmentBytes - position), to - from);
+            segmentAt(from).put(position, zeros, 0, length);
+            from += length;
+        }
+    }
+
+    @Override
+    public void clear() {
+        // zeroing goes front to back, so from the first write on, a crash recovers an empty map
+        zero(RECORDS_HEADER_BYTES, end);
+        end = RECORDS_HEADER_BYTES;
+        firstUnforcedSegment = 0;
+        try {
+            index = Index.create(directory.resolve(INDEX_FILE), initialCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Forces every record written so far to disk, so that they survive an OS crash or power
+    // failure, not just a crash of this process.
+    public void flush() {
+        for (int i = firstUnforcedSegment; i < segments.size(); i++) {
+            segments.get(i).force();
+        }
+        // the last segment may still have room for more records
+        firstUnforcedSegment = Math.max(0, segments.size() - 1);
+    }
+
+    // Flushes the map and marks its index as clean, so the next open can use it as it is. The
+    // map must not be used afterwards.
+    @Override
+    public void close() {
+        flush();
+        index.header.putLong(SIZE_AT, size);
+        index.header.putLong(END_AT, end);
+        index.force();
+        // only marked clean once everything else is on disk
+        index.header.putInt(CLEAN_AT, 1);
+        index.header.force();
+        try {
+            recordsChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new MmapHashMapIterator();
+    }
+
+    private class MmapHashMapIterator implements Iterator<Map.Entry<K, V>> {
+        private final int expectedModCount = modCount;
+        private final Index iterated = index;
+        private int slot = nextFullSlot(0);
+
+        private int nextFullSlot(int from) {
+            while (from < iterated.capacity && iterated.offset(from) == 0) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < iterated.capacity;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long offset = iterated.offset(slot);
+            slot = nextFullSlot(slot + 1);
+            return new MmapEntry(readKey(offset), readValue(offset));
+        }
+    }
+
+    // An entry holding deserialized copies of a record's key and value, whose setValue also puts
+    // the new value into the map.
+    private class MmapEntry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        MmapEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(key, value);
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    // One index file, mapped as a header plus one or more chunks of slots, since a single mapping
+    // can't exceed 2 GB. The mappings stay valid after the file's channel is closed.
+    private static class Index {
+        final MappedByteBuffer header;
+        final MappedByteBuffer[] chunks;
+        final int capacity;
+        final int mask;
+
+        private Index(FileChannel channel, int capacity) throws IOException {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_BYTES);
+            int slotsPerChunk = 1 << SLOTS_PER_CHUNK_SHIFT;
+            this.chunks = new MappedByteBuffer[(capacity + slotsPerChunk - 1) / slotsPerChunk];
+            for (int i = 0; i < chunks.length; i++) {
+                long slots = Math.min(slotsPerChunk, capacity - (long) i * slotsPerChunk);
+                long start = INDEX_HEADER_BYTES + (long) i * slotsPerChunk * SLOT_BYTES;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, slots * SLOT_BYTES);
+            }
+        }
+
+        // Replaces the file with a new, empty index.
+        static Index create(Path file, int capacity) throws IOException {
+            Files.deleteIfExists(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                Index index = new Index(channel, capacity);
+                index.header.putLong(0, INDEX_MAGIC);
+                index.header.putInt(CAPACITY_AT, capacity);
+                return index;
+            }
+        }
+
+        // Maps the existing index in the file, or returns null if there isn't a valid one.
+        static Index open(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() < INDEX_HEADER_BYTES) {
+                    return null;
+                }
+                ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+                channel.read(header, 0);
+                int capacity = header.getInt(CAPACITY_AT);
+                if (header.getLong(0) != INDEX_MAGIC || capacity < 2 || Integer.bitCount(capacity) != 1
+                        || channel.size() != INDEX_HEADER_BYTES + (long) capacity * SLOT_BYTES) {
+                    return null;
+                }
+                return new Index(channel, capacity);
+            }
+        }
+
+        long offset(int slot) {
+            return chunks[slot >>> SLOTS_PER_CHUNK_SHIFT].getLong(positionOf(slot));
+        }
+
+        int hash(int slot) {
+            return chunks[slot >>> SLOTS_PER_CHUNK_SHIFT].getInt(positionOf(slot) + Long.BYTES);
+        }
+
+        void set(int slot, long offset, int hash) {
+            MappedByteBuffer chunk = chunks[slot >>> SLOTS_PER_CHUNK_SHIFT];
+            chunk.putLong(positionOf(slot), offset);
+            chunk.putInt(positionOf(slot) + Long.BYTES, hash);
+        }
+
+        void setOffset(int slot, long offset) {
+            chunks[slot >>> SLOTS_PER_CHUNK_SHIFT].putLong(positionOf(slot), offset);
+        }
+
+        // Puts a record for a key known to be absent into the first free slot from its home.
+        void insert(long offset, int hash) {
+            int slot = hash & mask;
+            while (offset(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            set(slot, offset, hash);
+        }
+
+        private static int positionOf(int slot) {
+            return (slot & ((1 << SLOTS_PER_CHUNK_SHIFT) - 1)) * SLOT_BYTES;
+        }
+
+        void force() {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+            header.force();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package maps;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+
+/**
+ * The keys of a NavigableMap, as a NavigableSet. Every operation delegates to the map, so the set
+ * is a live view; use it for NavigableMap.navigableKeySet() and friends.
+ */
+class NavigableKeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+    private final NavigableMap<K, ?> map;
+
+    NavigableKeySet(NavigableMap<K, ?> map) {
+        this.map = map;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        Iterator<? extends Map.Entry<K, ?>> entries = this.map.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public K next() {
+                return entries.next().getKey();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<K> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.map.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return this.map.containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!this.map.containsKey(o)) {
+            return false;
+        }
+        this.map.remove(o);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        this.map.clear();
+    }
+
+    @Override
+    public K lower(K k) {
+        return this.map.lowerKey(k);
+    }
+
+    @Override
+    public K floor(K k) {
+        return this.map.floorKey(k);
+    }
+
+    @Override
+    public K ceiling(K k) {
+        return this.map.ceilingKey(k);
+    }
+
+    @Override
+    public K higher(K k) {
+        return this.map.higherKey(k);
+    }
+
+    @Override
+    public K first() {
+        return this.map.firstKey();
+    }
+
+    @Override
+    public K last() {
+        return this.map.lastKey();
+    }
+
+    @Override
+    public K pollFirst() {
+        Map.Entry<K, ?> entry = this.map.pollFirstEntry();
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Override
+    public K pollLast() {
+        Map.Entry<K, ?> entry = this.map.pollLastEntry();
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return this.map.comparator();
+    }
+
+    @Override
+    public NavigableSet<K> descendingSet() {
+        return new NavigableKeySet<>(this.map.descendingMap());
+    }
+
+    @Override
+    public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+        return new NavigableKeySet<>(this.map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+    }
+
+    @Override
+    public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+        return new NavigableKeySet<>(this.map.headMap(toElement, inclusive));
+    }
+
+    @Override
+    public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+        return new NavigableKeySet<>(this.map.tailMap(fromElement, inclusive));
+    }
+
+    @Override
+    public SortedSet<K> subSet(K fromElement, K toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> headSet(K toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> tailSet(K fromElement) {
+        return tailSet(fromElement, true);
+    }
+}
@@ -0,0 +1,287 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// A hash map that stores keys and values directly in flat arrays instead of in chains of entry
+// objects. There are two parallel arrays: `hashes` holds each slot's (spread) hash, and `table`
+// holds each slot's key and value side by side. A probe only reads `hashes` until it finds a
+// matching hash, so a lookup usually touches one int, one key/value pair and the key itself.
+//
+// Collisions are resolved with Robin Hood linear probing: each key remembers (via its stored hash)
+// how far it sits from its home slot, and an inserted key takes the slot of any key that is closer
+// to home than it is. This keeps probe lengths short and even, and lets a lookup for a missing key
+// stop as soon as it reaches a key that is closer to home than the one it's looking for.
+// Removal shifts the following displaced keys back one slot instead of leaving tombstones.
+//
+// Like ChainedHashMap, null keys are not supported.
+//
+// A hash of 0 marks an empty slot, so spread() never returns 0.
+// @see ChainedHashMap
+public class OpenAddressingHashMap<K, V> extends AbstractIterableMap<K, V> {
+    private static final double DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD = 0.75;
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 29;
+
+    private int[] hashes;
+    private Object[] table; // the key for slot i is at 2 * i, and its value is at 2 * i + 1
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private final double loadFactorThreshold;
+    private int modCount;
+
+    // Constructs a new OpenAddressingHashMap with default load factor threshold and capacity.
+    public OpenAddressingHashMap() {
+        this(DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    // Constructs a new OpenAddressingHashMap with the given parameters.
+    //
+    // @param resizingLoadFactorThreshold the fraction of slots that may be full before the table
+    //                                     doubles. Must be > 0 and < 1.
+    // @param initialCapacity the initial number of slots, rounded up to a power of two. Must be > 0.
+    public OpenAddressingHashMap(double resizingLoadFactorThreshold, int initialCapacity) {
+        if (resizingLoadFactorThreshold <= 0 || resizingLoadFactorThreshold >= 1 || initialCapacity <= 0) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1) and capacity must be > 0");
+        }
+        this.loadFactorThreshold = resizingLoadFactorThreshold;
+        int capacity = Integer.highestOneBit(Math.min(Math.max(2, initialCapacity), MAXIMUM_CAPACITY) * 2 - 1);
+        allocate(capacity);
+    }
+
+    // Mixes the high bits of the hash code into the low bits, since only the low bits pick the
+    // home slot. Without this, keys whose hash codes differ only in their high bits (e.g. small
+    // multiples of a power of two) would all land in the same slot.
+    private static int spread(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    // Returns how far the key in the given slot is from its home slot.
+    private int probeDistance(int slot) {
+        return (slot - (hashes[slot] & mask)) & mask;
+    }
+
+    // Returns the slot holding the key, or -1 if it's absent.
+    private int findSlot(Object key) {
+        int hash = spread(key);
+        int slot = hash & mask;
+        for (int distance = 0; ; distance++) {
+            int existing = hashes[slot];
+            if (existing == 0 || distance > probeDistance(slot)) {
+                return -1;
+            }
+            if (existing == hash && table[2 * slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) table[2 * slot + 1];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findSlot(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            V oldValue = (V) table[2 * slot + 1];
+            table[2 * slot + 1] = value;
+            return oldValue;
+        }
+        if (size + 1 > resizeThreshold) {
+            resize(hashes.length * 2);
+        }
+        insert(spread(key), key, value);
+        size += 1;
+        modCount += 1;
+        return null;
+    }
+
+    // Inserts a key known to be absent, displacing richer keys along the way.
+    private void insert(int hash, Object key, Object value) {
+        int slot = hash & mask;
+        int distance = 0;
+        while (hashes[slot] != 0) {
+            int existingDistance = probeDistance(slot);
+            if (existingDistance < distance) {
+                // take this slot and carry on inserting the key we displaced
+                Object displacedKey = table[2 * slot];
+                Object displacedValue = table[2 * slot + 1];
+                int displacedHash = hashes[slot];
+                table[2 * slot] = key;
+                table[2 * slot + 1] = value;
+                hashes[slot] = hash;
+                key = displacedKey;
+                value = displacedValue;
+                hash = displacedHash;
+                distance = existingDistance;
+            }
+            slot = (slot + 1) & mask;
+            distance += 1;
+        }
+        table[2 * slot] = key;
+        table[2 * slot + 1] = value;
+        hashes[slot] = hash;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V oldValue = (V) table[2 * slot + 1];
+        // shift each following displaced key back a slot, until we reach an empty slot or a key
+        // that is already home
+        int next = (slot + 1) & mask;
+        while (hashes[next] != 0 && probeDistance(next) > 0) {
+            table[2 * slot] = table[2 * next];
+            table[2 * slot + 1] = table[2 * next + 1];
+            hashes[slot] = hashes[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        table[2 * slot] = null;
+        table[2 * slot + 1] = null;
+        hashes[slot] = 0;
+        size -= 1;
+        modCount += 1;
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(hashes, 0);
+        Arrays.fill(table, null);
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        hashes = new int[capacity];
+        table = new Object[2 * capacity];
+        mask = capacity - 1;
+        // always leave at least one slot empty, or a probe for a missing key would never end
+        resizeThreshold = (int) Math.max(1, Math.min(capacity - 1, (long) (capacity * loadFactorThreshold)));
+    }
+
+    private void resize(int capacity) {
+        if (hashes.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("OpenAddressingHashMap is full");
+        }
+        int[] oldHashes = hashes;
+        Object[] oldTable = table;
+        allocate(capacity);
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != 0) {
+                insert(oldHashes[i], oldTable[2 * i], oldTable[2 * i + 1]);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new OpenAddressingIterator();
+    }
+
+    private class OpenAddressingIterator implements Iterator<Map.Entry<K, V>> {
+        private final int expectedModCount = modCount;
+        private int slot = nextFullSlot(0);
+
+        private int nextFullSlot(int from) {
+            while (from < hashes.length && hashes[from] == 0) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < hashes.length;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new SlotEntry(slot);
+            slot = nextFullSlot(slot + 1);
+            return entry;
+        }
+    }
+
+    // An entry that reads and writes its slot directly, so setValue updates the map.
+    private class SlotEntry implements Map.Entry<K, V> {
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) table[2 * slot];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) table[2 * slot + 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            V oldValue = (V) table[2 * slot + 1];
+            table[2 * slot + 1] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package maps;
+
+import maps.AVLTreeMap.AVLNode;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static maps.AVLTreeMap.balanceTree;
+import static maps.AVLTreeMap.getHeight;
+import static maps.AVLTreeMap.getHeightDiff;
+import static maps.AVLTreeMap.getSize;
+import static maps.AVLTreeMap.updateHeightAndSize;
+
+/**
+ * AVL-tree implementation of the map ADT that never modifies a node once it is part of the tree.
+ *
+ * Does not allow null keys.
+ *
+ * Instead, put and remove copy the O(log n) nodes on the path from the root down to the change,
+ * and build a new root out of those copies that shares every untouched subtree with the previous
+ * version. So every version stays intact for as long as anything refers to it, and snapshot() can
+ * hand one out in O(1) time, where copying an AVLTreeMap would take O(n).
+ *
+ * The tree is made of AVLTreeMap's nodes and balanced by AVLTreeMap's balanceTree, after first
+ * copying the nodes beneath the new root that its rotations would modify.
+ *
+ * Writes are synchronized with each other, and publish each new version through a volatile field.
+ * Reads never lock and never wait for writers: each one works on whichever version was current
+ * when it started, unaffected by any later writes. In particular, iteration never throws
+ * ConcurrentModificationException, and its entries are immutable.
+ */
+public class PersistentAVLTreeMap<K extends Comparable<K>, V> extends AbstractIterableMap<K, V> {
+    private volatile AVLNode<K, V> overallRoot;
+
+    public PersistentAVLTreeMap() {
+        this.overallRoot = null;
+    }
+
+    private PersistentAVLTreeMap(AVLNode<K, V> overallRoot) {
+        this.overallRoot = overallRoot;
+    }
+
+    /**
+     * Returns an independent copy of this map's current version, in O(1) time and space. Neither
+     * map's later changes will show up in the other.
+     */
+    public PersistentAVLTreeMap<K, V> snapshot() {
+        return new PersistentAVLTreeMap<>(this.overallRoot);
+    }
+
+    @Override
+    public V get(Object key) {
+        AVLNode<K, V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * Returns the node with the given key in the current version, or null if there is none.
+     */
+    private AVLNode<K, V> getNode(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        AVLNode<K, V> current = this.overallRoot;
+        while (current != null) {
+            int comparison = compare(key, current.key);
+            if (comparison < 0) {
+                current = current.left;
+            } else if (comparison > 0) {
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares two keys; assumes that they have proper Comparable types.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(Object k1, Object k2) {
+        return ((Comparable<Object>) k1).compareTo(k2);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the given key is null.
+     */
+    @Override
+    public synchronized V put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        AVLNode<K, V> output = new AVLNode<>(null, null);
+        this.overallRoot = put(key, value, this.overallRoot, output);
+        return output.value;
+    }
+
+    /**
+     * Returns the root of a new version of the subtree with the key mapped to the value.
+     */
+    private AVLNode<K, V> put(K key, V value, AVLNode<K, V> current, AVLNode<K, V> output) {
+        if (current == null) {
+            return new AVLNode<>(key, value);
+        }
+        AVLNode<K, V> copy = copy(current);
+        int comparison = key.compareTo(current.key);
+        if (comparison < 0) {
+            copy.left = put(key, value, current.left, output);
+        } else if (comparison > 0) {
+            copy.right = put(key, value, current.right, output);
+        } else {
+            output.value = current.value;
+            copy.value = value;
+            return copy;
+        }
+        updateHeightAndSize(copy);
+        return rebalance(copy);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the given key is null.
+     */
+    @Override
+    public synchronized V remove(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        AVLNode<K, V> output = new AVLNode<>(null, null);
+        this.overallRoot = remove(key, this.overallRoot, output);
+        return output.value;
+    }
+
+    /**
+     * Returns the root of a new version of the subtree without the key, or the subtree itself if
+     * it doesn't have the key, so that removing an absent key copies nothing.
+     */
+    private AVLNode<K, V> remove(Object key, AVLNode<K, V> current, AVLNode<K, V> output) {
+        if (current == null) {
+            return null;
+        }
+        AVLNode<K, V> copy;
+        int comparison = compare(key, current.key);
+        if (comparison < 0) {
+            AVLNode<K, V> left = remove(key, current.left, output);
+            if (left == current.left) {
+                return current;
+            }
+            copy = copy(current);
+            copy.left = left;
+        } else if (comparison > 0) {
+            AVLNode<K, V> right = remove(key, current.right, output);
+            if (right == current.right) {
+                return current;
+            }
+            copy = copy(current);
+            copy.right = right;
+        } else {
+            output.value = current.value;
+            if (current.left == null) {
+                return current.right;
+            } else if (current.right == null) {
+                return current.left;
+            }
+            // two children: replace this node with (a copy of) the smallest node in its right subtree
+            AVLNode<K, V> successor = current.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            copy = new AVLNode<>(successor.key, successor.value);
+            copy.left = current.left;
+            copy.right = removeMin(current.right);
+        }
+        updateHeightAndSize(copy);
+        return rebalance(copy);
+    }
+
+    /**
+     * Returns the root of a new version of the subtree without its smallest node.
+     */
+    private AVLNode<K, V> removeMin(AVLNode<K, V> current) {
+        if (current.left == null) {
+            return current.right;
+        }
+        AVLNode<K, V> copy = copy(current);
+        copy.left = removeMin(current.left);
+        updateHeightAndSize(copy);
+        return rebalance(copy);
+    }
+
+    /**
+     * Rebalances a freshly copied node with balanceTree. Its rotations would also modify the
+     * node's taller child, and in the kink case that child's inner child, which may be shared
+     * with other versions, so this replaces them with copies first. The cases match balanceTree's.
+     */
+    private AVLNode<K, V> rebalance(AVLNode<K, V> node) {
+        int heightDiff = getHeightDiff(node);
+        if (heightDiff > 1) {
+            node.left = copy(node.left);
+            if (getHeightDiff(node.left) < 0) {
+                node.left.right = copy(node.left.right);
+            }
+        } else if (heightDiff < -1) {
+            node.right = copy(node.right);
+            if (getHeightDiff(node.right) > 0) {
+                node.right.left = copy(node.right.left);
+            }
+        }
+        return balanceTree(node);
+    }
+
+    private static <K, V> AVLNode<K, V> copy(AVLNode<K, V> node) {
+        AVLNode<K, V> copy = new AVLNode<>(node.key, node.value);
+        copy.left = node.left;
+        copy.right = node.right;
+        copy.height = node.height;
+        copy.size = node.size;
+        return copy;
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.overallRoot = null;
+    }
+
+    @Override
+    public int size() {
+        return getSize(this.overallRoot);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.overallRoot == null;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new VersionIterator<>(this.overallRoot);
+    }
+
+    /**
+     * Checks that the current version is a valid AVL tree, throwing IllegalStateException if not.
+     * For tests.
+     */
+    void checkInvariants() {
+        checkSubtree(this.overallRoot, null, null);
+    }
+
+    private void checkSubtree(AVLNode<K, V> node, K min, K max) {
+        if (node == null) {
+            return;
+        }
+        if ((min != null && compare(node.key, min) <= 0) || (max != null && compare(node.key, max) >= 0)) {
+            throw new IllegalStateException("key out of order: " + node.key);
+        }
+        checkSubtree(node.left, min, node.key);
+        checkSubtree(node.right, node.key, max);
+        if (node.size != getSize(node.left) + getSize(node.right) + 1) {
+            throw new IllegalStateException("wrong size at " + node.key);
+        }
+        if (node.height != Math.max(getHeight(node.left), getHeight(node.right)) + 1) {
+            throw new IllegalStateException("wrong height at " + node.key);
+        }
+        if (Math.abs(getHeightDiff(node)) > 1) {
+            throw new IllegalStateException("unbalanced at " + node.key);
+        }
+    }
+
+    /**
+     * An in-order iterator over one version of the tree, which it holds on to, so later writes to
+     * the map never affect it. Only holds the path from the root to the next node.
+     */
+    private static class VersionIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        // the next node, followed by each of its ancestors that hasn't been returned yet
+        private final ArrayDeque<AVLNode<K, V>> path;
+
+        VersionIterator(AVLNode<K, V> root) {
+            this.path = new ArrayDeque<>();
+            pushLeftSpine(root);
+        }
+
+        private void pushLeftSpine(AVLNode<K, V> node) {
+            while (node != null) {
+                this.path.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.path.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            AVLNode<K, V> node = this.path.pop();
+            pushLeftSpine(node.right);
+            // the node itself may be shared with other versions, so it mustn't be handed out
+            return new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package maps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Converts keys or values to and from bytes so they can be stored outside the heap.
+//
+// Maps that compare keys by their bytes rely on equal keys always serializing to equal bytes,
+// and unequal keys to unequal bytes.
+// @see MmapHashMap
+// @see DurableMap
+public interface Serializer<T> {
+    // Returns the bytes that represent the given object.
+    byte[] serialize(T object);
+
+    // Returns the object represented by the given bytes, as produced by serialize.
+    T deserialize(byte[] bytes);
+
+    // A serializer for Long objects, as 8 big-endian bytes.
+    static Serializer<Long> longs() {
+        return new Serializer<>() {
+            @Override
+            public byte[] serialize(Long object) {
+                return ByteBuffer.allocate(Long.BYTES).putLong(object).array();
+            }
+
+            @Override
+            public Long deserialize(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+        };
+    }
+
+    // A serializer for String objects, as UTF-8.
+    static Serializer<String> strings() {
+        return new Serializer<>() {
+            @Override
+            public byte[] serialize(String object) {
+                return object.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    // A serializer for byte arrays, which stores them as they are. Note that byte arrays use
+    // identity equality, so they make poor keys for heap maps, but fine ones for maps that compare
+    // keys by their bytes.
+    static Serializer<byte[]> bytes() {
+        return new Serializer<>() {
+            @Override
+            public byte[] serialize(byte[] object) {
+                return object.clone();
+            }
+
+            @Override
+            public byte[] deserialize(byte[] bytes) {
+                return bytes;
+            }
+        };
+    }
+
+    // A serializer for any object that implements Serializable, using Java serialization.
+    // Convenient, but much slower and bulkier than a type-specific serializer, and unsuitable for
+    // keys, since equal objects needn't serialize to equal bytes.
+    static <T> Serializer<T> serializing() {
+        return new Serializer<>() {
+            @Override
+            public byte[] serialize(T object) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(object);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T deserialize(byte[] bytes) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) in.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+}
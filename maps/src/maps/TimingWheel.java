@@ -0,0 +1,116 @@
+package maps;
+
+import java.util.function.Consumer;
+
+// A hierarchical timing wheel: schedules timers to fire once the time passes their deadline, in
+// O(1) time per timer scheduled or fired, instead of keeping every timer in a priority queue.
+//
+// Each level is a circular array of buckets that each cover a fixed span of time, and each level's
+// buckets cover 64 times (or so) longer spans than the level below. A timer goes into the lowest
+// level whose wheel reaches its deadline. As time advances, each bucket whose span has passed is
+// emptied: its timers fire if their deadlines have passed, and otherwise they're rescheduled, which
+// moves them down to a finer-grained level. So a timer may fire up to one bucket span (about a
+// second at the lowest level) after its deadline; callers that need to be exact should also check
+// deadlines themselves.
+//
+// Times are in nanoseconds, and must never decrease or go negative.
+// @see BoundedCache
+class TimingWheel<T extends TimingWheel.Timer> {
+    // bucket spans of about 1.07s, 1.14m, 1.22h, 1.63d and 6.5d
+    private static final int[] SHIFTS = {30, 36, 42, 47, 49};
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    // A node that can be scheduled in at most one wheel.
+    static class Timer {
+        long deadline;
+        Timer timerPrev;
+        Timer timerNext;
+    }
+
+    private final Timer[][] wheels; // sentinels of each level's circular bucket lists
+    private long time;
+
+    TimingWheel(long time) {
+        this.time = time;
+        this.wheels = new Timer[BUCKETS.length][];
+        for (int level = 0; level < BUCKETS.length; level++) {
+            wheels[level] = new Timer[BUCKETS[level]];
+            for (int bucket = 0; bucket < BUCKETS[level]; bucket++) {
+                Timer sentinel = new Timer();
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+                wheels[level][bucket] = sentinel;
+            }
+        }
+    }
+
+    // Schedules the timer to fire at its deadline, replacing any earlier schedule.
+    void schedule(T timer) {
+        unschedule(timer);
+        Timer sentinel = bucketFor(timer.deadline);
+        timer.timerPrev = sentinel.timerPrev;
+        timer.timerNext = sentinel;
+        sentinel.timerPrev.timerNext = timer;
+        sentinel.timerPrev = timer;
+    }
+
+    // Removes the timer from the wheel, if it's scheduled.
+    void unschedule(T timer) {
+        if (timer.timerNext != null) {
+            timer.timerPrev.timerNext = timer.timerNext;
+            timer.timerNext.timerPrev = timer.timerPrev;
+            timer.timerPrev = null;
+            timer.timerNext = null;
+        }
+    }
+
+    private Timer bucketFor(long deadline) {
+        // deadlines that have already passed go in the next bucket to be emptied
+        long duration = Math.max(0, deadline - time);
+        for (int level = 0; level < BUCKETS.length - 1; level++) {
+            if (duration < 1L << SHIFTS[level + 1]) {
+                long ticks = Math.max(deadline, time) >>> SHIFTS[level];
+                return wheels[level][(int) (ticks & (BUCKETS[level] - 1))];
+            }
+        }
+        return wheels[BUCKETS.length - 1][0];
+    }
+
+    // Advances the wheel to the given time, passing each timer whose deadline has passed to
+    // the consumer, after unscheduling it.
+    @SuppressWarnings("unchecked")
+    void advance(long now, Consumer<T> fire) {
+        long previous = time;
+        time = now;
+        for (int level = 0; level < BUCKETS.length; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long currentTicks = now >>> SHIFTS[level];
+            if (currentTicks == previousTicks) {
+                // higher levels' ticks are even longer, so they haven't moved either
+                break;
+            }
+            // empty every bucket whose span has passed, along with the one just entered so that its
+            // timers move down to finer levels before their deadlines, or the whole level if time
+            // wrapped around it
+            long buckets = Math.min(currentTicks - previousTicks + 1, BUCKETS[level]);
+            for (long tick = previousTicks; tick < previousTicks + buckets; tick++) {
+                Timer sentinel = wheels[level][(int) (tick & (BUCKETS[level] - 1))];
+                Timer timer = sentinel.timerNext;
+                // detach the whole bucket first, since rescheduling may put timers back into it
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+                while (timer != sentinel) {
+                    Timer next = timer.timerNext;
+                    timer.timerPrev = null;
+                    timer.timerNext = null;
+                    if (timer.deadline <= now) {
+                        fire.accept((T) timer);
+                    } else {
+                        schedule((T) timer);
+                    }
+                    timer = next;
+                }
+            }
+        }
+    }
+}
@@ -3,7 +3,9 @@ package maps.experiments;
 import edu.washington.cse373.experiments.AnalysisUtils;
 import edu.washington.cse373.experiments.PlotWindow;
 import maps.AVLTreeMap;
+import maps.BTreeMap;
 import maps.ChainedHashMap;
+import maps.OpenAddressingHashMap;
 
 import java.util.List;
 import java.util.Map;
@@ -24,8 +26,9 @@ public class Experiment2HashCodesAndAVLTrees {
         List<Long> sizes = AnalysisUtils.range(0L, MAX_MAP_SIZE, STEP);
 
         PlotWindow.launch("Experiment 2", "Map Size", "Elapsed Time (ms)",
-            new LongUnaryOperator[]{this::runtime1, this::runtime2, this::runtime3, this::runtime4},
-            new String[]{"runtime1", "runtime2", "runtime3", "runtime4"},
+            new LongUnaryOperator[]{this::runtime1, this::runtime2, this::runtime3, this::runtime4, this::runtime5,
+                this::runtime6},
+            new String[]{"runtime1", "runtime2", "runtime3", "runtime4", "runtime5", "runtime6"},
             sizes, 5, .05);
     }
 
@@ -33,6 +36,10 @@ public class Experiment2HashCodesAndAVLTrees {
         return new ChainedHashMap<>();
     }
 
+    protected <K, V> Map<K, V> constructOpenAddressingHashMap() {
+        return new OpenAddressingHashMap<>();
+    }
+
     public long runtime1(long mapSize) {
         return timePuts(mapSize, constructChainedHashMap(), FakeString1::new);
     }
@@ -51,6 +58,16 @@ public class Experiment2HashCodesAndAVLTrees {
         return timePuts(mapSize, new AVLTreeMap<>(), ComparableFakeString::new);
     }
 
+    public long runtime5(long mapSize) {
+        // Same keys as runtime3, but stored in an open-addressing table instead of chains.
+        return timePuts(mapSize, constructOpenAddressingHashMap(), FakeString3::new);
+    }
+
+    public long runtime6(long mapSize) {
+        // Same keys as runtime4, but in a B-tree, which keeps many keys per node.
+        return timePuts(mapSize, new BTreeMap<>(), ComparableFakeString::new);
+    }
+
     public <STRING> long timePuts(long numPuts,
                                   Map<STRING, Integer> map,
                                   Function<char[], STRING> stringConstructor) {
@@ -3,6 +3,8 @@ package maps.experiments;
 import edu.washington.cse373.experiments.AnalysisUtils;
 import edu.washington.cse373.experiments.PlotWindow;
 import maps.ChainedHashMap;
+import maps.LongLongMap;
+import maps.OpenAddressingHashMap;
 
 import java.util.List;
 import java.util.Map;
@@ -14,6 +16,8 @@ public class Experiment3HashingResizingLoadFactor {
     public static final int INITIAL_CHAIN_COUNT = 10;
     public static final int CHAIN_INITIAL_CAPACITY = 8;
 
+    long dummy = 0;
+
     public static void main(String[] args) {
         new Experiment3HashingResizingLoadFactor().run();
     }
@@ -22,14 +26,19 @@ public class Experiment3HashingResizingLoadFactor {
         List<Long> sizes = AnalysisUtils.range(0L, MAX_MAP_SIZE, STEP);
 
         PlotWindow.launch("Experiment 3", "Map Size", "Elapsed Time (ns)",
-            new LongUnaryOperator[]{this::runtime1, this::runtime2},
-            new String[]{"runtime1", "runtime2"}, sizes, 1, .01);
+            new LongUnaryOperator[]{this::runtime1, this::runtime2, this::runtime3, this::runtime4, this::runtime5,
+                this::runtime6, this::runtime7},
+            new String[]{"runtime1", "runtime2", "runtime3", "runtime4", "runtime5", "runtime6", "runtime7"}, sizes, 1, .01);
     }
 
     protected Map<Long, Long> constructChainedHashMap(double resizingLoadFactor) {
         return new ChainedHashMap<>(resizingLoadFactor, INITIAL_CHAIN_COUNT, CHAIN_INITIAL_CAPACITY);
     }
 
+    protected Map<Long, Long> constructOpenAddressingHashMap(double resizingLoadFactor) {
+        return new OpenAddressingHashMap<>(resizingLoadFactor, INITIAL_CHAIN_COUNT);
+    }
+
     public long runtime1(long mapSize) {
         return timePuts(mapSize, constructChainedHashMap(0.75));
     }
@@ -38,6 +47,26 @@ public class Experiment3HashingResizingLoadFactor {
         return timePuts(mapSize, constructChainedHashMap(300));
     }
 
+    public long runtime3(long mapSize) {
+        return timePuts(mapSize, constructOpenAddressingHashMap(0.75));
+    }
+
+    public long runtime4(long mapSize) {
+        return timeGets(mapSize, constructChainedHashMap(0.75));
+    }
+
+    public long runtime5(long mapSize) {
+        return timeGets(mapSize, constructOpenAddressingHashMap(0.75));
+    }
+
+    public long runtime6(long mapSize) {
+        return timePrimitivePuts(mapSize, new LongLongMap(0.75, INITIAL_CHAIN_COUNT));
+    }
+
+    public long runtime7(long mapSize) {
+        return timePrimitiveGets(mapSize, new LongLongMap(0.75, INITIAL_CHAIN_COUNT));
+    }
+
     protected long timePuts(long numPuts, Map<Long, Long> map) {
         long start = System.nanoTime();
         for (long i = 0L; i < numPuts; i++) {
@@ -45,4 +74,38 @@ public class Experiment3HashingResizingLoadFactor {
         }
         return System.nanoTime() - start;
     }
+
+    // Fills the map untimed, then times one successful lookup per key.
+    protected long timeGets(long numKeys, Map<Long, Long> map) {
+        for (long i = 0L; i < numKeys; i++) {
+            map.put(i, i);
+        }
+        long start = System.nanoTime();
+        for (long i = 0L; i < numKeys; i++) {
+            // mutate a dummy field to discourage Java from optimizing the lookups away
+            this.dummy ^= map.get(i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Like timePuts, but through LongLongMap's primitive API, so nothing is boxed.
+    protected long timePrimitivePuts(long numPuts, LongLongMap map) {
+        long start = System.nanoTime();
+        for (long i = 0L; i < numPuts; i++) {
+            map.put(i, 0L);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Like timeGets, but through LongLongMap's primitive API, so nothing is boxed.
+    protected long timePrimitiveGets(long numKeys, LongLongMap map) {
+        for (long i = 0L; i < numKeys; i++) {
+            map.put(i, i);
+        }
+        long start = System.nanoTime();
+        for (long i = 0L; i < numKeys; i++) {
+            this.dummy ^= map.get(i, 0L);
+        }
+        return System.nanoTime() - start;
+    }
 }
@@ -0,0 +1,52 @@
+package maps.experiments;
+
+import edu.washington.cse373.experiments.PlotWindow;
+import maps.ChainedHashMap;
+import maps.OpenAddressingHashMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongUnaryOperator;
+
+import static edu.washington.cse373.experiments.AnalysisUtils.estimateObjectMemoryUsage;
+import static edu.washington.cse373.experiments.AnalysisUtils.range;
+
+public class Experiment4HashMapMemory {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_MAP_SIZE = 20000;
+    public static final long STEP = 500;
+
+    public static void main(String[] args) {
+        new Experiment4HashMapMemory().run();
+    }
+
+    public void run() {
+        List<Long> sizes = range(STEP, MAX_MAP_SIZE, STEP);
+
+        // memory usage is deterministic, so there's no need for multiple trials
+        PlotWindow.launch("Experiment 4", "Map Size", "Memory Used Per Entry (bytes)",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, sizes);
+    }
+
+    public long f1(long size) {
+        return bytesPerEntry(size, new ChainedHashMap<>());
+    }
+
+    public long f2(long size) {
+        return bytesPerEntry(size, new OpenAddressingHashMap<>());
+    }
+
+    /**
+     * Returns the estimated memory used by the map per entry, including its keys and values.
+     */
+    protected long bytesPerEntry(long size, Map<Long, Long> map) {
+        for (long i = 0L; i < size; i++) {
+            map.put(i, i);
+        }
+        return estimateObjectMemoryUsage(map) / size;
+    }
+}
@@ -0,0 +1,89 @@
+package maps.experiments;
+
+import edu.washington.cse373.experiments.AnalysisUtils;
+import edu.washington.cse373.experiments.PlotWindow;
+import maps.ChainedHashMap;
+import maps.experiments.Experiment2HashCodesAndAVLTrees.ComparableFakeString;
+import maps.experiments.Experiment2HashCodesAndAVLTrees.FakeString;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+public class Experiment5HashFlooding {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_MAP_SIZE = 5000;
+    public static final long STEP = 250;
+
+    public static final int STRING_LENGTH = 50;
+
+    long dummy = 0;
+
+    public static void main(String[] args) {
+        new Experiment5HashFlooding().run();
+    }
+
+    public void run() {
+        List<Long> sizes = AnalysisUtils.range(STEP, MAX_MAP_SIZE, STEP);
+
+        PlotWindow.launch("Experiment 5", "Map Size", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, sizes, 5, .05);
+    }
+
+    public long f1(long mapSize) {
+        // every key collides and can't be ordered, so the map is one long ArrayMap chain
+        return timePutsAndGets(mapSize, new ChainedHashMap<>(), FloodingString::new);
+    }
+
+    public long f2(long mapSize) {
+        // every key collides, but the keys are Comparable, so the chain turns into a tree
+        return timePutsAndGets(mapSize, new ChainedHashMap<>(), ComparableFloodingString::new);
+    }
+
+    /**
+     * Returns the runtime in nanoseconds of putting `numKeys` random keys into the map and then
+     * getting each of them back.
+     */
+    public <STRING> long timePutsAndGets(long numKeys,
+                                         Map<STRING, Integer> map,
+                                         Function<char[], STRING> stringConstructor) {
+        List<STRING> strings = Utils.generateRandomStrings(numKeys, STRING_LENGTH, stringConstructor);
+
+        long start = System.nanoTime();
+        for (STRING string : strings) {
+            map.put(string, 0);
+        }
+        for (STRING string : strings) {
+            this.dummy += map.get(string);
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static class FloodingString extends FakeString {
+        public FloodingString(char[] chars) {
+            super(chars);
+        }
+
+        @Override
+        public int hashCode() {
+            // what an attacker who knows the hash function aims for: every key collides
+            return 0;
+        }
+    }
+
+    public static class ComparableFloodingString extends ComparableFakeString {
+        public ComparableFloodingString(char[] chars) {
+            super(chars);
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}
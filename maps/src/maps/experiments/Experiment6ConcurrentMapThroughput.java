@@ -0,0 +1,96 @@
+package maps.experiments;
+
+import edu.washington.cse373.experiments.PlotWindow;
+import maps.ChainedHashMap;
+import maps.ConcurrentChainedHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+public class Experiment6ConcurrentMapThroughput {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_THREADS = 32;
+    public static final int TOTAL_OPERATIONS = 400000;
+    public static final int NUM_KEYS = 10000;
+
+    // percentage of operations that are puts; the rest are gets
+    public static final int READ_HEAVY_PUT_PERCENT = 5;
+    public static final int WRITE_HEAVY_PUT_PERCENT = 50;
+
+    public static void main(String[] args) {
+        new Experiment6ConcurrentMapThroughput().run();
+    }
+
+    public void run() {
+        List<Long> threadCounts = new ArrayList<>();
+        for (long threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            threadCounts.add(threads);
+        }
+
+        PlotWindow.launch("Experiment 6", "Threads", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2, this::f3, this::f4},
+            new String[]{"f1", "f2", "f3", "f4"}, threadCounts, 5, .05);
+    }
+
+    public long f1(long threads) {
+        // read-heavy, with every operation taking the same lock
+        return timeMixedOperations(threads, Collections.synchronizedMap(new ChainedHashMap<>()),
+            READ_HEAVY_PUT_PERCENT);
+    }
+
+    public long f2(long threads) {
+        // read-heavy, with lock-free reads and striped writes
+        return timeMixedOperations(threads, new ConcurrentChainedHashMap<>(), READ_HEAVY_PUT_PERCENT);
+    }
+
+    public long f3(long threads) {
+        // write-heavy, with every operation taking the same lock
+        return timeMixedOperations(threads, Collections.synchronizedMap(new ChainedHashMap<>()),
+            WRITE_HEAVY_PUT_PERCENT);
+    }
+
+    public long f4(long threads) {
+        // write-heavy, with lock-free reads and striped writes
+        return timeMixedOperations(threads, new ConcurrentChainedHashMap<>(), WRITE_HEAVY_PUT_PERCENT);
+    }
+
+    /**
+     * Returns the runtime in nanoseconds of `numThreads` threads splitting TOTAL_OPERATIONS random
+     * gets and puts between them, with `putPercent` percent of them being puts. The map starts
+     * with every key already present, so puts replace values rather than growing the map.
+     */
+    public long timeMixedOperations(long numThreads, Map<Integer, Integer> map, int putPercent) {
+        for (int key = 0; key < NUM_KEYS; key++) {
+            map.put(key, key);
+        }
+        int operationsPerThread = (int) (TOTAL_OPERATIONS / numThreads);
+        return Utils.timeThreads(numThreads, thread -> {
+            // draw the operations up front so the timed part is only map accesses
+            Random random = new Random(thread);
+            int[] keys = new int[operationsPerThread];
+            boolean[] puts = new boolean[operationsPerThread];
+            for (int i = 0; i < operationsPerThread; i++) {
+                keys[i] = random.nextInt(NUM_KEYS);
+                puts[i] = random.nextInt(100) < putPercent;
+            }
+            return () -> {
+                long sum = 0;
+                for (int i = 0; i < keys.length; i++) {
+                    if (puts[i]) {
+                        map.put(keys[i], i);
+                    } else {
+                        sum += map.get(keys[i]);
+                    }
+                }
+                return sum;
+            };
+        });
+    }
+}
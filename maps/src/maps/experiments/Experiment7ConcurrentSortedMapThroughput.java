@@ -0,0 +1,100 @@
+package maps.experiments;
+
+import edu.washington.cse373.experiments.PlotWindow;
+import maps.AVLTreeMap;
+import maps.LockFreeSkipListMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+public class Experiment7ConcurrentSortedMapThroughput {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final long MAX_THREADS = 32;
+    public static final int TOTAL_OPERATIONS = 400000;
+    public static final int NUM_KEYS = 10000;
+
+    // percentage of operations that are writes (half puts, half removes); the rest are gets
+    public static final int READ_HEAVY_WRITE_PERCENT = 5;
+    public static final int WRITE_HEAVY_WRITE_PERCENT = 50;
+
+    public static void main(String[] args) {
+        new Experiment7ConcurrentSortedMapThroughput().run();
+    }
+
+    public void run() {
+        List<Long> threadCounts = new ArrayList<>();
+        for (long threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            threadCounts.add(threads);
+        }
+
+        PlotWindow.launch("Experiment 7", "Threads", "Elapsed Time (ns)",
+            new LongUnaryOperator[]{this::f1, this::f2, this::f3, this::f4},
+            new String[]{"f1", "f2", "f3", "f4"}, threadCounts, 5, .05);
+    }
+
+    public long f1(long threads) {
+        // read-heavy, with every operation taking the same lock
+        return timeMixedOperations(threads, Collections.synchronizedMap(new AVLTreeMap<Integer, Integer>()),
+            READ_HEAVY_WRITE_PERCENT);
+    }
+
+    public long f2(long threads) {
+        // read-heavy, without any locks
+        return timeMixedOperations(threads, new LockFreeSkipListMap<>(), READ_HEAVY_WRITE_PERCENT);
+    }
+
+    public long f3(long threads) {
+        // write-heavy, with every operation taking the same lock
+        return timeMixedOperations(threads, Collections.synchronizedMap(new AVLTreeMap<Integer, Integer>()),
+            WRITE_HEAVY_WRITE_PERCENT);
+    }
+
+    public long f4(long threads) {
+        // write-heavy, without any locks
+        return timeMixedOperations(threads, new LockFreeSkipListMap<>(), WRITE_HEAVY_WRITE_PERCENT);
+    }
+
+    /**
+     * Returns the runtime in nanoseconds of `numThreads` threads splitting TOTAL_OPERATIONS random
+     * gets, puts and removes between them, with `writePercent` percent of them being puts or
+     * removes. The map starts with every other key present, and writes insert and delete keys, so
+     * unlike Experiment 6 they change the structure of the map rather than just replacing values.
+     */
+    public long timeMixedOperations(long numThreads, Map<Integer, Integer> map, int writePercent) {
+        for (int key = 0; key < NUM_KEYS; key += 2) {
+            map.put(key, key);
+        }
+        int operationsPerThread = (int) (TOTAL_OPERATIONS / numThreads);
+        return Utils.timeThreads(numThreads, thread -> {
+            // draw the operations up front so the timed part is only map accesses
+            Random random = new Random(thread);
+            int[] keys = new int[operationsPerThread];
+            int[] operations = new int[operationsPerThread]; // 0 for get, 1 for put, 2 for remove
+            for (int i = 0; i < operationsPerThread; i++) {
+                keys[i] = random.nextInt(NUM_KEYS);
+                operations[i] = random.nextInt(100) >= writePercent ? 0 : 1 + random.nextInt(2);
+            }
+            return () -> {
+                long sum = 0;
+                for (int i = 0; i < keys.length; i++) {
+                    if (operations[i] == 1) {
+                        map.put(keys[i], i);
+                    } else if (operations[i] == 2) {
+                        map.remove(keys[i]);
+                    } else {
+                        Integer value = map.get(keys[i]);
+                        sum += value == null ? 0 : value;
+                    }
+                }
+                return sum;
+            };
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package maps.experiments;
+
+import edu.washington.cse373.experiments.PlotWindow;
+import maps.AVLTreeMap;
+import maps.PersistentAVLTreeMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+import static edu.washington.cse373.experiments.AnalysisUtils.estimateObjectMemoryUsage;
+import static edu.washington.cse373.experiments.AnalysisUtils.range;
+
+public class Experiment8PersistentMapMemory {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final int MAP_SIZE = 5000;
+    public static final long MAX_VERSIONS = 100;
+    public static final long STEP = 10;
+
+    public static void main(String[] args) {
+        new Experiment8PersistentMapMemory().run();
+    }
+
+    public void run() {
+        List<Long> versionCounts = range(STEP, MAX_VERSIONS, STEP);
+
+        // memory usage is deterministic, so there's no need for multiple trials
+        PlotWindow.launch("Experiment 8", "Versions Kept", "Memory Used (bytes)",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, versionCounts);
+    }
+
+    public long f1(long versions) {
+        // each version shares all but the path to its change with the previous one
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        for (int key = 0; key < MAP_SIZE; key++) {
+            map.put(key, key);
+        }
+        Random random = new Random(373);
+        List<PersistentAVLTreeMap<Integer, Integer>> kept = new ArrayList<>();
+        for (int i = 0; i < versions; i++) {
+            map.put(random.nextInt(MAP_SIZE), -i);
+            kept.add(map.snapshot());
+        }
+        return estimateObjectMemoryUsage(kept);
+    }
+
+    public long f2(long versions) {
+        // each version is a full copy of the previous one
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        for (int key = 0; key < MAP_SIZE; key++) {
+            map.put(key, key);
+        }
+        Random random = new Random(373);
+        List<AVLTreeMap<Integer, Integer>> kept = new ArrayList<>();
+        for (int i = 0; i < versions; i++) {
+            map = AVLTreeMap.fromSorted(map.iterator());
+            map.put(random.nextInt(MAP_SIZE), -i);
+            kept.add(map);
+        }
+        return estimateObjectMemoryUsage(kept);
+    }
+}
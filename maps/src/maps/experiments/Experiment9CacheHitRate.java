@@ -0,0 +1,98 @@
+package maps.experiments;
+
+import edu.washington.cse373.experiments.PlotWindow;
+import maps.BoundedCache;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+import static edu.washington.cse373.experiments.AnalysisUtils.range;
+
+public class Experiment9CacheHitRate {
+    /*
+    Note: please do not change these constants (or the constants in any of the other experiments)
+    while working on your writeup
+    */
+    public static final int DISTINCT_KEYS = 50000;
+    public static final double ZIPF_EXPONENT = 0.9;
+    public static final int REQUESTS = 200000;
+    public static final int SCAN_EVERY = 20000;
+    public static final int SCAN_LENGTH = 5000;
+    public static final long MAX_CACHE_SIZE = 5000;
+    public static final long STEP = 250;
+
+    private final int[] trace = generateTrace();
+
+    public static void main(String[] args) {
+        new Experiment9CacheHitRate().run();
+    }
+
+    public void run() {
+        List<Long> cacheSizes = range(STEP, MAX_CACHE_SIZE, STEP);
+
+        // the trace is fixed, so there's no need for multiple trials
+        PlotWindow.launch("Experiment 9", "Cache Size (entries)", "Hits per 10,000 Requests",
+            new LongUnaryOperator[]{this::f1, this::f2},
+            new String[]{"f1", "f2"}, cacheSizes);
+    }
+
+    public long f1(long cacheSize) {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(cacheSize);
+        long hits = 0;
+        for (int key : trace) {
+            if (cache.getIfPresent(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return hits * 10000 / trace.length;
+    }
+
+    public long f2(long cacheSize) {
+        // a plain LRU cache: evicts whichever entry was used least recently
+        Map<Integer, Integer> cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        long hits = 0;
+        for (int key : trace) {
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return hits * 10000 / trace.length;
+    }
+
+    // Generates requests for keys drawn from a Zipf distribution, so a few keys are very popular
+    // and most are rare, interrupted every so often by a scan through keys that are never
+    // requested again, as a batch job or crawler would cause.
+    private static int[] generateTrace() {
+        Random random = new Random(373);
+        double[] cumulative = new double[DISTINCT_KEYS];
+        double total = 0;
+        for (int rank = 0; rank < DISTINCT_KEYS; rank++) {
+            total += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = total;
+        }
+        int[] trace = new int[REQUESTS];
+        int nextScanKey = DISTINCT_KEYS;
+        for (int i = 0; i < REQUESTS; i++) {
+            if (i % SCAN_EVERY >= SCAN_EVERY - SCAN_LENGTH) {
+                trace[i] = nextScanKey++;
+            } else {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                trace[i] = rank >= 0 ? rank : Math.min(-rank - 1, DISTINCT_KEYS - 1);
+            }
+        }
+        return trace;
+    }
+}
@@ -4,10 +4,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class Utils {
+    // checksums of what the timed threads read, kept so that their reads can't be optimized away
+    private static long dummy = 0;
 
     /**
      * Generates and returns a list of `numStrings` random "strings", each of length `stringLength`.
@@ -31,4 +35,36 @@ public class Utils {
             .limit(numStrings)                                  // run the code numStrings times
             .collect(Collectors.toCollection(ArrayList::new));  // add all items into an ArrayList
     }
+
+    /**
+     * Returns the runtime in nanoseconds of `numThreads` threads running at once. `prepare` is
+     * called for each thread index before the clock starts, and returns the work that thread
+     * runs, so any setup stays out of the timed part. The work returns a checksum of what it read.
+     */
+    public static long timeThreads(long numThreads, IntFunction<LongSupplier> prepare) {
+        long[] sums = new long[(int) numThreads];
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            int thread = t;
+            LongSupplier work = prepare.apply(thread);
+            threads.add(new Thread(() -> sums[thread] = work.getAsLong()));
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        for (long sum : sums) {
+            dummy += sum;
+        }
+        return elapsed;
+    }
 }
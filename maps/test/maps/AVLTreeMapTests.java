@@ -0,0 +1,265 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class AVLTreeMapTests extends ReferenceMapTests {
+    @Test
+    void iterator_yieldsEntriesInKeyOrder() {
+        assertIteratesInKeyOrder(new AVLTreeMap<>());
+    }
+
+    @Test
+    void iterator_onEmptyMap_throwsNoSuchElement() {
+        assertEmptyIteratorThrowsNoSuchElement(new AVLTreeMap<Integer, Integer>());
+    }
+
+    @Test
+    void iterator_afterPutNewKey_throwsConcurrentModification() {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        map.put(1, 1);
+        map.put(2, 2);
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        iterator.next();
+        map.put(3, 3);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    void iterator_afterRemove_throwsConcurrentModification() {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        map.put(1, 1);
+        map.put(2, 2);
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        map.remove(2);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    void iterator_afterReplacingValue_keepsGoing() {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        map.put(1, 1);
+        map.put(2, 2);
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        iterator.next();
+        map.put(2, 20);
+        assertThat(iterator.next().getValue()).isEqualTo(20);
+    }
+
+    @Test
+    void entrySetValue_updatesMap() {
+        AVLTreeMap<String, Integer> map = new AVLTreeMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        for (Map.Entry<String, Integer> entry : map) {
+            entry.setValue(entry.getValue() * 10);
+        }
+        assertThat(map.get("a")).isEqualTo(10);
+        assertThat(map.get("b")).isEqualTo(20);
+    }
+
+    private static AVLTreeMap<Integer, Integer> createRandomMap(TreeMap<Integer, Integer> expected) {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 2000; i++) {
+            // even keys only, so odd probes fall between keys
+            int key = 2 * random.nextInt(2000);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        return map;
+    }
+
+    @Test
+    void randomPutsAndRemoves_matchJavaTreeMap() {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(3000);
+            if (random.nextBoolean()) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        assertThat((Object) map).isEqualTo(expected);
+        map.checkInvariants();
+        for (int rank = 0; rank < expected.size(); rank += 7) {
+            int key = map.select(rank);
+            assertThat(map.rank(key)).isEqualTo(rank);
+            assertThat(expected.headMap(key).size()).isEqualTo(rank);
+        }
+    }
+
+    @Test
+    void navigation_matchesJavaTreeMap() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        AVLTreeMap<Integer, Integer> map = createRandomMap(expected);
+        for (int key = -2; key <= 4002; key++) {
+            assertThat(map.floorKey(key)).isEqualTo(expected.floorKey(key));
+            assertThat(map.lowerKey(key)).isEqualTo(expected.lowerKey(key));
+            assertThat(map.ceilingKey(key)).isEqualTo(expected.ceilingKey(key));
+            assertThat(map.higherKey(key)).isEqualTo(expected.higherKey(key));
+            assertThat(map.floorEntry(key)).isEqualTo(expected.floorEntry(key));
+            assertThat(map.rank(key)).isEqualTo(expected.headMap(key).size());
+        }
+        assertThat(map.firstEntry()).isEqualTo(expected.firstEntry());
+        assertThat(map.lastKey()).isEqualTo(expected.lastKey());
+    }
+
+    @Test
+    void select_outOfRange_throwsIndexOutOfBounds() {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        map.put(1, 1);
+        assertThat(map.select(0)).isEqualTo(1);
+        assertThatThrownBy(() -> map.select(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> map.select(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void firstKey_onEmptyMap_throwsNoSuchElement() {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        assertThat(map.firstEntry()).isNull();
+        assertThat(map.pollFirstEntry()).isNull();
+        assertThatThrownBy(map::firstKey).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void rangeViews_matchJavaTreeMap() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        AVLTreeMap<Integer, Integer> map = createRandomMap(expected);
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(4100) - 50;
+            int to = from + random.nextInt(1000);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            assertView(map.subMap(from, fromInclusive, to, toInclusive),
+                expected.subMap(from, fromInclusive, to, toInclusive), from, to);
+            assertView(map.headMap(to, toInclusive), expected.headMap(to, toInclusive), from, to);
+            assertView(map.tailMap(from, fromInclusive), expected.tailMap(from, fromInclusive), from, to);
+            assertView(map.descendingMap().subMap(to, toInclusive, from, fromInclusive),
+                expected.descendingMap().subMap(to, toInclusive, from, fromInclusive), from, to);
+            assertView(map.subMap(from, true, to, true).descendingMap().headMap((from + to) / 2, false),
+                expected.subMap(from, true, to, true).descendingMap().headMap((from + to) / 2, false), from, to);
+        }
+    }
+
+    private void assertView(NavigableMap<Integer, Integer> view, NavigableMap<Integer, Integer> expected,
+                            int from, int to) {
+        assertThat(view.size()).isEqualTo(expected.size());
+        assertThat(view.isEmpty()).isEqualTo(expected.isEmpty());
+        assertThat(view.firstEntry()).isEqualTo(expected.firstEntry());
+        assertThat(view.lastEntry()).isEqualTo(expected.lastEntry());
+        assertThat(new ArrayList<>(view.keySet())).isEqualTo(new ArrayList<>(expected.keySet()));
+        assertThat(new ArrayList<>(view.descendingKeySet())).isEqualTo(new ArrayList<>(expected.descendingKeySet()));
+        for (int key = from - 3; key <= to + 3; key += 3) {
+            assertThat(view.floorKey(key)).isEqualTo(expected.floorKey(key));
+            assertThat(view.higherKey(key)).isEqualTo(expected.higherKey(key));
+            assertThat(view.containsKey(key)).isEqualTo(expected.containsKey(key));
+        }
+    }
+
+    @Test
+    void rangeView_writesThroughToMap() {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        NavigableMap<Integer, Integer> view = map.subMap(3, true, 6, false);
+        view.put(4, 40);
+        assertThat(map.get(4)).isEqualTo(40);
+        assertThatThrownBy(() -> view.put(6, 6)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> view.subMap(2, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(view.remove(8)).isNull();
+        assertThat(view.pollLastEntry()).isEqualTo(Map.entry(5, 5));
+
+        map.put(100, 100);
+        map.remove(3);
+        assertThat(view.keySet()).containsExactly(4);
+
+        view.clear();
+        assertThat(map.keySet()).containsExactly(0, 1, 2, 6, 7, 8, 9, 100);
+    }
+
+    @Test
+    void fromSorted_buildsBalancedCopy() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 10000; i++) {
+            expected.put(i * 3, i);
+        }
+        AVLTreeMap<Integer, Integer> map = AVLTreeMap.fromSorted(expected.entrySet().iterator());
+        map.checkInvariants();
+        assertThat((Object) map).isEqualTo(expected);
+
+        // the result is an ordinary map from then on
+        map.put(1, 1);
+        map.remove(0);
+        map.checkInvariants();
+        assertThat(map.select(0)).isEqualTo(1);
+    }
+
+    @Test
+    void fromSorted_withUnsortedKeys_throwsIllegalArgument() {
+        List<Map.Entry<Integer, Integer>> entries = List.of(Map.entry(1, 1), Map.entry(3, 3), Map.entry(3, 3));
+        assertThatThrownBy(() -> AVLTreeMap.fromSorted(entries.iterator()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(AVLTreeMap.fromSorted(entries.subList(0, 0).iterator()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void setOperations_matchJavaTreeMap() {
+        Random random = new Random(373);
+        // big enough that the operations fork, with one map much smaller than the other
+        for (int[] sizes : new int[][]{{20000, 20000}, {30000, 50}, {0, 1000}}) {
+            AVLTreeMap<Integer, Integer> map1 = new AVLTreeMap<>();
+            AVLTreeMap<Integer, Integer> map2 = new AVLTreeMap<>();
+            TreeMap<Integer, Integer> expected1 = new TreeMap<>();
+            TreeMap<Integer, Integer> expected2 = new TreeMap<>();
+            for (int i = 0; i < sizes[0]; i++) {
+                int key = random.nextInt(40000);
+                map1.put(key, i);
+                expected1.put(key, i);
+            }
+            for (int i = 0; i < sizes[1]; i++) {
+                int key = random.nextInt(40000);
+                map2.put(key, -i);
+                expected2.put(key, -i);
+            }
+
+            TreeMap<Integer, Integer> union = new TreeMap<>(expected1);
+            union.putAll(expected2);
+            TreeMap<Integer, Integer> intersection = new TreeMap<>(expected1);
+            intersection.keySet().retainAll(expected2.keySet());
+            TreeMap<Integer, Integer> difference = new TreeMap<>(expected1);
+            difference.keySet().removeAll(expected2.keySet());
+
+            AVLTreeMap<Integer, Integer> actualUnion = map1.union(map2);
+            AVLTreeMap<Integer, Integer> actualIntersection = map1.intersection(map2);
+            AVLTreeMap<Integer, Integer> actualDifference = map1.difference(map2);
+            assertThat((Object) actualUnion).isEqualTo(union);
+            assertThat((Object) actualIntersection).isEqualTo(intersection);
+            assertThat((Object) actualDifference).isEqualTo(difference);
+            actualUnion.checkInvariants();
+            actualIntersection.checkInvariants();
+            actualDifference.checkInvariants();
+
+            // the inputs are untouched
+            assertThat((Object) map1).isEqualTo(expected1);
+            assertThat((Object) map2).isEqualTo(expected2);
+            map1.checkInvariants();
+            map2.checkInvariants();
+        }
+    }
+}
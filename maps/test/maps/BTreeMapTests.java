@@ -0,0 +1,136 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BTreeMapTests extends ReferenceMapTests {
+    // the smallest fanout, so that even small maps are several levels deep
+    private static final int SMALL_FANOUT = 4;
+
+    @Test
+    void randomPutsAndRemoves_withSmallFanout_matchJavaTreeMap() {
+        assertMatchesJavaTreeMap(new BTreeMap<>(SMALL_FANOUT));
+    }
+
+    @Test
+    void randomPutsAndRemoves_withOddFanout_matchJavaTreeMap() {
+        assertMatchesJavaTreeMap(new BTreeMap<>(SMALL_FANOUT + 1));
+    }
+
+    @Test
+    void randomPutsAndRemoves_withDefaultFanout_matchJavaTreeMap() {
+        assertMatchesJavaTreeMap(new BTreeMap<>());
+    }
+
+    private void assertMatchesJavaTreeMap(BTreeMap<Integer, Integer> map) {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        assertRandomOperationsMatch(map, expected, 20000, 3000, key -> key, i -> i, map::checkInvariants);
+        for (int key = -1; key <= 3000; key++) {
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+        }
+    }
+
+    @Test
+    void removeEverything_shrinksBackToEmpty() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(SMALL_FANOUT);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        map.checkInvariants();
+        for (int i = 999; i >= 0; i -= 2) {
+            assertThat(map.remove(i)).isEqualTo(i);
+        }
+        map.checkInvariants();
+        for (int i = 0; i < 1000; i += 2) {
+            assertThat(map.remove(i)).isEqualTo(i);
+        }
+        map.checkInvariants();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.iterator().hasNext()).isFalse();
+        assertThat(map.remove(0)).isNull();
+    }
+
+    @Test
+    void iterator_yieldsEntriesInKeyOrder() {
+        assertIteratesInKeyOrder(new BTreeMap<>(SMALL_FANOUT));
+    }
+
+    @Test
+    void iterator_onEmptyMap_throwsNoSuchElement() {
+        assertEmptyIteratorThrowsNoSuchElement(new BTreeMap<Integer, Integer>());
+    }
+
+    @Test
+    void iterator_afterSplitsAndMerges_followsLeafChain() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(SMALL_FANOUT);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            expected.put(i, i);
+        }
+        // removing most of the keys merges leaves, so the chain has to be relinked around them
+        for (int i = 0; i < 1000; i++) {
+            if (i % 7 != 0) {
+                map.remove(i);
+                expected.remove(i);
+            }
+        }
+        map.checkInvariants();
+
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertThat(iterator.next()).isEqualTo(entry);
+        }
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    @Test
+    void iterator_afterPutNewKey_throwsConcurrentModification() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>();
+        map.put(1, 1);
+        map.put(2, 2);
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        iterator.next();
+        map.put(3, 3);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    void entrySetValue_updatesMap() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(SMALL_FANOUT);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        for (Map.Entry<Integer, Integer> entry : map) {
+            entry.setValue(-entry.getKey());
+        }
+        for (int i = 0; i < 100; i++) {
+            assertThat(map.get(i)).isEqualTo(-i);
+        }
+    }
+
+    @Test
+    void nullValues_areAllowed() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>();
+        map.put(1, null);
+        assertThat(map.containsKey(1)).isTrue();
+        assertThat(map.get(1)).isNull();
+    }
+
+    @Test
+    void nullKey_throwsNullPointer() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>();
+        assertThatThrownBy(() -> map.put(null, 1)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.get(null)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void constructor_withTooSmallFanout_throwsIllegalArgument() {
+        assertThatThrownBy(() -> new BTreeMap<Integer, Integer>(SMALL_FANOUT - 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,322 @@
+package maps;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static maps.ConcurrentTestUtils.THREADS;
+import static maps.ConcurrentTestUtils.runConcurrently;
+
+public class BoundedCacheTests extends BaseTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void randomOperations_neverExceedMaximumSize() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        Random random = new Random(373);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            int op = random.nextInt(4);
+            if (op == 0) {
+                cache.invalidate(key);
+            } else if (op == 1) {
+                cache.put(key, i);
+            } else {
+                Integer value = cache.getIfPresent(key);
+                if (value != null) {
+                    assertThat(value).isLessThan(i);
+                }
+            }
+            assertThat(cache.size()).isLessThanOrEqualTo(100);
+            if (i % 1000 == 0) {
+                cache.checkInvariants();
+            }
+        }
+        cache.checkInvariants();
+    }
+
+    @Test
+    void frequentlyUsedEntries_surviveScanOfOneTimeKeys() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (cache.getIfPresent(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        // an LRU cache would be left holding only the last 100 of these
+        for (int key = 1000; key < 2000; key++) {
+            cache.getIfPresent(key);
+            cache.put(key, key);
+        }
+        int survivors = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.getIfPresent(key) != null) {
+                survivors++;
+            }
+        }
+        // estimates are approximate, so an entry still in probation may occasionally lose out
+        assertThat(survivors).isGreaterThanOrEqualTo(45);
+        cache.checkInvariants();
+    }
+
+    @Test
+    void put_withWeigher_staysWithinMaximumWeight() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(1000, (key, value) -> value.length(), 0, 0,
+            System::nanoTime);
+        Random random = new Random(373);
+        for (int i = 0; i < 5000; i++) {
+            cache.put(random.nextInt(500), "x".repeat(random.nextInt(100)));
+            assertThat(cache.weightedSize()).isLessThanOrEqualTo(1000);
+        }
+        cache.checkInvariants();
+
+        cache.put(-1, "x".repeat(1001));
+        assertThat(cache.getIfPresent(-1)).isNull();
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    void put_makingEntryHeavier_evictsToMakeRoom() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100, (key, value) -> value.length(), 0, 0,
+            System::nanoTime);
+        for (int key = 0; key < 10; key++) {
+            cache.put(key, "x".repeat(10));
+        }
+        cache.put(0, "x".repeat(50));
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(100);
+        cache.checkInvariants();
+    }
+
+    @Test
+    void expireAfterWrite_removesEntriesOnceTheirTimeIsUp() {
+        AtomicLong time = new AtomicLong(0);
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, (key, value) -> 1, 10 * SECOND, 0,
+            time::get);
+        cache.put(1, 1);
+        time.addAndGet(5 * SECOND);
+        cache.put(2, 2);
+        assertThat(cache.getIfPresent(1)).isEqualTo(1);
+
+        time.addAndGet(5 * SECOND);
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.getIfPresent(2)).isEqualTo(2);
+
+        // the wheel removes expired entries even if nobody reads them
+        time.addAndGet(7 * SECOND);
+        cache.cleanUp();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.stats().evictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void expireAfterAccess_isExtendedByReads() {
+        AtomicLong time = new AtomicLong(0);
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, (key, value) -> 1, 0, 10 * SECOND,
+            time::get);
+        cache.put(1, 1);
+        for (int i = 0; i < 10; i++) {
+            time.addAndGet(6 * SECOND);
+            assertThat(cache.getIfPresent(1)).isEqualTo(1);
+        }
+        time.addAndGet(12 * SECOND);
+        cache.cleanUp();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void expiry_manyEntriesOverLongTimes_expireOnTime() {
+        AtomicLong time = new AtomicLong(0);
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(10000, (key, value) -> 1,
+            TimeUnit.DAYS.toNanos(10), 0, time::get);
+        Random random = new Random(373);
+        for (int i = 0; i < 2000; i++) {
+            time.addAndGet(random.nextInt(1000) * SECOND);
+            cache.put(i, i);
+        }
+        long end = time.get();
+        while (time.get() < end + TimeUnit.DAYS.toNanos(11)) {
+            time.addAndGet(random.nextInt(3600) * SECOND);
+            cache.cleanUp();
+        }
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.stats().evictionCount()).isEqualTo(2000);
+    }
+
+    @Test
+    void get_withLoader_loadsOnceAndCaches() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(cache.get(1, key -> "v" + key + loads.incrementAndGet())).isEqualTo("v11");
+        assertThat(cache.get(1, key -> "v" + key + loads.incrementAndGet())).isEqualTo("v11");
+        assertThat(loads.get()).isEqualTo(1);
+
+        BoundedCache.Stats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+        assertThat(stats.loadSuccessCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_withFailingLoader_cachesNothing() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+        assertThat(cache.get(1, key -> null)).isNull();
+        assertThatThrownBy(() -> cache.get(1, key -> {
+            throw new IllegalStateException("backend down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.stats().loadFailureCount()).isEqualTo(2);
+        assertThat(cache.get(1, key -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void get_concurrentMissesOnOneKey_loadOnce() throws InterruptedException {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch allWaiting = new CountDownLatch(1);
+        List<Integer> results = new ArrayList<>();
+        runConcurrently(t -> {
+            Integer value = cache.get(1, key -> {
+                loads.incrementAndGet();
+                try {
+                    // give the other threads time to pile up behind this load
+                    allWaiting.await(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return 42;
+            });
+            synchronized (results) {
+                results.add(value);
+            }
+        });
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(results).hasSize(THREADS).containsOnly(42);
+    }
+
+    @Test
+    void get_concurrentFailingLoad_throwsInEveryWaiter() throws InterruptedException {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        AtomicInteger failures = new AtomicInteger();
+        runConcurrently(t -> {
+            try {
+                cache.get(1, key -> {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    throw new IllegalStateException("backend down");
+                });
+            } catch (IllegalStateException e) {
+                failures.incrementAndGet();
+            }
+        });
+        assertThat(failures.get()).isEqualTo(THREADS);
+    }
+
+    @Test
+    void invalidate_duringLoad_keepsLoadedValueOutOfCache() throws InterruptedException {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+        Thread loader = new Thread(() -> {
+            String value = cache.get(1, key -> {
+                loading.countDown();
+                try {
+                    invalidated.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "stale";
+            });
+            synchronized (results) {
+                results.add(value);
+            }
+        });
+        loader.start();
+        loading.await();
+        cache.invalidate(1);
+        invalidated.countDown();
+        loader.join();
+
+        // the caller still gets what it loaded, but the cache doesn't keep it
+        assertThat(results).containsExactly("stale");
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.get(1, key -> "fresh")).isEqualTo("fresh");
+        cache.checkInvariants();
+    }
+
+    @Test
+    void put_duringLoad_isNotOverwrittenByLoadedValue() throws InterruptedException {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        Thread loader = new Thread(() -> cache.get(1, key -> {
+            loading.countDown();
+            try {
+                written.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "stale";
+        }));
+        loader.start();
+        loading.await();
+        cache.put(1, "new");
+        written.countDown();
+        loader.join();
+
+        assertThat(cache.getIfPresent(1)).isEqualTo("new");
+        cache.checkInvariants();
+    }
+
+    @Test
+    void concurrentOperations_leaveConsistentCache() throws InterruptedException {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(200);
+        runConcurrently(t -> {
+            Random random = new Random(t);
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(1000);
+                if (random.nextInt(10) == 0) {
+                    cache.invalidate(key);
+                } else {
+                    assertThat(cache.get(key, k -> k * 2)).isEqualTo(key * 2);
+                }
+            }
+        });
+        cache.checkInvariants();
+        assertThat(cache.size()).isLessThanOrEqualTo(200);
+    }
+
+    @Test
+    void invalidateAll_emptiesCache_withoutCountingEvictions() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+        cache.invalidateAll();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.weightedSize()).isEqualTo(0);
+        assertThat(cache.stats().evictionCount()).isEqualTo(0);
+        cache.checkInvariants();
+    }
+
+    @Test
+    void nullKeysAndValues_throwNullPointer() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        assertThatThrownBy(() -> cache.put(null, 1)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> cache.put(1, null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> cache.getIfPresent(null)).isInstanceOf(NullPointerException.class);
+    }
+}
@@ -84,6 +84,80 @@ public class ChainedHashMapTests extends BaseMapTests {
         assertThat(map).containsAllEntriesOf(actual);
     }
 
+    @Test
+    void put_manyComparableKeysWithSameHashCode_treeifiesChain_andUntreeifiesWhenItShrinks() {
+        Map<CollidingKey, Integer> map = createMap(100, 1, 2);
+        for (int i = 0; i < 100; i++) {
+            map.put(new CollidingKey(i), i);
+        }
+        assertThat((Object) extractChains(map)[0]).isInstanceOf(AVLTreeMap.class);
+        for (int i = 0; i < 100; i++) {
+            assertThat(map.get(new CollidingKey(i))).isEqualTo(i);
+        }
+
+        for (int i = 0; i < 95; i++) {
+            assertThat(map.remove(new CollidingKey(i))).isEqualTo(i);
+        }
+        assertThat((Object) extractChains(map)[0]).isInstanceOf(ArrayMap.class);
+        assertThat(map).hasSize(5);
+        for (int i = 95; i < 100; i++) {
+            assertThat(map.get(new CollidingKey(i))).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void put_keyOfAnotherClass_intoTreeifiedChain_keepsAllEntries() {
+        Map<Object, Integer> map = createMap(100, 1, 2);
+        for (int i = 0; i < 20; i++) {
+            map.put(new CollidingKey(i), i);
+        }
+        assertThat(map.get(new Wrapper<>(0, CollidingKey.HASH_CODE))).isNull();
+        assertThat(map.containsKey(new Wrapper<>(0, CollidingKey.HASH_CODE))).isFalse();
+
+        map.put(new Wrapper<>(0, CollidingKey.HASH_CODE), -1);
+        assertThat(map).hasSize(21);
+        assertThat(map.get(new Wrapper<>(0, CollidingKey.HASH_CODE))).isEqualTo(-1);
+        for (int i = 0; i < 20; i++) {
+            assertThat(map.get(new CollidingKey(i))).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void put_manyNonComparableKeysWithSameHashCode_keepsArrayMapChain() {
+        Map<Wrapper<Integer>, Integer> map = createMap(100, 1, 2);
+        for (int i = 0; i < 50; i++) {
+            map.put(new Wrapper<>(i, 3), i);
+        }
+        assertThat((Object) extractChains(map)[0]).isInstanceOf(ArrayMap.class);
+    }
+
+    /**
+     * A Comparable key whose instances all have the same hash code.
+     */
+    protected static class CollidingKey implements Comparable<CollidingKey> {
+        static final int HASH_CODE = 42;
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(CollidingKey other) {
+            return Integer.compare(this.id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == this.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return HASH_CODE;
+        }
+    }
+
     @Test
     void ensureCreateChainMethodCanBeOverridden() {
         // The grader will use similar code to override `createChain`, so make sure this compiles.
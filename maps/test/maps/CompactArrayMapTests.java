@@ -0,0 +1,105 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class CompactArrayMapTests extends BaseMapTests {
+    @Override
+    protected <K, V> Map<K, V> createMap() {
+        return new CompactArrayMap<>();
+    }
+
+    protected <K, V> Map<K, V> createMap(int capacity) {
+        return new CompactArrayMap<>(capacity);
+    }
+
+    @Test
+    void randomPutsAndRemoves_withComparableKeys_matchJavaTreeMap() {
+        Map<Integer, Integer> map = createMap(2);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        ReferenceMapTests.assertRandomOperationsMatch(map, expected, 20000, 300, key -> key, i -> i);
+        assertThat(isSorted(map)).isTrue();
+
+        List<Map.Entry<Integer, Integer>> actual = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            actual.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        assertThat(actual).containsExactlyElementsOf(expected.entrySet());
+    }
+
+    @Test
+    void randomPutsAndRemoves_withCollidingNonComparableKeys_matchJavaHashMap() {
+        Map<Wrapper<Integer>, Integer> map = createMap(2);
+        Map<Wrapper<Integer>, Integer> expected = new HashMap<>();
+        ReferenceMapTests.assertRandomOperationsMatch(map, expected, 20000, 300, k -> new Wrapper<>(k, k % 7), i -> i);
+        assertThat(isSorted(map)).isFalse();
+    }
+
+    @Test
+    void put_keyOfAnotherClass_intoSortedMap_keepsAllEntries() {
+        Map<Object, Integer> map = createMap(2);
+        for (int i = 0; i < 20; i++) {
+            map.put(i, i);
+        }
+        assertThat(isSorted(map)).isTrue();
+        assertThat(map.get("0")).isNull();
+        assertThat(map.containsKey("0")).isFalse();
+
+        map.put("0", -1);
+        assertThat(isSorted(map)).isFalse();
+        assertThat(map).hasSize(21);
+        assertThat(map.get("0")).isEqualTo(-1);
+        for (int i = 0; i < 20; i++) {
+            assertThat(map.get(i)).isEqualTo(i);
+        }
+        assertThat(map.remove(7)).isEqualTo(7);
+        assertThat(map.containsKey(7)).isFalse();
+        assertThat(map).hasSize(20);
+    }
+
+    @Test
+    void put_afterEmptied_choosesModeAgain() {
+        Map<Object, Integer> map = createMap();
+        map.put(new Wrapper<>(1), 1);
+        assertThat(isSorted(map)).isFalse();
+        map.clear();
+        map.put(1, 1);
+        assertThat(isSorted(map)).isTrue();
+        map.remove(1);
+        map.put(new Wrapper<>(1), 1);
+        assertThat(isSorted(map)).isFalse();
+    }
+
+    @Test
+    void iterator_entrySetValue_updatesMap() {
+        Map<String, Integer> map = createMap();
+        map.put("a", 1);
+        map.put("b", 2);
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            entry.setValue(entry.getValue() * 10);
+        }
+        assertThat(map).containsEntry("a", 10).containsEntry("b", 20);
+    }
+
+    @Test
+    void iterator_afterPutNewKey_throwsConcurrentModification() {
+        Map<Integer, Integer> map = createMap();
+        map.put(1, 1);
+        map.put(2, 2);
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.entrySet().iterator();
+        iterator.next();
+        map.put(3, 3);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    private static boolean isSorted(Map<?, ?> map) {
+        return ((CompactArrayMap<?, ?>) map).isSorted();
+    }
+}
@@ -0,0 +1,63 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * Runs all the ChainedHashMap tests again with CompactArrayMap chains.
+ */
+public class CompactChainedHashMapTests extends ChainedHashMapTests {
+    @Override
+    protected <K, V> Map<K, V> createMap() {
+        return new ChainedHashMap<>(1, 10, 2, 0, ChainedHashMap.ChainType.COMPACT_ARRAY_MAP);
+    }
+
+    @Override
+    protected <K, V> Map<K, V> createMap(double resizingLoadFactorThreshold,
+                                         int initialChainCount,
+                                         int chainInitialCapacity) {
+        return new ChainedHashMap<>(resizingLoadFactorThreshold, initialChainCount, chainInitialCapacity, 0,
+            ChainedHashMap.ChainType.COMPACT_ARRAY_MAP);
+    }
+
+    // The overrides below replace tests that expect ArrayMap chains.
+
+    @Override
+    @Test
+    void constructor_withInitialChainCapacity_hasCorrectInitialChainCapacity() {
+        Map<String, Integer> map = createMap(100, 1, 10);
+        map.put("foo", 1);
+        Map<String, Integer>[] chains = extractChains(map);
+        assertThat(((CompactArrayMap<String, Integer>) chains[0]).keys).hasSize(10);
+    }
+
+    @Override
+    @Test
+    void put_manyComparableKeysWithSameHashCode_treeifiesChain_andUntreeifiesWhenItShrinks() {
+        Map<CollidingKey, Integer> map = createMap(100, 1, 2);
+        for (int i = 0; i < 100; i++) {
+            map.put(new CollidingKey(i), i);
+        }
+        assertThat((Object) extractChains(map)[0]).isInstanceOf(AVLTreeMap.class);
+
+        for (int i = 0; i < 95; i++) {
+            assertThat(map.remove(new CollidingKey(i))).isEqualTo(i);
+        }
+        assertThat((Object) extractChains(map)[0]).isInstanceOf(CompactArrayMap.class);
+        assertThat(map).hasSize(5);
+        for (int i = 95; i < 100; i++) {
+            assertThat(map.get(new CollidingKey(i))).isEqualTo(i);
+        }
+    }
+
+    @Override
+    @Test
+    void put_manyNonComparableKeysWithSameHashCode_keepsArrayMapChain() {
+        Map<Wrapper<Integer>, Integer> map = createMap(100, 1, 2);
+        for (int i = 0; i < 50; i++) {
+            map.put(new Wrapper<>(i, 3), i);
+        }
+        assertThat((Object) extractChains(map)[0]).isInstanceOf(CompactArrayMap.class);
+    }
+}
@@ -0,0 +1,132 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static maps.ConcurrentTestUtils.THREADS;
+import static maps.ConcurrentTestUtils.assertAtomicOperationsBehaveLikeConcurrentMap;
+import static maps.ConcurrentTestUtils.assertConcurrentMergesCountExactly;
+import static maps.ConcurrentTestUtils.runConcurrently;
+
+public class ConcurrentChainedHashMapTests extends BaseMapTests {
+    @Override
+    protected <K, V> Map<K, V> createMap() {
+        return new ConcurrentChainedHashMap<>();
+    }
+
+    // Like ConcurrentHashMap, null values are rejected rather than stored.
+    @Override
+    @Test
+    void containsKey_afterPutNullValue_returnsTrue() {
+        Map<Integer, Integer> map = createMap();
+        assertThatThrownBy(() -> map.put(100, null)).isInstanceOf(NullPointerException.class);
+        assertThat(map).doesNotContainKey(100);
+    }
+
+    @Override
+    @Test
+    void get_afterPutNullValue_returnsNull() {
+        Map<Integer, Integer> map = createMap();
+        assertThatThrownBy(() -> map.put(100, null)).isInstanceOf(NullPointerException.class);
+        assertThat(map.get(100)).isNull();
+    }
+
+    @Test
+    void constructor_withInvalidParameters_throwsIllegalArgument() {
+        assertThatThrownBy(() -> new ConcurrentChainedHashMap<>(0, 16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ConcurrentChainedHashMap<>(16, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void atomicOperations_behaveLikeConcurrentMap() {
+        assertAtomicOperationsBehaveLikeConcurrentMap(new ConcurrentChainedHashMap<>());
+    }
+
+    @Test
+    void randomOperations_matchJavaHashMap() {
+        ConcurrentChainedHashMap<Integer, Integer> map = new ConcurrentChainedHashMap<>(1, 1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        ReferenceMapTests.assertRandomOperationsMatch(map, expected, 20000, 3000, key -> key, i -> i);
+    }
+
+    @Test
+    void concurrentPuts_acrossResizes_allLand() throws InterruptedException {
+        ConcurrentChainedHashMap<Integer, Integer> map = new ConcurrentChainedHashMap<>(1, 4);
+        int perThread = 5000;
+        runConcurrently(t -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = t * perThread + i;
+                map.put(key, key);
+                if (i % 100 == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        assertThat(map.size()).isEqualTo(THREADS * perThread);
+        for (int key = 0; key < THREADS * perThread; key++) {
+            assertThat(map.get(key)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void concurrentMerges_countExactly() throws InterruptedException {
+        assertConcurrentMergesCountExactly(new ConcurrentChainedHashMap<>(1, 2));
+    }
+
+    @Test
+    void concurrentComputeIfAbsent_callsFunctionOncePerKey() throws InterruptedException {
+        ConcurrentChainedHashMap<Integer, Integer> map = new ConcurrentChainedHashMap<>();
+        AtomicInteger calls = new AtomicInteger();
+        runConcurrently(t -> {
+            for (int i = 0; i < 2000; i++) {
+                map.computeIfAbsent(i, k -> {
+                    calls.incrementAndGet();
+                    return k;
+                });
+                if (i % 100 == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        assertThat(calls.get()).isEqualTo(2000);
+        assertThat(map.size()).isEqualTo(2000);
+    }
+
+    @Test
+    void iterator_duringConcurrentWrites_seesEveryUntouchedEntryOnce() throws InterruptedException {
+        ConcurrentChainedHashMap<Integer, Integer> map = new ConcurrentChainedHashMap<>(1, 4);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        Thread writer = new Thread(() -> {
+            // only touches keys >= 1000, and triggers several resizes along the way
+            for (int i = 1000; i < 20000; i++) {
+                map.put(i, i);
+                if (i % 50 == 49) {
+                    map.remove(i - 25);
+                    Thread.yield();
+                }
+            }
+        });
+        writer.start();
+        Set<Integer> seen = new HashSet<>();
+        while (writer.isAlive()) {
+            seen.clear();
+            for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+                if (entry.getKey() < 1000) {
+                    assertThat(seen.add(entry.getKey())).isTrue();
+                }
+            }
+            assertThat(seen).hasSize(1000);
+            Thread.yield();
+        }
+        writer.join();
+    }
+}
@@ -0,0 +1,93 @@
+package maps;
+
+import org.assertj.core.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Helpers shared by the tests of the concurrent maps and caches: a harness that runs a task on
+ * several threads at once, and checks of the ConcurrentMap contract that every implementation
+ * has to pass.
+ */
+public final class ConcurrentTestUtils {
+    public static final int THREADS = 8;
+
+    private ConcurrentTestUtils() {
+    }
+
+    public interface Task {
+        void run(int thread);
+    }
+
+    /**
+     * Runs the task on THREADS threads at once, passing each its index, and waits for all of them.
+     * Rethrows the first failure from any of the threads as an AssertionError.
+     */
+    public static void runConcurrently(Task task) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            Thread worker = new Thread(() -> task.run(thread));
+            worker.setUncaughtExceptionHandler((ignored, e) -> {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            });
+            threads.add(worker);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.get(0));
+        }
+    }
+
+    /**
+     * Checks the single-threaded results of the conditional and compute operations on the given
+     * empty map, and that it's empty again afterwards.
+     */
+    public static void assertAtomicOperationsBehaveLikeConcurrentMap(ConcurrentMap<String, Integer> map) {
+        Assertions.assertThat(map.putIfAbsent("a", 1)).isNull();
+        Assertions.assertThat(map.putIfAbsent("a", 2)).isEqualTo(1);
+        Assertions.assertThat(map.replace("b", 3)).isNull();
+        Assertions.assertThat(map.containsKey("b")).isFalse();
+        Assertions.assertThat(map.replace("a", 1, 4)).isTrue();
+        Assertions.assertThat(map.replace("a", 1, 5)).isFalse();
+        Assertions.assertThat(map.remove("a", 5)).isFalse();
+        Assertions.assertThat(map.merge("a", 10, Integer::sum)).isEqualTo(14);
+        Assertions.assertThat(map.computeIfAbsent("c", k -> 7)).isEqualTo(7);
+        Assertions.assertThat(map.computeIfPresent("c", (k, v) -> null)).isNull();
+        Assertions.assertThat(map.containsKey("c")).isFalse();
+        Assertions.assertThat(map.compute("a", (k, v) -> v + 1)).isEqualTo(15);
+        Assertions.assertThat(map.remove("a", 15)).isTrue();
+        Assertions.assertThat(map.isEmpty()).isTrue();
+    }
+
+    /**
+     * Has every thread merge increments into the same few hundred keys of the given empty map,
+     * and checks that none of them were lost.
+     */
+    public static void assertConcurrentMergesCountExactly(ConcurrentMap<Integer, Integer> map)
+            throws InterruptedException {
+        int increments = 20000;
+        runConcurrently(t -> {
+            for (int i = 0; i < increments; i++) {
+                map.merge(i % 500, 1, Integer::sum);
+                if (i % 100 == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        for (int key = 0; key < 500; key++) {
+            Assertions.assertThat(map.get(key)).isEqualTo(THREADS * increments / 500);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static maps.ConcurrentTestUtils.THREADS;
+import static maps.ConcurrentTestUtils.runConcurrently;
+
+public class DurableMapTests extends ReferenceMapTests {
+    private static final int LOG_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 13;
+    // small enough that the tests write several snapshots
+    private static final long SMALL_SNAPSHOT_LOG_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    private DurableMap<String, Long> open(AbstractIterableMap<String, Long> map, DurableMap.SyncPolicy syncPolicy) {
+        return open(directory, map, syncPolicy);
+    }
+
+    private DurableMap<String, Long> open(Path directory, AbstractIterableMap<String, Long> map,
+                                          DurableMap.SyncPolicy syncPolicy) {
+        return new DurableMap<>(directory, map, Serializer.strings(), Serializer.longs(), syncPolicy, 0,
+            SMALL_SNAPSHOT_LOG_BYTES);
+    }
+
+    private DurableMap<String, Long> open() {
+        return open(new ChainedHashMap<>(), DurableMap.SyncPolicy.ALWAYS);
+    }
+
+    @Test
+    void randomPutsAndRemoves_matchJavaHashMap_beforeAndAfterReopening() {
+        for (DurableMap.SyncPolicy syncPolicy : DurableMap.SyncPolicy.values()) {
+            Path policyDirectory = directory.resolve(syncPolicy.name());
+            DurableMap<String, Long> map = open(policyDirectory, new ChainedHashMap<>(), syncPolicy);
+            Map<String, Long> expected = new HashMap<>();
+            assertRandomOperationsMatch(map, expected, 5000, 300, k -> "key" + k, i -> (long) i);
+            map.close();
+
+            DurableMap<String, Long> reopened = open(policyDirectory, new ChainedHashMap<>(), syncPolicy);
+            assertThat((Object) reopened).isEqualTo(expected);
+            reopened.close();
+        }
+    }
+
+    @Test
+    void writes_afterLogWriteFails_throwWithoutChangingMap() throws IOException {
+        DurableMap<String, Long> map = open();
+        map.put("before", 1L);
+        map.logChannel().close();
+
+        assertThatThrownBy(() -> map.put("lost", 2L)).isInstanceOf(UncheckedIOException.class);
+        // the failed record is gone, so later writes mustn't carry on as if it had been logged
+        assertThatThrownBy(() -> map.put("after", 3L)).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> map.remove("before")).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(map::clear).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(map::snapshot).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(map::flush).isInstanceOf(UncheckedIOException.class);
+        assertThat(map.get("before")).isEqualTo(1L);
+        assertThat(map.containsKey("after")).isFalse();
+
+        DurableMap<String, Long> reopened = open();
+        assertThat((Object) reopened).isEqualTo(Map.of("before", 1L));
+        reopened.close();
+    }
+
+    @Test
+    void reopen_withAVLTreeMap_loadsSnapshotAndReplaysOnlyTheLogTail() {
+        DurableMap<String, Long> map = open(new AVLTreeMap<>(), DurableMap.SyncPolicy.ALWAYS);
+        Map<String, Long> expected = new HashMap<>();
+        for (long i = 0; i < 2000; i++) {
+            map.put("key" + (i % 150), i);
+            expected.put("key" + (i % 150), i);
+            // the log never outgrows the threshold or the last snapshot by more than a record
+            assertThat(map.logBytes()).isLessThan(LOG_HEADER_BYTES + 2 * SMALL_SNAPSHOT_LOG_BYTES);
+        }
+        map.close();
+
+        AVLTreeMap<String, Long> tree = new AVLTreeMap<>();
+        DurableMap<String, Long> reopened = open(tree, DurableMap.SyncPolicy.ALWAYS);
+        assertThat((Object) reopened).isEqualTo(expected);
+        assertThat(reopened.replayedRecords()).isBetween(1, 2000 / 2);
+        assertThat(tree.firstKey()).isEqualTo("key0");
+        reopened.close();
+    }
+
+    @Test
+    void writes_whenSnapshotFails_succeedAndRetryAtNextThreshold() throws IOException {
+        DurableMap<String, Long> map = open();
+        // a directory in the temporary snapshot's place makes writing it fail
+        Path blocker = Files.createDirectories(directory.resolve("snapshot.tmp").resolve("blocker"));
+        Map<String, Long> expected = new HashMap<>();
+        long i = 0;
+        while (map.logBytes() <= LOG_HEADER_BYTES + 2 * SMALL_SNAPSHOT_LOG_BYTES) {
+            map.put("key" + i, i);
+            expected.put("key" + i, i);
+            i++;
+        }
+        // the log outgrew the threshold, but was kept since no snapshot made it
+        assertThat(directory.resolve("snapshot.bin")).doesNotExist();
+
+        Files.delete(blocker);
+        Files.delete(blocker.getParent());
+        long retryBy = i + SMALL_SNAPSHOT_LOG_BYTES / RECORD_HEADER_BYTES;
+        while (map.logBytes() > LOG_HEADER_BYTES + SMALL_SNAPSHOT_LOG_BYTES) {
+            assertThat(i).isLessThan(retryBy);
+            map.put("key" + i, i);
+            expected.put("key" + i, i);
+            i++;
+        }
+        assertThat(directory.resolve("snapshot.bin")).exists();
+        map.close();
+
+        DurableMap<String, Long> reopened = open();
+        assertThat((Object) reopened).isEqualTo(expected);
+        reopened.close();
+    }
+
+    @Test
+    void snapshot_emptiesLog() {
+        DurableMap<String, Long> map = open();
+        for (long i = 0; i < 50; i++) {
+            map.put("key" + i, i);
+        }
+        map.snapshot();
+        assertThat(map.logBytes()).isEqualTo(LOG_HEADER_BYTES);
+        map.put("after", -1L);
+        map.close();
+
+        DurableMap<String, Long> reopened = open();
+        assertThat(reopened.replayedRecords()).isEqualTo(1);
+        assertThat((Map<String, Long>) reopened).hasSize(51);
+        assertThat(reopened.get("after")).isEqualTo(-1L);
+        reopened.close();
+    }
+
+    @Test
+    void reopen_afterCrash_recoversEveryWriteThatReturned() {
+        DurableMap<String, Long> crashed = open();
+        Map<String, Long> expected = new HashMap<>();
+        for (long i = 0; i < 300; i++) {
+            crashed.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+        for (long i = 0; i < 300; i += 3) {
+            crashed.remove("key" + i);
+            expected.remove("key" + i);
+        }
+        // never closed, as if the process died here
+
+        DurableMap<String, Long> recovered = open();
+        assertThat((Object) recovered).isEqualTo(expected);
+        recovered.close();
+    }
+
+    @Test
+    void reopen_afterTornRecord_dropsItAndEverythingAfterIt() throws IOException {
+        DurableMap<String, Long> crashed = open();
+        crashed.put("a", 1L);
+        crashed.put("b", 2L);
+        crashed.put("c", 3L);
+        // corrupt the last byte of b's value, as if that part of the file never made it to disk
+        long bEnd = LOG_HEADER_BYTES + 2 * (RECORD_HEADER_BYTES + 1 + Long.BYTES);
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("wal.bin").toFile(), "rw")) {
+            file.seek(bEnd - 1);
+            file.write(42);
+        }
+
+        DurableMap<String, Long> recovered = open();
+        assertThat(recovered.replayedRecords()).isEqualTo(1);
+        assertThat((Object) recovered).isEqualTo(Map.of("a", 1L));
+        // c was cut off with b, so it mustn't come back after new records are written in their place
+        recovered.put("d", 4L);
+        recovered.close();
+
+        DurableMap<String, Long> reopened = open();
+        assertThat((Object) reopened).isEqualTo(Map.of("a", 1L, "d", 4L));
+        reopened.close();
+    }
+
+    @Test
+    void reopen_afterLogCutShort_keepsCompleteRecords() throws IOException {
+        DurableMap<String, Long> crashed = open();
+        crashed.put("a", 1L);
+        crashed.put("b", 2L);
+        long size = Files.size(directory.resolve("wal.bin"));
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("wal.bin").toFile(), "rw")) {
+            file.setLength(size - 3);
+        }
+
+        DurableMap<String, Long> recovered = open();
+        assertThat((Object) recovered).isEqualTo(Map.of("a", 1L));
+        recovered.close();
+    }
+
+    @Test
+    void reopen_afterCrashBetweenSnapshotAndEmptyingLog_skipsOldLog() throws IOException {
+        DurableMap<String, Long> crashed = open();
+        for (long i = 0; i < 20; i++) {
+            crashed.put("key" + i, i);
+        }
+        Path oldLog = directory.resolve("old-wal.bin");
+        Files.copy(directory.resolve("wal.bin"), oldLog);
+        crashed.remove("key0");
+        crashed.snapshot();
+        // as if the crash came after the new snapshot was in place, but before the log was emptied
+        Files.move(oldLog, directory.resolve("wal.bin"), StandardCopyOption.REPLACE_EXISTING);
+
+        DurableMap<String, Long> recovered = open();
+        assertThat(recovered.replayedRecords()).isEqualTo(0);
+        assertThat((Map<String, Long>) recovered).hasSize(19).doesNotContainKey("key0");
+        recovered.put("new", 1L);
+        recovered.close();
+
+        DurableMap<String, Long> reopened = open();
+        assertThat((Map<String, Long>) reopened).hasSize(20).containsKey("new");
+        reopened.close();
+    }
+
+    @Test
+    void reopen_afterCorruptSnapshot_throwsIllegalState() throws IOException {
+        DurableMap<String, Long> map = open();
+        for (long i = 0; i < 20; i++) {
+            map.put("key" + i, i);
+        }
+        map.snapshot();
+        map.close();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("snapshot.bin").toFile(), "rw")) {
+            file.seek(file.length() / 2);
+            int b = file.read();
+            file.seek(file.length() / 2);
+            file.write(b ^ 1);
+        }
+        assertThatThrownBy(this::open).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void clearAndEntrySetValue_areLogged() {
+        // ChainedHashMap doesn't support clear
+        DurableMap<String, Long> map = open(new AVLTreeMap<>(), DurableMap.SyncPolicy.ALWAYS);
+        for (long i = 0; i < 10; i++) {
+            map.put("old" + i, i);
+        }
+        map.clear();
+        for (long i = 0; i < 10; i++) {
+            map.put("key" + i, i);
+        }
+        for (Map.Entry<String, Long> entry : map) {
+            entry.setValue(-entry.getValue());
+        }
+        map.close();
+
+        DurableMap<String, Long> reopened = open(new AVLTreeMap<>(), DurableMap.SyncPolicy.ALWAYS);
+        assertThat((Map<String, Long>) reopened).hasSize(10);
+        for (long i = 0; i < 10; i++) {
+            assertThat(reopened.get("key" + i)).isEqualTo(-i);
+        }
+        reopened.close();
+    }
+
+    @Test
+    void concurrentWriters_allRecovered() throws InterruptedException {
+        DurableMap<String, Long> map = open();
+        runConcurrently(t -> {
+            for (long i = 0; i < 200; i++) {
+                map.put(t + ":" + i, i);
+            }
+        });
+        // never closed: every put returned after an fsync, so all of them must be there
+
+        DurableMap<String, Long> recovered = open();
+        assertThat((Map<String, Long>) recovered).hasSize(THREADS * 200);
+        for (int t = 0; t < THREADS; t++) {
+            assertThat(recovered.get(t + ":199")).isEqualTo(199L);
+        }
+        recovered.close();
+    }
+
+    @Test
+    void open_withNonEmptyMap_throwsIllegalArgument() {
+        ChainedHashMap<String, Long> map = new ChainedHashMap<>();
+        map.put("a", 1L);
+        assertThatThrownBy(() -> open(map, DurableMap.SyncPolicy.ALWAYS))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nullKeysAndValues_throwNullPointer() {
+        DurableMap<String, Long> map = open();
+        assertThatThrownBy(() -> map.put(null, 1L)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.put("a", null)).isInstanceOf(NullPointerException.class);
+        map.close();
+    }
+}
@@ -0,0 +1,129 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Runs all the ChainedHashMap tests again with incremental resizing turned on.
+ */
+public class IncrementalChainedHashMapTests extends ChainedHashMapTests {
+    private static final int CHAINS_MIGRATED_PER_OPERATION = 2;
+
+    @Override
+    protected <K, V> Map<K, V> createMap() {
+        return new ChainedHashMap<>(1, 10, 2, CHAINS_MIGRATED_PER_OPERATION);
+    }
+
+    @Override
+    protected <K, V> Map<K, V> createMap(double resizingLoadFactorThreshold,
+                                         int initialChainCount,
+                                         int chainInitialCapacity) {
+        return new ChainedHashMap<>(resizingLoadFactorThreshold, initialChainCount, chainInitialCapacity,
+            CHAINS_MIGRATED_PER_OPERATION);
+    }
+
+    @Test
+    void put_pastThreshold_migratesOverLaterOperations() {
+        ChainedHashMap<Integer, Integer> map = new ChainedHashMap<>(1, 8, 2, 2);
+        for (int i = 0; i < 9; i++) {
+            map.put(i, i);
+        }
+        assertThat(map.isResizing()).isTrue();
+        assertThat(map.chains).hasSize(16);
+        // every key is still reachable mid-migration
+        for (int i = 0; i < 9; i++) {
+            assertThat(map.get(i)).isEqualTo(i);
+        }
+        assertThat(map.isResizing()).isFalse();
+    }
+
+    @Test
+    void iterator_midMigration_yieldsEachEntryOnce_evenIfReadsMigrateDuringIteration() {
+        ChainedHashMap<Integer, Integer> map = new ChainedHashMap<>(1, 64, 2, 1);
+        for (int i = 0; i < 65; i++) {
+            map.put(i, i);
+        }
+        assertThat(map.isResizing()).isTrue();
+
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Integer> entry = iterator.next();
+            assertThat(seen.add(entry.getKey())).isTrue();
+            assertThat(map.get(entry.getKey())).isEqualTo(entry.getValue());
+        }
+        assertThat(seen).hasSize(65);
+        // the reads kept migrating while the iterator was live
+        assertThat(map.isResizing()).isFalse();
+    }
+
+    @Test
+    void iterator_midMigration_setValueAfterMigration_updatesMap() {
+        ChainedHashMap<Integer, Integer> map = new ChainedHashMap<>(1, 64, 2, 1);
+        for (int i = 0; i < 65; i++) {
+            map.put(i, i);
+        }
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        Map.Entry<Integer, Integer> entry = iterator.next();
+        for (int i = 0; i < 64; i++) {
+            map.containsKey(i);
+        }
+        assertThat(map.isResizing()).isFalse();
+
+        assertThat(entry.setValue(-1)).isEqualTo(entry.getKey());
+        assertThat(map.get(entry.getKey())).isEqualTo(-1);
+    }
+
+    @Test
+    void iterator_abandonedMidMigration_doesNotPauseMigration() {
+        ChainedHashMap<Integer, Integer> map = new ChainedHashMap<>(1, 64, 2, 1);
+        for (int i = 0; i < 65; i++) {
+            map.put(i, i);
+        }
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        iterator.next();
+        for (int i = 0; i < 64; i++) {
+            map.containsKey(i);
+        }
+        assertThat(map.isResizing()).isFalse();
+    }
+
+    @Test
+    void iterator_midMigration_afterPutOfNewKey_throwsConcurrentModificationException() {
+        ChainedHashMap<Integer, Integer> map = new ChainedHashMap<>(1, 64, 2, 1);
+        for (int i = 0; i < 65; i++) {
+            map.put(i, i);
+        }
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        iterator.next();
+        map.put(1000, 1000);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    void randomOperations_matchJavaHashMap() {
+        Map<Integer, Integer> map = createMap(0.75, 4, 2);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else if (op == 1) {
+                assertThat(map.get(key)).isEqualTo(expected.get(key));
+            } else {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        assertThat(map).containsExactlyInAnyOrderEntriesOf(expected);
+    }
+}
@@ -0,0 +1,176 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static maps.ConcurrentTestUtils.THREADS;
+import static maps.ConcurrentTestUtils.assertAtomicOperationsBehaveLikeConcurrentMap;
+import static maps.ConcurrentTestUtils.assertConcurrentMergesCountExactly;
+import static maps.ConcurrentTestUtils.runConcurrently;
+
+public class LockFreeSkipListMapTests extends ReferenceMapTests {
+    @Test
+    void randomOperations_matchJavaTreeMap() {
+        LockFreeSkipListMap<Integer, Integer> map = new LockFreeSkipListMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        assertRandomOperationsMatch(map, expected, 20000, 3000, key -> key, i -> i);
+
+        List<Map.Entry<Integer, Integer>> actual = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : map) {
+            actual.add(entry);
+        }
+        assertThat(actual).containsExactlyElementsOf(expected.entrySet());
+    }
+
+    @Test
+    void navigation_matchesJavaTreeMap() {
+        LockFreeSkipListMap<Integer, Integer> map = new LockFreeSkipListMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 1000; i++) {
+            int key = random.nextInt(4000);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        for (int key = -2; key <= 4002; key++) {
+            assertThat(map.floorKey(key)).isEqualTo(expected.floorKey(key));
+            assertThat(map.lowerKey(key)).isEqualTo(expected.lowerKey(key));
+            assertThat(map.ceilingKey(key)).isEqualTo(expected.ceilingKey(key));
+            assertThat(map.higherKey(key)).isEqualTo(expected.higherKey(key));
+            assertThat(map.floorEntry(key)).isEqualTo(expected.floorEntry(key));
+            assertThat(map.ceilingEntry(key)).isEqualTo(expected.ceilingEntry(key));
+        }
+    }
+
+    @Test
+    void atomicOperations_behaveLikeConcurrentMap() {
+        assertAtomicOperationsBehaveLikeConcurrentMap(new LockFreeSkipListMap<>());
+    }
+
+    @Test
+    void nullKeysAndValues_throwNullPointer() {
+        LockFreeSkipListMap<Integer, Integer> map = new LockFreeSkipListMap<>();
+        assertThatThrownBy(() -> map.put(null, 1)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.put(1, null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.get(null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.floorKey(null)).isInstanceOf(NullPointerException.class);
+        assertThat(map.containsKey(1)).isFalse();
+    }
+
+    @Test
+    void iterator_onEmptyMap_throwsNoSuchElement() {
+        assertEmptyIteratorThrowsNoSuchElement(new LockFreeSkipListMap<Integer, Integer>());
+    }
+
+    @Test
+    void clear_removesEverything() {
+        LockFreeSkipListMap<Integer, Integer> map = new LockFreeSkipListMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.size()).isEqualTo(0);
+        assertThat(map.ceilingKey(0)).isNull();
+    }
+
+    @Test
+    void concurrentPuts_allLandInOrder() throws InterruptedException {
+        LockFreeSkipListMap<Integer, Integer> map = new LockFreeSkipListMap<>();
+        int perThread = 5000;
+        runConcurrently(t -> {
+            // interleave the threads' keys so they all insert into the same stretches of the list
+            for (int i = 0; i < perThread; i++) {
+                int key = i * THREADS + t;
+                map.put(key, key);
+                if (i % 100 == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        assertThat(map.size()).isEqualTo(THREADS * perThread);
+        int expectedKey = 0;
+        for (Map.Entry<Integer, Integer> entry : map) {
+            assertThat(entry.getKey()).isEqualTo(expectedKey);
+            expectedKey++;
+        }
+        assertThat(expectedKey).isEqualTo(THREADS * perThread);
+    }
+
+    @Test
+    void concurrentPutsAndRemoves_leaveConsistentMap() throws InterruptedException {
+        LockFreeSkipListMap<Integer, Integer> map = new LockFreeSkipListMap<>();
+        int keys = 500;
+        runConcurrently(t -> {
+            Random random = new Random(t);
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(keys);
+                if (random.nextBoolean()) {
+                    map.put(key, key);
+                } else {
+                    map.remove(key);
+                }
+                if (i % 100 == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+
+        int count = 0;
+        Integer previous = null;
+        for (Map.Entry<Integer, Integer> entry : map) {
+            assertThat(previous == null || previous < entry.getKey()).isTrue();
+            assertThat(map.get(entry.getKey())).isEqualTo(entry.getKey());
+            previous = entry.getKey();
+            count++;
+        }
+        assertThat(map.size()).isEqualTo(count);
+    }
+
+    @Test
+    void concurrentMerges_countExactly() throws InterruptedException {
+        assertConcurrentMergesCountExactly(new LockFreeSkipListMap<>());
+    }
+
+    @Test
+    void iterator_duringConcurrentWrites_seesEveryUntouchedEntryOnceInOrder() throws InterruptedException {
+        LockFreeSkipListMap<Integer, Integer> map = new LockFreeSkipListMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 2, i);
+        }
+        Thread writer = new Thread(() -> {
+            // only touches odd keys, which fall between the untouched even ones
+            Random random = new Random(373);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(1000) * 2 + 1;
+                if (i % 2 == 0) {
+                    map.put(key, i);
+                } else {
+                    map.remove(key);
+                }
+                if (i % 50 == 49) {
+                    Thread.yield();
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            int expectedEven = 0;
+            for (Map.Entry<Integer, Integer> entry : map) {
+                if (entry.getKey() % 2 == 0) {
+                    assertThat(entry.getKey()).isEqualTo(expectedEven);
+                    expectedEven += 2;
+                }
+            }
+            assertThat(expectedEven).isEqualTo(2000);
+            Thread.yield();
+        }
+        writer.join();
+    }
+}
@@ -0,0 +1,167 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class MmapHashMapTests extends ReferenceMapTests {
+    // small enough that the tests resize the index and fill several segments
+    private static final int SMALL_CAPACITY = 4;
+    private static final int SMALL_SEGMENT_BYTES = 256;
+    private static final int RECORDS_HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 20;
+
+    @TempDir
+    Path directory;
+
+    private MmapHashMap<String, Long> open() {
+        return new MmapHashMap<>(directory, Serializer.strings(), Serializer.longs(), SMALL_CAPACITY,
+            SMALL_SEGMENT_BYTES);
+    }
+
+    @Test
+    void randomPutsAndRemoves_matchJavaHashMap_beforeAndAfterReopening() {
+        MmapHashMap<String, Long> map = open();
+        Map<String, Long> expected = new HashMap<>();
+        assertRandomOperationsMatch(map, expected, 20000, 500, k -> "key" + k, i -> (long) i);
+        map.close();
+
+        MmapHashMap<String, Long> reopened = open();
+        assertThat(reopened.wasRecovered()).isFalse();
+        assertThat((Object) reopened).isEqualTo(expected);
+        for (int k = 0; k < 500; k++) {
+            assertThat(reopened.containsKey("key" + k)).isEqualTo(expected.containsKey("key" + k));
+        }
+        reopened.close();
+    }
+
+    @Test
+    void reopen_afterCrash_recoversEveryFinishedWrite() {
+        MmapHashMap<String, Long> crashed = open();
+        Map<String, Long> expected = new HashMap<>();
+        for (long i = 0; i < 300; i++) {
+            crashed.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+        for (long i = 0; i < 300; i += 3) {
+            crashed.remove("key" + i);
+            expected.remove("key" + i);
+        }
+        // never closed, as if the process died here
+
+        MmapHashMap<String, Long> recovered = open();
+        assertThat(recovered.wasRecovered()).isTrue();
+        assertThat((Object) recovered).isEqualTo(expected);
+        recovered.put("after", -1L);
+        recovered.close();
+
+        expected.put("after", -1L);
+        MmapHashMap<String, Long> reopened = open();
+        assertThat(reopened.wasRecovered()).isFalse();
+        assertThat((Object) reopened).isEqualTo(expected);
+        reopened.close();
+    }
+
+    @Test
+    void reopen_afterTornRecord_dropsItAndEverythingAfterIt() throws IOException {
+        MmapHashMap<String, Long> crashed = open();
+        crashed.put("a", 1L);
+        crashed.put("b", 2L);
+        crashed.put("c", 3L);
+        // corrupt the last byte of b's value, as if its page never made it to disk
+        long bEnd = RECORDS_HEADER_BYTES + 2 * (RECORD_HEADER_BYTES + 1 + Long.BYTES);
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("records.bin").toFile(), "rw")) {
+            file.seek(bEnd - 1);
+            file.write(42);
+        }
+
+        MmapHashMap<String, Long> recovered = open();
+        assertThat(recovered.wasRecovered()).isTrue();
+        assertThat((Object) recovered).isEqualTo(Map.of("a", 1L));
+        // an equally long record in b's place mustn't bring c back on the next recovery
+        recovered.put("d", 4L);
+        assertThat(recovered.recordsEnd()).isEqualTo(bEnd);
+
+        MmapHashMap<String, Long> recoveredAgain = open();
+        assertThat((Object) recoveredAgain).isEqualTo(Map.of("a", 1L, "d", 4L));
+        recoveredAgain.close();
+    }
+
+    @Test
+    void clear_thenReopen_isEmpty() {
+        MmapHashMap<String, Long> map = open();
+        for (long i = 0; i < 100; i++) {
+            map.put("key" + i, i);
+        }
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.get("key1")).isNull();
+        map.put("new", 1L);
+
+        // recovering replays the log, so this also checks that clear erased the old records
+        MmapHashMap<String, Long> recovered = open();
+        assertThat((Object) recovered).isEqualTo(Map.of("new", 1L));
+        recovered.close();
+    }
+
+    @Test
+    void put_recordLargerThanSegment_throwsIllegalArgument() {
+        MmapHashMap<String, Long> map = open();
+        assertThatThrownBy(() -> map.put("x".repeat(SMALL_SEGMENT_BYTES), 1L))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.isEmpty()).isTrue();
+        map.close();
+    }
+
+    @Test
+    void remove_absentKeyLargerThanSegment_returnsNull() {
+        MmapHashMap<String, Long> map = open();
+        map.put("key", 1L);
+        assertThat(map.remove("x".repeat(SMALL_SEGMENT_BYTES))).isNull();
+        assertThat((Object) map).isEqualTo(Map.of("key", 1L));
+        map.close();
+    }
+
+    @Test
+    void entrySetValue_updatesMap() {
+        MmapHashMap<String, Long> map = open();
+        for (long i = 0; i < 10; i++) {
+            map.put("key" + i, i);
+        }
+        for (Map.Entry<String, Long> entry : map) {
+            entry.setValue(-entry.getValue());
+        }
+        for (long i = 0; i < 10; i++) {
+            assertThat(map.get("key" + i)).isEqualTo(-i);
+        }
+        map.close();
+    }
+
+    @Test
+    void iterator_afterPutNewKey_throwsConcurrentModification() {
+        MmapHashMap<String, Long> map = open();
+        map.put("a", 1L);
+        map.put("b", 2L);
+        Iterator<Map.Entry<String, Long>> iterator = map.iterator();
+        iterator.next();
+        map.put("c", 3L);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+        map.close();
+    }
+
+    @Test
+    void nullKeysAndValues_throwNullPointer() {
+        MmapHashMap<String, Long> map = open();
+        assertThatThrownBy(() -> map.put(null, 1L)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.put("a", null)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.get(null)).isInstanceOf(NullPointerException.class);
+        map.close();
+    }
+}
@@ -0,0 +1,81 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class OpenAddressingHashMapTests extends BaseMapTests {
+    @Override
+    protected <K, V> Map<K, V> createMap() {
+        return new OpenAddressingHashMap<>();
+    }
+
+    protected <K, V> Map<K, V> createMap(double resizingLoadFactorThreshold, int initialCapacity) {
+        return new OpenAddressingHashMap<>(resizingLoadFactorThreshold, initialCapacity);
+    }
+
+    @Test
+    void constructor_withInvalidLoadFactor_throwsIllegalArgument() {
+        assertThatThrownBy(() -> createMap(1.0, 16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> createMap(0, 16)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getEach_afterPutManyKeysWithSameHashCode_returnsCorrectValues() {
+        Map<Wrapper<Integer>, Integer> map = createMap(0.9, 2);
+        Map<Wrapper<Integer>, Integer> actual = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new Wrapper<>(i, 3), i);
+            actual.put(new Wrapper<>(i, 3), i);
+        }
+        assertThat(map).containsAllEntriesOf(actual);
+        assertThat(map).hasSize(100);
+    }
+
+    @Test
+    void getEach_afterPutKeysDifferingOnlyInHighBits_returnsCorrectValues() {
+        Map<Wrapper<Integer>, Integer> map = createMap();
+        for (int i = 0; i < 1000; i++) {
+            map.put(new Wrapper<>(i, i << 20), i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertThat(map.get(new Wrapper<>(i, i << 20))).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void randomPutsAndRemoves_withCollidingHashCodes_matchJavaHashMap() {
+        // few distinct hash codes, so removals have long displaced runs to shift back
+        Map<Wrapper<Integer>, Integer> map = createMap(0.9, 2);
+        Map<Wrapper<Integer>, Integer> expected = new HashMap<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 20000; i++) {
+            int k = random.nextInt(500);
+            Wrapper<Integer> key = new Wrapper<>(k, k % 37);
+            if (random.nextBoolean()) {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            } else {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            }
+        }
+        assertThat(map).hasSize(expected.size());
+        assertThat(map).containsAllEntriesOf(expected);
+        for (int k = 0; k < 500; k++) {
+            Wrapper<Integer> key = new Wrapper<>(k, k % 37);
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+        }
+    }
+
+    @Test
+    void iterator_entrySetValue_updatesMap() {
+        Map<String, Integer> map = createMap();
+        map.put("a", 1);
+        map.put("b", 2);
+        for (Map.Entry<String, Integer> entry : ((OpenAddressingHashMap<String, Integer>) map)) {
+            entry.setValue(entry.getValue() * 10);
+        }
+        assertThat(map).containsEntry("a", 10).containsEntry("b", 20);
+    }
+}
@@ -0,0 +1,151 @@
+package maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PersistentAVLTreeMapTests extends ReferenceMapTests {
+    @Test
+    void randomPutsAndRemoves_matchJavaTreeMap() {
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        assertRandomOperationsMatch(map, expected, 20000, 3000, key -> key, i -> i, map::checkInvariants);
+
+        List<Map.Entry<Integer, Integer>> actual = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : map) {
+            actual.add(entry);
+        }
+        assertThat(actual).containsExactlyElementsOf(expected.entrySet());
+    }
+
+    @Test
+    void snapshots_keepTheirVersion() {
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        List<PersistentAVLTreeMap<Integer, Integer>> snapshots = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> expectedSnapshots = new ArrayList<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+            if (i % 250 == 0) {
+                snapshots.add(map.snapshot());
+                expectedSnapshots.add(new TreeMap<>(expected));
+            }
+        }
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            snapshots.get(i).checkInvariants();
+            assertThat((Object) snapshots.get(i)).isEqualTo(expectedSnapshots.get(i));
+        }
+    }
+
+    @Test
+    void snapshot_isIndependentOfOriginal() {
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        PersistentAVLTreeMap<Integer, Integer> snapshot = map.snapshot();
+        snapshot.put(100, 100);
+        snapshot.remove(0);
+        map.put(1, -1);
+
+        assertThat(map.containsKey(100)).isFalse();
+        assertThat(map.get(0)).isEqualTo(0);
+        assertThat(snapshot.get(1)).isEqualTo(1);
+        assertThat(snapshot.size()).isEqualTo(100);
+        map.checkInvariants();
+        snapshot.checkInvariants();
+    }
+
+    @Test
+    void removeAbsentKey_returnsNull() {
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        map.put(1, 1);
+        assertThat(map.remove(2)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void iterator_afterWrites_keepsIteratingOldVersion() {
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.iterator();
+        iterator.next();
+        map.remove(5);
+        map.put(20, 20);
+
+        int count = 1;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertThat(count).isEqualTo(10);
+        assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void iteratorEntries_areImmutable() {
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        map.put(1, 1);
+        Map.Entry<Integer, Integer> entry = map.iterator().next();
+        assertThatThrownBy(() -> entry.setValue(2)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void nullKey_throwsNullPointer() {
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        assertThatThrownBy(() -> map.put(null, 1)).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.get(null)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void readers_duringWrites_alwaysSeeWholeVersions() throws InterruptedException {
+        // the writer slides a window along, so every version holds a contiguous range of keys
+        PersistentAVLTreeMap<Integer, Integer> map = new PersistentAVLTreeMap<>();
+        AtomicBoolean done = new AtomicBoolean(false);
+        List<Throwable> failures = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                PersistentAVLTreeMap<Integer, Integer> snapshot = map.snapshot();
+                Integer expectedKey = null;
+                int count = 0;
+                for (Map.Entry<Integer, Integer> entry : snapshot) {
+                    if (expectedKey != null) {
+                        assertThat(entry.getKey()).isEqualTo(expectedKey);
+                    }
+                    expectedKey = entry.getKey() + 1;
+                    count++;
+                }
+                assertThat(count).isEqualTo(snapshot.size());
+            }
+        });
+        reader.setUncaughtExceptionHandler((ignored, e) -> failures.add(e));
+        reader.start();
+        for (int key = 0; key < 200000; key++) {
+            map.put(key, key);
+            if (key >= 100) {
+                map.remove(key - 100);
+            }
+        }
+        done.set(true);
+        reader.join();
+        assertThat(failures).isEmpty();
+    }
+}
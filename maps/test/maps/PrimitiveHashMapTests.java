@@ -0,0 +1,133 @@
+package maps;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class PrimitiveHashMapTests extends BaseTest {
+    @Test
+    void constructor_withInvalidLoadFactor_throwsIllegalArgument() {
+        assertThatThrownBy(() -> new LongLongMap(1.0, 16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IntIntMap(0.75, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void longLongMap_getMissingKey_returnsAbsentValue() {
+        LongLongMap map = new LongLongMap();
+        map.put(1, 10);
+        assertThat(map.get(2, -1)).isEqualTo(-1);
+        assertThat(map.get(1, -1)).isEqualTo(10);
+    }
+
+    @Test
+    void longLongMap_zeroAndExtremeKeys_areOrdinaryKeys() {
+        // there's no reserved "empty" key, so these must all be storable
+        LongLongMap map = new LongLongMap();
+        long[] keys = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+        for (long key : keys) {
+            assertThat(map.containsKey(key)).isFalse();
+            assertThat(map.put(key, key)).isTrue();
+        }
+        for (long key : keys) {
+            assertThat(map.get(key, 42)).isEqualTo(key);
+        }
+        assertThat(map.size()).isEqualTo(4);
+        assertThat(map.remove(0)).isTrue();
+        assertThat(map.remove(0)).isFalse();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.size()).isEqualTo(3);
+    }
+
+    @Test
+    void intIntMap_put_returnsWhetherKeyWasNew() {
+        IntIntMap map = new IntIntMap();
+        assertThat(map.put(0, 1)).isTrue();
+        assertThat(map.put(0, 2)).isFalse();
+        assertThat(map.get(0, -1)).isEqualTo(2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void longObjectMap_nullValue_isDistinctFromMissingKey() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(5, null);
+        assertThat(map.containsKey(5)).isTrue();
+        assertThat(map.get(5)).isNull();
+        assertThat(map.containsKey(6)).isFalse();
+    }
+
+    @Test
+    void forEach_visitsEachEntryOnce() {
+        IntIntMap map = new IntIntMap(0.5, 2);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31, i);
+        }
+        Map<Integer, Integer> seen = new HashMap<>();
+        map.forEach((key, value) -> assertThat(seen.put(key, value)).isNull());
+        assertThat(seen).hasSize(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(seen.get(i * 31)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void forEach_modifyingMap_throwsConcurrentModification() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1, "a");
+        map.put(2, "b");
+        assertThatThrownBy(() -> map.forEach((key, value) -> map.put(key + 100, value)))
+            .isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    // The asMap views go through the primitive put and remove, so these cover the maps themselves.
+    @Test
+    void longLongMap_randomOperations_matchJavaHashMap() {
+        LongLongMap map = new LongLongMap(0.75, 2);
+        // multiples of a large power of two all share their low bits
+        ReferenceMapTests.assertRandomOperationsMatch(map.asMap(), new HashMap<>(), 20000, 3000,
+            k -> (long) k << 40, i -> (long) i);
+    }
+
+    @Test
+    void longObjectMap_randomOperations_matchJavaHashMap() {
+        LongObjectMap<Integer> map = new LongObjectMap<>(0.9, 2);
+        ReferenceMapTests.assertRandomOperationsMatch(map.asMap(), new HashMap<>(), 20000, 3000,
+            k -> (long) k - 1500, i -> i);
+    }
+
+    @Test
+    void asMap_writesThroughInBothDirections() {
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> view = map.asMap();
+        assertThat(view.put(1, 10)).isNull();
+        assertThat(view.put(1, 11)).isEqualTo(10);
+        map.put(2, 20);
+        assertThat(view.get(2)).isEqualTo(20);
+        assertThat(view.get("2")).isNull();
+
+        for (Map.Entry<Integer, Integer> entry : view.entrySet()) {
+            entry.setValue(entry.getValue() + 1);
+        }
+        assertThat(map.get(1, -1)).isEqualTo(12);
+        assertThat(map.get(2, -1)).isEqualTo(21);
+
+        assertThat(view.remove(1)).isEqualTo(12);
+        assertThat(view.remove(1)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+        view.clear();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    void asMapIterator_afterPut_throwsConcurrentModification() {
+        LongLongMap map = new LongLongMap();
+        map.put(1, 1);
+        Iterator<Map.Entry<Long, Long>> iterator = map.asMap().iterator();
+        map.put(2, 2);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package maps;
+
+import edu.washington.cse373.BaseTest;
+import org.assertj.core.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Tests for maps that are checked against a java.util map: the same seeded random operations are
+ * run on both, and every result has to agree. The checks are static, so that test classes with
+ * another base class can call them too.
+ */
+public abstract class ReferenceMapTests extends BaseTest {
+    private static final int CHECK_INTERVAL = 1000;
+
+    /**
+     * Runs the given number of random puts, removes and gets on both maps, over keys.apply(0)
+     * through keys.apply(keyCount - 1), where the i-th operation puts values.apply(i). Checks
+     * that every call returns the same thing, that the sizes stay equal, and that the maps are
+     * equal at the end.
+     */
+    protected static <K, V> void assertRandomOperationsMatch(Map<K, V> map, Map<K, V> expected, int operations,
+                                                             int keyCount, IntFunction<K> keys, IntFunction<V> values) {
+        assertRandomOperationsMatch(map, expected, operations, keyCount, keys, values, () -> { });
+    }
+
+    /**
+     * Like the other assertRandomOperationsMatch, but also runs checkInvariants every thousand
+     * operations and at the end.
+     */
+    protected static <K, V> void assertRandomOperationsMatch(Map<K, V> map, Map<K, V> expected, int operations,
+                                                             int keyCount, IntFunction<K> keys, IntFunction<V> values,
+                                                             Runnable checkInvariants) {
+        Random random = new Random(373);
+        for (int i = 0; i < operations; i++) {
+            K key = keys.apply(random.nextInt(keyCount));
+            int op = random.nextInt(3);
+            if (op == 0) {
+                Assertions.assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else if (op == 1) {
+                Assertions.assertThat(map.get(key)).isEqualTo(expected.get(key));
+            } else {
+                V value = values.apply(i);
+                Assertions.assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+            Assertions.assertThat(map.size()).isEqualTo(expected.size());
+            if (i % CHECK_INTERVAL == 0) {
+                checkInvariants.run();
+            }
+        }
+        checkInvariants.run();
+        Assertions.assertThat((Object) map).isEqualTo(expected);
+    }
+
+    /**
+     * Puts a few thousand random keys into the given empty sorted map, and checks that iterating
+     * over it yields the same entries, in the same order, as a TreeMap holding them.
+     */
+    protected static void assertIteratesInKeyOrder(AbstractIterableMap<Integer, Integer> map) {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(373);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(10000);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+
+        List<Map.Entry<Integer, Integer>> actual = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : map) {
+            actual.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        Assertions.assertThat(actual).containsExactlyElementsOf(expected.entrySet());
+    }
+
+    /**
+     * Checks that an iterator over the given empty map has no next element, and that next throws.
+     */
+    protected static <K, V> void assertEmptyIteratorThrowsNoSuchElement(AbstractIterableMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> iterator = map.iterator();
+        Assertions.assertThat(iterator.hasNext()).isFalse();
+        Assertions.assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package maps;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class TimingWheelTests extends BaseTest {
+    // the span of a lowest-level bucket, which bounds how late a timer may fire
+    private static final long TICK = 1L << 30;
+
+    @Test
+    void advance_firesEachTimerOnce_noEarlierThanItsDeadline_andWithinATick() {
+        TimingWheel<TimingWheel.Timer> wheel = new TimingWheel<>(0);
+        Random random = new Random(373);
+        List<TimingWheel.Timer> timers = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            TimingWheel.Timer timer = new TimingWheel.Timer();
+            // from seconds to weeks, so timers start out on every level
+            timer.deadline = (long) Math.pow(10, 9 + random.nextDouble() * 6.5);
+            wheel.schedule(timer);
+            timers.add(timer);
+        }
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        long now = 0;
+        long limit = (long) Math.pow(10, 15.5) + TimeUnit.DAYS.toNanos(7);
+        while (now < limit) {
+            now += 1 + (long) (random.nextDouble() * TICK / 2);
+            long time = now;
+            wheel.advance(time, timer -> {
+                assertThat(timer.deadline).isLessThanOrEqualTo(time);
+                assertThat(timer.deadline).isGreaterThan(time - 2 * TICK);
+                fired.add(timer);
+            });
+            if (fired.size() == timers.size()) {
+                break;
+            }
+        }
+        assertThat(fired).containsExactlyInAnyOrderElementsOf(timers);
+    }
+
+    @Test
+    void unschedule_keepsTimerFromFiring() {
+        TimingWheel<TimingWheel.Timer> wheel = new TimingWheel<>(0);
+        TimingWheel.Timer kept = new TimingWheel.Timer();
+        TimingWheel.Timer cancelled = new TimingWheel.Timer();
+        kept.deadline = 5 * TICK;
+        cancelled.deadline = 5 * TICK;
+        wheel.schedule(kept);
+        wheel.schedule(cancelled);
+        wheel.unschedule(cancelled);
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        wheel.advance(10 * TICK, fired::add);
+        assertThat(fired).containsExactly(kept);
+    }
+
+    @Test
+    void schedule_deadlineInThePast_firesOnNextTick() {
+        TimingWheel<TimingWheel.Timer> wheel = new TimingWheel<>(100 * TICK);
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        timer.deadline = 3 * TICK;
+        wheel.schedule(timer);
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        wheel.advance(101 * TICK, fired::add);
+        assertThat(fired).containsExactly(timer);
+    }
+}